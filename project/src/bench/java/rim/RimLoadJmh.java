@@ -0,0 +1,127 @@
+package rim;
+
+import java.io.File;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rim.compress.CompressType;
+
+/**
+ * Rimファイルの保存・ロードのJMHベンチマーク.
+ *
+ * RimBenchと同じ擬似CSVから、圧縮タイプ毎のRimファイルを生成して計測します.
+ *
+ * <pre>
+ * ant bench -Dbench.args="RimLoadJmh -p rows=100000"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class RimLoadJmh {
+
+	/**
+	 * 圧縮タイプ毎のRimファイル.
+	 */
+	@State(Scope.Benchmark)
+	public static class TypeState {
+		/** 生成するCSVの行数. **/
+		@Param({"100000"})
+		public int rows;
+
+		/** インデックス列の値の種類数. **/
+		@Param({"1000"})
+		public int cardinality;
+
+		/** 圧縮タイプ. **/
+		@Param({"None", "Default", "LZ4", "Mapped"})
+		public String type;
+
+		// 擬似CSV.
+		String csvFile;
+		// Rimファイル.
+		String rimFile;
+		// 圧縮タイプ.
+		CompressType compressType;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			final String dir = System.getProperty("java.io.tmpdir");
+			csvFile = new File(dir, "rimBench_" + rows + "_" +
+				cardinality + "_1.csv").getPath();
+			rimFile = new File(dir, "rimJmh_" + rows + "_" +
+				cardinality + "_1_" + type + ".rim").getPath();
+			compressType = CompressType.valueOf(type);
+			RimBench.createCsv(csvFile, rows, cardinality, 1);
+			RimBench.save(csvFile, rimFile, compressType, false);
+		}
+	}
+
+	/**
+	 * mmap形式のRimファイル.
+	 */
+	@State(Scope.Benchmark)
+	public static class MappedState {
+		/** 生成するCSVの行数. **/
+		@Param({"100000"})
+		public int rows;
+
+		/** インデックス列の値の種類数. **/
+		@Param({"1000"})
+		public int cardinality;
+
+		// Rimファイル.
+		String rimFile;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			final String dir = System.getProperty("java.io.tmpdir");
+			final String csvFile = new File(dir, "rimBench_" + rows + "_" +
+				cardinality + "_1.csv").getPath();
+			rimFile = new File(dir, "rimJmh_" + rows + "_" +
+				cardinality + "_1_mmap.rim").getPath();
+			RimBench.createCsv(csvFile, rows, cardinality, 1);
+			RimBench.save(csvFile, rimFile, CompressType.Mapped, false);
+		}
+	}
+
+	@Benchmark
+	public long save(TypeState s) throws Exception {
+		return RimBench.save(s.csvFile, s.rimFile, s.compressType, false);
+	}
+
+	@Benchmark
+	public long saveParallel(TypeState s) throws Exception {
+		return RimBench.save(s.csvFile, s.rimFile, s.compressType, true);
+	}
+
+	@Benchmark
+	public Rim load(TypeState s) throws Exception {
+		return LoadRim.load(s.rimFile);
+	}
+
+	@Benchmark
+	public Rim loadParallel(TypeState s) throws Exception {
+		return LoadRim.load(s.rimFile, ForkJoinPool.commonPool());
+	}
+
+	@Benchmark
+	public Rim mmap(MappedState s) throws Exception {
+		return LoadRim.mmap(s.rimFile);
+	}
+}
@@ -0,0 +1,149 @@
+package rim;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rim.compress.CompressType;
+import rim.index.GeneralIndex;
+import rim.index.GeoIndex;
+import rim.index.NgramIndex;
+
+/**
+ * Rimの検索のJMHベンチマーク.
+ *
+ * RimBenchと同じ擬似CSVからRimファイルを生成して、インデックス検索・
+ * Body検索を計測します. 検索結果は件数を返却して、計測対象の処理が
+ * 最適化で除去されないようにします.
+ *
+ * <pre>
+ * ant bench -Dbench.args="RimSearchJmh.geo -p open=mmap"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class RimSearchJmh {
+	/** 生成するCSVの行数. **/
+	@Param({"100000"})
+	public int rows;
+
+	/** インデックス列の値の種類数. **/
+	@Param({"1000"})
+	public int cardinality;
+
+	/** Rimファイルの読み込み方法(load / mmap). **/
+	@Param({"load", "mmap"})
+	public String open;
+
+	private RimBody body;
+	private GeneralIndex idIndex;
+	private GeneralIndex categoryIndex;
+	private GeoIndex geoIndex;
+	private NgramIndex bigramIndex;
+	private int category;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		final String dir = System.getProperty("java.io.tmpdir");
+		final String csvFile = new File(dir, "rimBench_" + rows + "_" +
+			cardinality + "_1.csv").getPath();
+		final String rimFile = new File(dir, "rimJmh_" + rows + "_" +
+			cardinality + "_1_search.rim").getPath();
+		RimBench.createCsv(csvFile, rows, cardinality, 1);
+		RimBench.save(csvFile, rimFile, CompressType.Mapped, false);
+		final Rim rim = "mmap".equals(open) ?
+			LoadRim.mmap(rimFile) : LoadRim.load(rimFile);
+		body = rim.getBody();
+		idIndex = rim.getIndex("id");
+		categoryIndex = rim.getIndex("category");
+		geoIndex = rim.getGeoIndex("lat", "lon");
+		bigramIndex = rim.getNgramIndex("bigram");
+		category = cardinality / 2;
+	}
+
+	// 検索結果の件数を取得.
+	private static final long count(RimResult result) {
+		long ret = 0L;
+		while(result.nextRowId() != -1) {
+			ret ++;
+		}
+		return ret;
+	}
+
+	@Benchmark
+	public long generalEq() {
+		return count(categoryIndex.eq(true, false, category));
+	}
+
+	@Benchmark
+	public long generalBetween() {
+		return count(idIndex.between(true, false, rows / 4, rows / 2));
+	}
+
+	@Benchmark
+	public long generalIn() {
+		return count(categoryIndex.in(true, false,
+			1, category / 2, category, category + 1, cardinality - 1));
+	}
+
+	@Benchmark
+	public long geoRadius() {
+		return count(geoIndex.searchRadius(
+			RimBench.CENTER_LAT, RimBench.CENTER_LON, 1000));
+	}
+
+	@Benchmark
+	public long geoRadiusSort() {
+		return count(geoIndex.searchRadius(true,
+			RimBench.CENTER_LAT, RimBench.CENTER_LON, 1000));
+	}
+
+	@Benchmark
+	public long geoNearest() {
+		return count(geoIndex.nearest(
+			RimBench.CENTER_LAT, RimBench.CENTER_LON, 10));
+	}
+
+	@Benchmark
+	public long geoBox() {
+		return count(geoIndex.searchBox(
+			RimBench.CENTER_LAT - 0.01d, RimBench.CENTER_LON - 0.01d,
+			RimBench.CENTER_LAT + 0.01d, RimBench.CENTER_LON + 0.01d));
+	}
+
+	@Benchmark
+	public long ngramSearch() {
+		return count(bigramIndex.search(true, "ange"));
+	}
+
+	@Benchmark
+	public long bodyEq() {
+		return count(body.eq(true, false, "category", category));
+	}
+
+	@Benchmark
+	public long bodyBetween() {
+		return count(body.between(true, false, "id", rows / 4, rows / 2));
+	}
+
+	@Benchmark
+	public long bodyLike() {
+		return count(body.like(true, false, "name", "%ang%"));
+	}
+}
@@ -4,6 +4,20 @@ import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.zip.GZIPInputStream;
 
 import rim.compress.CompressBuffer;
@@ -11,14 +25,20 @@ import rim.compress.CompressType;
 import rim.compress.Lz4Compress;
 import rim.compress.ZstdCompress;
 import rim.core.BinaryIO;
+import rim.core.ColumnData;
 import rim.core.ColumnType;
+import rim.core.Flags;
+import rim.core.MappedColumnData;
 import rim.core.RbInputStream;
 import rim.core.RbbOutputStream;
+import rim.core.ZoneMap;
 import rim.exception.RimException;
+import rim.geo.GeoCodeType;
 import rim.index.GeneralIndex;
 import rim.index.GeoIndex;
 import rim.index.NgramIndex;
 import rim.util.FileUtil;
+import rim.util.ObjectList;
 import rim.util.seabass.SeabassCompress;
 import rim.util.seabass.SeabassCompressBuffer;
 
@@ -32,6 +52,8 @@ public class LoadRim {
 	private static final int GENERAL_INDEX = 0;
 	private static final int GEO_INDEX = 1;
 	private static final int NGRAM_INDEX = 2;
+	// 行番号群が差分のビットパック形式のIndex.
+	private static final int PACKED_GENERAL_INDEX = 3;
 	
 	// 利用頻度の高いパラメータを１つにまとめた内容.
 	private static final class RimParams {
@@ -45,6 +67,8 @@ public class LoadRim {
 		int byte1_4Len;
 		// データ塊を一時受け取るバッファ.
 		byte[] chunkedBuffer;
+		// 圧縮タイプ.
+		CompressType compressType;
 	}
 	
 	/**
@@ -54,11 +78,30 @@ public class LoadRim {
 	 * @exception IOException I/O例外.
 	 */
 	public static final Rim load(String rimFileName)
+		throws IOException {
+		return load(rimFileName, null);
+	}
+	
+	/**
+	 * Rimファイルを並列でロード.
+	 * 
+	 * ファイルの読み込みは１スレッドで塊単位に区切るだけ行い、
+	 * 列やインデックス毎の塊の解凍・デコードを指定Executorで
+	 * 並列実行します.
+	 * 
+	 * @param rimFileName ロードするRimファイル名を設定します.
+	 * @param executor 解凍・デコードを実行するExecutorを設定します.
+	 *                 (ForkJoinPool.commonPool() など)
+	 *                 null の場合は呼び出しスレッドで順番に処理します.
+	 * @return Rin ロードされたRimオブジェクトが返却されます.
+	 * @exception IOException I/O例外.
+	 */
+	public static final Rim load(String rimFileName, Executor executor)
 		throws IOException {
 		InputStream in = null;
 		try {
 			in = new BufferedInputStream(new FileInputStream(rimFileName));
-			return load(in);
+			return load(in, executor);
 		} finally {
 			if(in != null) {
 				try {
@@ -75,6 +118,25 @@ public class LoadRim {
 	 * @exception IOException I/O例外.
 	 */
 	public static final Rim load(InputStream in)
+		throws IOException {
+		return load(in, null);
+	}
+	
+	/**
+	 * Rimファイルを並列でロード.
+	 * 
+	 * ファイルの読み込みは１スレッドで塊単位に区切るだけ行い、
+	 * 列やインデックス毎の塊の解凍・デコードを指定Executorで
+	 * 並列実行します.
+	 * 
+	 * @param in ロードするInputStreamを設定します.
+	 * @param executor 解凍・デコードを実行するExecutorを設定します.
+	 *                 (ForkJoinPool.commonPool() など)
+	 *                 null の場合は呼び出しスレッドで順番に処理します.
+	 * @return Rin ロードされたRimオブジェクトが返却されます.
+	 * @exception IOException I/O例外.
+	 */
+	public static final Rim load(InputStream in, Executor executor)
 		throws IOException {
 		try {
 			// よく使うパラメータをまとめたオブジェクトを作成.
@@ -92,38 +154,44 @@ public class LoadRim {
 			final CompressType compressType = CompressType.get(
 				BinaryIO.readInt1(in, params.tmp));
 			
-			// 圧縮タイプが「デフォルト圧縮」の場合.
-			if(CompressType.Default == compressType) {
+			// mmap形式の場合.
+			if(CompressType.Mapped == compressType) {
 				
-				// 属性にSeabassCompのバッファを生成して設定.
-				params.attribute = new SeabassCompressBuffer();
-			// 圧縮タイプが「GZIP圧縮」の場合.
-			} else if(CompressType.Gzip == compressType) {
+				// ヘッダ情報を取得.
+				final byte[] header = readMappedHeader(in, params);
 				
-				// 属性にRbbOutputStreamを設定.
-				params.attribute = new RbbOutputStream();
-			// 圧縮タイプが「LZ4圧縮」の場合.
-			} else if(CompressType.LZ4 == compressType) {
-				
-				// LZ4が利用可能かチェック.
-				if(!Lz4Compress.getInstance().isSuccessLibrary()) {
-					throw new RimException("LZ4 is not available.");
-				}
-				
-				// 属性にCompressBufferのバッファを生成して設定.
-				params.attribute = new CompressBuffer();
-			// 圧縮タイプが「Zstd圧縮」の場合.
-			} else if(CompressType.Zstd == compressType) {
-				
-				// Zstdが利用可能かチェック.
-				if(!ZstdCompress.getInstance().isSuccessLibrary()) {
-					throw new RimException("Zstd is not available.");
+				// 残りの情報を全てヒープに読み込んでmmap形式として処理.
+				final RbbOutputStream rbb = new RbbOutputStream();
+				int len;
+				final byte[] buf = new byte[8192];
+				while((len = in.read(buf)) != -1) {
+					rbb.write(buf, 0, len);
 				}
+				final long base = RimConstants.SIMBOL_BINARY.length + 1 + 4 +
+					header.length;
+				final Rim ret = readMapped(new HeapSource(
+					ByteBuffer.wrap(rbb.getRawBuffer(), 0, rbb.getLength()), base),
+					params, header);
 				
-				// 属性にCompressBufferのバッファを生成して設定.
-				params.attribute = new CompressBuffer();
+				// クローズ.
+				in.close(); in = null;
+				return ret;
 			}
 			
+			// LZ4が利用可能かチェック.
+			if(CompressType.LZ4 == compressType &&
+				!Lz4Compress.getInstance().isSuccessLibrary()) {
+				throw new RimException("LZ4 is not available.");
+			// Zstdが利用可能かチェック.
+			} else if(CompressType.Zstd == compressType &&
+				!ZstdCompress.getInstance().isSuccessLibrary()) {
+				throw new RimException("Zstd is not available.");
+			}
+			
+			// 解凍用の属性を設定.
+			params.compressType = compressType;
+			params.attribute = createAttribute(compressType);
+			
 			// ヘッダ情報を取得.
 			Object[] headers = readHeader(in, params);
 			int columnLength = (Integer)headers[0];
@@ -155,19 +223,25 @@ public class LoadRim {
 				ngramIndexLength);
 			columns = null;
 			
+			// 塊の解凍・デコード処理を生成.
+			final ChunkDecoder decoder = new ChunkDecoder(executor);
+			
 			// Body情報を取得.
-			readBody(ret, body, in, params, columnTypes, compressType,
+			readBody(ret, body, in, params, decoder, columnTypes,
 				columnLength, rowAll);
 			columnTypes = null;
 			
 			// 登録インデックスを取得.
-			readIndex(ret, in, params, compressType, indexLength);
+			readIndex(ret, in, params, decoder, indexLength);
 			
 			// 登録Geoインデックスを取得.
-			readGeoIndex(ret, in, params, compressType, geoIndexLength);
+			readGeoIndex(ret, in, params, decoder, geoIndexLength);
 			
 			// 登録Ngramインデックスを取得.
-			readNGramIndex(ret, in, params, compressType, ngramIndexLength);
+			readNGramIndex(ret, in, params, decoder, ngramIndexLength);
+			
+			// 全ての解凍・デコード処理の完了を待つ.
+			decoder.await();
 			
 			// fix.
 			ret.fix();
@@ -184,6 +258,316 @@ public class LoadRim {
 		}
 	}
 	
+	/**
+	 * mmap形式(CompressType.Mapped)のRimファイルをロード.
+	 * @param rimFileName ロードするRimファイル名を設定します.
+	 * @return Rim ロードされたRimオブジェクトが返却されます.
+	 * @exception IOException I/O例外.
+	 */
+	public static final Rim mmap(String rimFileName)
+		throws IOException {
+		return mmap(Paths.get(rimFileName));
+	}
+	
+	/**
+	 * mmap形式(CompressType.Mapped)のRimファイルをロード.
+	 *
+	 * 列データやインデックスはヒープにコピーせずに
+	 * mmapされたファイル領域を直接参照するので、
+	 * 巨大なファイルでもロードはほぼ一瞬で完了し、
+	 * ページキャッシュは複数のJVMで共有されます.
+	 *
+	 * mmap形式以外のRimファイルが指定された場合は
+	 * 通常のロードが行われます.
+	 *
+	 * @param path ロードするRimファイルのパスを設定します.
+	 * @return Rim ロードされたRimオブジェクトが返却されます.
+	 * @exception IOException I/O例外.
+	 */
+	public static final Rim mmap(Path path)
+		throws IOException {
+		final FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			final RimParams params = new RimParams();
+			params.tmp = BinaryIO.createTmp();
+			params.strBuf = BinaryIO.createStringBuffer(true);
+			
+			// シンボルと圧縮タイプを取得.
+			final InputStream in = Channels.newInputStream(ch);
+			checkSimbol(in, params.tmp);
+			final CompressType compressType = CompressType.get(
+				BinaryIO.readInt1(in, params.tmp));
+			
+			// mmap形式でない場合は通常ロード.
+			if(CompressType.Mapped != compressType) {
+				return load(path.toString());
+			}
+			
+			// ヘッダ情報を取得.
+			final byte[] header = readMappedHeader(in, params);
+			
+			// mmapで読み込む.
+			// (mmapされた領域はFileChannelをクローズしても有効).
+			return readMapped(new FileSource(ch,
+				RimConstants.SIMBOL_BINARY.length + 1 + 4 + header.length),
+				params, header);
+		} finally {
+			try {
+				ch.close();
+			} catch(Exception e) {}
+		}
+	}
+	
+	// mmap形式のヘッダ情報を取得.
+	private static final byte[] readMappedHeader(InputStream in, RimParams params)
+		throws IOException {
+		// ヘッダ長を取得(4byte).
+		final int len = BinaryIO.readInt4(in, params.tmp);
+		final byte[] ret = new byte[len];
+		BinaryIO.readBinary(ret, in, len);
+		return ret;
+	}
+	
+	// mmap形式の情報を読み込んでRimを生成.
+	private static final Rim readMapped(MappedSource src, RimParams params,
+		byte[] header) throws IOException {
+		int i;
+		ColumnData column;
+		IntBuffer nullRows;
+		
+		// ヘッダ情報を取得.
+		final InputStream in = new RbInputStream(header, 0, header.length);
+		Object[] headers = readHeader(in, params);
+		final int columnLength = (Integer)headers[0];
+		final String[] columns = (String[])headers[1];
+		final ColumnType[] columnTypes = (ColumnType[])headers[2];
+		headers = null;
+		final int rowAll = BinaryIO.readSavingInt(in, params.tmp);
+		final int indexLength = BinaryIO.readSavingInt(in, params.tmp);
+		final int geoIndexLength = BinaryIO.readSavingInt(in, params.tmp);
+		final int ngramIndexLength = BinaryIO.readSavingInt(in, params.tmp);
+		
+		// 返却するRimオブジェクトを生成.
+		final RimInfo info = new RimInfo(rowAll, CompressType.Mapped);
+		final RimBody body = new RimBody(columns, columnTypes, rowAll);
+		final Rim ret = new Rim(info, body, indexLength, geoIndexLength,
+			ngramIndexLength);
+		
+		// body情報を取得.
+		src.pad();
+		for(i = 0; i < columnLength; i ++) {
+			nullRows = src.nextArray().asIntBuffer();
+			if(columnTypes[i] == ColumnType.String) {
+				final IntBuffer offsets = src.nextArray().asIntBuffer();
+				column = MappedColumnData.createString(
+					src.nextArray(), offsets, nullRows);
+			} else {
+				column = MappedColumnData.create(
+					columnTypes[i], src.nextArray(), nullRows);
+			}
+			body.setColumns(i, column);
+		}
+		
+		// 登録インデックスを取得.
+		IntBuffer head;
+		for(i = 0; i < indexLength; i ++) {
+			head = src.next(16L).asIntBuffer();
+			final GeneralIndex index = ret.registerIndex(head.get(0), head.get(3));
+			final ColumnData keys = readMappedKeys(src, index.getColumnType());
+			index.fix(keys, src.nextArray().asIntBuffer(),
+				src.nextArray().asIntBuffer());
+		}
+		
+		// 登録Geoインデックスを取得.
+		for(i = 0; i < geoIndexLength; i ++) {
+			head = src.next(16L).asIntBuffer();
+			// 緯度列番号の上位8bitはキー形式ID.
+			final GeoIndex index = ret.registerGeoIndex(
+				head.get(0) & 0x00ffffff, head.get(1),
+				GeoCodeType.get(head.get(0) >>> 24), head.get(3));
+			final ColumnData keys = readMappedKeys(src, index.getColumnType());
+			index.fix(keys, src.nextArray().asIntBuffer(),
+				src.nextArray().asIntBuffer());
+		}
+		
+		// 登録Ngramインデックスを取得.
+		for(i = 0; i < ngramIndexLength; i ++) {
+			head = src.next(16L).asIntBuffer();
+			final NgramIndex index = ret.registerNgramIndex(
+				head.get(0), head.get(1), head.get(3));
+			final LongBuffer keys = src.nextArray().asLongBuffer();
+			final IntBuffer rowOffsets = src.nextArray().asIntBuffer();
+			final IntBuffer rowIds = src.nextArray().asIntBuffer();
+			index.fix(keys, rowOffsets, rowIds, src.nextArray().asIntBuffer());
+		}
+		
+		// ゾーンマップが存在する場合は取得.
+		if(src.position < src.length()) {
+			for(i = 0; i < columnLength; i ++) {
+				body.setZoneMap(i, readMappedZoneMap(src, rowAll));
+			}
+		}
+		
+		// fix.
+		ret.fix();
+		return ret;
+	}
+	
+	// mmap形式のインデックスキー群を取得.
+	private static final ColumnData readMappedKeys(MappedSource src,
+		ColumnType type) throws IOException {
+		final IntBuffer noNulls = IntBuffer.allocate(0);
+		if(type == ColumnType.String) {
+			final IntBuffer offsets = src.nextArray().asIntBuffer();
+			return MappedColumnData.createString(
+				src.nextArray(), offsets, noNulls);
+		}
+		return MappedColumnData.create(type, src.nextArray(), noNulls);
+	}
+	
+	// mmap形式の1つの列のゾーンマップを取得.
+	// ゾーンマップはヒープにコピーして管理します.
+	private static final ZoneMap readMappedZoneMap(MappedSource src, int len)
+		throws IOException {
+		final int blockShift = src.nextArray().asIntBuffer().get(0);
+		final LongBuffer mins = src.nextArray().asLongBuffer();
+		final LongBuffer maxs = src.nextArray().asLongBuffer();
+		final IntBuffer nullCounts = src.nextArray().asIntBuffer();
+		final int blockLength = mins.limit();
+		// ゾーンマップが存在しない列の場合.
+		if(blockLength == 0) {
+			return null;
+		}
+		final long[] mins2 = new long[blockLength];
+		final long[] maxs2 = new long[blockLength];
+		final int[] nullCounts2 = new int[blockLength];
+		mins.get(mins2);
+		maxs.get(maxs2);
+		nullCounts.get(nullCounts2);
+		return new ZoneMap(blockShift, len, mins2, maxs2, nullCounts2);
+	}
+	
+	/**
+	 * mmap形式の読み込み元.
+	 * 読み込み位置はファイルの先頭からの位置で管理します.
+	 */
+	private static abstract class MappedSource {
+		// 現在の読み込み位置.
+		protected long position;
+		
+		/**
+		 * 指定位置から8byteのlong値(リトルエンディアン)を取得.
+		 * @param pos ファイル位置を設定します.
+		 * @return long 値が返却されます.
+		 * @exception IOException I/O例外.
+		 */
+		protected abstract long readLong(long pos) throws IOException;
+		
+		/**
+		 * 指定範囲のバッファを取得.
+		 * @param pos ファイル位置を設定します.
+		 * @param len 長さを設定します.
+		 * @return ByteBuffer バッファが返却されます.
+		 * @exception IOException I/O例外.
+		 */
+		protected abstract ByteBuffer map(long pos, long len) throws IOException;
+		
+		/**
+		 * 読み込み元の終端位置を取得.
+		 * @return long ファイル位置が返却されます.
+		 * @exception IOException I/O例外.
+		 */
+		protected abstract long length() throws IOException;
+		
+		// 8バイト境界に移動.
+		public final void pad() {
+			position = (position + 7L) & ~7L;
+		}
+		
+		// 指定長のバッファを取得して読み込み位置を移動.
+		public final ByteBuffer next(long len) throws IOException {
+			final ByteBuffer ret = map(position, len)
+				.order(ByteOrder.LITTLE_ENDIAN);
+			position += len;
+			return ret;
+		}
+		
+		// 1つの配列を取得して読み込み位置を移動.
+		public final ByteBuffer nextArray() throws IOException {
+			final long len = readLong(position);
+			if(len < 0L || len > Integer.MAX_VALUE) {
+				throw new RimException("Illegal array length: " + len);
+			}
+			position += 8L;
+			final ByteBuffer ret = next(len);
+			pad();
+			return ret;
+		}
+	}
+	
+	// FileChannelをmmapする読み込み元.
+	private static final class FileSource extends MappedSource {
+		private final FileChannel ch;
+		private final ByteBuffer longBuf = ByteBuffer.allocate(8)
+			.order(ByteOrder.LITTLE_ENDIAN);
+		
+		FileSource(FileChannel ch, long position) {
+			this.ch = ch;
+			this.position = position;
+		}
+		
+		@Override
+		protected long readLong(long pos) throws IOException {
+			longBuf.clear();
+			while(longBuf.hasRemaining()) {
+				if(ch.read(longBuf, pos + longBuf.position()) == -1) {
+					throw new RimException("Unexpected end of file.");
+				}
+			}
+			return longBuf.getLong(0);
+		}
+		
+		@Override
+		protected ByteBuffer map(long pos, long len) throws IOException {
+			return ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+		}
+		
+		@Override
+		protected long length() throws IOException {
+			return ch.size();
+		}
+	}
+	
+	// ヒープに読み込まれた情報を利用する読み込み元.
+	private static final class HeapSource extends MappedSource {
+		private final ByteBuffer buf;
+		private final long base;
+		
+		HeapSource(ByteBuffer buf, long base) {
+			this.buf = buf.order(ByteOrder.LITTLE_ENDIAN);
+			this.base = base;
+			this.position = base;
+		}
+		
+		@Override
+		protected long readLong(long pos) throws IOException {
+			return buf.getLong((int)(pos - base));
+		}
+		
+		@Override
+		protected ByteBuffer map(long pos, long len) throws IOException {
+			final ByteBuffer ret = buf.duplicate();
+			ret.position((int)(pos - base));
+			ret.limit((int)(pos - base + len));
+			return ret.slice();
+		}
+		
+		@Override
+		protected long length() throws IOException {
+			return base + buf.limit();
+		}
+	}
+	
 	// ヘッダ情報を取得.
 	private static final Object[] readHeader(InputStream in, RimParams params)
 		throws IOException {
@@ -213,63 +597,244 @@ public class LoadRim {
 	
 	// bodyを取得.
 	private static final void readBody(Rim out, RimBody body, InputStream in,
-		RimParams params, ColumnType[] columnTypes, CompressType compressType,
+		RimParams params, ChunkDecoder decoder, ColumnType[] columnTypes,
 		int columnLength, int rowAll) throws IOException {
-		int i, len;
-		byte[] data;
-		Object[] columns;
-		RbInputStream rbIn;
-		final int[] dataLen = new int[1];
-		for(i = 0; i < columnLength; i ++) {
-			
-			// 圧縮フラグを取得.
-			boolean compFlag = BinaryIO.readBoolean(in, params.tmp);
-			
-			// データ塊長を取得.
-			len = BinaryIO.readSavingInt(in, params.tmp);
+		for(int i = 0; i < columnLength; i ++) {
+			// 1つの列の塊を読み込んで解凍・デコード.
+			decoder.read(in, params, new BodyTask(body, i, columnTypes[i], rowAll));
+		}
+	}
+	
+	// 1つの列の全行情報を解凍・デコードする処理.
+	private static final class BodyTask extends DecodeTask {
+		private final RimBody body;
+		private final int columnNo;
+		private final ColumnType columnType;
+		private final int rowAll;
+		
+		BodyTask(RimBody body, int columnNo, ColumnType columnType, int rowAll) {
+			this.body = body;
+			this.columnNo = columnNo;
+			this.columnType = columnType;
+			this.rowAll = rowAll;
+		}
+		
+		@Override
+		protected void decode(RimParams params, InputStream in)
+			throws IOException {
+			// 列の全行情報を取得.
+			final ColumnData column = getValues(in, params, columnType, rowAll);
+			
+			// 列データの後にゾーンマップが存在する場合は取得.
+			// 辞書化されていない文字列の列はゾーンマップは出力されない.
+			ZoneMap zoneMap = null;
+			if(!(column instanceof ColumnData.StringColumn) &&
+				in.available() > 0) {
+				zoneMap = readZoneMap(in, params, rowAll);
+			}
 			
-			// 塊受付バッファサイズが小さい場合.
-			if(params.chunkedBuffer.length < len) {
-				// lenに合わせて再生成.
-				params.chunkedBuffer = new byte[len];
+			// 続けてNull行番号群が存在する場合はセット.
+			if(in.available() > 0) {
+				column.setNulls(readNullRows(in, params, rowAll));
 			}
 			
-			// 塊データを取得.
-			BinaryIO.readBinary(params.chunkedBuffer, in, len);
+			// bodyに列の全行情報をセット.
+			body.setColumns(columnNo, column);
+			if(zoneMap != null) {
+				body.setZoneMap(columnNo, zoneMap);
+			}
+		}
+	}
+	
+	// 1つのインデックスを解凍・デコードする処理.
+	private static final class IndexTask extends DecodeTask {
+		private final Object index;
+		private final int indexType;
+		private final int planIndexSize;
+		
+		IndexTask(Object index, int indexType, int planIndexSize) {
+			this.index = index;
+			this.indexType = indexType;
+			this.planIndexSize = planIndexSize;
+		}
+		
+		@Override
+		protected void decode(RimParams params, InputStream in)
+			throws IOException {
+			readOneIndex(in, params, index, indexType, planIndexSize);
+		}
+	}
+	
+	// 1つの塊を解凍・デコードする処理.
+	private static abstract class DecodeTask implements Runnable {
+		// 処理用パラメータ.
+		RimParams params;
+		// 圧縮フラグ.
+		boolean compFlag;
+		// 塊データ長.
+		int len;
+		
+		/**
+		 * 解凍された塊をデコード.
+		 * @param params 処理用パラメータが設定されます.
+		 * @param in 解凍された塊が設定されます.
+		 * @exception IOException I/O例外.
+		 */
+		protected abstract void decode(RimParams params, InputStream in)
+			throws IOException;
+		
+		// 塊を解凍してデコード.
+		public final void execute() throws IOException {
+			final int[] dataLen = new int[1];
 			
 			// 圧縮されている場合、塊を解凍して取得.
-			data = readDecompress(dataLen, compressType, params, compFlag, len);
+			final byte[] data = readDecompress(
+				dataLen, params.compressType, params, compFlag, len);
 			
-			// 塊情報をRbInputStreamに置き換える.
-			rbIn = new RbInputStream(data, 0, dataLen[0]);
+			// 塊情報をRbInputStreamに置き換えてデコード.
+			decode(params, new RbInputStream(data, 0, dataLen[0]));
+			params = null;
+		}
+		
+		@Override
+		public final void run() {
+			try {
+				execute();
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	/**
+	 * 塊の解凍・デコード処理.
+	 * 
+	 * Executorが設定されている場合は、塊毎に専用のバッファを
+	 * 持ったパラメータを生成して並列で処理します.
+	 * Executorが設定されていない場合は、読み込み毎に
+	 * 呼び出しスレッドで処理します.
+	 */
+	private static final class ChunkDecoder {
+		// 並列処理用のExecutor.
+		private final Executor executor;
+		// 並列処理中の処理群.
+		private final ObjectList<CompletableFuture<Void>> tasks =
+			new ObjectList<CompletableFuture<Void>>();
+		
+		ChunkDecoder(Executor executor) {
+			this.executor = executor;
+		}
+		
+		// 1つの塊を読み込んで解凍・デコード処理を実行.
+		public void read(InputStream in, RimParams params, DecodeTask task)
+			throws IOException {
 			
-			// １つの列の全行情報を作成.
-			columns = new Object[rowAll];
+			// 圧縮フラグを取得.
+			task.compFlag = BinaryIO.readBoolean(in, params.tmp);
 			
-			// 1つの列の全行情報を取得.
-			getValues(columns, rbIn, params, columnTypes[i]);
+			// データ塊長を取得.
+			final int len = BinaryIO.readSavingInt(in, params.tmp);
+			task.len = len;
+			
+			// 呼び出しスレッドで処理する場合.
+			if(executor == null) {
+				// 塊受付バッファサイズが小さい場合.
+				if(params.chunkedBuffer.length < len) {
+					// lenに合わせて再生成.
+					params.chunkedBuffer = new byte[len];
+				}
+				
+				// 塊データを取得して処理.
+				BinaryIO.readBinary(params.chunkedBuffer, in, len);
+				task.params = params;
+				task.execute();
+				return;
+			}
 			
-			// bodyに列の全行情報をセット.
-			body.setColumns(i, columns);
+			// 並列処理用のパラメータを生成.
+			final RimParams p = new RimParams();
+			p.tmp = BinaryIO.createTmp();
+			p.strBuf = BinaryIO.createStringBuffer(true);
+			p.byte1_4Len = params.byte1_4Len;
+			p.compressType = params.compressType;
+			p.attribute = createAttribute(params.compressType);
+			p.chunkedBuffer = new byte[len];
+			
+			// 塊データを取得して並列処理.
+			BinaryIO.readBinary(p.chunkedBuffer, in, len);
+			task.params = p;
+			tasks.add(CompletableFuture.runAsync(task, executor));
+		}
+		
+		// 全ての処理の完了を待つ.
+		public void await() throws IOException {
+			Throwable error = null;
+			final int len = tasks.size();
+			for(int i = 0; i < len; i ++) {
+				try {
+					tasks.get(i).join();
+				} catch(CompletionException e) {
+					if(error == null) {
+						error = e.getCause();
+					}
+				}
+			}
+			tasks.clear();
+			if(error == null) {
+				return;
+			} else if(error instanceof UncheckedIOException) {
+				throw ((UncheckedIOException)error).getCause();
+			} else if(error instanceof RuntimeException) {
+				throw (RuntimeException)error;
+			} else if(error instanceof Error) {
+				throw (Error)error;
+			}
+			throw new RimException(error);
+		}
+	}
+	
+	// 圧縮タイプに合わせた解凍用の属性を生成.
+	private static final Object createAttribute(CompressType compressType) {
+		// 圧縮タイプが「デフォルト圧縮」の場合.
+		if(CompressType.Default == compressType) {
 			
-			// クリア.
-			columns = null;
-			rbIn = null;
+			// SeabassCompのバッファを生成.
+			return new SeabassCompressBuffer();
+		// 圧縮タイプが「GZIP圧縮」の場合.
+		} else if(CompressType.Gzip == compressType) {
+			
+			// RbbOutputStreamを生成.
+			return new RbbOutputStream();
+		// 圧縮タイプが「LZ4圧縮」「Zstd圧縮」の場合.
+		} else if(CompressType.LZ4 == compressType ||
+			CompressType.Zstd == compressType) {
+			
+			// CompressBufferのバッファを生成.
+			return new CompressBuffer();
 		}
+		return null;
 	}
-
+	
 	// 登録インデックスを取得.
 	private static final void readIndex(Rim out, InputStream in, RimParams params,
-		CompressType compressType, int indexLength) throws IOException {
+		ChunkDecoder decoder, int indexLength) throws IOException {
 		int columnNo;
 		int planIndexSize;
+		int indexType;
 		GeneralIndex index;
 		
 		// 全体のインデックス情報のループ.
 		for(int i = 0; i < indexLength; i ++) {
 			
 			// 対象インデックスの列番号を取得(Saving).
-			columnNo = BinaryIO.readSavingInt(in, params.tmp);
+			// マーカーが存在する場合は行番号群が差分のビットパック形式.
+			columnNo = BinaryIO.readSavingIntOrMarker(in, params.tmp);
+			if(columnNo == -1) {
+				indexType = PACKED_GENERAL_INDEX;
+				columnNo = BinaryIO.readSavingInt(in, params.tmp);
+			} else {
+				indexType = GENERAL_INDEX;
+			}
 			
 			// 対象インデックスの総行数を取得(1~4byte).
 			planIndexSize = BinaryIO.readBin1_4Int(
@@ -278,25 +843,34 @@ public class LoadRim {
 			// 今回処理するインデックスを登録.
 			index = out.registerIndex(columnNo, planIndexSize);
 			
-			// １つのインデックスを読み込む.
-			readOneIndex(in, params, compressType, index, GENERAL_INDEX,
-				planIndexSize);
+			// １つのインデックスを読み込んで解凍・デコード.
+			decoder.read(in, params, new IndexTask(index, indexType,
+				planIndexSize));
 		}
 	}
 	
 	// 登録Geoインデックスを取得.
 	private static final void readGeoIndex(Rim out, InputStream in, RimParams params,
-		CompressType compressType, int indexLength) throws IOException {
+		ChunkDecoder decoder, int indexLength) throws IOException {
 		int latColumnNo;
 		int lonColumnNo;
 		int planIndexSize;
+		GeoCodeType codeType;
 		GeoIndex index;
 		
 		// 全体のインデックス情報のループ.
 		for(int i = 0; i < indexLength; i ++) {
 			
 			// 緯度列番号を取得(Saving).
-			latColumnNo = BinaryIO.readSavingInt(in, params.tmp);
+			// マーカーが存在する場合はキー形式IDの後に緯度列番号.
+			latColumnNo = BinaryIO.readSavingIntOrMarker(in, params.tmp);
+			if(latColumnNo == -1) {
+				codeType = GeoCodeType.get(
+					BinaryIO.readSavingInt(in, params.tmp));
+				latColumnNo = BinaryIO.readSavingInt(in, params.tmp);
+			} else {
+				codeType = GeoCodeType.Quad;
+			}
 			
 			// 経度列番号を取得(Saving).
 			lonColumnNo = BinaryIO.readSavingInt(in, params.tmp);
@@ -307,42 +881,55 @@ public class LoadRim {
 			
 			// 今回処理するインデックスを登録.
 			index = out.registerGeoIndex(
-				latColumnNo, lonColumnNo, planIndexSize);
+				latColumnNo, lonColumnNo, codeType, planIndexSize);
 			
-			// １つのインデックスを読み込む.
-			readOneIndex(in, params, compressType, index, GEO_INDEX,
-				planIndexSize);
+			// １つのインデックスを読み込んで解凍・デコード.
+			decoder.read(in, params, new IndexTask(index, GEO_INDEX,
+				planIndexSize));
 		}
 	}
 	
 	// 登録Ngramインデックスを取得.
 	private static final void readNGramIndex(Rim out, InputStream in, RimParams params,
-		CompressType compressType, int indexLength) throws IOException {
+		ChunkDecoder decoder, int indexLength) throws IOException {
 		int columnNo;
 		int ngramLength;
 		int planIndexSize;
+		boolean savingSize;
 		NgramIndex index;
 		
 		// 全体のインデックス情報のループ.
 		for(int i = 0; i < indexLength; i ++) {
 			
 			// 列番号を取得(Saving).
-			columnNo = BinaryIO.readSavingInt(in, params.tmp);
+			// Ngramの総行数は全行数を超える場合があるので、
+			// マーカーが存在する場合は総行数はSavingで出力されている.
+			columnNo = BinaryIO.readSavingIntOrMarker(in, params.tmp);
+			if(columnNo == -1) {
+				savingSize = true;
+				columnNo = BinaryIO.readSavingInt(in, params.tmp);
+			} else {
+				savingSize = false;
+			}
 			
 			// パースするNgram長を取得(1byte).
 			ngramLength = BinaryIO.readInt1(in, params.tmp);
 			
-			// 対象インデックスの総行数を取得(1~4byte).
-			planIndexSize = BinaryIO.readBin1_4Int(
-				in, params.tmp, params.byte1_4Len);
+			// 対象インデックスの総行数を取得(1~4byte or Saving).
+			if(savingSize) {
+				planIndexSize = BinaryIO.readSavingInt(in, params.tmp);
+			} else {
+				planIndexSize = BinaryIO.readBin1_4Int(
+					in, params.tmp, params.byte1_4Len);
+			}
 			
 			// 今回処理するインデックスを登録.
 			index = out.registerNgramIndex(
 				columnNo, ngramLength, planIndexSize);
 			
-			// １つのインデックスを読み込む.
-			readOneIndex(in, params, compressType, index, NGRAM_INDEX,
-				planIndexSize);
+			// １つのインデックスを読み込んで解凍・デコード.
+			decoder.read(in, params, new IndexTask(index, NGRAM_INDEX,
+				planIndexSize));
 		}
 	}
 	
@@ -374,25 +961,23 @@ public class LoadRim {
 	// １つのインデックス情報を読み込む.
 	@SuppressWarnings("rawtypes")
 	private static final void readOneIndex(InputStream in, RimParams params,
-		CompressType compressType, Object index, int indexType, int planIndexSize)
+		Object index, int indexType, int planIndexSize)
 		throws IOException {
 		
-		int i, len;
+		int i;
+		int len = 0;
 		int rowIdLength;
 		Object value;
 		int[] rowIdList = null;
 		int[] ngramPosition = null;
 		
-		byte[] data;
-		RbInputStream rbIn;
-		final int[] dataLen = new int[1];
-		
 		// このインデックスの列型を取得.
 		int ngramLength = -1;
 		ColumnType columnType = null;
 		switch(indexType) {
 		// Index.
 		case GENERAL_INDEX:
+		case PACKED_GENERAL_INDEX:
 			columnType = ((GeneralIndex)index).getColumnType();
 			break;
 		// GeoIndex.
@@ -406,28 +991,6 @@ public class LoadRim {
 			break;
 		}
 		
-		// 圧縮フラグを取得.
-		boolean compFlag = BinaryIO.readBoolean(in, params.tmp);
-		
-		// データ塊長を取得.
-		len = BinaryIO.readSavingInt(in, params.tmp);
-		
-		// 塊受付バッファサイズが小さい場合.
-		if(params.chunkedBuffer.length < len) {
-			// lenに合わせて再生成.
-			params.chunkedBuffer = new byte[len];
-		}
-		
-		// 塊データを取得.
-		BinaryIO.readBinary(params.chunkedBuffer, in, len);
-		
-		// 圧縮されている場合、塊を解凍して取得.
-		data = readDecompress(
-			dataLen, compressType, params, compFlag, len);
-		
-		// 塊情報をRbInputStreamに置き換える.
-		rbIn = new RbInputStream(data, 0, dataLen[0]);
-		
 		// インデックス追加完了までループ.
 		while(true) {
 			
@@ -436,20 +999,21 @@ public class LoadRim {
 			switch(indexType) {
 			// Index.
 			case GENERAL_INDEX:
-				value = getValue(rbIn, params, columnType);
+			case PACKED_GENERAL_INDEX:
+				value = getValue(in, params, columnType);
 				break;
 			// GeoIndex.
 			case GEO_INDEX:
-				value = getValue(rbIn, params, columnType);
+				value = getValue(in, params, columnType);
 				break;
 			// NgramIndex.
 			case NGRAM_INDEX:
-				value = getNgramValue(rbIn, params, ngramLength);
+				value = getNgramValue(in, params, ngramLength);
 				break;
 			}
 			
 			// 1つの同一要素に対する行番号数を取得.
-			rowIdLength = BinaryIO.readSavingInt(rbIn, params.tmp);
+			rowIdLength = BinaryIO.readSavingInt(in, params.tmp);
 			
 			// RowIdList のバッファが足りない場合は生成.
 			if(rowIdList == null || rowIdList.length < rowIdLength) {
@@ -463,17 +1027,24 @@ public class LoadRim {
 				// RowIdListをセット.
 				for(i = 0; i < rowIdLength; i ++) {
 					rowIdList[i] = BinaryIO.readBin1_4Int(
-						rbIn, params.tmp, params.byte1_4Len);
+						in, params.tmp, params.byte1_4Len);
 				}
 				len = ((GeneralIndex)index).add(
 					(Comparable)value, rowIdList, rowIdLength);
 				break;
+			// 行番号群が差分のビットパック形式のIndex.
+			case PACKED_GENERAL_INDEX:
+				// RowIdListをセット.
+				BinaryIO.readDeltaPacked(in, params.tmp, rowIdList, rowIdLength);
+				len = ((GeneralIndex)index).add(
+					(Comparable)value, rowIdList, rowIdLength);
+				break;
 			// GeoIndex.
 			case GEO_INDEX:
 				// RowIdListをセット.
 				for(i = 0; i < rowIdLength; i ++) {
 					rowIdList[i] = BinaryIO.readBin1_4Int(
-						rbIn, params.tmp, params.byte1_4Len);
+						in, params.tmp, params.byte1_4Len);
 				}
 				len = ((GeoIndex)index).add(
 					(Long)value, rowIdList, rowIdLength);
@@ -488,10 +1059,10 @@ public class LoadRim {
 				for(i = 0; i < rowIdLength; i ++) {
 					// RowIdList.
 					rowIdList[i] = BinaryIO.readBin1_4Int(
-						rbIn, params.tmp, params.byte1_4Len);
+						in, params.tmp, params.byte1_4Len);
 					// ngramPosition.
 					ngramPosition[i] = BinaryIO.readSavingInt(
-						rbIn, params.tmp);
+						in, params.tmp);
 				}
 				len = ((NgramIndex)index).add(
 					(Long)value, rowIdList, ngramPosition, rowIdLength);
@@ -642,59 +1213,152 @@ public class LoadRim {
 	}
 	
 	// 指定型の要素群を連続して取得.
-	private static final void getValues(Object[] out, InputStream in, RimParams params,
-		ColumnType type)
+	private static final ColumnData getValues(InputStream in, RimParams params,
+		ColumnType type, int len)
 		throws IOException {
-		final int len = out.length;
 		switch(type) {
-		case Boolean:
+		case Boolean: {
+			final Flags out = new Flags(len);
 			for(int i = 0; i < len; i ++) {
-				out[i] = BinaryIO.readBoolean(in, params.tmp);
+				out.put(i, BinaryIO.readBoolean(in, params.tmp));
 			}
-			return;
-		case Byte:
+			return new ColumnData.BooleanColumn(out);
+		}
+		case Byte: {
+			final byte[] out = new byte[len];
 			for(int i = 0; i < len; i ++) {
 				out[i] = (byte)BinaryIO.readInt1(in, params.tmp);
 			}
-			return;
-		case Short:
+			return new ColumnData.ByteColumn(out);
+		}
+		case Short: {
+			final short[] out = new short[len];
 			for(int i = 0; i < len; i ++) {
 				out[i] = (short)BinaryIO.readInt2(in, params.tmp);
 			}
-			return;
-		case Integer:
+			return new ColumnData.ShortColumn(out);
+		}
+		case Integer: {
+			final int[] out = new int[len];
 			for(int i = 0; i < len; i ++) {
 				out[i] = BinaryIO.readInt4(in, params.tmp);
 			}
-			return;
-		case Long:
+			return new ColumnData.IntegerColumn(out);
+		}
+		case Long: {
+			final long[] out = new long[len];
 			for(int i = 0; i < len; i ++) {
 				out[i] = BinaryIO.readLong(in, params.tmp);
 			}
-			return;
-		case Float:
+			return new ColumnData.LongColumn(out);
+		}
+		case Float: {
+			final float[] out = new float[len];
 			for(int i = 0; i < len; i ++) {
 				out[i] = BinaryIO.readFloat(in, params.tmp);
 			}
-			return;
-		case Double:
+			return new ColumnData.FloatColumn(out);
+		}
+		case Double: {
+			final double[] out = new double[len];
 			for(int i = 0; i < len; i ++) {
 				out[i] = BinaryIO.readDouble(in, params.tmp);
 			}
-			return;
-		case String:
+			return new ColumnData.DoubleColumn(out);
+		}
+		case String: {
+			// 先頭の文字列長を取得.
+			int n = len == 0 ? 0 : BinaryIO.readSavingIntOrMarker(in, params.tmp);
+			// 辞書化されている場合.
+			if(n == -1) {
+				return getDictionaryValues(in, params, len);
+			}
+			// 文字列はデコードせずにUTF8のまま連結して保持.
+			int all = 0;
+			byte[] out = new byte[Math.max(16, len << 3)];
+			final int[] offsets = new int[len + 1];
 			for(int i = 0; i < len; i ++) {
-				out[i] = BinaryIO.readString(in, params.tmp, params.strBuf);
+				offsets[i] = all;
+				if(i > 0) {
+					n = BinaryIO.readSavingInt(in, params.tmp);
+				}
+				if(n > 0) {
+					if(out.length < all + n) {
+						out = Arrays.copyOf(out, Math.max(
+							all + n, out.length + (out.length >> 1)));
+					}
+					BinaryIO.readBinary(out, all, in, n);
+					all += n;
+				}
 			}
-			return;
-		case Date:
+			offsets[len] = all;
+			return new ColumnData.StringColumn(
+				Arrays.copyOf(out, all), offsets);
+		}
+		case Date: {
+			final long[] out = new long[len];
 			for(int i = 0; i < len; i ++) {
-				out[i] = BinaryIO.readDate(in, params.tmp);
+				out[i] = BinaryIO.readLong(in, params.tmp);
 			}
-			return;
+			return new ColumnData.DateColumn(out);
+		}
 		}
 		throw new RimException("Unknown column type: " + type);
 	}
+	
+	// ゾーンマップを取得.
+	private static final ZoneMap readZoneMap(InputStream in, RimParams params,
+		int len) throws IOException {
+		// ブロック行数のビットシフト値を取得(1byte).
+		final int blockShift = BinaryIO.readInt1(in, params.tmp);
+		// ブロック毎の最小・最大順序キーとNull行数を取得.
+		final int blockLength = ZoneMap.getBlockLength(blockShift, len);
+		final long[] mins = new long[blockLength];
+		final long[] maxs = new long[blockLength];
+		final int[] nullCounts = new int[blockLength];
+		for(int i = 0; i < blockLength; i ++) {
+			mins[i] = BinaryIO.readLong(in, params.tmp);
+			maxs[i] = BinaryIO.readLong(in, params.tmp);
+			nullCounts[i] = BinaryIO.readSavingInt(in, params.tmp);
+		}
+		return new ZoneMap(blockShift, len, mins, maxs, nullCounts);
+	}
+	
+	// Null行番号群を取得.
+	// [マーカー][Null行数(Saving)][前の行番号との差分(Saving)...]
+	private static final Flags readNullRows(InputStream in, RimParams params,
+		int len) throws IOException {
+		if(BinaryIO.readSavingIntOrMarker(in, params.tmp) != -1) {
+			throw new RimException("Null row information is invalid.");
+		}
+		final int nullLen = BinaryIO.readSavingInt(in, params.tmp);
+		final Flags ret = new Flags(len);
+		int rowId = 0;
+		for(int i = 0; i < nullLen; i ++) {
+			rowId += BinaryIO.readSavingInt(in, params.tmp);
+			ret.put(rowId, true);
+		}
+		return ret;
+	}
+	
+	// 辞書化された文字列の要素群を取得.
+	private static final ColumnData getDictionaryValues(InputStream in,
+		RimParams params, int len) throws IOException {
+		int i;
+		// 辞書を取得.
+		final int dictLen = BinaryIO.readSavingInt(in, params.tmp);
+		final String[] dictionary = new String[dictLen];
+		for(i = 0; i < dictLen; i ++) {
+			dictionary[i] = BinaryIO.readString(in, params.tmp, params.strBuf);
+		}
+		// 行毎の辞書番号を取得.
+		final int codeLen = BinaryIO.byte1_4Length(dictLen);
+		final char[] codes = new char[len];
+		for(i = 0; i < len; i ++) {
+			codes[i] = (char)BinaryIO.readBin1_4Int(in, params.tmp, codeLen);
+		}
+		return new ColumnData.DictionaryColumn(dictionary, codes);
+	}
 
 	
 	// test.
@@ -1,6 +1,7 @@
 package rim;
 
 import rim.exception.RimException;
+import rim.geo.GeoCodeType;
 import rim.index.GeneralIndex;
 import rim.index.GeoIndex;
 import rim.index.NgramIndex;
@@ -8,6 +9,11 @@ import rim.util.IndexKeyValueList;
 
 /**
  * Rimデータ.
+ *
+ * fix() 後のRimデータは読み込み専用となり、RimBody や各インデックスの
+ * 検索は複数スレッドから同時に呼び出すことが出来ます.
+ * 検索結果(RimResult)と行情報(RimRow)は検索毎に生成されるので、
+ * スレッド間で共有せずに呼び出し元のスレッドで利用してください.
  */
 public class Rim {
 	// Rim情報.
@@ -81,11 +87,12 @@ public class Rim {
 	 * Geoインデックスを登録.
 	 * @param latColumnNo 登録対象の緯度列番号を設定します.
 	 * @param lonColumnNo 登録対象の経度列番号を設定します.
+	 * @param codeType このGeoインデックスのキー形式を設定します.
 	 * @param planIndexSize このGeoインデックスの予定登録行数を設定します.
 	 * @return GeoIndex 登録されたGeoインデックスが返却されます.
 	 */
 	protected GeoIndex registerGeoIndex(int latColumnNo, int lonColumnNo,
-		int planIndexSize) {
+		GeoCodeType codeType, int planIndexSize) {
 		if(geoIndexs.size() >= geoIndexLength) {
 			throw new RimException(
 				"The number of geo indexes to be registered (" +
@@ -93,12 +100,12 @@ public class Rim {
 				geoIndexLength);
 		}
 		GeoIndex index = body.createGeoIndex(
-			latColumnNo, lonColumnNo, planIndexSize);
+			latColumnNo, lonColumnNo, codeType, planIndexSize);
 		geoIndexs.put(getGeoKey(latColumnNo, lonColumnNo), index);
 		
 		// infoに登録.
 		info.addGeoIndex(
-			index.getLatColumnName(), index.getLonColumnName());
+			index.getLatColumnName(), index.getLonColumnName(), codeType);
 		return index;
 	}
 	
@@ -0,0 +1,429 @@
+package rim;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import rim.compress.CompressType;
+import rim.compress.Lz4Compress;
+import rim.compress.ZstdCompress;
+import rim.index.GeneralIndex;
+import rim.index.GeoIndex;
+import rim.index.NgramIndex;
+import rim.util.Args;
+import rim.util.CsvReader;
+
+/**
+ * Rimのベンチマーク.
+ *
+ * 乱数シードを固定した擬似CSVを生成して、保存・ロード・インデックス検索・
+ * Body検索の処理時間を計測します.
+ * 同じ引数であれば同じデータで計測されるので、性能改善の前後比較に利用します.
+ * JMHで計測する場合は、同じ擬似CSVを利用する project/src/bench/java の
+ * RimLoadJmh / RimSearchJmh を[ant bench]で実行します.
+ *
+ * <pre>
+ * java rim.RimBench [options]
+ *  -r [--rows] {行数}               生成するCSVの行数(100000).
+ *  -c [--cardinality] {数}          インデックス列の値の種類数(1000).
+ *  -s [--seed] {乱数シード}          CSV生成の乱数シード(1).
+ *  -w [--warmup] {回数}             ウォームアップの実行回数(3).
+ *  -l [--loop] {回数}               計測の実行回数(10).
+ *  -d [--dir] {ディレクトリ}         CSVとRimファイルの作業ディレクトリ.
+ * </pre>
+ */
+public class RimBench {
+	// 名前に利用するワード群.
+	private static final String[] WORDS = new String[] {
+		"apple", "banana", "cherry", "orange", "grape", "melon", "lemon",
+		"peach", "tokyo", "osaka", "kyoto", "nagoya", "sapporo", "fukuoka",
+		"りんご", "みかん", "ぶどう", "もも", "東京", "大阪", "京都", "名古屋"
+	};
+
+	// 中心となる緯度.
+	static final double CENTER_LAT = 35.681236;
+	// 中心となる経度.
+	static final double CENTER_LON = 139.767125;
+
+	// main.
+	public static final void main(String[] args) throws Exception {
+		final Args params = new Args(args);
+		final int rows = intValue(params, 100000, "-r", "--rows");
+		final int cardinality = intValue(params, 1000, "-c", "--cardinality");
+		final long seed = intValue(params, 1, "-s", "--seed");
+		final int warmup = intValue(params, 3, "-w", "--warmup");
+		final int loop = intValue(params, 10, "-l", "--loop");
+		String dir = params.get("-d", "--dir");
+		if(dir == null) {
+			dir = System.getProperty("java.io.tmpdir");
+		}
+
+		// 擬似CSVを生成.
+		final String csvFile = new File(dir, "rimBench_" + rows + "_" +
+			cardinality + "_" + seed + ".csv").getPath();
+		createCsv(csvFile, rows, cardinality, seed);
+
+		System.out.println("rows: " + rows + " cardinality: " + cardinality +
+			" seed: " + seed + " warmup: " + warmup + " loop: " + loop);
+		System.out.println("csv: " + csvFile);
+		System.out.println();
+
+		final RimBench bench = new RimBench(warmup, loop);
+
+		// 保存・ロードの計測.
+		String noneFile = null;
+		final CompressType[] types = CompressType.values();
+		for(int i = 0; i < types.length; i ++) {
+			final CompressType type = types[i];
+			if(!isAvailable(type)) {
+				continue;
+			}
+			final String rimFile = new File(dir, "rimBench_" + rows + "_" +
+				cardinality + "_" + seed + "_" + type + ".rim").getPath();
+			bench.measure("SaveRim.write[" + type + "]", new Task() {
+				public long run() throws Exception {
+					return save(csvFile, rimFile, type, false);
+				}
+			});
+			bench.measure("SaveRim.write(parallel)[" + type + "]", new Task() {
+				public long run() throws Exception {
+					return save(csvFile, rimFile, type, true);
+				}
+			});
+			bench.measure("LoadRim.load[" + type + "]", new Task() {
+				public long run() throws Exception {
+					return LoadRim.load(rimFile).getBody().getRowLength();
+				}
+			});
+			bench.measure("LoadRim.load(parallel)[" + type + "]", new Task() {
+				public long run() throws Exception {
+					return LoadRim.load(rimFile, ForkJoinPool.commonPool())
+						.getBody().getRowLength();
+				}
+			});
+			if(CompressType.Mapped == type) {
+				bench.measure("LoadRim.mmap[" + type + "]", new Task() {
+					public long run() throws Exception {
+						return LoadRim.mmap(rimFile).getBody().getRowLength();
+					}
+				});
+			} else if(CompressType.None == type) {
+				noneFile = rimFile;
+			}
+		}
+		System.out.println();
+
+		// 検索の計測.
+		final Rim rim = LoadRim.load(noneFile);
+		final RimBody body = rim.getBody();
+		final GeneralIndex idIndex = rim.getIndex("id");
+		final GeneralIndex categoryIndex = rim.getIndex("category");
+		final GeoIndex geoIndex = rim.getGeoIndex("lat", "lon");
+		final int category = cardinality / 2;
+
+		bench.measure("GeneralIndex.eq", new Task() {
+			public long run() {
+				return count(categoryIndex.eq(true, false, category));
+			}
+		});
+		bench.measure("GeneralIndex.eq(not)", new Task() {
+			public long run() {
+				return count(categoryIndex.eq(true, true, category));
+			}
+		});
+		bench.measure("GeneralIndex.between", new Task() {
+			public long run() {
+				return count(idIndex.between(true, false, rows / 4, rows / 2));
+			}
+		});
+		final int[] buf = new int[1024];
+		bench.measure("GeneralIndex.between(fill)", new Task() {
+			public long run() {
+				return fill(idIndex.between(true, false, rows / 4, rows / 2), buf);
+			}
+		});
+		bench.measure("GeneralIndex.in", new Task() {
+			public long run() {
+				return count(categoryIndex.in(true, false,
+					1, category / 2, category, category + 1, cardinality - 1));
+			}
+		});
+		bench.measure("GeoIndex.searchRadius", new Task() {
+			public long run() {
+				return count(geoIndex.searchRadius(CENTER_LAT, CENTER_LON, 1000));
+			}
+		});
+		bench.measure("GeoIndex.searchRadius(sort)", new Task() {
+			public long run() {
+				return count(geoIndex.searchRadius(true,
+					CENTER_LAT, CENTER_LON, 1000));
+			}
+		});
+		bench.measure("GeoIndex.nearest", new Task() {
+			public long run() {
+				return count(geoIndex.nearest(CENTER_LAT, CENTER_LON, 10));
+			}
+		});
+		bench.measure("GeoIndex.searchBox", new Task() {
+			public long run() {
+				return count(geoIndex.searchBox(CENTER_LAT - 0.01d,
+					CENTER_LON - 0.01d, CENTER_LAT + 0.01d, CENTER_LON + 0.01d));
+			}
+		});
+		// 全行近くが一致する半径での検索.
+		bench.measure("GeoIndex.searchRadius[wide]", new Task() {
+			public long run() {
+				return count(geoIndex.searchRadius(CENTER_LAT, CENTER_LON, 15000));
+			}
+		});
+		// 全行近くが一致する半径で、近い順の先頭のみ取得.
+		bench.measure("GeoIndex.searchRadius[wide](sort,head)", new Task() {
+			public long run() {
+				return head(geoIndex.searchRadius(true,
+					CENTER_LAT, CENTER_LON, 15000), 20);
+			}
+		});
+		final String[] ngramColumns = new String[] {"unigram", "bigram", "trigram"};
+		// 多くの行が一致して、同一行に複数回一致する検索ワード群.
+		final String[] wideWords = new String[] {"a", "an", "ana"};
+		for(int i = 0; i < ngramColumns.length; i ++) {
+			final NgramIndex ngramIndex = rim.getNgramIndex(ngramColumns[i]);
+			bench.measure("NgramIndex.search[" + ngramColumns[i] + "]", new Task() {
+				public long run() {
+					return count(ngramIndex.search(true, "ange")) +
+						count(ngramIndex.search(true, "名古"));
+				}
+			});
+			final String wideWord = wideWords[i];
+			bench.measure("NgramIndex.search[" + ngramColumns[i] + "](wide)",
+				new Task() {
+				public long run() {
+					return count(ngramIndex.search(true, wideWord));
+				}
+			});
+		}
+		bench.measure("RimBody.eq", new Task() {
+			public long run() {
+				return count(body.eq(true, false, "category", category));
+			}
+		});
+		bench.measure("RimBody.between", new Task() {
+			public long run() {
+				return count(body.between(true, false, "id", rows / 4, rows / 2));
+			}
+		});
+		// 検索結果の行から列の値を読み込み.
+		bench.measure("RimRow.getDouble(name)", new Task() {
+			public long run() {
+				return sum(body.between(true, false, "id", rows / 4, rows / 2),
+					"score", false);
+			}
+		});
+		bench.measure("RimRow.getDouble(no)", new Task() {
+			public long run() {
+				return sum(body.between(true, false, "id", rows / 4, rows / 2),
+					"score", true);
+			}
+		});
+		bench.measure("RimBody.like[prefix]", new Task() {
+			public long run() {
+				return count(body.like(true, false, "name", "apple%"));
+			}
+		});
+		bench.measure("RimBody.like[contains]", new Task() {
+			public long run() {
+				return count(body.like(true, false, "name", "%ang%"));
+			}
+		});
+		bench.measure("RimBody.like[pattern]", new Task() {
+			public long run() {
+				return count(body.like(true, false, "name", "%o_a%1"));
+			}
+		});
+	}
+
+	// 数値パラメータを取得.
+	private static final int intValue(Args params, int def, String... names) {
+		final Integer ret = params.getInt(names);
+		return ret == null ? def : ret;
+	}
+
+	// 圧縮タイプが利用可能かチェック.
+	static final boolean isAvailable(CompressType type) {
+		if(CompressType.LZ4 == type) {
+			return Lz4Compress.getInstance().isSuccessLibrary();
+		} else if(CompressType.Zstd == type) {
+			return ZstdCompress.getInstance().isSuccessLibrary();
+		}
+		return true;
+	}
+
+	// 擬似CSVを生成.
+	static final void createCsv(String csvFile, int rows,
+		int cardinality, long seed) throws Exception {
+		if(new File(csvFile).isFile()) {
+			return;
+		}
+		final Random r = new Random(seed);
+		final Writer w = new BufferedWriter(new OutputStreamWriter(
+			new FileOutputStream(csvFile), "UTF8"));
+		try {
+			w.write("id,category,name,unigram,bigram,trigram,score,lat,lon,created\n");
+			w.write("int,int,string,string,string,string,double,double,double,date\n");
+			final StringBuilder buf = new StringBuilder();
+			for(int i = 0; i < rows; i ++) {
+				buf.setLength(0);
+				buf.append(i).append(",")
+					.append(r.nextInt(cardinality)).append(",")
+					.append(word(r)).append(word(r))
+					.append(r.nextInt(cardinality)).append(",")
+					.append(word(r)).append(word(r)).append(",")
+					.append(word(r)).append(word(r)).append(",")
+					.append(word(r)).append(word(r)).append(",")
+					.append(r.nextInt(1000000) / 100d).append(",")
+					.append(CENTER_LAT + (r.nextDouble() - 0.5d) * 0.2d).append(",")
+					.append(CENTER_LON + (r.nextDouble() - 0.5d) * 0.2d).append(",")
+					.append(1600000000000L + (long)i * 60000L).append("\n");
+				w.write(buf.toString());
+			}
+		} finally {
+			w.close();
+		}
+	}
+
+	// ワードを取得.
+	private static final String word(Random r) {
+		return WORDS[r.nextInt(WORDS.length)];
+	}
+
+	// Rimファイルを保存.
+	static final long save(String csvFile, String rimFile,
+		CompressType type, boolean parallel) throws Exception {
+		final SaveRim save = new SaveRim(
+			new CsvReader(csvFile, "UTF8", ","),
+			new BufferedOutputStream(new FileOutputStream(rimFile)), type);
+		try {
+			save.addIndex("id").addIndex("category").addIndex("name")
+				.addIndex("created");
+			save.addGeoIndex("lat", "lon");
+			save.addNgramIndex("unigram", 1);
+			save.addNgramIndex("bigram", 2);
+			save.addNgramIndex("trigram", 3);
+			return save.write(parallel ? ForkJoinPool.commonPool() : null);
+		} finally {
+			save.close();
+		}
+	}
+
+	// 検索結果の件数を取得.
+	private static final long count(RimResult result) {
+		long ret = 0L;
+		while(result.nextRowId() != -1) {
+			ret ++;
+		}
+		return ret;
+	}
+
+	// 検索結果の先頭から指定件数まで取得.
+	private static final long head(RimResult result, int limit) {
+		long ret = 0L;
+		while(ret < limit && result.nextRowId() != -1) {
+			ret ++;
+		}
+		return ret;
+	}
+
+	// 検索結果の行の指定列の合計を取得.
+	// primitive が true の場合は列番号でBoxingせずに取得します.
+	private static final long sum(RimResult result, String column,
+		boolean primitive) {
+		int no = -1;
+		RimRow row;
+		Double v;
+		double ret = 0d;
+		while(result.hasNext()) {
+			row = result.nextRow();
+			if(primitive) {
+				if(no == -1) {
+					no = row.getColumnNo(column);
+				}
+				if(!row.isNull(no)) {
+					ret += row.getDouble(no);
+				}
+			} else if((v = row.getDouble(column)) != null) {
+				ret += v;
+			}
+		}
+		return (long)ret;
+	}
+
+	// 検索結果の件数をバッファ単位の取得で取得.
+	private static final long fill(RimResult result, int[] buf) {
+		int n;
+		long ret = 0L;
+		while((n = result.fill(buf, 0, buf.length)) > 0) {
+			ret += n;
+		}
+		return ret;
+	}
+
+	/**
+	 * 計測処理.
+	 */
+	private static interface Task {
+		/**
+		 * 計測処理を実行.
+		 * @return long 処理件数が返却されます.
+		 * @exception Exception 例外.
+		 */
+		public long run() throws Exception;
+	}
+
+	// ウォームアップの実行回数.
+	private final int warmup;
+	// 計測の実行回数.
+	private final int loop;
+
+	// コンストラクタ.
+	private RimBench(int warmup, int loop) {
+		this.warmup = warmup;
+		this.loop = loop;
+	}
+
+	// 計測.
+	private final void measure(String name, Task task) {
+		long t, time;
+		long all = 0L;
+		long min = Long.MAX_VALUE;
+		long ret = 0L;
+		try {
+			for(int i = 0; i < warmup; i ++) {
+				ret = task.run();
+			}
+			for(int i = 0; i < loop; i ++) {
+				t = System.nanoTime();
+				ret = task.run();
+				time = System.nanoTime() - t;
+				all += time;
+				if(min > time) {
+					min = time;
+				}
+			}
+		} catch(Exception e) {
+			System.out.println(name + ": error " + e);
+			return;
+		}
+		System.out.println(name + ": avg " + msec(all / Math.max(1, loop)) +
+			" msec, min " + msec(min) + " msec (" + ret + ")");
+	}
+
+	// ナノ秒をミリ秒の文字列に変換.
+	private static final String msec(long nano) {
+		return String.valueOf(Math.round(nano / 1000d) / 1000d);
+	}
+}
@@ -2,12 +2,21 @@ package rim;
 
 import java.util.Arrays;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
+import rim.core.ColumnData;
 import rim.core.ColumnType;
+import rim.core.Flags;
 import rim.core.LikeAnalysis;
 import rim.core.LikeParser;
+import rim.core.RangeScan;
 import rim.core.SearchUtil;
+import rim.core.ZoneMap;
 import rim.exception.RimException;
+import rim.geo.GeoCodeType;
 import rim.index.GeneralIndex;
 import rim.index.GeoIndex;
 import rim.index.NgramIndex;
@@ -20,6 +29,10 @@ import rim.util.TypesUtil;
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class RimBody {
+	/**
+	 * 並列検索で分割する１つの範囲の行数.
+	 */
+	public static final int PARALLEL_PARTITION_ROWS = 65536;
 
 	// 列名群.
 	private FixedSearchArray<String> columns;
@@ -33,12 +46,18 @@ public class RimBody {
 	// 列型群.
 	private ColumnType[] columnTypes;
 
-	// 行リスト.
-	private Object[] rows;
+	// 列データ群.
+	private ColumnData[] columnData;
 
-	// 行情報.
-	private RimRow rimRow;
+	// 列毎のゾーンマップ群.
+	private ZoneMap[] zoneMaps;
 	
+	// 列毎のインデックス群.
+	private GeneralIndex[] indexs;
+	
+	// 列毎のNgramインデックス群.
+	private NgramIndex[] ngramIndexs;
+
 	// 設定確認列群.
 	private boolean[] settingRows;
 	
@@ -55,17 +74,16 @@ public class RimBody {
 		final FixedSearchArray<String> h = new FixedSearchArray<String>(columns);
 		final int columnLength = columns.length;
 		final boolean[] f = new boolean[columnLength];
-		final Object[] r = new Object[rowLength];
-		for(int i = 0; i < rowLength; i ++) {
-			r[i] = new Object[columnLength];
-		}
+		final ColumnData[] d = new ColumnData[columnLength];
 		Arrays.fill(f, false);
 		this.columns = h;
 		this.columnLength = columnLength;
 		this.rowLength = rowLength;
 		this.columnTypes = types;
-		this.rows = r;
-		this.rimRow = new RimRow(h, types);
+		this.columnData = d;
+		this.zoneMaps = new ZoneMap[columnLength];
+		this.indexs = new GeneralIndex[columnLength];
+		this.ngramIndexs = new NgramIndex[columnLength];
 		this.settingRows = f;
 		this.fixFlag = false;
 	}
@@ -78,10 +96,10 @@ public class RimBody {
 	protected void setColumns(int columnNo, ObjectList columns) {
 		if(columns == null) {
 			throw new RimException("No columns have been set.");
-		} else if(columns.size() != rows.length) {
+		} else if(columns.size() != rowLength) {
 			throw new RimException("The number of rows (" +
 				columns.size() + ") in the setting column information does " +
-				"not match the number of defined rows: " + rows.length);
+				"not match the number of defined rows: " + rowLength);
 		}
 		setColumns(columnNo, columns.rawArray());
 	}
@@ -104,15 +122,59 @@ public class RimBody {
 				"not match the number of defined rows: " + rowLength);
 		}
 		
-		// 列情報を追加.
-		final Object[] rs = rows;
-		for(int i = 0; i < rowLength; i ++) {
-			((Object[])rs[i])[columnNo] = columns[i];
+		// 列型に合わせた列データに変換して追加.
+		setColumns(columnNo, ColumnData.create(
+			columnTypes[columnNo], columns, rowLength));
+	}
+	
+	/**
+	 * 指定列番号に対して列データを設定.
+	 * @param columnNo 列番号を設定します.
+	 * @param column 列データを設定します.
+	 */
+	protected void setColumns(int columnNo, ColumnData column) {
+		checkNoFix();
+		if(columnNo < 0 || columnNo >= columnLength) {
+			throw new RimException("The specified column number (" +
+				columnNo + ") is beyond the scope of the column definition: " + columnLength);
+		} else if(column == null) {
+			throw new RimException("No columns have been set.");
+		} else if(column.getColumnType() != columnTypes[columnNo]) {
+			throw new RimException("The column type (" + column.getColumnType() +
+				") of the setting column does not match the defined column type: " +
+				columnTypes[columnNo]);
+		} else if(column.getLength() != rowLength) {
+			throw new RimException("The number of rows (" +
+				column.getLength() + ") in the setting column information does " +
+				"not match the number of defined rows: " + rowLength);
 		}
+		
+		// 列データを追加.
+		columnData[columnNo] = column;
 		// 設定した列に対してフラグをON.
 		settingRows[columnNo] = true;
 	}
 	
+	/**
+	 * 指定列番号に対してゾーンマップを設定.
+	 * ゾーンマップが設定された列は、全件検索で条件に
+	 * 一致しないブロックを読み飛ばします.
+	 * @param columnNo 列番号を設定します.
+	 * @param zoneMap ゾーンマップを設定します.
+	 */
+	protected void setZoneMap(int columnNo, ZoneMap zoneMap) {
+		checkNoFix();
+		if(columnNo < 0 || columnNo >= columnLength) {
+			throw new RimException("The specified column number (" +
+				columnNo + ") is beyond the scope of the column definition: " + columnLength);
+		} else if(zoneMap != null && zoneMap.getLength() != rowLength) {
+			throw new RimException("The number of rows (" +
+				zoneMap.getLength() + ") in the zone map does " +
+				"not match the number of defined rows: " + rowLength);
+		}
+		zoneMaps[columnNo] = zoneMap;
+	}
+	
 	/**
 	 * インデックスの作成.
 	 * @param columnNo 列番号を設定します.
@@ -121,26 +183,31 @@ public class RimBody {
 	 */
 	protected final GeneralIndex createIndex(int columnNo, int planIndexSize) {
 		checkNoFix();
-		return new GeneralIndex(
+		final GeneralIndex ret = new GeneralIndex(
 			this,
 			columnNo,
 			planIndexSize);
+		// Like検索で利用するため列毎に保持.
+		indexs[columnNo] = ret;
+		return ret;
 	}
 	
 	/**
 	 * Geoインデックスの作成.
 	 * @param latColumnNo 緯度列番号を設定します.
 	 * @param lonColumnNo 経度列番号を設定します.
+	 * @param codeType キー形式を設定します.
 	 * @param planIndexSize このインデックスの予定長を設定します.
 	 * @return RimGeoIndex 空のGeoIndexが返却されます.
 	 */
 	protected final GeoIndex createGeoIndex(int latColumnNo, int lonColumnNo,
-		int planIndexSize) {
+		GeoCodeType codeType, int planIndexSize) {
 		checkNoFix();
 		return new GeoIndex(
 			this,
 			latColumnNo,
 			lonColumnNo,
+			codeType,
 			planIndexSize);
 	}
 	
@@ -154,11 +221,14 @@ public class RimBody {
 	protected final NgramIndex createNgramIndex(int columnNo, int ngramLength,
 		int planIndexSize) {
 		checkNoFix();
-		return new NgramIndex(
+		final NgramIndex ret = new NgramIndex(
 			this,
 			columnNo,
 			ngramLength,
 			planIndexSize);
+		// Like検索で利用するため列毎に保持.
+		ngramIndexs[columnNo] = ret;
+		return ret;
 	}
 	
 	/**
@@ -233,23 +303,64 @@ public class RimBody {
 
 	/**
 	 * 行番号を設定して行情報を取得.
+	 * 
+	 * 行情報は呼び出し毎に生成されるので、
+	 * 複数スレッドから同時に呼び出すことが出来ます.
 	 * @param rowId 行番号を設定します.
 	 * @return RimRow 行情報が返却されます.
 	 */
 	public RimRow getRow(int rowId) {
+		return getRow(null, rowId);
+	}
+	
+	/**
+	 * 行情報を再利用して行番号を設定した行情報を取得.
+	 * 
+	 * 検索結果毎に行情報を使いまわす場合に利用します.
+	 * 再利用する行情報は、呼び出し元のスレッドでのみ
+	 * 利用されている必要があります.
+	 * @param row 再利用する行情報を設定します.
+	 *            nullかこのBodyの行情報でない場合は新しく生成します.
+	 * @param rowId 行番号を設定します.
+	 * @return RimRow 行情報が返却されます.
+	 */
+	public RimRow getRow(RimRow row, int rowId) {
 		checkFix();
 		if(rowId < 0 || rowId >= rowLength) {
 			throw new RimException("Line numbers are out of range.");
+		} else if(row == null || !row.isBody(columnData)) {
+			row = new RimRow(columns, columnTypes, columnData);
 		}
-		return rimRow.set(rowId, (Object[])rows[rowId]);
+		return row.set(rowId);
 	}
 	
 	/**
-	 * 全行情報を取得.
-	 * @return Object[] 全行情報が返却されます.
+	 * 指定列番号の列データを取得.
+	 * @param columnNo 列番号を設定します.
+	 * @return ColumnData 列データが返却されます.
+	 */
+	public ColumnData getColumnData(int columnNo) {
+		checkFix();
+		if(columnNo < 0 || columnNo >= columnLength) {
+			throw new RimException("The specified column number (" +
+				columnNo + ") is beyond the scope of the column definition: " + columnLength);
+		}
+		return columnData[columnNo];
+	}
+
+	/**
+	 * 列番号を指定してゾーンマップを取得.
+	 * @param columnNo 列番号を設定します.
+	 * @return ZoneMap ゾーンマップが返却されます.
+	 *                 存在しない場合は null が返却されます.
 	 */
-	protected Object[] getRows() {
-		return rows;
+	public ZoneMap getZoneMap(int columnNo) {
+		checkFix();
+		if(columnNo < 0 || columnNo >= columnLength) {
+			throw new RimException("The specified column number (" +
+				columnNo + ") is beyond the scope of the column definition: " + columnLength);
+		}
+		return zoneMaps[columnNo];
 	}
 
 	/**
@@ -327,9 +438,48 @@ public class RimBody {
 	 */
 	public RimResult eq(boolean ascFlag,  boolean notEq,
 		int columnNo, Object value) {
+		return eq(null, ascFlag, notEq, columnNo, value);
+	}
+	
+	/**
+	 * 一致した検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnName 列名を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult eq(Executor executor, boolean ascFlag, boolean notEq,
+		String columnName, Object value) {
+		return eq(executor, ascFlag, notEq, getColumnNameByNo(columnName), value);
+	}
+	
+	/**
+	 * 一致した検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnNo 列番号を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult eq(Executor executor, final boolean ascFlag,
+		final boolean notEq, final int columnNo, final Object value) {
 		checkFix();
-		return new ResultSearchBody(new NormalSearchEq(
-				this, ascFlag, notEq, columnNo, value));
+		return createResult(executor, new NormalSearchEq(
+			this, ascFlag, notEq, columnNo, value),
+			new SearchFactory() {
+			@Override
+			public NormalSearch create() {
+				return new NormalSearchEq(
+					RimBody.this, ascFlag, notEq, columnNo, value);
+			}
+		});
 	}
 	
 	/**
@@ -355,9 +505,48 @@ public class RimBody {
 	 */
 	public RimResult gt(boolean ascFlag, boolean notEq,
 		int columnNo, Object value) {
+		return gt(null, ascFlag, notEq, columnNo, value);
+	}
+	
+	/**
+	 * 大なり[>]の検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnName 列名を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult gt(Executor executor, boolean ascFlag, boolean notEq,
+		String columnName, Object value) {
+		return gt(executor, ascFlag, notEq, getColumnNameByNo(columnName), value);
+	}
+	
+	/**
+	 * 大なり[>]の検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnNo 列番号を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult gt(Executor executor, final boolean ascFlag,
+		final boolean notEq, final int columnNo, final Object value) {
 		checkFix();
-		return new ResultSearchBody(new NormalSearchGT(
-				this, ascFlag, notEq, columnNo, value));
+		return createResult(executor, new NormalSearchGT(
+			this, ascFlag, notEq, columnNo, value),
+			new SearchFactory() {
+			@Override
+			public NormalSearch create() {
+				return new NormalSearchGT(
+					RimBody.this, ascFlag, notEq, columnNo, value);
+			}
+		});
 	}
 	
 	/**
@@ -383,9 +572,48 @@ public class RimBody {
 	 */
 	public RimResult ge(boolean ascFlag, boolean notEq,
 		int columnNo, Object value) {
+		return ge(null, ascFlag, notEq, columnNo, value);
+	}
+	
+	/**
+	 * 大なり[>=]の検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnName 列名を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult ge(Executor executor, boolean ascFlag, boolean notEq,
+		String columnName, Object value) {
+		return ge(executor, ascFlag, notEq, getColumnNameByNo(columnName), value);
+	}
+	
+	/**
+	 * 大なり[>=]の検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnNo 列番号を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult ge(Executor executor, final boolean ascFlag,
+		final boolean notEq, final int columnNo, final Object value) {
 		checkFix();
-		return new ResultSearchBody(new NormalSearchGE(
-				this, ascFlag, notEq, columnNo, value));
+		return createResult(executor, new NormalSearchGE(
+			this, ascFlag, notEq, columnNo, value),
+			new SearchFactory() {
+			@Override
+			public NormalSearch create() {
+				return new NormalSearchGE(
+					RimBody.this, ascFlag, notEq, columnNo, value);
+			}
+		});
 	}
 	
 	/**
@@ -411,9 +639,48 @@ public class RimBody {
 	 */
 	public RimResult lt(boolean ascFlag, boolean notEq,
 		int columnNo, Object value) {
+		return lt(null, ascFlag, notEq, columnNo, value);
+	}
+	
+	/**
+	 * 小なり[<]の検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnName 列名を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult lt(Executor executor, boolean ascFlag, boolean notEq,
+		String columnName, Object value) {
+		return lt(executor, ascFlag, notEq, getColumnNameByNo(columnName), value);
+	}
+	
+	/**
+	 * 小なり[<]の検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnNo 列番号を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult lt(Executor executor, final boolean ascFlag,
+		final boolean notEq, final int columnNo, final Object value) {
 		checkFix();
-		return new ResultSearchBody(new NormalSearchLT(
-				this, ascFlag, notEq, columnNo, value));
+		return createResult(executor, new NormalSearchLT(
+			this, ascFlag, notEq, columnNo, value),
+			new SearchFactory() {
+			@Override
+			public NormalSearch create() {
+				return new NormalSearchLT(
+					RimBody.this, ascFlag, notEq, columnNo, value);
+			}
+		});
 	}
 	
 	/**
@@ -439,9 +706,48 @@ public class RimBody {
 	 */
 	public RimResult le(boolean ascFlag, boolean notEq,
 		int columnNo, Object value) {
+		return le(null, ascFlag, notEq, columnNo, value);
+	}
+	
+	/**
+	 * 小なり[<=]の検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnName 列名を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult le(Executor executor, boolean ascFlag, boolean notEq,
+		String columnName, Object value) {
+		return le(executor, ascFlag, notEq, getColumnNameByNo(columnName), value);
+	}
+	
+	/**
+	 * 小なり[<=]の検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnNo 列番号を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult le(Executor executor, final boolean ascFlag,
+		final boolean notEq, final int columnNo, final Object value) {
 		checkFix();
-		return new ResultSearchBody(new NormalSearchLE(
-			this, ascFlag, notEq, columnNo, value));
+		return createResult(executor, new NormalSearchLE(
+			this, ascFlag, notEq, columnNo, value),
+			new SearchFactory() {
+			@Override
+			public NormalSearch create() {
+				return new NormalSearchLE(
+					RimBody.this, ascFlag, notEq, columnNo, value);
+			}
+		});
 	}
 	
 	/**
@@ -469,9 +775,52 @@ public class RimBody {
 	 */
 	public RimResult between(
 		boolean ascFlag, boolean notEq, int columnNo, Object start, Object end) {
+		return between(null, ascFlag, notEq, columnNo, start, end);
+	}
+	
+	/**
+	 * 指定した start から end まで範囲検索.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnName 列名を設定します.
+	 * @param start 開始条件を設定します.
+	 * @param end 終了条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult between(Executor executor, boolean ascFlag, boolean notEq,
+		String columnName, Object start, Object end) {
+		return between(executor, ascFlag, notEq,
+			getColumnNameByNo(columnName), start, end);
+	}
+	
+	/**
+	 * 指定した start から end まで範囲検索.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnNo 列番号を設定します.
+	 * @param start 開始条件を設定します.
+	 * @param end 終了条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult between(Executor executor, final boolean ascFlag,
+		final boolean notEq, final int columnNo,
+		final Object start, final Object end) {
 		checkFix();
-		return new ResultSearchBody(new NormalSearchBetween(
-			this, ascFlag, notEq, columnNo, start, end));
+		return createResult(executor, new NormalSearchBetween(
+			this, ascFlag, notEq, columnNo, start, end),
+			new SearchFactory() {
+			@Override
+			public NormalSearch create() {
+				return new NormalSearchBetween(
+					RimBody.this, ascFlag, notEq, columnNo, start, end);
+			}
+		});
 	}
 	
 	/**
@@ -497,13 +846,54 @@ public class RimBody {
 	 */
 	public RimResult in(
 		boolean ascFlag, boolean notEq, int columnNo, Object... values) {
+		return in(null, ascFlag, notEq, columnNo, values);
+	}
+	
+	/**
+	 * 指定したvaluesに一致する内容を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnName 列名を設定します.
+	 * @param values 一致条件を複数設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult in(Executor executor, boolean ascFlag, boolean notEq,
+		String columnName, Object... values) {
+		return in(executor, ascFlag, notEq, getColumnNameByNo(columnName), values);
+	}
+	
+	/**
+	 * 指定したvaluesに一致する内容を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnNo 列番号を設定します.
+	 * @param values 一致条件を複数設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult in(Executor executor, final boolean ascFlag,
+		final boolean notEq, final int columnNo, final Object... values) {
 		checkFix();
-		return new ResultSearchBody(new NormalSearchIn(
-			this, ascFlag, notEq, columnNo, values));
+		return createResult(executor, new NormalSearchIn(
+			this, ascFlag, notEq, columnNo, values),
+			new SearchFactory() {
+			@Override
+			public NormalSearch create() {
+				return new NormalSearchIn(
+					RimBody.this, ascFlag, notEq, columnNo, values);
+			}
+		});
 	}
 
 	/**
 	 * Like検索条件を取得.
+	 * Not条件でない場合、列にインデックス(前方一致)やNgramインデックス(文字指定)が
+	 * 存在すれば、インデックスで絞り込んだ行のみLike条件で判定します.
 	 * @param ascFlag 昇順で情報取得する場合は true.
 	 * @param notEq Not条件で検索する場合は true.
 	 * @param columnName 列名を設定します.
@@ -517,6 +907,8 @@ public class RimBody {
 	
 	/**
 	 * Like検索条件を取得.
+	 * Not条件でない場合、列にインデックス(前方一致)やNgramインデックス(文字指定)が
+	 * 存在すれば、インデックスで絞り込んだ行のみLike条件で判定します.
 	 * @param ascFlag 昇順で情報取得する場合は true.
 	 * @param notEq Not条件で検索する場合は true.
 	 * @param columnNo 列番号を設定します.
@@ -525,14 +917,55 @@ public class RimBody {
 	 */
 	public RimResult like(boolean ascFlag, boolean notEq,
 		int columnNo, String value) {
+		return like(null, ascFlag, notEq, columnNo, value);
+	}
+	
+	/**
+	 * Like検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnName 列名を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult like(Executor executor, boolean ascFlag, boolean notEq,
+		String columnName, String value) {
+		return like(executor, ascFlag, notEq, getColumnNameByNo(columnName), value);
+	}
+	
+	/**
+	 * Like検索条件を取得.
+	 * @param executor 検索を並列で実行するExecutorを設定します.
+	 *                 行の範囲を分割して並列で検索し、結果は行番号の順で返却されます.
+	 *                 null の場合は呼び出しスレッドで検索します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param notEq Not条件で検索する場合は true.
+	 * @param columnNo 列番号を設定します.
+	 * @param value 条件を設定します.
+	 * @return RimResultSearch 検索結果が返却されます.
+	 */
+	public RimResult like(Executor executor, final boolean ascFlag,
+		final boolean notEq, final int columnNo, final String value) {
 		checkFix();
-		return new ResultSearchBody(new NormalSearchLike(
-			this, ascFlag, notEq, columnNo, value));
+		return createResult(executor, new NormalSearchLike(
+			this, ascFlag, notEq, columnNo, value),
+			new SearchFactory() {
+			@Override
+			public NormalSearch create() {
+				return new NormalSearchLike(
+					RimBody.this, ascFlag, notEq, columnNo, value);
+			}
+		});
 	}
 	
 	// 指定列のBody検索結果を格納するオブジェクト.
 	private static final class ResultSearchBody
 		implements RimResult {
+		// 行情報(この検索結果専用).
+		private RimRow row;
 		// 各検索条件の検索管理オブジェクト.
 		private NormalSearch normalSearch;
 		// hasNext()呼び出しでの検索位置情報.
@@ -565,7 +998,7 @@ public class RimBody {
 		}
 
 		@Override
-		public Integer next() {
+		public int nextRowId() {
 			int ret = -1;
 			// nextRowId()がhasNext()等で既に呼び出されている場合.
 			if(execHasNextBySearchPosition != -1) {
@@ -577,7 +1010,7 @@ public class RimBody {
 			}
 			// 終端まで読み込まれてた場合.
 			if(normalSearch.isEnd()) {
-				throw new NoSuchElementException();
+				return -1;
 			} else if(ret != -1) {
 				// nextRowId()がhasNext()等で既に呼び出されている
 				// 場合はその時取得した値を返却.
@@ -587,17 +1020,16 @@ public class RimBody {
 			ret = normalSearch.nextRowId();
 			// 位置情報を更新.
 			normalSearch.updatePositon(ret);
-			// 終端を検出した場合.
-			if(ret == -1) {
-				throw new NoSuchElementException();
-			}
 			return ret;
 		}
 		
 		@Override
 		public RimRow nextRow() {
-			int rowId = next();
-			return normalSearch.body.getRow(rowId);
+			final int rowId = nextRowId();
+			if(rowId == -1) {
+				throw new NoSuchElementException();
+			}
+			return row = normalSearch.body.getRow(row, rowId);
 		}
 
 		@Override
@@ -611,12 +1043,212 @@ public class RimBody {
 		}
 	}
 	
+	// 検索管理オブジェクトを生成するオブジェクト.
+	private static interface SearchFactory {
+		/**
+		 * 検索管理オブジェクトを生成.
+		 * @return NormalSearch 新しい検索管理オブジェクトが返却されます.
+		 */
+		NormalSearch create();
+	}
+	
+	// 検索結果オブジェクトを生成.
+	private final RimResult createResult(
+		Executor executor, NormalSearch search, SearchFactory factory) {
+		// Executorが設定されていないか、分割する行数に満たないか、
+		// インデックスで検索する場合.
+		if(executor == null || rowLength <= PARALLEL_PARTITION_ROWS ||
+			!search.isPartition()) {
+			return new ResultSearchBody(search);
+		}
+		return new ResultParallelSearchBody(executor, search, factory);
+	}
+	
+	// 指定列のBody検索を並列で実行した検索結果を格納するオブジェクト.
+	// 行の範囲を PARALLEL_PARTITION_ROWS 単位で分割して並列に検索し、
+	// 検索順の先頭の範囲から順に結果を返却します.
+	private static final class ResultParallelSearchBody
+		implements RimResult {
+		// 行情報(この検索結果専用).
+		private RimRow row;
+		// RimBody.
+		private final RimBody body;
+		// 検索対象列情報.
+		private final ColumnData column;
+		// 昇順フラグ.
+		private final boolean ascFlag;
+		// 分割範囲毎の検索結果(検索順).
+		private final CompletableFuture<int[]>[] partitions;
+		// 読み込み中の分割範囲の位置.
+		private int partitionNo = -1;
+		// 読み込み中の分割範囲の検索結果.
+		private int[] current = null;
+		// 読み込み中の分割範囲の検索結果の読み込み位置.
+		private int currentPos = 0;
+		// 現在取得されている行番号.
+		private int rowId = -1;
+		// 読み込み終了フラグ.
+		private boolean endFlag = false;
+		
+		/**
+		 * コンストラクタ.
+		 * @param executor 検索を実行するExecutorを設定します.
+		 * @param search 最初の分割範囲で利用する検索管理オブジェクトを設定します.
+		 * @param factory 他の分割範囲の検索管理オブジェクトを生成する
+		 *                オブジェクトを設定します.
+		 */
+		public ResultParallelSearchBody(
+			Executor executor, NormalSearch search, SearchFactory factory) {
+			this.body = search.body;
+			this.column = search.column;
+			this.ascFlag = search.ascFlag;
+			final int rowLength = search.rowLength;
+			final int len = (rowLength + PARALLEL_PARTITION_ROWS - 1) /
+				PARALLEL_PARTITION_ROWS;
+			this.partitions = new CompletableFuture[len];
+			int no, from;
+			for(int i = 0; i < len; i ++) {
+				// 検索順に分割範囲を割り当てる.
+				no = ascFlag ? i : len - 1 - i;
+				from = no * PARALLEL_PARTITION_ROWS;
+				partitions[i] = CompletableFuture.supplyAsync(
+					new PartitionSearch(i == 0 ? search : factory.create(),
+						from, Math.min(from + PARALLEL_PARTITION_ROWS, rowLength)),
+					executor);
+			}
+		}
+		
+		// 次の検索結果が存在する分割範囲を読み込む.
+		private final boolean load() {
+			if(endFlag) {
+				return false;
+			}
+			while(current == null || currentPos >= current.length) {
+				if(++ partitionNo >= partitions.length) {
+					endFlag = true;
+					current = null;
+					return false;
+				}
+				current = join(partitions[partitionNo]);
+				currentPos = 0;
+			}
+			return true;
+		}
+		
+		// 分割範囲の検索結果を取得.
+		private static final int[] join(CompletableFuture<int[]> partition) {
+			try {
+				return partition.join();
+			} catch(CompletionException ce) {
+				final Throwable t = ce.getCause();
+				if(t instanceof RuntimeException) {
+					throw (RuntimeException)t;
+				} else if(t instanceof Error) {
+					throw (Error)t;
+				}
+				throw new RimException(t);
+			}
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return load();
+		}
+		
+		@Override
+		public int nextRowId() {
+			if(!load()) {
+				return -1;
+			}
+			return rowId = current[currentPos ++];
+		}
+		
+		@Override
+		public RimRow nextRow() {
+			final int rowId = nextRowId();
+			if(rowId == -1) {
+				throw new NoSuchElementException();
+			}
+			return row = body.getRow(row, rowId);
+		}
+		
+		@Override
+		public int fill(int[] buf, int off, int len) {
+			int n, ret = 0;
+			while(ret < len && load()) {
+				n = Math.min(len - ret, current.length - currentPos);
+				System.arraycopy(current, currentPos, buf, off + ret, n);
+				currentPos += n;
+				ret += n;
+				rowId = buf[off + ret - 1];
+			}
+			return ret;
+		}
+		
+		@Override
+		public Comparable getValue() {
+			if(endFlag || rowId == -1) {
+				throw new NoSuchElementException();
+			}
+			return (Comparable)column.get(rowId);
+		}
+		
+		@Override
+		public int getLineNo() {
+			if(endFlag || rowId == -1) {
+				throw new NoSuchElementException();
+			}
+			return rowId;
+		}
+	}
+	
+	// 1つの分割範囲の検索処理.
+	private static final class PartitionSearch implements Supplier<int[]> {
+		// 検索管理オブジェクト(この分割範囲専用).
+		private final NormalSearch search;
+		// 分割範囲の開始行番号(この行を含む).
+		private final int from;
+		// 分割範囲の終了行番号(この行を含まない).
+		private final int to;
+		
+		/**
+		 * コンストラクタ.
+		 * @param search 検索管理オブジェクトを設定します.
+		 * @param from 分割範囲の開始行番号(この行を含む)を設定します.
+		 * @param to 分割範囲の終了行番号(この行を含まない)を設定します.
+		 */
+		PartitionSearch(NormalSearch search, int from, int to) {
+			this.search = search;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		public int[] get() {
+			final boolean ascFlag = search.ascFlag;
+			final int end = ascFlag ? to : from - 1;
+			int[] ret = new int[64];
+			int len = 0;
+			int p = ascFlag ? from : to - 1;
+			while((p = search.nextRowId(p, end)) != -1) {
+				if(len >= ret.length) {
+					ret = Arrays.copyOf(ret, ret.length << 1);
+				}
+				ret[len ++] = p;
+				p = ascFlag ? p + 1 : p - 1;
+			}
+			return len == ret.length ? ret : Arrays.copyOf(ret, len);
+		}
+	}
+	
 	// 検索管理オブジェクト雛形.
 	private static abstract class NormalSearch {
 		// RimBody.
 		protected RimBody body;
-		// body行列情報.
-		protected Object[] rows;
+		// 検索対象列情報.
+		protected ColumnData column;
+		// 検索対象列が文字列の場合の列情報.
+		protected ColumnData.StringColumn stringColumn;
 		// 最大行番号.
 		protected int rowLength;
 		// 検索対象列番号.
@@ -631,6 +1263,14 @@ public class RimBody {
 		protected boolean notEq;
 		// 読み込み終了フラグ.
 		protected boolean endFlag;
+		// ゾーンマップ(利用しない場合は null).
+		protected ZoneMap zoneMap;
+		// ゾーンマップで判定する順序キーの開始値(この値を含む).
+		protected long zoneStart;
+		// ゾーンマップで判定する順序キーの終了値(この値を含む).
+		protected long zoneEnd;
+		// 順序キーの範囲条件で検索する場合の検索処理.
+		protected RangeScan rangeScan;
 		
 		/**
 		 * 初期化.
@@ -640,8 +1280,10 @@ public class RimBody {
 		 */
 		protected void init(RimBody body, boolean ascFlag, boolean notEq, int columnNo) {
 			this.body = body;
-			this.rows = body.rows;
-			this.rowLength = this.rows.length;
+			this.column = body.columnData[columnNo];
+			this.stringColumn = (column instanceof ColumnData.StringColumn) ?
+				(ColumnData.StringColumn)column : null;
+			this.rowLength = body.rowLength;
 			this.columnNo = columnNo;
 			this.columnType = body.columnTypes[columnNo];
 			this.ascFlag = ascFlag;
@@ -649,6 +1291,31 @@ public class RimBody {
 			this.position = ascFlag ? -1 : rowLength;
 		}
 		
+		/**
+		 * ゾーンマップで判定する順序キーの範囲を設定.
+		 * 列にゾーンマップが存在する場合、条件に一致しない
+		 * ブロックを読み飛ばします.
+		 * @param start 順序キーの開始値(この値を含む)を設定します.
+		 * @param end 順序キーの終了値(この値を含む)を設定します.
+		 */
+		protected void setZoneRange(long start, long end) {
+			this.zoneMap = body.zoneMaps[columnNo];
+			this.zoneStart = start;
+			this.zoneEnd = end;
+		}
+		
+		/**
+		 * 順序キーの範囲条件を設定.
+		 * 条件は start から end までの範囲(不一致条件の場合は範囲外)となり、
+		 * ゾーンマップの判定と、列型毎の一致ビットによる検索で利用します.
+		 * @param start 順序キーの開始値(この値を含む)を設定します.
+		 * @param end 順序キーの終了値(この値を含む)を設定します.
+		 */
+		protected void setKeyRange(long start, long end) {
+			setZoneRange(start, end);
+			this.rangeScan = new RangeScan(column, notEq, start, end);
+		}
+		
 		/**
 		 * ポジション更新.
 		 * @param position
@@ -709,19 +1376,77 @@ public class RimBody {
 			if(endFlag) {
 				throw new NoSuchElementException();
 			}
-			return (Comparable)((Object[])rows[position])[columnNo];
+			return (Comparable)column.get(position);
 		}
 		
 		/**
 		 * 条件が一致する次の行番号を取得.
 		 * @return
 		 */
-		public abstract int nextRowId();
+		public int nextRowId() {
+			if(endFlag) {
+				return -1;
+			}
+			return nextRowId(nextPosition(), ascFlag ? rowLength : -1);
+		}
+		
+		/**
+		 * 指定範囲で条件が一致する次の行番号を取得.
+		 * 現在取得位置情報は更新しません.
+		 * @param startPos 検索開始位置を設定します.
+		 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+		 * @return int -1の場合、情報は見つかりませんでした.
+		 */
+		public int nextRowId(int startPos, int endPos) {
+			if(zoneMap == null) {
+				return search(startPos, endPos);
+			}
+			// ゾーンマップで一致する可能性のあるブロックのみ検索.
+			int ret, end;
+			int pos = startPos;
+			while((pos = zoneMap.nextPosition(
+				ascFlag, notEq, pos, zoneStart, zoneEnd)) != -1) {
+				if(ascFlag) {
+					if(pos >= endPos) {
+						break;
+					}
+					end = Math.min(endPos, zoneMap.endPosition(
+						ascFlag, notEq, pos, zoneStart, zoneEnd));
+				} else {
+					if(pos <= endPos) {
+						break;
+					}
+					end = Math.max(endPos, zoneMap.endPosition(
+						ascFlag, notEq, pos, zoneStart, zoneEnd));
+				}
+				if((ret = search(pos, end)) != -1) {
+					return ret;
+				}
+				pos = end;
+			}
+			return -1;
+		}
+		
+		/**
+		 * 行の範囲を分割して並列で検索できるかチェック.
+		 * @return boolean false の場合、分割して検索しません.
+		 */
+		protected boolean isPartition() {
+			return true;
+		}
+		
+		/**
+		 * 指定範囲で条件が一致する行番号を取得.
+		 * @param startPos 検索開始位置を設定します.
+		 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+		 * @return int -1の場合、情報は見つかりませんでした.
+		 */
+		protected abstract int search(int startPos, int endPos);
 	}
 	
 	// [=] 検索管理オブジェクト.
 	private static final class NormalSearchEq extends NormalSearch {
-		private Comparable value;
+		private byte[] binary;
 		NormalSearchEq(RimBody body, boolean ascFlag, boolean notEq, int columnNo,
 			Object value) {
 			// valueがnullの場合は例外.
@@ -730,21 +1455,27 @@ public class RimBody {
 			}
 			this.init(body, ascFlag, notEq, columnNo);
 			this.notEq = notEq;
-			this.value = super.convert(value);
+			if(stringColumn != null) {
+				this.binary = ColumnData.StringColumn.toBinary(
+					(String)super.convert(value));
+			} else {
+				final long key = column.toKey(super.convert(value));
+				setKeyRange(key, key);
+			}
 		}
 		@Override
-		public int nextRowId() {
-			if(endFlag) {
-				return -1;
+		protected int search(int startPos, int endPos) {
+			if(stringColumn != null) {
+				return SearchUtil.normalEq(stringColumn, ascFlag, notEq,
+					startPos, endPos, binary);
 			}
-			return SearchUtil.normalEq(rows, columnNo, ascFlag, notEq,
-				nextPosition(), value);
+			return rangeScan.next(ascFlag, startPos, endPos);
 		}
 	}
 	
 	// [>] 検索管理オブジェクト.
 	private static final class NormalSearchGT extends NormalSearch {
-		private Comparable value;
+		private String value;
 		NormalSearchGT(RimBody body, boolean ascFlag, boolean notEq, int columnNo,
 			Object value) {
 			// valueがnullの場合は例外.
@@ -752,21 +1483,31 @@ public class RimBody {
 				throw new RimException("Null cannot be set in the search condition.");
 			}
 			this.init(body, ascFlag, notEq, columnNo);
-			this.value = super.convert(value);
+			if(stringColumn != null) {
+				this.value = (String)super.convert(value);
+			} else {
+				final long key = column.toKey(super.convert(value));
+				// 最大値より大きい条件は一致しない範囲(start > end)とする.
+				if(key == Long.MAX_VALUE) {
+					setKeyRange(Long.MAX_VALUE, Long.MAX_VALUE - 1L);
+				} else {
+					setKeyRange(key + 1L, Long.MAX_VALUE);
+				}
+			}
 		}
 		@Override
-		public int nextRowId() {
-			if(endFlag) {
-				return -1;
+		protected int search(int startPos, int endPos) {
+			if(stringColumn != null) {
+				return SearchUtil.normalRange(stringColumn, ascFlag, notEq,
+					startPos, endPos, value, false, null, false);
 			}
-			return SearchUtil.normalGT(rows, columnNo, ascFlag, notEq,
-				nextPosition(), value);
+			return rangeScan.next(ascFlag, startPos, endPos);
 		}
 	}
 	
 	// [>=] 検索管理オブジェクト.
 	private static final class NormalSearchGE extends NormalSearch {
-		private Comparable value;
+		private String value;
 		NormalSearchGE(RimBody body, boolean ascFlag, boolean notEq, int columnNo,
 			Object value) {
 			// valueがnullの場合は例外.
@@ -774,21 +1515,25 @@ public class RimBody {
 				throw new RimException("Null cannot be set in the search condition.");
 			}
 			this.init(body, ascFlag, notEq, columnNo);
-			this.value = super.convert(value);
+			if(stringColumn != null) {
+				this.value = (String)super.convert(value);
+			} else {
+				setKeyRange(column.toKey(super.convert(value)), Long.MAX_VALUE);
+			}
 		}
 		@Override
-		public int nextRowId() {
-			if(endFlag) {
-				return -1;
+		protected int search(int startPos, int endPos) {
+			if(stringColumn != null) {
+				return SearchUtil.normalRange(stringColumn, ascFlag, notEq,
+					startPos, endPos, value, true, null, false);
 			}
-			return SearchUtil.normalGE(rows, columnNo, ascFlag, notEq,
-				nextPosition(), value);
+			return rangeScan.next(ascFlag, startPos, endPos);
 		}
 	}
 	
 	// [<] 検索管理オブジェクト.
 	private static final class NormalSearchLT extends NormalSearch {
-		private Comparable value;
+		private String value;
 		NormalSearchLT(RimBody body, boolean ascFlag, boolean notEq, int columnNo,
 			Object value) {
 			// valueがnullの場合は例外.
@@ -796,21 +1541,31 @@ public class RimBody {
 				throw new RimException("Null cannot be set in the search condition.");
 			}
 			this.init(body, ascFlag, notEq, columnNo);
-			this.value = super.convert(value);
+			if(stringColumn != null) {
+				this.value = (String)super.convert(value);
+			} else {
+				final long key = column.toKey(super.convert(value));
+				// 最小値より小さい条件は一致しない範囲(start > end)とする.
+				if(key == Long.MIN_VALUE) {
+					setKeyRange(Long.MIN_VALUE + 1L, Long.MIN_VALUE);
+				} else {
+					setKeyRange(Long.MIN_VALUE, key - 1L);
+				}
+			}
 		}
 		@Override
-		public int nextRowId() {
-			if(endFlag) {
-				return -1;
+		protected int search(int startPos, int endPos) {
+			if(stringColumn != null) {
+				return SearchUtil.normalRange(stringColumn, ascFlag, notEq,
+					startPos, endPos, null, false, value, false);
 			}
-			return SearchUtil.normalLT(rows, columnNo, ascFlag, notEq,
-				nextPosition(), value);
+			return rangeScan.next(ascFlag, startPos, endPos);
 		}
 	}
 	
 	// [<=] 検索管理オブジェクト.
 	private static final class NormalSearchLE extends NormalSearch {
-		private Comparable value;
+		private String value;
 		NormalSearchLE(RimBody body, boolean ascFlag, boolean notEq, int columnNo,
 			Object value) {
 			// valueがnullの場合は例外.
@@ -818,22 +1573,26 @@ public class RimBody {
 				throw new RimException("Null cannot be set in the search condition.");
 			}
 			this.init(body, ascFlag, notEq, columnNo);
-			this.value = super.convert(value);
+			if(stringColumn != null) {
+				this.value = (String)super.convert(value);
+			} else {
+				setKeyRange(Long.MIN_VALUE, column.toKey(super.convert(value)));
+			}
 		}
 		@Override
-		public int nextRowId() {
-			if(endFlag) {
-				return -1;
+		protected int search(int startPos, int endPos) {
+			if(stringColumn != null) {
+				return SearchUtil.normalRange(stringColumn, ascFlag, notEq,
+					startPos, endPos, null, false, value, true);
 			}
-			return SearchUtil.normalLE(rows, columnNo, ascFlag, notEq,
-				nextPosition(), value);
+			return rangeScan.next(ascFlag, startPos, endPos);
 		}
 	}
 	
 	// [between] 検索管理オブジェクト.
 	private static final class NormalSearchBetween extends NormalSearch {
-		private Comparable start;
-		private Comparable end;
+		private String start;
+		private String end;
 		NormalSearchBetween(RimBody body, boolean ascFlag, boolean notEq, int columnNo,
 			Object start, Object end) {
 			// start や end がnullの場合は例外.
@@ -841,32 +1600,36 @@ public class RimBody {
 				throw new RimException("Null cannot be set in the search condition.");
 			}
 			this.init(body, ascFlag, notEq, columnNo);
-			this.start = super.convert(start);
-			this.end = super.convert(end);
+			Comparable s = super.convert(start);
+			Comparable e = super.convert(end);
 			
-			// 昇順・降順に合わせて、startとendを入れ替え.
-			if((ascFlag && this.start.compareTo(this.end) > 0) ||
-				(!ascFlag && this.start.compareTo(this.end) < 0)) {
-				Comparable t = this.start;
-				this.start = this.end;
-				this.end = t;
+			// start <= end となるように入れ替え.
+			if(s.compareTo(e) > 0) {
+				Comparable t = s;
+				s = e;
+				e = t;
+			}
+			if(stringColumn != null) {
+				this.start = (String)s;
+				this.end = (String)e;
+			} else {
+				setKeyRange(column.toKey(s), column.toKey(e));
 			}
 		}
 		@Override
-		public int nextRowId() {
-			if(endFlag) {
-				return -1;
+		protected int search(int startPos, int endPos) {
+			if(stringColumn != null) {
+				return SearchUtil.normalRange(stringColumn, ascFlag, notEq,
+					startPos, endPos, start, true, end, true);
 			}
-			int ret = SearchUtil.normalBetween(
-				rows, columnNo, ascFlag, notEq, nextPosition(),
-				start, end);
-			return ret;
+			return rangeScan.next(ascFlag, startPos, endPos);
 		}
 	}
 	
 	// [in] 検索管理オブジェクト.
 	private static final class NormalSearchIn extends NormalSearch {
-		private Comparable[] inList;
+		private long[] keys;
+		private byte[][] binarys;
 		NormalSearchIn(RimBody body, boolean ascFlag, boolean notEq, int columnNo,
 			Object... values) {
 			final int len = values.length;
@@ -874,32 +1637,54 @@ public class RimBody {
 			if(len == 0) {
 				throw new RimException("At least one condition must be set.");
 			}
-			Comparable[] inList = new Comparable[len];
 			this.init(body, ascFlag, notEq, columnNo);
+			Comparable v;
+			if(stringColumn != null) {
+				binarys = new byte[len][];
+			} else {
+				keys = new long[len];
+			}
 			for(int i = 0; i < len; i ++) {
-				values[i] = super.convert(values[i]);
+				v = super.convert(values[i]);
 				// valuesのどれかがnullの場合は例外.
-				if(values[i] == null) {
+				if(v == null) {
 					throw new RimException("Null cannot be set in the search condition.");
+				} else if(stringColumn != null) {
+					binarys[i] = ColumnData.StringColumn.toBinary((String)v);
+				} else {
+					keys[i] = column.toKey(v);
+				}
+			}
+			if(keys != null) {
+				Arrays.sort(keys);
+				// 一致条件の場合は最小・最大の条件範囲でゾーンマップを判定.
+				// 不一致条件の場合は範囲で判定できないので利用しない.
+				if(!notEq) {
+					setZoneRange(keys[0], keys[len - 1]);
 				}
-				inList[i] = (Comparable)values[i];
 			}
-			Arrays.sort(inList);
-			this.inList = inList;
 		}
 		@Override
-		public int nextRowId() {
-			if(endFlag) {
-				return -1;
+		protected int search(int startPos, int endPos) {
+			if(stringColumn != null) {
+				return SearchUtil.normalIn(stringColumn, ascFlag, notEq,
+					startPos, endPos, binarys);
 			}
-			return SearchUtil.normalIn(
-				rows, columnNo, ascFlag, notEq, nextPosition(), inList);
+			return SearchUtil.normalIn(column, ascFlag, notEq,
+				startPos, endPos, keys);
 		}
 	}
 	
 	// [like] 検索管理オブジェクト.
 	private static final class NormalSearchLike extends NormalSearch {
 		private LikeParser parser;
+		// 辞書化された列の場合の列情報.
+		private ColumnData.DictionaryColumn dictColumn;
+		// 辞書番号毎のLike一致フラグ.
+		private Flags dictMatches;
+		// インデックスで絞り込んだ候補の行番号群(昇順).
+		// インデックスを利用しない場合は null.
+		private int[] candidates;
 		NormalSearchLike(RimBody body, boolean ascFlag, boolean notEq, int columnNo,
 			String value) {
 			// valueがnullの場合は例外.
@@ -912,7 +1697,7 @@ public class RimBody {
 			}
 			LikeParser parser = LikeAnalysis.analysis(value);
 			init(body, ascFlag, notEq, columnNo, parser);
-			
+		
 		}
 		private final void init(RimBody body, boolean ascFlag, boolean notEq, int columnNo,
 			LikeParser parser) {
@@ -922,17 +1707,141 @@ public class RimBody {
 			}
 			this.init(body, ascFlag, notEq, columnNo);
 			this.parser = parser;
+			// 辞書化された列の場合は辞書毎に一致判定を行う.
+			if(column instanceof ColumnData.DictionaryColumn) {
+				dictColumn = (ColumnData.DictionaryColumn)column;
+				final int len = dictColumn.getDictionarySize();
+				dictMatches = new Flags(len);
+				int first = -1, last = -1;
+				for(int i = 0; i < len; i ++) {
+					if(parser.match(dictColumn.getDictionary(i))) {
+						dictMatches.put(i, true);
+						first = first == -1 ? i : first;
+						last = i;
+					}
+				}
+				// 一致条件の場合は一致する辞書番号の範囲でゾーンマップを判定.
+				if(!notEq && first != -1) {
+					setZoneRange((long)first << 1, (long)last << 1);
+				}
+			}
+			// 一致条件の場合はインデックスで候補の行を絞り込む.
+			if(!notEq) {
+				candidates = body.getLikeCandidates(columnNo, parser);
+				if(candidates != null) {
+					zoneMap = null;
+				}
+			}
 		}
 		@Override
-		public int nextRowId() {
-			if(endFlag) {
-				return -1;
+		protected boolean isPartition() {
+			return candidates == null;
+		}
+		@Override
+		protected int search(int startPos, int endPos) {
+			if(candidates != null) {
+				return searchCandidates(startPos, endPos);
+			} else if(dictColumn != null) {
+				return SearchUtil.normalCodes(dictColumn, ascFlag, notEq,
+					startPos, endPos, dictMatches);
 			}
-			return SearchUtil.normalLike(rows, columnNo, ascFlag, notEq,
-				nextPosition(), parser);
+			return SearchUtil.normalLike(stringColumn, ascFlag, notEq,
+				startPos, endPos, parser);
+		}
+		// 候補の行番号群からLike条件に一致する行番号を取得.
+		private final int searchCandidates(int startPos, int endPos) {
+			final int[] list = candidates;
+			final int len = list.length;
+			int p;
+			if(ascFlag) {
+				p = SearchUtil.lowerBound(list, len, startPos);
+				for(; p < len && list[p] < endPos; p ++) {
+					if(isMatch(list[p])) {
+						return list[p];
+					}
+				}
+			} else {
+				p = SearchUtil.upperBound(list, len, startPos) - 1;
+				for(; p >= 0 && list[p] > endPos; p --) {
+					if(isMatch(list[p])) {
+						return list[p];
+					}
+				}
+			}
+			return -1;
+		}
+		// 指定行がLike条件に一致するかチェック.
+		private final boolean isMatch(int rowId) {
+			if(column.isNull(rowId)) {
+				return false;
+			} else if(dictColumn != null) {
+				return dictMatches.get(dictColumn.getCode(rowId));
+			}
+			return stringColumn.matchLike(rowId, parser);
 		}
 	}
 	
+	// インデックスを利用してLike検索の候補となる行番号群(昇順)を取得.
+	// 利用できるインデックスが存在しない場合は null を返却.
+	private final int[] getLikeCandidates(int columnNo, LikeParser parser) {
+		// 前方一致の場合はインデックスの範囲検索で候補を取得.
+		final GeneralIndex index = indexs[columnNo];
+		final String prefix = parser.getPrefix();
+		if(index != null && index.isFix() && prefix != null) {
+			final String upper = getPrefixUpper(prefix);
+			return getSortedRowIds(upper == null ?
+				index.ge(true, false, prefix) :
+				index.between(true, false, prefix, upper));
+		}
+		// 文字指定が存在する場合はNgramインデックスで
+		// 最も長い文字列を含む行を候補とする.
+		final NgramIndex ngramIndex = ngramIndexs[columnNo];
+		if(ngramIndex != null && ngramIndex.isFix()) {
+			String word = null;
+			final String[] words = parser.getWords();
+			final int len = words.length;
+			for(int i = 0; i < len; i ++) {
+				if(words[i].length() >= ngramIndex.getNgramLength() &&
+					(word == null || words[i].length() > word.length())) {
+					word = words[i];
+				}
+			}
+			if(word != null) {
+				return getSortedRowIds(ngramIndex.search(true, true, word));
+			}
+		}
+		return null;
+	}
+	
+	// 前方一致の文字列より大きい文字列で最小となる文字列を取得.
+	// 取得できない場合は null を返却.
+	private static final String getPrefixUpper(String prefix) {
+		char c;
+		for(int i = prefix.length() - 1; i >= 0; i --) {
+			c = prefix.charAt(i);
+			// サロゲートにならない文字の場合は+1した文字で終端.
+			if(c < 0xd7ff || (c >= 0xe000 && c < 0xffff)) {
+				return prefix.substring(0, i) + (char)(c + 1);
+			}
+		}
+		return null;
+	}
+	
+	// 検索結果の行番号群を昇順で取得.
+	private static final int[] getSortedRowIds(RimResult result) {
+		int n;
+		int len = 0;
+		int[] ret = new int[64];
+		while((n = result.fill(ret, len, ret.length - len)) > 0) {
+			if((len += n) >= ret.length) {
+				ret = Arrays.copyOf(ret, ret.length << 1);
+			}
+		}
+		ret = len == ret.length ? ret : Arrays.copyOf(ret, len);
+		Arrays.sort(ret);
+		return ret;
+	}
+
 	// 列名から列番号を取得.
 	private final int getColumnNameByNo(String columnName) {
 		int no = columns.search(columnName);
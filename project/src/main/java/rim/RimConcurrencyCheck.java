@@ -0,0 +1,316 @@
+package rim;
+
+import java.io.File;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rim.compress.CompressType;
+import rim.index.GeneralIndex;
+import rim.index.GeoIndex;
+import rim.index.NgramIndex;
+import rim.util.Args;
+
+/**
+ * Rimの複数スレッド検索の確認.
+ *
+ * RimBenchと同じ擬似CSVからRimファイルを生成して、１つのRimに対して
+ * 複数スレッドから同時に eq / range / like / geo / ngram / 複合条件の
+ * 検索を行い、単一スレッドで実行した結果と一致するか確認します.
+ * 検索結果は行番号と、行情報(RimRow)から読み込んだ列の値で比較します.
+ *
+ * <pre>
+ * java rim.RimConcurrencyCheck [options]
+ *  -r [--rows] {行数}               生成するCSVの行数(20000).
+ *  -c [--cardinality] {数}          インデックス列の値の種類数(100).
+ *  -s [--seed] {乱数シード}          CSV生成の乱数シード(1).
+ *  -t [--thread] {スレッド数}        同時に検索するスレッド数(8).
+ *  -l [--loop] {回数}               スレッド毎の全検索の実行回数(5).
+ *  -d [--dir] {ディレクトリ}         CSVとRimファイルの作業ディレクトリ.
+ * </pre>
+ * 不一致が存在する場合は終了コード[1]で終了します.
+ */
+public class RimConcurrencyCheck {
+
+	// main.
+	public static final void main(String[] args) throws Exception {
+		final Args params = new Args(args);
+		final int rows = intValue(params, 20000, "-r", "--rows");
+		final int cardinality = intValue(params, 100, "-c", "--cardinality");
+		final long seed = intValue(params, 1, "-s", "--seed");
+		final int thread = intValue(params, 8, "-t", "--thread");
+		final int loop = intValue(params, 5, "-l", "--loop");
+		String dir = params.get("-d", "--dir");
+		if(dir == null) {
+			dir = System.getProperty("java.io.tmpdir");
+		}
+
+		// 擬似CSVを生成.
+		final String csvFile = new File(dir, "rimBench_" + rows + "_" +
+			cardinality + "_" + seed + ".csv").getPath();
+		RimBench.createCsv(csvFile, rows, cardinality, seed);
+
+		System.out.println("rows: " + rows + " cardinality: " + cardinality +
+			" seed: " + seed + " thread: " + thread + " loop: " + loop);
+		System.out.println("csv: " + csvFile);
+		System.out.println();
+
+		final Query[] queries = createQueries(rows, cardinality);
+		int error = 0;
+		final CompressType[] types = new CompressType[] {
+			CompressType.None, CompressType.Mapped};
+		for(int i = 0; i < types.length; i ++) {
+			final CompressType type = types[i];
+			final String rimFile = new File(dir, "rimCheck_" + rows + "_" +
+				cardinality + "_" + seed + "_" + type + ".rim").getPath();
+			RimBench.save(csvFile, rimFile, type, false);
+			error += check("LoadRim.load[" + type + "]",
+				LoadRim.load(rimFile), queries, thread, loop);
+			if(CompressType.Mapped == type) {
+				error += check("LoadRim.mmap[" + type + "]",
+					LoadRim.mmap(rimFile), queries, thread, loop);
+			}
+		}
+		System.out.println();
+		if(error != 0) {
+			System.out.println("NG: " + error + " mismatches.");
+			System.exit(1);
+		}
+		System.out.println("OK");
+	}
+
+	// 数値パラメータを取得.
+	private static final int intValue(Args params, int def, String... names) {
+		final Integer ret = params.getInt(names);
+		return ret == null ? def : ret;
+	}
+
+	// 単一スレッドの結果と複数スレッドの結果を比較.
+	private static final int check(String name, final Rim rim,
+		final Query[] queries, int thread, final int loop) throws Exception {
+		final int len = queries.length;
+
+		// 単一スレッドで実行した結果.
+		final long[] expect = new long[len];
+		for(int i = 0; i < len; i ++) {
+			expect[i] = queries[i].run(rim);
+		}
+
+		// 全スレッドの開始を揃えて、スレッド毎に異なる順番で実行.
+		final AtomicInteger error = new AtomicInteger();
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(thread);
+		final Future<?>[] list = new Future<?>[thread];
+		final long time = System.currentTimeMillis();
+		try {
+			for(int t = 0; t < thread; t ++) {
+				final int offset = t;
+				list[t] = executor.submit(new Runnable() {
+					public void run() {
+						try {
+							start.await();
+						} catch(InterruptedException ie) {
+							return;
+						}
+						int no;
+						long ret;
+						for(int i = 0; i < loop; i ++) {
+							for(int j = 0; j < len; j ++) {
+								no = (offset + j) % len;
+								ret = queries[no].run(rim);
+								if(ret != expect[no]) {
+									error.incrementAndGet();
+									System.out.println(" mismatch: " +
+										queries[no].name + " (" + ret +
+										" != " + expect[no] + ")");
+								}
+							}
+						}
+					}
+				});
+			}
+			start.countDown();
+			for(int t = 0; t < thread; t ++) {
+				list[t].get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		System.out.println(name + ": queries " + len + ", " +
+			(System.currentTimeMillis() - time) + " msec, " +
+			(error.get() == 0 ? "OK" : "NG (" + error.get() + ")"));
+		return error.get();
+	}
+
+	/**
+	 * 検索処理.
+	 */
+	private static abstract class Query {
+		// 検索名.
+		final String name;
+
+		Query(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * 検索を実行.
+		 * @param rim 検索対象のRimを設定します.
+		 * @return RimResult 検索結果が返却されます.
+		 */
+		abstract RimResult search(Rim rim);
+
+		/**
+		 * 検索を実行して結果を数値化.
+		 * @param rim 検索対象のRimを設定します.
+		 * @return long 検索結果の行番号と行の値から算出した値が返却されます.
+		 */
+		long run(Rim rim) {
+			return hash(search(rim));
+		}
+	}
+
+	// 検索結果の行番号と、行情報・要素の値から算出した値を取得.
+	private static final long hash(RimResult result) {
+		RimRow row;
+		Object v;
+		long ret = 1L;
+		int idNo = -1, scoreNo = -1;
+		while(result.hasNext()) {
+			row = result.nextRow();
+			if(idNo == -1) {
+				idNo = row.getColumnNo("id");
+				scoreNo = row.getColumnNo("score");
+			}
+			ret = ret * 31L + row.getRowId();
+			ret = ret * 31L + row.getInt(idNo);
+			ret = ret * 31L + Double.doubleToLongBits(row.getDouble(scoreNo));
+			ret = ret * 31L + String.valueOf(row.get("name")).hashCode();
+			v = result.getValue();
+			ret = ret * 31L + (v instanceof Date ?
+				((Date)v).getTime() : String.valueOf(v).hashCode());
+		}
+		return ret;
+	}
+
+	// 検索処理群を生成.
+	private static final Query[] createQueries(final int rows,
+		final int cardinality) {
+		final int category = cardinality / 2;
+		final double lat = RimBench.CENTER_LAT;
+		final double lon = RimBench.CENTER_LON;
+		final Date date = new Date(1600000000000L + (long)(rows / 3) * 60000L);
+		return new Query[] {
+			new Query("GeneralIndex.eq") {
+				RimResult search(Rim rim) {
+					return rim.getIndex("category").eq(true, false, category);
+				}
+			},
+			new Query("GeneralIndex.eq(not)") {
+				RimResult search(Rim rim) {
+					return rim.getIndex("category").eq(false, true, category);
+				}
+			},
+			new Query("GeneralIndex.between") {
+				RimResult search(Rim rim) {
+					return rim.getIndex("id").between(true, false, rows / 4, rows / 2);
+				}
+			},
+			new Query("GeneralIndex.in") {
+				RimResult search(Rim rim) {
+					return rim.getIndex("category").in(false, false,
+						1, category / 2, category, cardinality - 1);
+				}
+			},
+			new Query("GeneralIndex.lt[date]") {
+				RimResult search(Rim rim) {
+					final GeneralIndex index = rim.getIndex("created");
+					return index.lt(true, false, date);
+				}
+			},
+			new Query("RimBody.eq") {
+				RimResult search(Rim rim) {
+					return rim.getBody().eq(true, false, "category", category);
+				}
+			},
+			new Query("RimBody.between") {
+				RimResult search(Rim rim) {
+					return rim.getBody().between(false, false, "score", 100d, 2000d);
+				}
+			},
+			new Query("RimBody.gt(parallel)") {
+				RimResult search(Rim rim) {
+					return rim.getBody().gt(ForkJoinPool.commonPool(), true, false,
+						"id", rows / 3);
+				}
+			},
+			new Query("RimBody.in(not)") {
+				RimResult search(Rim rim) {
+					return rim.getBody().in(true, true, "category",
+						1, category, cardinality - 1);
+				}
+			},
+			new Query("RimBody.like") {
+				RimResult search(Rim rim) {
+					return rim.getBody().like(true, false, "name", "%ang%");
+				}
+			},
+			new Query("RimBody.like(not)") {
+				RimResult search(Rim rim) {
+					return rim.getBody().like(false, true, "name", "apple%");
+				}
+			},
+			new Query("GeoIndex.searchRadius") {
+				RimResult search(Rim rim) {
+					return rim.getGeoIndex("lat", "lon").searchRadius(lat, lon, 1000);
+				}
+			},
+			new Query("GeoIndex.searchRadius(sort)") {
+				RimResult search(Rim rim) {
+					return rim.getGeoIndex("lat", "lon").searchRadius(
+						true, lat, lon, 2000);
+				}
+			},
+			new Query("GeoIndex.nearest") {
+				RimResult search(Rim rim) {
+					return rim.getGeoIndex("lat", "lon").nearest(lat, lon, 50);
+				}
+			},
+			new Query("GeoIndex.searchBox") {
+				RimResult search(Rim rim) {
+					final GeoIndex index = rim.getGeoIndex("lat", "lon");
+					return index.searchBox(lat - 0.01d, lon - 0.01d,
+						lat + 0.01d, lon + 0.01d);
+				}
+			},
+			new Query("NgramIndex.search") {
+				RimResult search(Rim rim) {
+					final NgramIndex index = rim.getNgramIndex("bigram");
+					return index.search(true, "ange");
+				}
+			},
+			new Query("RimQuery.and") {
+				RimResult search(Rim rim) {
+					return new RimQuery(rim)
+						.and(rim.getIndex("id").between(true, false, 0, rows / 2))
+						.and(rim.getGeoIndex("lat", "lon").searchRadius(lat, lon, 3000))
+						.and(rim.getBody().like(true, false, "name", "%a%"))
+						.result(true);
+				}
+			},
+			new Query("RimQuery.or") {
+				RimResult search(Rim rim) {
+					return new RimQuery(rim)
+						.or(rim.getIndex("category").eq(true, false, category),
+							rim.getNgramIndex("unigram").search(true, "東"))
+						.and(rim.getBody().ge(true, false, "score", 5000d))
+						.result(false);
+				}
+			}
+		};
+	}
+}
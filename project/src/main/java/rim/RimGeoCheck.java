@@ -0,0 +1,268 @@
+package rim;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import rim.compress.CompressType;
+import rim.core.ColumnData;
+import rim.geo.GeoCodeType;
+import rim.geo.GeoLine;
+import rim.index.GeoIndex;
+import rim.util.Args;
+import rim.util.CsvReader;
+
+/**
+ * GeoIndexの検索結果の確認.
+ *
+ * 中心点の周辺に緯度・経度を持つ擬似CSVからQuadKey・ヒルベルト曲線の
+ * GeoIndexを持つRimファイルを生成して、以下を確認します.
+ *
+ * - ソート済み(昇順・降順)の半径検索と、ソートなしの半径検索の
+ *   結果の行が一致して、ソート済みの場合は半径順に並んでいること.
+ * - 近い順の指定件数の検索(nearest)の結果が、全行の厳密な距離(GeoLine)を
+ *   計算して近い順に並べた先頭の指定件数と一致すること.
+ *
+ * 中心点はタイルの境界上(緯度0度・経度0度など)や、データから
+ * 数千km以上離れた位置を含めて確認します.
+ *
+ * <pre>
+ * java rim.RimGeoCheck [options]
+ *  -r [--rows] {行数}               生成するCSVの行数(20000).
+ *  -s [--seed] {乱数シード}          CSV生成の乱数シード(1).
+ *  -d [--dir] {ディレクトリ}         CSVとRimファイルの作業ディレクトリ.
+ * </pre>
+ * 不一致が存在する場合は終了コード[1]で終了します.
+ */
+public class RimGeoCheck {
+
+	// 確認する中心点(緯度, 経度).
+	private static final double[][] CENTERS = new double[][] {
+		// タイルの境界上.
+		{0d, 0d}, {0d, 140.625d}, {35.68d, 140.625d}, {RimBench.CENTER_LAT, 135d},
+		// データの範囲内・周辺.
+		{RimBench.CENTER_LAT, RimBench.CENTER_LON},
+		{RimBench.CENTER_LAT + 0.03d, RimBench.CENTER_LON - 0.05d},
+		{RimBench.CENTER_LAT + 0.3d, RimBench.CENTER_LON + 0.3d},
+		// データから数千km以上離れた位置.
+		{35d, 0d}, {0d, 139.77d}, {-35d, -60d}, {80d, -170d}
+	};
+
+	// 確認する半径(メートル).
+	private static final int[] RADIUS = new int[] {
+		0, 10, 1000, 20000, 100000, 5000000, 9000000, 20000000
+	};
+
+	// 確認する取得件数.
+	private static final int[] COUNT = new int[] {
+		1, 5, 50, 1000
+	};
+
+	// main.
+	public static final void main(String[] args) throws Exception {
+		final Args params = new Args(args);
+		final Integer rowsValue = params.getInt("-r", "--rows");
+		final Integer seedValue = params.getInt("-s", "--seed");
+		final int rows = rowsValue == null ? 20000 : rowsValue;
+		final long seed = seedValue == null ? 1 : seedValue;
+		String dir = params.get("-d", "--dir");
+		if(dir == null) {
+			dir = System.getProperty("java.io.tmpdir");
+		}
+
+		// 擬似CSVを生成.
+		final String csvFile = new File(dir, "rimGeoCheck_" + rows + "_" +
+			seed + ".csv").getPath();
+		createCsv(csvFile, rows, seed);
+
+		System.out.println("rows: " + rows + " seed: " + seed);
+		System.out.println("csv: " + csvFile);
+		System.out.println();
+
+		int error = 0;
+		final GeoCodeType[] codeTypes = new GeoCodeType[] {
+			GeoCodeType.Quad, GeoCodeType.Hilbert};
+		final CompressType[] types = new CompressType[] {
+			CompressType.None, CompressType.Mapped};
+		for(int i = 0; i < codeTypes.length; i ++) {
+			for(int j = 0; j < types.length; j ++) {
+				final String rimFile = new File(dir, "rimGeoCheck_" + rows + "_" +
+					seed + "_" + codeTypes[i] + "_" + types[j] + ".rim").getPath();
+				save(csvFile, rimFile, codeTypes[i], types[j]);
+				error += check("LoadRim.load[" + codeTypes[i] + ", " +
+					types[j] + "]", LoadRim.load(rimFile));
+				if(CompressType.Mapped == types[j]) {
+					error += check("LoadRim.mmap[" + codeTypes[i] + ", " +
+						types[j] + "]", LoadRim.mmap(rimFile));
+				}
+			}
+		}
+		System.out.println();
+		if(error != 0) {
+			System.out.println("NG: " + error + " mismatches.");
+			System.exit(1);
+		}
+		System.out.println("OK");
+	}
+
+	// 擬似CSVを生成.
+	private static final void createCsv(String csvFile, int rows, long seed)
+		throws Exception {
+		if(new File(csvFile).isFile()) {
+			return;
+		}
+		final Random r = new Random(seed);
+		final Writer w = new BufferedWriter(new OutputStreamWriter(
+			new FileOutputStream(csvFile), "UTF8"));
+		try {
+			w.write("id,lat,lon\n");
+			w.write("int,double,double\n");
+			final StringBuilder buf = new StringBuilder();
+			for(int i = 0; i < rows; i ++) {
+				buf.setLength(0);
+				buf.append(i).append(",")
+					.append(RimBench.CENTER_LAT + (r.nextDouble() - 0.5d) * 0.2d)
+					.append(",")
+					.append(RimBench.CENTER_LON + (r.nextDouble() - 0.5d) * 0.2d)
+					.append("\n");
+				w.write(buf.toString());
+			}
+		} finally {
+			w.close();
+		}
+	}
+
+	// Rimファイルを保存.
+	private static final void save(String csvFile, String rimFile,
+		GeoCodeType codeType, CompressType type) throws Exception {
+		final SaveRim save = new SaveRim(
+			new CsvReader(csvFile, "UTF8", ","),
+			new BufferedOutputStream(new FileOutputStream(rimFile)), type);
+		try {
+			save.addGeoIndex("lat", "lon", codeType);
+			save.write();
+		} finally {
+			save.close();
+		}
+	}
+
+	// 検索結果を確認.
+	private static final int check(String name, Rim rim) {
+		final GeoIndex index = rim.getGeoIndex("lat", "lon");
+		final RimBody body = rim.getBody();
+		final ColumnData latColumn = body.getColumnData(body.getColumnNo("lat"));
+		final ColumnData lonColumn = body.getColumnData(body.getColumnNo("lon"));
+		final long time = System.currentTimeMillis();
+		int error = 0, count = 0;
+		double lat, lon;
+		Integer[] expect;
+		for(int i = 0; i < CENTERS.length; i ++) {
+			lat = CENTERS[i][0];
+			lon = CENTERS[i][1];
+			for(int j = 0; j < RADIUS.length; j ++) {
+				error += checkRadius(index, lat, lon, RADIUS[j]);
+				count ++;
+			}
+			expect = nearest(body.getRowLength(), latColumn, lonColumn, lat, lon);
+			for(int j = 0; j < COUNT.length; j ++) {
+				error += checkNearest(index, expect, lat, lon, COUNT[j]);
+				count ++;
+			}
+		}
+		System.out.println(name + ": checks " + count + ", " +
+			(System.currentTimeMillis() - time) + " msec, " +
+			(error == 0 ? "OK" : "NG (" + error + ")"));
+		return error;
+	}
+
+	// ソート済みとソートなしの半径検索の結果を比較.
+	private static final int checkRadius(GeoIndex index,
+		double lat, double lon, int redius) {
+		final String name = "searchRadius(" + lat + ", " + lon + ", " +
+			redius + ")";
+		final int[] expect = rowIds(index.searchRadius(lat, lon, redius), 0);
+		int error = 0;
+		if(!Arrays.equals(expect,
+			rowIds(index.searchRadius(true, lat, lon, redius), 1))) {
+			error += mismatch(name + "[asc]");
+		}
+		if(!Arrays.equals(expect,
+			rowIds(index.searchRadius(false, lat, lon, redius), -1))) {
+			error += mismatch(name + "[desc]");
+		}
+		return error;
+	}
+
+	// 全行の厳密な距離を計算して、近い順(同じ距離の場合は行番号順)の
+	// 行番号を取得.
+	private static final Integer[] nearest(int rows, ColumnData latColumn,
+		ColumnData lonColumn, double lat, double lon) {
+		final double[] distance = new double[rows];
+		final Integer[] ret = new Integer[rows];
+		for(int i = 0; i < rows; i ++) {
+			distance[i] = GeoLine.get(lat, lon,
+				latColumn.getDouble(i), lonColumn.getDouble(i));
+			ret[i] = i;
+		}
+		Arrays.sort(ret, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				final int ret = Double.compare(distance[a], distance[b]);
+				return ret != 0 ? ret : a.compareTo(b);
+			}
+		});
+		return ret;
+	}
+
+	// 近い順の指定件数の検索結果を、全行の厳密な距離の結果と比較.
+	private static final int checkNearest(GeoIndex index, Integer[] expect,
+		double lat, double lon, int count) {
+		final String name = "nearest(" + lat + ", " + lon + ", " + count + ")";
+		final RimResultGeo result = index.nearest(lat, lon, count);
+		final int len = Math.min(count, expect.length);
+		double before = -1d, redius;
+		int n = 0;
+		while(result.nextRowId() != -1) {
+			redius = result.getStrictRedius();
+			if(n >= len || result.getLineNo() != expect[n] || redius < before) {
+				return mismatch(name + "[" + n + "]");
+			}
+			before = redius;
+			n ++;
+		}
+		return n == len ? 0 : mismatch(name + "[length " + n + "]");
+	}
+
+	// 検索結果の行番号をソートして取得.
+	// order が 1 の場合は昇順, -1 の場合は降順に半径が並んでいない場合は
+	// null を返却.
+	private static final int[] rowIds(RimResultGeo result, int order) {
+		int[] ret = new int[16];
+		int len = 0, before = -1, redius;
+		while(result.nextRowId() != -1) {
+			if(len == ret.length) {
+				ret = Arrays.copyOf(ret, len << 1);
+			}
+			ret[len ++] = result.getLineNo();
+			redius = (Integer)result.getValue();
+			if(len > 1 && (redius - before) * order < 0) {
+				return null;
+			}
+			before = redius;
+		}
+		ret = Arrays.copyOf(ret, len);
+		Arrays.sort(ret);
+		return ret;
+	}
+
+	// 不一致を出力.
+	private static final int mismatch(String name) {
+		System.out.println(" mismatch: " + name);
+		return 1;
+	}
+}
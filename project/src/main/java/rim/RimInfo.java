@@ -3,6 +3,7 @@ package rim;
 import rim.compress.CompressType;
 import rim.core.ColumnType;
 import rim.exception.RimException;
+import rim.geo.GeoCodeType;
 import rim.util.ObjectList;
 
 /**
@@ -54,9 +55,11 @@ public class RimInfo {
 	 * GeoIndexを情報登録.
 	 * @param latColumn 緯度列名を設定します.
 	 * @param lonColumn 経度列名を設定します.
+	 * @param codeType キー形式を設定します.
 	 */
-	protected void addGeoIndex(String latColumn, String lonColumn) {
-		geoIndexInfos.add(new GeoIndexInfo(latColumn, lonColumn));
+	protected void addGeoIndex(String latColumn, String lonColumn,
+		GeoCodeType codeType) {
+		geoIndexInfos.add(new GeoIndexInfo(latColumn, lonColumn, codeType));
 	}
 	
 	/**
@@ -312,15 +315,19 @@ public class RimInfo {
 	public static final class GeoIndexInfo {
 		private final String latColumn;
 		private final String lonColumn;
+		private final GeoCodeType codeType;
 		
 		/**
 		 * コンストラクタ.
 		 * @param latColumn 緯度列名を設定します.
 		 * @param lonColumn 経度列名を設定します.
+		 * @param codeType キー形式を設定します.
 		 */
-		private GeoIndexInfo(String latColumn, String lonColumn) {
+		private GeoIndexInfo(String latColumn, String lonColumn,
+			GeoCodeType codeType) {
 			this.latColumn = latColumn;
 			this.lonColumn = lonColumn;
+			this.codeType = codeType;
 		}
 		
 		/**
@@ -347,6 +354,14 @@ public class RimInfo {
 			return lonColumn;
 		}
 		
+		/**
+		 * インデックスのキー形式を取得.
+		 * @return GeoCodeType キー形式が返却されます.
+		 */
+		public GeoCodeType getCodeType() {
+			return codeType;
+		}
+		
 		/**
 		 * 文字列変換.
 		 * @param buf StringBuilderを設定します.
@@ -360,7 +375,8 @@ public class RimInfo {
 			toSpace(buf, space).
 				append("[geo] ").append(no + 1).
 				append(" latitude: ").append(latColumn).
-				append(", longitude: ").append(lonColumn);
+				append(", longitude: ").append(lonColumn).
+				append(", code: ").append(codeType);
 		}
 	}
 	
@@ -0,0 +1,255 @@
+package rim;
+
+import java.util.NoSuchElementException;
+
+import rim.core.IntIterator;
+import rim.core.RoaringFlags;
+import rim.exception.RimException;
+import rim.util.ObjectList;
+
+/**
+ * 複数の検索結果を組み合わせた複合条件検索.
+ *
+ * GeneralIndex, GeoIndex, NgramIndex, RimBody の検索結果(RimResult)を
+ * 行番号のフラグ(RoaringFlags)に変換して AND / OR で組み合わせます.
+ *
+ * <pre>
+ * RimResult result = new RimQuery(rim)
+ *   .and(rim.getIndex("age").between(true, false, 20, 30))
+ *   .and(rim.getNgramIndex("name").search(true, "abc"))
+ *   .and(rim.getGeoIndex("lat", "lon").searchRadius(lat, lon, 500))
+ *   .result(true);
+ * </pre>
+ *
+ * AND条件は全ての条件を一定行数ずつ交互に読み込み、最初に読み込みが
+ * 終了した条件(一致行数の少ない選択性の高い条件)を基準とします.
+ * 他の条件は読み込み済みの行番号フラグを基準と RoaringFlags.and で
+ * 積集合とし、残りの検索結果は基準に存在する行番号のみを追加します.
+ * 基準の全ての行番号が見つかった条件はそれ以上読み込まず、
+ * 積集合が0件となった時点でそれ以降の条件は評価しません.
+ */
+@SuppressWarnings("rawtypes")
+public class RimQuery {
+	// Body情報.
+	private final RimBody body;
+	// AND条件群(１つの条件はOR条件群).
+	private final ObjectList<RimResult[]> conditions =
+		new ObjectList<RimResult[]>();
+
+	/**
+	 * コンストラクタ.
+	 * @param rim 検索対象のRimを設定します.
+	 */
+	public RimQuery(Rim rim) {
+		this(rim.getBody());
+	}
+
+	/**
+	 * コンストラクタ.
+	 * @param body 検索対象のRimBodyを設定します.
+	 */
+	public RimQuery(RimBody body) {
+		if(body == null) {
+			throw new RimException("RimBody is not set.");
+		}
+		this.body = body;
+	}
+
+	/**
+	 * AND条件を追加.
+	 * @param result 検索結果を設定します.
+	 * @return RimQuery このオブジェクトが返却されます.
+	 */
+	public RimQuery and(RimResult result) {
+		if(result == null) {
+			throw new RimException("Null cannot be set in the search condition.");
+		}
+		conditions.add(new RimResult[] {result});
+		return this;
+	}
+
+	/**
+	 * OR条件群をAND条件として追加.
+	 * 設定した検索結果群のいずれかに一致する行を１つの条件とします.
+	 * @param results 検索結果群を設定します.
+	 * @return RimQuery このオブジェクトが返却されます.
+	 */
+	public RimQuery or(RimResult... results) {
+		if(results == null || results.length == 0) {
+			throw new RimException("At least one condition must be set.");
+		}
+		final int len = results.length;
+		for(int i = 0; i < len; i ++) {
+			if(results[i] == null) {
+				throw new RimException(
+					"Null cannot be set in the search condition.");
+			}
+		}
+		conditions.add(results.clone());
+		return this;
+	}
+
+	/**
+	 * 設定された条件数を取得.
+	 * @return int 条件数が返却されます.
+	 */
+	public int size() {
+		return conditions.size();
+	}
+
+	/**
+	 * 複合条件の検索結果を取得.
+	 * @param ascFlag 行番号の昇順で取得する場合は true.
+	 * @return RimResult 検索結果が返却されます.
+	 */
+	public RimResult result(boolean ascFlag) {
+		final int len = conditions.size();
+		if(len == 0) {
+			throw new RimException("At least one condition must be set.");
+		}
+		final int rowLength = body.getRowLength();
+		final int[] buf = new int[READ_LENGTH];
+		final ConditionReader[] list = new ConditionReader[len];
+		for(int i = 0; i < len; i ++) {
+			list[i] = new ConditionReader(rowLength, conditions.get(i));
+		}
+		// 全ての条件を一定行数ずつ交互に読み込み、最初に読み込みが
+		// 終了した条件(最も一致行数の少ない条件)を基準とする.
+		int driver = -1;
+		while(driver == -1) {
+			for(int i = 0; i < len; i ++) {
+				if(list[i].read(buf)) {
+					driver = i;
+					break;
+				}
+			}
+		}
+		RoaringFlags ret = list[driver].flags;
+		int count = ret.cardinality();
+		// 他の条件は基準の行番号フラグとの積集合を求める.
+		// 積集合が0件となった時点でそれ以降の条件は評価しない.
+		for(int i = 0; i < len && count != 0; i ++) {
+			if(i != driver) {
+				count = list[i].intersect(buf, ret, count);
+				ret = list[i].flags;
+			}
+		}
+		return new ResultQuery(body, ret.intIterator(ascFlag));
+	}
+
+	// 1回に読み込む行数.
+	private static final int READ_LENGTH = 1024;
+
+	// 1つの条件(OR条件群)の検索結果を行番号フラグに読み込む処理.
+	private static final class ConditionReader {
+		// OR条件群の検索結果.
+		private final RimResult[] results;
+		// 読み込み中の検索結果の位置.
+		private int position;
+		// 読み込んだ行番号フラグ.
+		final RoaringFlags flags;
+
+		ConditionReader(int rowLength, RimResult[] results) {
+			this.results = results;
+			this.position = 0;
+			this.flags = new RoaringFlags(rowLength);
+		}
+
+		// 検索結果を読み込みバッファ長まで読み込む.
+		// 同一行が複数返却される場合はフラグで重複が除外される.
+		// 全て読み込んだ場合は true が返却される.
+		final boolean read(int[] buf) {
+			int n;
+			final RoaringFlags f = flags;
+			while(position < results.length) {
+				if((n = results[position].fill(buf, 0, buf.length)) == 0) {
+					position ++;
+					continue;
+				}
+				for(int i = 0; i < n; i ++) {
+					f.add(buf[i]);
+				}
+				return false;
+			}
+			return true;
+		}
+
+		// 読み込み済みの行番号フラグと指定行番号フラグの積集合を求め、
+		// 残りの検索結果は指定行番号フラグに存在する行番号のみ追加する.
+		// 指定行番号フラグの全ての行番号が見つかった時点で読み込みを終了する.
+		// 積集合の行数が返却される.
+		final int intersect(int[] buf, RoaringFlags value, int count) {
+			int n, rowId;
+			final RoaringFlags f = flags.and(value);
+			int ret = f.cardinality();
+			while(ret < count && position < results.length) {
+				if((n = results[position].fill(buf, 0, buf.length)) == 0) {
+					position ++;
+					continue;
+				}
+				for(int i = 0; i < n; i ++) {
+					if(value.get(rowId = buf[i]) && f.add(rowId)) {
+						ret ++;
+					}
+				}
+			}
+			return ret;
+		}
+	}
+
+	// 複合条件の検索結果.
+	private static final class ResultQuery implements RimResult {
+		// 行情報(この検索結果専用).
+		private RimRow row;
+		// Body情報.
+		private final RimBody body;
+		// 全ての条件に一致する行番号のIterator.
+		private final IntIterator rows;
+		// 今回取得行番号.
+		private int nowLineNo = -1;
+
+		ResultQuery(RimBody body, IntIterator rows) {
+			this.body = body;
+			this.rows = rows;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return rows.hasNext();
+		}
+
+		@Override
+		public int nextRowId() {
+			if(!rows.hasNext()) {
+				return -1;
+			}
+			return nowLineNo = rows.next();
+		}
+
+		@Override
+		public RimRow nextRow() {
+			if(nextRowId() == -1) {
+				throw new NoSuchElementException();
+			}
+			return row = body.getRow(row, nowLineNo);
+		}
+
+		/**
+		 * 複合条件の場合、対象要素は存在しないので
+		 * 行番号が返却されます.
+		 * @return Comparable 行番号が返却されます.
+		 */
+		@Override
+		public Comparable getValue() {
+			return getLineNo();
+		}
+
+		@Override
+		public int getLineNo() {
+			if(nowLineNo == -1) {
+				throw new NoSuchElementException();
+			}
+			return nowLineNo;
+		}
+	}
+}
@@ -1,12 +1,69 @@
 package rim;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
 
 /**
  * 検索結果の情報.
+ *
+ * 行番号は nextRowId() でint値のまま取得できます.
+ * Iterator&lt;Integer&gt; の next() は nextRowId() のアダプタなので
+ * 大量の行番号を取得する場合は nextRowId() か forEachRowId() を
+ * 利用することで Integer の生成を抑えられます.
  */
 @SuppressWarnings("rawtypes")
 public interface RimResult extends Iterator<Integer> {
+	/**
+	 * 次の行番号を取得.
+	 * @return int 次の行番号が返却されます.
+	 *             情報が存在しない場合は -1 が返却されます.
+	 */
+	public int nextRowId();
+	
+	/**
+	 * 次の行番号を取得.
+	 * @return Integer 次の行番号が返却されます.
+	 */
+	@Override
+	default Integer next() {
+		final int ret = nextRowId();
+		if(ret == -1) {
+			throw new NoSuchElementException();
+		}
+		return ret;
+	}
+	
+	/**
+	 * 残りの行番号を順番に取得.
+	 * @param action 行番号を受け取るIntConsumerを設定します.
+	 */
+	default void forEachRowId(IntConsumer action) {
+		int rowId;
+		while((rowId = nextRowId()) != -1) {
+			action.accept(rowId);
+		}
+	}
+	
+	/**
+	 * 次の行番号群をバッファに取得.
+	 * バッファが埋まった場合、取得後の getValue() と getLineNo() は
+	 * 最後に取得した行番号の内容が返却されます.
+	 * @param buf 行番号を格納するバッファを設定します.
+	 * @param off バッファの格納開始位置を設定します.
+	 * @param len 最大取得件数を設定します.
+	 * @return int 取得件数が返却されます.
+	 *             0 の場合は全ての情報を取得済みです.
+	 */
+	default int fill(int[] buf, int off, int len) {
+		int rowId;
+		int ret = 0;
+		while(ret < len && (rowId = nextRowId()) != -1) {
+			buf[off + ret ++] = rowId;
+		}
+		return ret;
+	}
+	
 	/**
 	 * 次の行情報を取得.
 	 * @return RimRow 行情報が返却されます.
@@ -2,6 +2,7 @@ package rim;
 
 import java.util.Date;
 
+import rim.core.ColumnData;
 import rim.core.ColumnType;
 import rim.exception.RimException;
 import rim.util.DateUtil;
@@ -10,42 +11,53 @@ import rim.util.TypesKeyValue;
 
 /**
  * Rimの行情報.
- * このオブジェクトは取得毎に毎度生成はせずに使いまわします.
+ * このオブジェクトは１つの検索結果内では取得毎に生成せずに使いまわします.
+ * 検索結果毎に別のオブジェクトとなるので、複数スレッドで同じRimを
+ * 検索する場合でも行情報が他のスレッドに書き換えられることはありません.
  */
 public final class RimRow implements TypesKeyValue<Object, Object> {
 	// 列情報.
 	private FixedSearchArray<String> columns;
 	// 列型群.
 	private ColumnType[] columnsType;
+	// 列データ群.
+	private ColumnData[] columnData;
 	
 	// 対象行番号.
 	private int rowId;
-	// 対象行情報.
-	private Object[] row;
 
 	/**
 	 * コンストラクタ.
 	 *
 	 * @param columns     カラム管理情報を設定します.
 	 * @param columnsType 型情報群を設定します.
+	 * @param columnData 列データ群を設定します.
 	 */
 	public RimRow(FixedSearchArray<String> columns,
-		ColumnType[] columnsType) {
+		ColumnType[] columnsType, ColumnData[] columnData) {
 		this.columns = columns;
 		this.columnsType = columnsType;
+		this.columnData = columnData;
 	}
 
 	/**
 	 * 次の行情報を設定します.
 	 * @param rowId 対象の行番号を設定します.
-	 * @param row 対象の行情報を設定します.
 	 */
-	protected RimRow set(int rowId, Object[] row) {
+	protected RimRow set(int rowId) {
 		this.rowId = rowId;
-		this.row = row;
 		return this;
 	}
 	
+	/**
+	 * 指定列データ群の行情報かチェック.
+	 * @param columnData 列データ群を設定します.
+	 * @return boolean trueの場合、指定列データ群の行情報です.
+	 */
+	protected boolean isBody(ColumnData[] columnData) {
+		return this.columnData == columnData;
+	}
+	
 	/**
 	 * 現在の行番号を取得.
 	 * @return int 行番号が返却されます.
@@ -67,7 +79,99 @@ public final class RimRow implements TypesKeyValue<Object, Object> {
 		if (n == -1) {
 			return null;
 		}
-		return row[n];
+		return columnData[n].get(rowId);
+	}
+
+	/**
+	 * 列名を指定して列番号を取得します.
+	 *
+	 * プリミティブ型の取得(getInt, getLong, getFloat, getDouble)は
+	 * 列番号で行うので、複数行を読み込む場合は事前に列番号を取得します.
+	 *
+	 * @param column 列名を設定します.
+	 * @return int 列番号が返却されます.
+	 */
+	public int getColumnNo(Object column) {
+		int n = RimBody.getColumnPos(columns, column);
+		if (n == -1) {
+			throw new RimException("The specified column name \"" +
+				column + "\" does not exist. ");
+		}
+		return n;
+	}
+
+	/**
+	 * 列名を指定してNullかチェックします.
+	 *
+	 * @param column 列名を設定します.
+	 *               数字を設定した場合、直接列項番で取得します.
+	 * @return boolean trueの場合、Nullです.
+	 */
+	public boolean isNull(Object column) {
+		int n = RimBody.getColumnPos(columns, column);
+		if (n == -1) {
+			return true;
+		}
+		return columnData[n].isNull(rowId);
+	}
+
+	/**
+	 * 列番号を指定してNullかチェックします.
+	 *
+	 * @param no 列番号を設定します.
+	 * @return boolean trueの場合、Nullです.
+	 */
+	public boolean isNull(int no) {
+		return columnData[no].isNull(rowId);
+	}
+
+	/**
+	 * 列番号を指定してintで取得します.
+	 * Boxingせずに列データから直接取得します.
+	 *
+	 * @param no 列番号を設定します.
+	 * @return int 要素が返却されます.
+	 *             Nullの場合は 0 が返却されるので isNull で判別します.
+	 */
+	public int getInt(int no) {
+		return columnData[no].getInt(rowId);
+	}
+
+	/**
+	 * 列番号を指定してlongで取得します.
+	 * Boxingせずに列データから直接取得します.
+	 * Date列の場合はミリ秒が返却されます.
+	 *
+	 * @param no 列番号を設定します.
+	 * @return long 要素が返却されます.
+	 *              Nullの場合は 0 が返却されるので isNull で判別します.
+	 */
+	public long getLong(int no) {
+		return columnData[no].getLong(rowId);
+	}
+
+	/**
+	 * 列番号を指定してfloatで取得します.
+	 * Boxingせずに列データから直接取得します.
+	 *
+	 * @param no 列番号を設定します.
+	 * @return float 要素が返却されます.
+	 *               Nullの場合は 0 が返却されるので isNull で判別します.
+	 */
+	public float getFloat(int no) {
+		return columnData[no].getFloat(rowId);
+	}
+
+	/**
+	 * 列番号を指定してdoubleで取得します.
+	 * Boxingせずに列データから直接取得します.
+	 *
+	 * @param no 列番号を設定します.
+	 * @return double 要素が返却されます.
+	 *                Nullの場合は 0 が返却されるので isNull で判別します.
+	 */
+	public double getDouble(int no) {
+		return columnData[no].getDouble(rowId);
 	}
 
 	/**
@@ -146,11 +250,11 @@ public final class RimRow implements TypesKeyValue<Object, Object> {
 						columnArray[i] + "\" does not exist. ");
 				}
 				type = columnsType[no];
-				v = row[no];
+				v = columnData[no].get(rowId);
 				buf.append(columnArray[i]).append(": ");
 			} else {
 				type = columnsType[i];
-				v = row[i];
+				v = columnData[i].get(rowId);
 				buf.append(columns.get(i)).append(": ");
 			}
 			if (v == null) {
@@ -2,8 +2,14 @@ package rim;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.zip.GZIPOutputStream;
 
 import rim.compress.CompressBuffer;
@@ -11,14 +17,18 @@ import rim.compress.CompressType;
 import rim.compress.Lz4Compress;
 import rim.compress.ZstdCompress;
 import rim.core.BinaryIO;
+import rim.core.ColumnData;
 import rim.core.ColumnType;
 import rim.core.RbbOutputStream;
 import rim.core.SearchUtil;
+import rim.core.ZoneMap;
 import rim.exception.RimException;
-import rim.geo.GeoQuad;
+import rim.geo.GeoCodeType;
 import rim.util.CsvReader;
 import rim.util.CsvRow;
+import rim.util.IndexKeyValueList;
 import rim.util.ObjectList;
+import rim.util.UTF8IO;
 import rim.util.seabass.SeabassCompress;
 import rim.util.seabass.SeabassCompressBuffer;
 
@@ -166,6 +176,20 @@ public class SaveRim {
 	 * @return SaveRim このオブジェクトが返却されます.
 	 */
 	public SaveRim addGeoIndex(String latColumn, String lonColumn) {
+		return addGeoIndex(latColumn, lonColumn, GeoCodeType.Quad);
+	}
+	
+	/**
+	 * Geoインデックス列追加.
+	 * @param latColumn 緯度列名を設定します.
+	 * @param lonColumn 経度列名を設定します.
+	 * @param codeType インデックスのキー形式を設定します.
+	 *                 GeoCodeType.Hilbert を設定した場合は、ヒルベルト曲線の
+	 *                 キーで範囲に合わせたタイル群で検索します.
+	 * @return SaveRim このオブジェクトが返却されます.
+	 */
+	public SaveRim addGeoIndex(String latColumn, String lonColumn,
+		GeoCodeType codeType) {
 		checkClose();
 		int latColumnNo, lonColumnNo;
 		// 指定されたインデックスの列名位置を取得.
@@ -193,7 +217,8 @@ public class SaveRim {
 		}
 		
 		// 列名位置のインデックス情報を作成.
-		geoIndexColumns.add(new GeoIndexColumn(latColumnNo, lonColumnNo));
+		geoIndexColumns.add(new GeoIndexColumn(latColumnNo, lonColumnNo,
+			codeType == null ? GeoCodeType.Quad : codeType));
 		return this;
 	}
 	
@@ -239,6 +264,21 @@ public class SaveRim {
 	 * @throws IOException
 	 */
 	public int write() throws IOException {
+		return write(null);
+	}
+	
+	/**
+	 * インデックスを作成.
+	 *
+	 * Executorを設定した場合、各インデックスのソート・集約と
+	 * body列やインデックス塊の圧縮をExecutor上で並列に処理し、
+	 * 出力はファイル順に行います.
+	 * @param executor 並列処理を行うExecutorを設定します.
+	 *                 nullの場合は呼び出しスレッドで処理します.
+	 * @return int 読み込まれたCSVの行数が返却されます.
+	 * @throws IOException
+	 */
+	public int write(Executor executor) throws IOException {
 		checkClose();
 		try {
 			// インデックスが１つも設定されていない場合.
@@ -252,6 +292,9 @@ public class SaveRim {
 			// オプションを設定.
 			params.option = this.option;
 			
+			// 圧縮タイプを設定.
+			params.compressType = compressType;
+			
 			// テンポラリ情報.
 			params.tmp = BinaryIO.createTmp();
 			params.strBuf = BinaryIO.createStringBuffer(false);
@@ -274,32 +317,61 @@ public class SaveRim {
 			// 圧縮タイプを出力(1byte).
 			BinaryIO.writeInt1(rimOut, params.tmp, compressType.getId());
 
+			// mmap形式の場合、ヘッダ情報は長さを付与して出力する.
+			final OutputStream headerOut;
+			if(CompressType.Mapped == compressType) {
+				params.rbb.reset();
+				headerOut = params.rbb;
+			} else {
+				headerOut = rimOut;
+			}
+
 			// ヘッダ情報を出力.
-			writeHeader(rimOut, params, csv, columnTypes);
+			writeHeader(headerOut, params, csv, columnTypes);
 			
 			// 全行数を書き込む(Saving).
-			BinaryIO.writeSavingBinary(rimOut, params.tmp, rowAll);
+			BinaryIO.writeSavingBinary(headerOut, params.tmp, rowAll);
 			
 			// 登録されてるインデックス数を書き込む(Saving).
-			BinaryIO.writeSavingBinary(rimOut, params.tmp, indexColumns.size());
+			BinaryIO.writeSavingBinary(headerOut, params.tmp, indexColumns.size());
 			
 			// 登録されてるGeoインデックス数を書き込む(Saving).
-			BinaryIO.writeSavingBinary(rimOut, params.tmp, geoIndexColumns.size());
+			BinaryIO.writeSavingBinary(headerOut, params.tmp, geoIndexColumns.size());
 			
 			// 登録されてるNgramインデックス数を書き込む(Saving).
-			BinaryIO.writeSavingBinary(rimOut, params.tmp, ngramIndexColumns.size());
+			BinaryIO.writeSavingBinary(headerOut, params.tmp, ngramIndexColumns.size());
+			
+			// mmap形式の場合.
+			if(CompressType.Mapped == compressType) {
+				
+				// mmap形式でbodyとインデックス群を出力.
+				writeMapped(rimOut, params, executor, body, columnTypes,
+					indexColumns, geoIndexColumns, ngramIndexColumns);
+				body = null;
+				
+				// 後処理.
+				rimOut.close();
+				rimOut = null;
+				return rowAll;
+			}
+			
+			// 塊の圧縮・出力処理を生成.
+			final ChunkEncoder encoder = new ChunkEncoder(rimOut, params, executor);
 			
 			// bodyデータを出力.
-			writeBody(rimOut, params, body, columnTypes, compressType);
+			writeBody(encoder, body, columnTypes);
 
 			// インデックス情報を出力.
-			writeIndex(rimOut, params, columnTypes, compressType, body, indexColumns);
+			writeIndex(encoder, columnTypes, body, indexColumns);
 			
 			// Geoインデックス情報を出力.
-			writeGeoIndex(rimOut, params, compressType, body, geoIndexColumns);
+			writeGeoIndex(encoder, body, geoIndexColumns);
 			
 			// Ngramインデックス情報を出力.
-			writeNgramIndex(rimOut, params, compressType, body, ngramIndexColumns);
+			writeNgramIndex(encoder, body, ngramIndexColumns);
+			
+			// 全ての塊をファイル順に出力.
+			encoder.flush();
 			body = null;
 
 			// 後処理.
@@ -422,6 +494,8 @@ public class SaveRim {
 		// Bodyから緯度、経度の列群を取得.
 		final ObjectList rowsLat = columns[geo.getLatColumnNo()];
 		final ObjectList rowsLon = columns[geo.getLonColumnNo()];
+		// キー形式.
+		final GeoCodeType codeType = geo.getCodeType();
 		// 総行数を取得.
 		final int rowLength = rowsLat.size();
 		final ObjectList<IndexRow> ret =
@@ -433,7 +507,7 @@ public class SaveRim {
 			// 緯度・経度情報が存在する場合.
 			if(lat != null && lon != null) {
 				// インデックス追加.
-				ret.add(new IndexGeneralRow(GeoQuad.create(
+				ret.add(new IndexGeneralRow(codeType.create(
 					(Double)lat, (Double)lon), i));
 			}
 		}
@@ -506,154 +580,198 @@ public class SaveRim {
 	}
 	
 	// bodyデータを出力.
-	private static final void writeBody(OutputStream out, RimParams params,
-		ObjectList[] body, ColumnType[] types, CompressType compressType)
+	private static final void writeBody(ChunkEncoder encoder,
+		ObjectList[] body, ColumnType[] types)
 		throws IOException {
-		ObjectList o;
-		final byte[] tmp = params.tmp;
 		final int columnLen = types.length;
-		final RbbOutputStream rbb = params.rbb;
 		for(int i = 0; i < columnLen; i ++) {
-			o = body[i];
-			rbb.reset();
-			switch(types[i]) {
-			case Boolean:
-				writeBooleanColumns(rbb, tmp, o);
-				break;
-			case Byte:
-				writeByteColumns(rbb, tmp, o);
-				break;
-			case Short:
-				writeShortColumns(rbb, tmp, o);
-				break;
-			case Integer:
-				writeIntegerColumns(rbb, tmp, o);
-				break;
-			case Long:
-				writeLongColumns(rbb, tmp, o);
-				break;
-			case Float:
-				writeFloatColumns(rbb, tmp, o);
-				break;
-			case Double:
-				writeDoubleColumns(rbb, tmp, o);
-				break;
-			case String:
+			// 列単位で圧縮して出力.
+			encoder.write(new BodyTask(body[i], types[i]));
+		}
+	}
+	
+	// 1つの列データを出力.
+	private static final void writeBodyColumn(OutputStream out, RimParams params,
+		ObjectList o, ColumnType type)
+		throws IOException {
+		final byte[] tmp = params.tmp;
+		final RbbOutputStream rbb = params.rbb;
+		ColumnData column = null;
+		rbb.reset();
+		switch(type) {
+		case Boolean:
+			writeBooleanColumns(rbb, tmp, o);
+			break;
+		case Byte:
+			writeByteColumns(rbb, tmp, o);
+			break;
+		case Short:
+			writeShortColumns(rbb, tmp, o);
+			break;
+		case Integer:
+			writeIntegerColumns(rbb, tmp, o);
+			break;
+		case Long:
+			writeLongColumns(rbb, tmp, o);
+			break;
+		case Float:
+			writeFloatColumns(rbb, tmp, o);
+			break;
+		case Double:
+			writeDoubleColumns(rbb, tmp, o);
+			break;
+		case String:
+			// 種類数が少ない場合は辞書化して出力.
+			if((column = writeDictionaryColumns(
+				rbb, tmp, params.strBuf, o)) == null) {
 				writeStringColumns(rbb, tmp, params.strBuf, o);
-				break;
-			case Date:
-				writeDateColumns(rbb, tmp, o);
-				break;
 			}
-			// RbbOutputStreamに書き込んだ情報を出力.
-			writeCompress(out, params, compressType);
+			break;
+		case Date:
+			writeDateColumns(rbb, tmp, o);
+			break;
+		}
+		// 順序キーを持つ列の場合はゾーンマップを列データの後に出力.
+		// Null行は続けて出力するNull行番号群で管理するので、
+		// mmap形式と同じくゾーンマップの最小・最大値には含めない.
+		if(type != ColumnType.String) {
+			column = ColumnData.create(type, o.rawArray(), o.size());
+		}
+		if(column != null) {
+			writeZoneMap(rbb, tmp, ZoneMap.create(column));
 		}
+		// Null行が存在する場合はNull行番号群を出力.
+		writeNullRows(rbb, tmp, o);
+		// RbbOutputStreamに書き込んだ情報を出力.
+		writeCompress(out, params, params.compressType);
 	}
 
 	// Index群を出力.
-	private static final void writeIndex(OutputStream out,
-		RimParams params, ColumnType[] types, CompressType compressType,
-		ObjectList[] body, ObjectList<IndexColumn> indexColumns)
+	private static final void writeIndex(ChunkEncoder encoder,
+		ColumnType[] types, ObjectList[] body,
+		ObjectList<IndexColumn> indexColumns)
 		throws IOException {
-		
-		ColumnType type;
 		IndexColumn index;
-		ObjectList<IndexRow> list;
-		
-		final byte[] tmp = params.tmp;
-		final int byte1_4Len = params.byte1_4Len;
 		final int len = indexColumns.size();
 		
 		// インデックス毎に出力.
 		for(int i = 0; i < len; i ++) {
 			index = indexColumns.get(i);
-			type = types[index.getColumnNo()];
-			
-			// インデックス情報を読み込む.
-			list = readIndex(body, index);
-			
-			// このIndexを示す列番号を出力(Saving).
-			BinaryIO.writeSavingBinary(out, tmp, index.getColumnNo());
-			
-			// このIndexの総行数を出力(1~4byte).
-			BinaryIO.write1_4Binary(out, tmp, byte1_4Len, list.size());
-			
-			// indexの行群を出力.
-			writeIndexRows(out, params, type, compressType, list);
-			list = null;
+			encoder.write(new IndexTask(body, index,
+				types[index.getColumnNo()]));
 		}
 	}
 	
 	// GeoIndex群を出力.
-	private static final void writeGeoIndex(OutputStream out, RimParams params,
-		CompressType compressType, ObjectList[] body, ObjectList<GeoIndexColumn> geoIndexColumns)
+	private static final void writeGeoIndex(ChunkEncoder encoder,
+		ObjectList[] body, ObjectList<GeoIndexColumn> geoIndexColumns)
 		throws IOException {
-		
-		GeoIndexColumn index;
-		ObjectList<IndexRow> list;
-		
-		final byte[] tmp = params.tmp;
 		final int len = geoIndexColumns.size();
 		
 		// インデックス毎に出力.
 		for(int i = 0; i < len; i ++) {
-			index = geoIndexColumns.get(i);
-			
-			// インデックス情報を読み込む.
-			list = readGeoIndex(body, index);
-			
-			// 元の緯度情報を示す列番号を出力(Saving).
-			BinaryIO.writeSavingBinary(out, tmp, index.getLatColumnNo());
-			
-			// 元の経度情報を示す列番号を出力(Saving).
-			BinaryIO.writeSavingBinary(out, tmp, index.getLonColumnNo());
-			
-			// このIndexの総行数を出力(1~4byte).
-			BinaryIO.write1_4Binary(out, tmp, params.byte1_4Len, list.size());
-			
-			// indexの行群を出力.
-			writeIndexRows(out, params, ColumnType.Long, compressType, list);
-			list = null;
+			encoder.write(new IndexTask(body, geoIndexColumns.get(i),
+				ColumnType.Long));
 		}
 	}
 	
 	// NgramIndex群を出力.
-	private static final void writeNgramIndex(OutputStream out, RimParams params,
-		CompressType compressType, ObjectList[] body, ObjectList<NgramIndexColumn> ngramIndexColumns)
+	private static final void writeNgramIndex(ChunkEncoder encoder,
+		ObjectList[] body, ObjectList<NgramIndexColumn> ngramIndexColumns)
 		throws IOException {
-		
-		NgramIndexColumn index;
-		ObjectList<IndexRow> list;
-		
-		final byte[] tmp = params.tmp;
 		final int len = ngramIndexColumns.size();
 		
 		// インデックス毎に出力.
 		for(int i = 0; i < len; i ++) {
-			index = ngramIndexColumns.get(i);
+			encoder.write(new IndexTask(body, ngramIndexColumns.get(i),
+				ColumnType.Long));
+		}
+	}
+	
+	// 1つのインデックスを読み込んで出力.
+	private static final void writeOneIndex(OutputStream out, RimParams params,
+		ObjectList[] body, Object column, ColumnType type)
+		throws IOException {
+		final byte[] tmp = params.tmp;
+		
+		// インデックス情報を読み込む(ソート・集約).
+		ObjectList<IndexRow> list = readIndexRows(body, column);
+		
+		// Indexの場合.
+		if(column instanceof IndexColumn) {
 			
-			// インデックス情報を読み込む.
-			list = readNgramIndex(body, index);
+			// 行番号群が差分のビットパック形式である事を示すマーカーを出力.
+			BinaryIO.writeSavingMarker(out);
 			
-			// 列番号を出力(Saving).
-			BinaryIO.writeSavingBinary(out, tmp, index.getColumnNo());
+			// このIndexを示す列番号を出力(Saving).
+			BinaryIO.writeSavingBinary(out, tmp,
+				((IndexColumn)column).getColumnNo());
+		// GeoIndexの場合.
+		} else if(column instanceof GeoIndexColumn) {
+			final GeoIndexColumn geo = (GeoIndexColumn)column;
 			
-			// パースするNgram長を出力(byte).
-			BinaryIO.writeInt1(out, tmp, index.getNgramLength());
+			// QuadKey以外のキー形式の場合は、マーカーとキー形式IDを出力.
+			if(geo.getCodeType() != GeoCodeType.Quad) {
+				BinaryIO.writeSavingMarker(out);
+				BinaryIO.writeSavingBinary(out, tmp, geo.getCodeType().getId());
+			}
 			
-			// このIndexの総行数を出力(1~4byte).
-			BinaryIO.write1_4Binary(out, tmp, params.byte1_4Len, list.size());
+			// 元の緯度情報を示す列番号を出力(Saving).
+			BinaryIO.writeSavingBinary(out, tmp, geo.getLatColumnNo());
 			
-			// indexの行群を出力.
-			writeIndexRows(out, params, ColumnType.Long, compressType, list);
-			list = null;
+			// 元の経度情報を示す列番号を出力(Saving).
+			BinaryIO.writeSavingBinary(out, tmp, geo.getLonColumnNo());
+		// NgramIndexの場合.
+		} else {
+			final NgramIndexColumn ngram = (NgramIndexColumn)column;
+			
+			// Ngramの総行数は全行数を超える場合があるので、
+			// 1~4byteで表現できない場合は総行数をSavingで出力する事を示す
+			// マーカーを出力.
+			if(list.size() > BinaryIO.max1_4Value(params.byte1_4Len)) {
+				BinaryIO.writeSavingMarker(out);
+			}
+			
+			// 列番号を出力(Saving).
+			BinaryIO.writeSavingBinary(out, tmp, ngram.getColumnNo());
+			
+			// パースするNgram長を出力(byte).
+			BinaryIO.writeInt1(out, tmp, ngram.getNgramLength());
+		}
+		
+		// このIndexの総行数を出力(1~4byte).
+		// Ngramでマーカーを出力した場合は総行数を出力(Saving).
+		final int size = list.size();
+		if(column instanceof NgramIndexColumn &&
+			size > BinaryIO.max1_4Value(params.byte1_4Len)) {
+			BinaryIO.writeSavingBinary(out, tmp, size);
+		} else {
+			BinaryIO.write1_4Binary(out, tmp, params.byte1_4Len, size);
+		}
+		
+		// indexの行群を出力.
+		writeIndexRows(out, params, type, params.compressType, list,
+			column instanceof IndexColumn);
+		list = null;
+	}
+	
+	// インデックス列情報に合わせてインデックスを読み込む.
+	private static final ObjectList<IndexRow> readIndexRows(
+		ObjectList[] body, Object column) {
+		if(column instanceof IndexColumn) {
+			return readIndex(body, (IndexColumn)column);
+		} else if(column instanceof GeoIndexColumn) {
+			return readGeoIndex(body, (GeoIndexColumn)column);
 		}
+		return readNgramIndex(body, (NgramIndexColumn)column);
 	}
 	
 	// indexの行群を書き込む.
+	// packedFlag が true の場合、行番号群は差分のビットパック形式で書き込む.
 	private static final int writeIndexRows(
 		OutputStream out, RimParams params, ColumnType type,
-		CompressType compressType, ObjectList<IndexRow> list)
+		CompressType compressType, ObjectList<IndexRow> list,
+		boolean packedFlag)
 		throws IOException {
 		
 		//
@@ -677,6 +795,7 @@ public class SaveRim {
 		int ret = 0;
 		IndexRow row, bef = null;
 		final int oneIndexLength = list.size();
+		final int[] rowIds = packedFlag ? new int[oneIndexLength] : null;
 		final RbbOutputStream rbb = params.rbb;
 		rbb.reset();
 		for(int i = 0; i < oneIndexLength; i ++) {
@@ -685,7 +804,7 @@ public class SaveRim {
 			if(bef != null && !bef.getValue().equals(row.getValue())) {
 
 				// 最適化Index情報を保存.
-				ret += optimizeWriteIndex(rbb, params, type, list, pos, i);
+				ret += optimizeWriteIndex(rbb, params, type, list, rowIds, pos, i);
 
 				// 現在をポジションとする.
 				pos = i;
@@ -695,7 +814,8 @@ public class SaveRim {
 		}
 		
 		// 最後の情報を書き込み.
-		ret += optimizeWriteIndex(rbb, params, type, list, pos, oneIndexLength);
+		ret += optimizeWriteIndex(rbb, params, type, list, rowIds, pos,
+			oneIndexLength);
 		
 		// rbbの内容を出力.
 		writeCompress(out, params, compressType);
@@ -704,8 +824,9 @@ public class SaveRim {
 	}
 
 	// 最適化されたIndex書き込み.
+	// rowIds が設定されている場合は行番号群を差分のビットパック形式で書き込む.
 	private static final int optimizeWriteIndex(RbbOutputStream rbb, RimParams params,
-		ColumnType type, ObjectList<IndexRow> list,
+		ColumnType type, ObjectList<IndexRow> list, int[] rowIds,
 		int start, int end)
 		throws IOException {
 
@@ -715,8 +836,17 @@ public class SaveRim {
 		// 連続する行数を出力(saving).
 		BinaryIO.writeSavingBinary(rbb, params.tmp, end - start);
 		
-		// 連続する行ID群を出力.
+		// 連続する行ID群を差分のビットパック形式で出力.
 		int ret = 0;
+		if(rowIds != null) {
+			for(int i = start; i < end; i ++) {
+				rowIds[ret ++] = list.get(i).getRowId();
+			}
+			BinaryIO.writeDeltaPacked(rbb, params.tmp, rowIds, ret);
+			return ret;
+		}
+		
+		// 連続する行ID群を出力.
 		for(int i = start; i < end; i ++) {
 			list.get(i).writeByRowInfo(rbb, params);
 			ret ++;
@@ -910,6 +1040,390 @@ public class SaveRim {
 		}
 	}
 	
+	// mmap形式でbodyとインデックス群を出力.
+	//
+	// ヘッダ以降は8バイト境界で整列したリトルエンディアンの配列群を出力する.
+	// 各配列は [配列バイト長(8byte)][データ][8バイト境界までのパディング]
+	// で構成され、LoadRim.mmap でヒープにコピーせずに直接参照される.
+	//
+	// <body>
+	//  列毎に [Null行番号群(int)] [列データ]
+	//  列データは String 以外は固定長(Booleanは1byte, Dateはミリ秒のlong)
+	//  String は [開始位置群(int, 行数+1)] [UTF8バイナリ]
+	//
+	// <Index>
+	//  [列番号, キー数, 行番号数, 0 (int x 4)] [キー群]
+	//  [キー毎の開始位置群(int, キー数+1)] [行番号群(int)]
+	//
+	// <GeoIndex>
+	//  [緯度列番号, 経度列番号, キー数, 行番号数 (int x 4)] [キー群(long)]
+	//  緯度列番号の上位8bitはキー形式ID(GeoCodeType)
+	//  [キー毎の開始位置群(int, キー数+1)] [行番号群(int)]
+	//
+	// <NgramIndex>
+	//  [列番号, Ngram長, キー数, 行番号数 (int x 4)] [キー群(long)]
+	//  [キー毎の開始位置群(int, キー数+1)] [行番号群(int)] [文字位置群(int)]
+	//
+	private static final void writeMapped(OutputStream out, RimParams params,
+		Executor executor, ObjectList[] body, ColumnType[] types,
+		ObjectList<IndexColumn> indexColumns,
+		ObjectList<GeoIndexColumn> geoIndexColumns,
+		ObjectList<NgramIndexColumn> ngramIndexColumns)
+		throws IOException {
+		int i, j, len;
+		Object[] values;
+		ObjectList<IndexRow> list;
+		
+		// インデックス群のソート・集約を開始.
+		final IndexSorter sorter = new IndexSorter(body, executor);
+		sorter.addAll(indexColumns);
+		sorter.addAll(geoIndexColumns);
+		sorter.addAll(ngramIndexColumns);
+		int sortNo = 0;
+		
+		// ヘッダ長(4byte)とヘッダ情報を出力.
+		final RbbOutputStream rbb = params.rbb;
+		BinaryIO.writeInt4(out, params.tmp, rbb.getLength());
+		out.write(rbb.getRawBuffer(), 0, rbb.getLength());
+		
+		// ここまでの出力位置を元にmmap出力を生成.
+		final MappedOutput mo = new MappedOutput(out,
+			RimConstants.SIMBOL_BINARY.length + 1 + 4 + rbb.getLength());
+		mo.pad();
+		
+		// body出力.
+		final int columnLen = types.length;
+		for(i = 0; i < columnLen; i ++) {
+			len = body[i].size();
+			values = body[i].rawArray();
+			
+			// Null行番号群を出力.
+			int nullLen = 0;
+			for(j = 0; j < len; j ++) {
+				if(values[j] == null) {
+					nullLen ++;
+				}
+			}
+			mo.startArray(nullLen * 4L);
+			for(j = 0; j < len; j ++) {
+				if(values[j] == null) {
+					mo.writeInt(j);
+				}
+			}
+			mo.endArray();
+			
+			// 列データを出力.
+			writeMappedValues(mo, params, types[i], values, len);
+		}
+		
+		// Index出力.
+		len = indexColumns.size();
+		for(i = 0; i < len; i ++) {
+			final IndexColumn index = indexColumns.get(i);
+			list = sorter.get(sortNo ++);
+			writeMappedIndex(mo, params, types[index.getColumnNo()], list,
+				index.getColumnNo(), 0, false);
+			list = null;
+		}
+		
+		// GeoIndex出力.
+		len = geoIndexColumns.size();
+		for(i = 0; i < len; i ++) {
+			final GeoIndexColumn index = geoIndexColumns.get(i);
+			list = sorter.get(sortNo ++);
+			writeMappedIndex(mo, params, ColumnType.Long, list,
+				index.getLatColumnNo() | (index.getCodeType().getId() << 24),
+				index.getLonColumnNo(), false);
+			list = null;
+		}
+		
+		// NgramIndex出力.
+		len = ngramIndexColumns.size();
+		for(i = 0; i < len; i ++) {
+			final NgramIndexColumn index = ngramIndexColumns.get(i);
+			list = sorter.get(sortNo ++);
+			writeMappedIndex(mo, params, ColumnType.Long, list,
+				index.getColumnNo(), index.getNgramLength(), true);
+			list = null;
+		}
+		
+		// ゾーンマップ出力.
+		for(i = 0; i < columnLen; i ++) {
+			writeMappedZoneMap(mo, types[i] == ColumnType.String ? null :
+				ZoneMap.create(ColumnData.create(
+					types[i], body[i].rawArray(), body[i].size())));
+		}
+		mo.flush();
+	}
+	
+	// mmap形式で1つの列のゾーンマップを出力.
+	// ゾーンマップが存在しない列は空の配列を出力します.
+	private static final void writeMappedZoneMap(MappedOutput mo, ZoneMap zoneMap)
+		throws IOException {
+		int i;
+		final int len = zoneMap == null ? 0 : zoneMap.getBlockLength();
+		// ブロック行数のビットシフト値.
+		mo.startArray(4L);
+		mo.writeInt(zoneMap == null ? ZoneMap.BLOCK_SHIFT : zoneMap.getBlockShift());
+		mo.endArray();
+		// ブロック毎の最小順序キー.
+		mo.startArray(len * 8L);
+		for(i = 0; i < len; i ++) {
+			mo.writeLong(zoneMap.getMin(i));
+		}
+		mo.endArray();
+		// ブロック毎の最大順序キー.
+		mo.startArray(len * 8L);
+		for(i = 0; i < len; i ++) {
+			mo.writeLong(zoneMap.getMax(i));
+		}
+		mo.endArray();
+		// ブロック毎のNull行数.
+		mo.startArray(len * 4L);
+		for(i = 0; i < len; i ++) {
+			mo.writeInt(zoneMap.getNullCount(i));
+		}
+		mo.endArray();
+	}
+	
+	// mmap形式で1つのインデックスを出力.
+	private static final void writeMappedIndex(MappedOutput mo, RimParams params,
+		ColumnType type, ObjectList<IndexRow> list, int headNo1, int headNo2,
+		boolean ngramFlag) throws IOException {
+		int i;
+		IndexRow row, bef = null;
+		final int len = list.size();
+		
+		// 同一要素毎にキーと行番号開始位置をまとめる.
+		final ObjectList<Object> keys = new ObjectList<Object>();
+		final ObjectList<Integer> offsets = new ObjectList<Integer>();
+		for(i = 0; i < len; i ++) {
+			row = list.get(i);
+			if(bef == null || !bef.getValue().equals(row.getValue())) {
+				keys.add(row.getValue());
+				offsets.add(i);
+			}
+			bef = row;
+		}
+		offsets.add(len);
+		final int keyLen = keys.size();
+		
+		// ヘッダ(int x 4)を出力.
+		mo.writeInt(headNo1);
+		mo.writeInt(headNo2);
+		mo.writeInt(keyLen);
+		mo.writeInt(len);
+		
+		// キー群を出力.
+		writeMappedValues(mo, params, type, keys.rawArray(), keyLen);
+		
+		// キー毎の開始位置群を出力.
+		mo.startArray((keyLen + 1) * 4L);
+		for(i = 0; i <= keyLen; i ++) {
+			mo.writeInt(offsets.get(i));
+		}
+		mo.endArray();
+		
+		// 行番号群を出力.
+		mo.startArray(len * 4L);
+		for(i = 0; i < len; i ++) {
+			mo.writeInt(list.get(i).getRowId());
+		}
+		mo.endArray();
+		
+		// Ngramの場合は文字位置群を出力.
+		if(ngramFlag) {
+			mo.startArray(len * 4L);
+			for(i = 0; i < len; i ++) {
+				mo.writeInt(((IndexNgramRow)list.get(i)).position);
+			}
+			mo.endArray();
+		}
+	}
+	
+	// mmap形式で列データ群を出力.
+	private static final void writeMappedValues(MappedOutput mo, RimParams params,
+		ColumnType type, Object[] values, int len) throws IOException {
+		int i;
+		Object v;
+		switch(type) {
+		case Boolean:
+			mo.startArray(len);
+			for(i = 0; i < len; i ++) {
+				mo.writeByte(Boolean.TRUE.equals(values[i]) ? 1 : 0);
+			}
+			break;
+		case Byte:
+			mo.startArray(len);
+			for(i = 0; i < len; i ++) {
+				mo.writeByte((v = values[i]) == null ? 0 : (Byte)v);
+			}
+			break;
+		case Short:
+			mo.startArray(len * 2L);
+			for(i = 0; i < len; i ++) {
+				mo.writeShort((v = values[i]) == null ? 0 : (Short)v);
+			}
+			break;
+		case Integer:
+			mo.startArray(len * 4L);
+			for(i = 0; i < len; i ++) {
+				mo.writeInt((v = values[i]) == null ? 0 : (Integer)v);
+			}
+			break;
+		case Long:
+			mo.startArray(len * 8L);
+			for(i = 0; i < len; i ++) {
+				mo.writeLong((v = values[i]) == null ? 0L : (Long)v);
+			}
+			break;
+		case Float:
+			mo.startArray(len * 4L);
+			for(i = 0; i < len; i ++) {
+				mo.writeInt(Float.floatToIntBits(
+					(v = values[i]) == null ? 0f : (Float)v));
+			}
+			break;
+		case Double:
+			mo.startArray(len * 8L);
+			for(i = 0; i < len; i ++) {
+				mo.writeLong(Double.doubleToLongBits(
+					(v = values[i]) == null ? 0d : (Double)v));
+			}
+			break;
+		case Date:
+			mo.startArray(len * 8L);
+			for(i = 0; i < len; i ++) {
+				mo.writeLong((v = values[i]) == null ? 0L : ((Date)v).getTime());
+			}
+			break;
+		case String: {
+			// 開始位置群を出力.
+			String s;
+			long all = 0L;
+			mo.startArray((len + 1) * 4L);
+			for(i = 0; i < len; i ++) {
+				mo.writeInt((int)all);
+				if((s = (String)values[i]) != null) {
+					all += UTF8IO.length(s);
+				}
+			}
+			if(all > Integer.MAX_VALUE) {
+				throw new RimException(
+					"The string column exceeds the maximum size: " + all);
+			}
+			mo.writeInt((int)all);
+			mo.endArray();
+			
+			// UTF8バイナリを出力.
+			byte[] b = params.tmp;
+			mo.startArray(all);
+			for(i = 0; i < len; i ++) {
+				if((s = (String)values[i]) != null && !s.isEmpty()) {
+					final int sLen = UTF8IO.length(s);
+					if(b.length < sLen) {
+						b = new byte[sLen];
+					}
+					UTF8IO.encode(b, 0, s, 0, s.length());
+					mo.write(b, 0, sLen);
+				}
+			}
+			break;
+		}
+		}
+		mo.endArray();
+	}
+	
+	/**
+	 * mmap形式の出力.
+	 * リトルエンディアンで出力し、出力位置を管理します.
+	 */
+	private static final class MappedOutput {
+		private final OutputStream out;
+		private final byte[] buf = new byte[8192];
+		private int bufLen;
+		private long position;
+		
+		/**
+		 * コンストラクタ.
+		 * @param out 出力先を設定します.
+		 * @param position 現在のファイル出力位置を設定します.
+		 */
+		public MappedOutput(OutputStream out, long position) {
+			this.out = out;
+			this.position = position;
+		}
+		
+		// バッファの空きを確保.
+		private final void ensure(int len) throws IOException {
+			if(bufLen + len > buf.length) {
+				flush();
+			}
+		}
+		
+		public void writeByte(int v) throws IOException {
+			ensure(1);
+			buf[bufLen ++] = (byte)v;
+			position ++;
+		}
+		
+		public void writeShort(int v) throws IOException {
+			ensure(2);
+			buf[bufLen ++] = (byte)v;
+			buf[bufLen ++] = (byte)(v >> 8);
+			position += 2;
+		}
+		
+		public void writeInt(int v) throws IOException {
+			ensure(4);
+			buf[bufLen ++] = (byte)v;
+			buf[bufLen ++] = (byte)(v >> 8);
+			buf[bufLen ++] = (byte)(v >> 16);
+			buf[bufLen ++] = (byte)(v >> 24);
+			position += 4;
+		}
+		
+		public void writeLong(long v) throws IOException {
+			writeInt((int)v);
+			writeInt((int)(v >> 32L));
+		}
+		
+		public void write(byte[] b, int off, int len) throws IOException {
+			if(len > buf.length - bufLen) {
+				flush();
+				out.write(b, off, len);
+			} else {
+				System.arraycopy(b, off, buf, bufLen, len);
+				bufLen += len;
+			}
+			position += len;
+		}
+		
+		// 配列の開始(配列バイト長を出力).
+		public void startArray(long byteLength) throws IOException {
+			writeLong(byteLength);
+		}
+		
+		// 配列の終了(8バイト境界までパディング).
+		public void endArray() throws IOException {
+			pad();
+		}
+		
+		// 8バイト境界までパディング.
+		public void pad() throws IOException {
+			while((position & 7L) != 0L) {
+				writeByte(0);
+			}
+		}
+		
+		public void flush() throws IOException {
+			if(bufLen > 0) {
+				out.write(buf, 0, bufLen);
+				bufLen = 0;
+			}
+		}
+	}
+	
 	// 1つのValueを出力.
 	private static final void convertValue(OutputStream out, byte[] tmp, Object[] strBuf,
 		ColumnType type, Object value) throws IOException {
@@ -1024,6 +1538,98 @@ public class SaveRim {
 		}
 	}
 	
+	// 種類数の少ない列群をStringの辞書と辞書番号で書き込む.
+	// 辞書化した列データが返却されます.
+	// 辞書化しない場合は null が返却されます.
+	private static final ColumnData.DictionaryColumn writeDictionaryColumns(
+		OutputStream out,
+		byte[] tmp, Object[] strBuf, ObjectList v) throws IOException {
+		int i;
+		final int len = v.size();
+		final Object[] o = v.rawArray();
+		// 辞書化する最大種類数(行数の半分まで).
+		final int max = Math.min(
+			ColumnData.DictionaryColumn.MAX_SIZE, len >> 1);
+		// ソートされた種類群を取得(nullは空文字として扱う).
+		final IndexKeyValueList<String, Boolean> list =
+			new IndexKeyValueList<String, Boolean>();
+		for(i = 0; i < len; i ++) {
+			if(list.put(o[i] == null ? "" : (String)o[i], Boolean.TRUE) == null &&
+				list.size() > max) {
+				// 種類数が多い場合は辞書化しない.
+				return null;
+			}
+		}
+		final int dictLen = list.size();
+		final String[] dictionary = new String[dictLen];
+		for(i = 0; i < dictLen; i ++) {
+			dictionary[i] = list.keyAt(i);
+		}
+		
+		// 辞書化を示すマーカーを設定.
+		BinaryIO.writeSavingMarker(out);
+		
+		// 辞書数と辞書を設定.
+		BinaryIO.writeSavingBinary(out, tmp, dictLen);
+		for(i = 0; i < dictLen; i ++) {
+			BinaryIO.writeString(out, tmp, strBuf, dictionary[i]);
+		}
+		
+		// 行毎の辞書番号を設定.
+		final int codeLen = BinaryIO.byte1_4Length(dictLen);
+		final char[] codes = new char[len];
+		for(i = 0; i < len; i ++) {
+			codes[i] = (char)Arrays.binarySearch(
+				dictionary, o[i] == null ? "" : (String)o[i]);
+			BinaryIO.write1_4Binary(out, tmp, codeLen, codes[i]);
+		}
+		return new ColumnData.DictionaryColumn(dictionary, codes);
+	}
+	
+	// ゾーンマップを書き込む.
+	private static final void writeZoneMap(OutputStream out, byte[] tmp,
+		ZoneMap zoneMap) throws IOException {
+		// ブロック行数のビットシフト値を設定(1byte).
+		BinaryIO.writeInt1(out, tmp, zoneMap.getBlockShift());
+		// ブロック毎の最小・最大順序キーとNull行数を設定.
+		final int len = zoneMap.getBlockLength();
+		for(int i = 0; i < len; i ++) {
+			BinaryIO.writeLong(out, tmp, zoneMap.getMin(i));
+			BinaryIO.writeLong(out, tmp, zoneMap.getMax(i));
+			BinaryIO.writeSavingBinary(out, tmp, zoneMap.getNullCount(i));
+		}
+	}
+	
+	// Null行番号群を書き込む.
+	// 列データ内のNull行は0(文字列は空文字)で出力されているので、
+	// [マーカー][Null行数(Saving)][前の行番号との差分(Saving)...] で
+	// Null行を出力します.
+	// Null行が存在しない場合は何も出力しません.
+	private static final void writeNullRows(OutputStream out, byte[] tmp,
+		ObjectList v) throws IOException {
+		int i;
+		final int len = v.size();
+		final Object[] o = v.rawArray();
+		int nullLen = 0;
+		for(i = 0; i < len; i ++) {
+			if(o[i] == null) {
+				nullLen ++;
+			}
+		}
+		if(nullLen == 0) {
+			return;
+		}
+		BinaryIO.writeSavingMarker(out);
+		BinaryIO.writeSavingBinary(out, tmp, nullLen);
+		int bef = 0;
+		for(i = 0; i < len; i ++) {
+			if(o[i] == null) {
+				BinaryIO.writeSavingBinary(out, tmp, i - bef);
+				bef = i;
+			}
+		}
+	}
+	
 	// 列群をDateで書き込む.
 	private static final void writeDateColumns(OutputStream out, byte[] tmp, ObjectList v)
 		throws IOException {
@@ -1034,6 +1640,281 @@ public class SaveRim {
 		}
 	}
 	
+	/**
+	 * 1つの塊の出力処理.
+	 */
+	private static abstract class EncodeTask implements Runnable {
+		// 出力先.
+		OutputStream out;
+		// 処理用パラメータ.
+		RimParams params;
+		
+		/**
+		 * 塊を圧縮して出力.
+		 * @param out 出力先が設定されます.
+		 * @param params 処理用パラメータが設定されます.
+		 * @exception IOException I/O例外.
+		 */
+		protected abstract void encode(OutputStream out, RimParams params)
+			throws IOException;
+		
+		// 塊を圧縮して出力.
+		public final void execute() throws IOException {
+			encode(out, params);
+			out = null;
+			params = null;
+		}
+		
+		@Override
+		public final void run() {
+			try {
+				execute();
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	/**
+	 * 1つの列データの出力処理.
+	 */
+	private static final class BodyTask extends EncodeTask {
+		private ObjectList column;
+		private final ColumnType type;
+		
+		BodyTask(ObjectList column, ColumnType type) {
+			this.column = column;
+			this.type = type;
+		}
+		
+		@Override
+		protected void encode(OutputStream out, RimParams params)
+			throws IOException {
+			writeBodyColumn(out, params, column, type);
+			column = null;
+		}
+	}
+	
+	/**
+	 * 1つのインデックスの出力処理.
+	 */
+	private static final class IndexTask extends EncodeTask {
+		private ObjectList[] body;
+		private final Object column;
+		private final ColumnType type;
+		
+		IndexTask(ObjectList[] body, Object column, ColumnType type) {
+			this.body = body;
+			this.column = column;
+			this.type = type;
+		}
+		
+		@Override
+		protected void encode(OutputStream out, RimParams params)
+			throws IOException {
+			writeOneIndex(out, params, body, column, type);
+			body = null;
+		}
+	}
+	
+	/**
+	 * 塊の圧縮・出力処理.
+	 * 
+	 * Executorが設定されている場合は、塊毎に専用のバッファを
+	 * 持ったパラメータを生成して並列で圧縮し、出力は登録順
+	 * (ファイル順)に行います.
+	 * Executorが設定されていない場合は、登録毎に
+	 * 呼び出しスレッドで処理します.
+	 */
+	private static final class ChunkEncoder {
+		// 出力先.
+		private final OutputStream out;
+		// 処理用パラメータ.
+		private final RimParams params;
+		// 並列処理用のExecutor.
+		private final Executor executor;
+		// 並列処理中の処理群.
+		private final ObjectList<CompletableFuture<Void>> tasks =
+			new ObjectList<CompletableFuture<Void>>();
+		// 並列処理中の出力結果群.
+		private final ObjectList<RbbOutputStream> chunks =
+			new ObjectList<RbbOutputStream>();
+		// 出力済みの処理位置.
+		private int position;
+		
+		ChunkEncoder(OutputStream out, RimParams params, Executor executor) {
+			this.out = out;
+			this.params = params;
+			this.executor = executor;
+		}
+		
+		// 1つの塊の圧縮・出力処理を登録.
+		public void write(EncodeTask task) throws IOException {
+			
+			// 呼び出しスレッドで処理する場合.
+			if(executor == null) {
+				task.out = out;
+				task.params = params;
+				task.execute();
+				return;
+			}
+			
+			// 並列処理用のパラメータを生成.
+			final RimParams p = new RimParams();
+			p.tmp = BinaryIO.createTmp();
+			p.strBuf = BinaryIO.createStringBuffer(false);
+			p.rbb = new RbbOutputStream();
+			p.byte1_4Len = params.byte1_4Len;
+			p.option = params.option;
+			p.compressType = params.compressType;
+			initCompress(p, params.compressType);
+			
+			// 出力結果を受け取るバッファを設定して並列処理.
+			final RbbOutputStream chunk = new RbbOutputStream();
+			task.out = chunk;
+			task.params = p;
+			chunks.add(chunk);
+			tasks.add(CompletableFuture.runAsync(task, executor));
+			
+			// 先頭から完了している塊を出力.
+			writeChunks(false);
+		}
+		
+		// 全ての塊の処理完了を待って出力.
+		public void flush() throws IOException {
+			writeChunks(true);
+		}
+		
+		// 処理が完了した塊を登録順に出力.
+		private void writeChunks(boolean waitFlag) throws IOException {
+			CompletableFuture<Void> task;
+			RbbOutputStream chunk;
+			Throwable error = null;
+			final int len = tasks.size();
+			for(; position < len; position ++) {
+				task = tasks.get(position);
+				// 完了を待たない場合で、未完了の場合.
+				if(!waitFlag && !task.isDone()) {
+					return;
+				}
+				try {
+					task.join();
+				} catch(CompletionException e) {
+					if(error == null) {
+						error = e.getCause();
+					}
+				}
+				// エラーが発生していない場合は出力.
+				chunk = chunks.set(position, null);
+				tasks.set(position, null);
+				if(error == null) {
+					out.write(chunk.getRawBuffer(), 0, chunk.getLength());
+				}
+				chunk = null;
+				// 完了を待たない場合でエラーが発生した場合.
+				if(!waitFlag && error != null) {
+					position ++;
+					break;
+				}
+			}
+			if(error == null) {
+				return;
+			}
+			// 残りの処理完了を待つ.
+			for(; position < len; position ++) {
+				try {
+					tasks.get(position).join();
+				} catch(CompletionException e) {}
+			}
+			if(error instanceof UncheckedIOException) {
+				throw ((UncheckedIOException)error).getCause();
+			} else if(error instanceof RuntimeException) {
+				throw (RuntimeException)error;
+			} else if(error instanceof Error) {
+				throw (Error)error;
+			}
+			throw new RimException(error);
+		}
+	}
+	
+	/**
+	 * インデックスのソート・集約処理.
+	 * 
+	 * Executorが設定されている場合は、登録されたインデックス毎に
+	 * 並列でソートします.
+	 * Executorが設定されていない場合は、取得時に
+	 * 呼び出しスレッドで処理します.
+	 */
+	private static final class IndexSorter {
+		// Body情報.
+		private final ObjectList[] body;
+		// 並列処理用のExecutor.
+		private final Executor executor;
+		// 登録されたインデックス列情報群.
+		private final ObjectList<Object> columns =
+			new ObjectList<Object>();
+		// 並列処理中の処理群.
+		private final ObjectList<CompletableFuture<ObjectList<IndexRow>>> tasks =
+			new ObjectList<CompletableFuture<ObjectList<IndexRow>>>();
+		
+		IndexSorter(ObjectList[] body, Executor executor) {
+			this.body = body;
+			this.executor = executor;
+		}
+		
+		// インデックス列情報群を登録.
+		public void addAll(ObjectList list) {
+			Object column;
+			final int len = list.size();
+			for(int i = 0; i < len; i ++) {
+				column = list.get(i);
+				columns.add(column);
+				if(executor != null) {
+					tasks.add(CompletableFuture.supplyAsync(
+						new SortTask(body, column), executor));
+				}
+			}
+		}
+		
+		// 登録順のインデックス行群を取得.
+		public ObjectList<IndexRow> get(int no) throws IOException {
+			// 呼び出しスレッドで処理する場合.
+			if(executor == null) {
+				return readIndexRows(body, columns.get(no));
+			}
+			try {
+				return tasks.set(no, null).join();
+			} catch(CompletionException e) {
+				final Throwable error = e.getCause();
+				if(error instanceof RuntimeException) {
+					throw (RuntimeException)error;
+				} else if(error instanceof Error) {
+					throw (Error)error;
+				}
+				throw new RimException(error);
+			}
+		}
+	}
+	
+	/**
+	 * 1つのインデックスのソート・集約処理.
+	 */
+	private static final class SortTask
+		implements Supplier<ObjectList<IndexRow>> {
+		private final ObjectList[] body;
+		private final Object column;
+		
+		SortTask(ObjectList[] body, Object column) {
+			this.body = body;
+			this.column = column;
+		}
+		
+		@Override
+		public ObjectList<IndexRow> get() {
+			return readIndexRows(body, column);
+		}
+	}
+	
 	/**
 	 * 1つのIndex行情報.
 	 */
@@ -1044,6 +1925,12 @@ public class SaveRim {
 		 */
 		public Comparable getValue();
 		
+		/**
+		 * 行番号を取得.
+		 * @return int 行番号が返却されます.
+		 */
+		public int getRowId();
+		
 		/**
 		 * Value情報をバイナリ出力.
 		 * @param rbb 出力先の情報を設定します.5
@@ -1087,6 +1974,11 @@ public class SaveRim {
 			return value;
 		}
 		
+		@Override
+		public int getRowId() {
+			return rowId;
+		}
+		
 		@Override
 		public void writeByValue(RbbOutputStream rbb, RimParams params,
 			ColumnType type) throws IOException {
@@ -1141,6 +2033,11 @@ public class SaveRim {
 			return value;
 		}
 		
+		@Override
+		public int getRowId() {
+			return rowId;
+		}
+		
 		@Override
 		public void writeByValue(RbbOutputStream rbb, RimParams params,
 			ColumnType type) throws IOException {
@@ -1209,15 +2106,19 @@ public class SaveRim {
 	private static final class GeoIndexColumn {
 		private final int latColumnNo;
 		private final int lonColumnNo;
+		private final GeoCodeType codeType;
 		
 		/**
 		 * コンストラクタ.
 		 * @param latColumnNo インデックス対象の緯度列番号を設定します.
 		 * @param lonColumnNo インデックス対象の経度列番号を設定します.
+		 * @param codeType インデックスのキー形式を設定します.
 		 */
-		public GeoIndexColumn(int latColumnNo, int lonColumnNo) {
+		public GeoIndexColumn(int latColumnNo, int lonColumnNo,
+			GeoCodeType codeType) {
 			this.latColumnNo = latColumnNo;
 			this.lonColumnNo = lonColumnNo;
+			this.codeType = codeType;
 		}
 
 		/**
@@ -1235,6 +2136,14 @@ public class SaveRim {
 		public int getLonColumnNo() {
 			return lonColumnNo;
 		}
+		
+		/**
+		 * インデックスのキー形式が返却されます.
+		 * @return GeoCodeType キー形式が返却されます.
+		 */
+		public GeoCodeType getCodeType() {
+			return codeType;
+		}
 	}
 	
 	/**
@@ -1291,5 +2200,7 @@ public class SaveRim {
 		RbbOutputStream rbb;
 		// オプション情報.
 		Object option;
+		// 圧縮タイプ.
+		CompressType compressType;
 	}
 }
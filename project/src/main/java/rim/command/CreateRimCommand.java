@@ -3,12 +3,14 @@ package rim.command;
 import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
 
 import rim.RimConstants;
 import rim.SaveRim;
 import rim.compress.CompressType;
 import rim.compress.Lz4Compress;
 import rim.compress.ZstdCompress;
+import rim.geo.GeoCodeType;
 import rim.util.Args;
 import rim.util.CsvReader;
 import rim.util.FileUtil;
@@ -56,6 +58,7 @@ public class CreateRimCommand {
 		System.out.println("     圧縮タイプを設定します。設定しない場合は圧縮しません。");
 		System.out.println("       default  標準圧縮");
 		System.out.println("       gzip     GZIP圧縮");
+		System.out.println("       mmap     圧縮なしのmmap形式(LoadRim.mmapで読み込み)");
 		
 		// LZ4が利用可能な場合はヘルプ表示.
 		if(Lz4Compress.getInstance().isSuccessLibrary()) {
@@ -84,6 +87,9 @@ public class CreateRimCommand {
 		System.out.println("      > -g lat,lon -g abc,def");
 		System.out.println("     この場合 lat,lon と abc,def がGeoインデックスになります.");
 		System.out.println("     緯度列名と経度列名の区切り文字は[,]で区切ります.");
+		System.out.println("     また経度列名の後に [,hilbert] を設定すると、キー形式が");
+		System.out.println("     ヒルベルト曲線のGeoインデックスになります.");
+		System.out.println("      > -g lat,lon,hilbert");
 		
 		System.out.println("  -n{level} [--ngram] [--unigram] [--bigram] [--trigram] {列名} ....");
 		System.out.println("     列名を設定して、ngramのインデックスを設定します.");
@@ -95,6 +101,10 @@ public class CreateRimCommand {
 		System.out.println("      [-n] [-n2] [--ngram] [--bigram] でバイグラムでインデックスを作成します.");
 		System.out.println("      [-n3] [--trigram] でトリグラムでインデックスを作成します.");
 
+		System.out.println("  -t [--thread] {並列数}");
+		System.out.println("     インデックスのソートや圧縮を並列で処理する数を設定します.");
+		System.out.println("     設定しない場合は並列処理を行いません.");
+
 		System.out.println("  -c [--charset] {文字コード}");
 		System.out.println("     CSVファイルの文字コードを設定します");
 		System.out.println("     設定しない場合は \"" +
@@ -153,7 +163,8 @@ public class CreateRimCommand {
 		len = geoIndexList.size();
 		for(int i = 0; i < len; i ++) {
 			System.out.println("  geoIndex(" + (i + 1) + "): " +
-				geoIndexList.get(i)[0] + ", " + geoIndexList.get(i)[1]);
+				geoIndexList.get(i)[0] + ", " + geoIndexList.get(i)[1] + " (" +
+				GeoCodeType.get(geoIndexList.get(i)[2]) + ")");
 		}
 		
 		System.out.println("登録NgramIndex数: " + ngramIndexList.size());
@@ -238,6 +249,18 @@ public class CreateRimCommand {
 			}
 		}
 
+		// 並列数を取得.
+		int thread = 1;
+		String threadString = args.get("-t", "--thread");
+		if(threadString != null) {
+			try {
+				thread = Integer.parseInt(threadString);
+			} catch(Exception e) {
+				errorOut("並列数の設定が不正です: " + threadString);
+				return;
+			}
+		}
+
 		// CSV文字コードを取得.
 		String charset = args.get("-c", "--charset");
 		if(charset == null) {
@@ -303,10 +326,27 @@ public class CreateRimCommand {
 					index);
 				return;
 			}
+			// キー形式が設定されている場合.
+			String codeType = null;
+			int pp = index.indexOf(",", p + 1);
+			if(pp != -1) {
+				codeType = index.substring(pp + 1);
+				try {
+					GeoCodeType.get(codeType);
+				} catch(Exception e) {
+					errorOut("指定されたGeoインデックスのキー形式は " +
+						"quad か hilbert を設定する必要があります: " +
+						index);
+					return;
+				}
+			} else {
+				pp = index.length();
+			}
 			geoIndexList.add(
 				new String[] {
 					index.substring(0, p),
-					index.substring(p + 1)
+					index.substring(p + 1, pp),
+					codeType
 				});
 		}
 		
@@ -341,6 +381,7 @@ public class CreateRimCommand {
 		CsvReader csv = null;
 		SaveRim convRim = null;
 		OutputStream out = null;
+		ForkJoinPool pool = null;
 		try {
 			// CSVオープン.
 			csv = new CsvReader(csvFile, charset, separation);
@@ -363,7 +404,8 @@ public class CreateRimCommand {
 			for(int i = 0; i < len; i ++) {
 				convRim.addGeoIndex(
 					geoIndexList.get(i)[0],
-					geoIndexList.get(i)[1]);
+					geoIndexList.get(i)[1],
+					GeoCodeType.get(geoIndexList.get(i)[2]));
 			}
 			
 			// ngramインデックスの設定.
@@ -374,8 +416,13 @@ public class CreateRimCommand {
 					(Integer)ngramIndexList.get(i)[1]);
 			}
 
+			// 並列数が2以上の場合は並列処理用のExecutorを生成.
+			if(thread > 1) {
+				pool = new ForkJoinPool(thread);
+			}
+
 			// ファイル出力.
-			int rowAll = convRim.write();
+			int rowAll = convRim.write(pool);
 
 			// 後処理.
 			csv.close(); csv = null;
@@ -404,6 +451,9 @@ public class CreateRimCommand {
 					convRim.close();
 				} catch(Exception e) {}
 			}
+			if(pool != null) {
+				pool.shutdown();
+			}
 		}
 
 	}
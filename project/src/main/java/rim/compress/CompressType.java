@@ -18,6 +18,8 @@ public enum CompressType {
 	,LZ4(10)
 	/** Zstd圧縮. **/
 	,Zstd(11)
+	/** 圧縮なしのmmap形式. **/
+	,Mapped(20)
 	;
 	
 	// 圧縮ID.
@@ -51,6 +53,7 @@ public enum CompressType {
 		case 2: return Gzip;
 		case 10: return LZ4;
 		case 11: return Zstd;
+		case 20: return Mapped;
 		}
 		throw new RimException("Unknown compression ID: " + id);
 	}
@@ -110,6 +113,8 @@ public enum CompressType {
 			return Gzip;
 		} else if(Alphabet.eqArray(name, "lz4") != -1) {
 			return LZ4;
+		} else if(Alphabet.eqArray(name, "mmap", "mapped") != -1) {
+			return Mapped;
 		} else if(getZstdLevel(name) >= 1) {
 			return Zstd;
 		}
@@ -49,6 +49,20 @@ public interface BaseFlags<T> {
 	 */
 	public T or(T value);
 	
+	/**
+	 * AND NOT処理.
+	 * 処理結果は呼び出し元のオブジェクトに反映されます.
+	 * @param value このオブジェクトから除外するためのFlagsを設定します.
+	 * @return T このオブジェクトが返却されます.
+	 */
+	public T andNot(T value);
+	
+	/**
+	 * 有効なフラグ数を取得.
+	 * @return int 有効なフラグ数が返却されます.
+	 */
+	public int cardinality();
+	
 	/**
 	 * オブジェクトを別のインスタンスでコピー.
 	 * @return T コピーされたオブジェクトが返却されます.
@@ -62,4 +76,12 @@ public interface BaseFlags<T> {
 	 *                           Iteratorが返却されます.
 	 */
 	public Iterator<Integer> iterator(boolean ascFlag);
+	
+	/**
+	 * 有効な行番号を取得するIntIteratorを取得.
+	 * @param ascFlag 昇順取得の場合は true.
+	 * @return IntIterator 有効な行番号を返却する
+	 *                     IntIteratorが返却されます.
+	 */
+	public IntIterator intIterator(boolean ascFlag);
 }
@@ -11,6 +11,11 @@ import rim.util.UTF8IO;
 public class BinaryIO {
 	private BinaryIO() {}
 	
+	/**
+	 * 差分のビットパック形式で１つのビット長を共有する行番号数.
+	 */
+	public static final int PACKED_BLOCK_SIZE = 128;
+	
 	/**
 	 * テンポラリバイナリを生成.
 	 * @return byte[] テンポラリ用のバイナリが返却されます.
@@ -85,6 +90,18 @@ public class BinaryIO {
 		return 4;
 	}
 	
+	/**
+	 * 1~4byteの長さで表現できる最大値を取得.
+	 * @param byte1_4Len 1~4byteの長さを設定します.
+	 * @return int 最大値が返却されます.
+	 */
+	public static final int max1_4Value(int byte1_4Len) {
+		if(byte1_4Len >= 4) {
+			return Integer.MAX_VALUE;
+		}
+		return (1 << (byte1_4Len << 3)) - 1;
+	}
+	
 	/**
 	 * 1byteのデーターセット.
 	 * @param tmp テンポラリ用のバイナリを設定します.
@@ -432,6 +449,76 @@ public class BinaryIO {
 		out.write(tmp, 0, len);
 	}
 	
+	/**
+	 * Saving形式では出力されないマーカーを書き込む.
+	 * 0を2byteで表現したバイナリは writeSavingBinary で出力されないので、
+	 * Savingされた数字の並びと区別する目印として利用できます.
+	 * @param out 出力先のOutputStreamを設定します.
+	 * @throws IOException I/O例外.
+	 */
+	public static final void writeSavingMarker(OutputStream out)
+		throws IOException {
+		out.write(0x01);
+		out.write(0x00);
+	}
+	
+	/**
+	 * 昇順の行番号群を差分のビットパック形式で書き込む.
+	 * 
+	 * 先頭の行番号をSavingで出力し、以降は前の行番号との差分-1を
+	 * PACKED_BLOCK_SIZE 件毎のブロックで、ブロック内の最大値が収まる
+	 * ビット長(1byte)とビット詰めしたバイナリで出力します.
+	 * @param out 出力先のOutputStreamを設定します.
+	 * @param tmp テンポラリ用のバイナリを設定します.
+	 * @param rowIds 昇順の行番号群を設定します.
+	 * @param len 行番号数を設定します.
+	 * @throws IOException I/O例外.
+	 */
+	public static final void writeDeltaPacked(
+		OutputStream out, byte[] tmp, int[] rowIds, int len)
+		throws IOException {
+		if(len <= 0) {
+			return;
+		}
+		int i, end, bits, delta, accBits;
+		long acc;
+		// 先頭の行番号を出力.
+		writeSavingBinary(out, tmp, rowIds[0]);
+		for(int start = 1; start < len; start += PACKED_BLOCK_SIZE) {
+			end = Math.min(len, start + PACKED_BLOCK_SIZE);
+			// ブロック内の差分が収まるビット長を取得.
+			bits = 0;
+			for(i = start; i < end; i ++) {
+				if((delta = rowIds[i] - rowIds[i - 1] - 1) < 0) {
+					throw new RimException(
+						"Row numbers are not in ascending order: " + rowIds[i]);
+				}
+				bits |= delta;
+			}
+			bits = 32 - Integer.numberOfLeadingZeros(bits);
+			out.write(bits);
+			// 全て連番の場合はビット長のみ.
+			if(bits == 0) {
+				continue;
+			}
+			// 差分をビット詰めして出力.
+			acc = 0L;
+			accBits = 0;
+			for(i = start; i < end; i ++) {
+				acc |= ((long)(rowIds[i] - rowIds[i - 1] - 1)) << accBits;
+				accBits += bits;
+				while(accBits >= 8) {
+					out.write((int)(acc & 0x00000000000000ffL));
+					acc >>>= 8L;
+					accBits -= 8;
+				}
+			}
+			if(accBits > 0) {
+				out.write((int)(acc & 0x00000000000000ffL));
+			}
+		}
+	}
+	
 	/**
 	 * 1バイトのバイナリをInt変換.
 	 * @param tmp テンポラリ用のバイナリを設定します.
@@ -572,6 +659,23 @@ public class BinaryIO {
 		}
 	}
 	
+	/**
+	 * 指定長のバイナリを指定位置に取得.
+	 * @param out 出力対象のバイナリを設定します.
+	 * @param off 出力対象のバイナリの設定開始位置を設定します.
+	 * @param in InputStreamを設定します.
+	 * @param len 取得する長さを設定します.
+	 * @throws IOException I/O例外.
+	 */
+	public static final void readBinary(byte[] out, int off, InputStream in, int len)
+		throws IOException {
+		final int rLen = in.read(out, off, len);
+		if(len != rLen) {
+			throw new RimException("Failed to read Rim information(" +
+				len + " / " + rLen + ")");
+		}
+	}
+	
 	/**
 	 * Booleanを取得.
 	 * @param in InputStreamを設定します.
@@ -745,4 +849,78 @@ public class BinaryIO {
 		}
 		return topValue;
 	}
+	
+	/**
+	 * Savingされたint、もしくはマーカーを取得.
+	 * @param in InputStreamを設定します.
+	 * @param tmp テンポラリ用のバイナリを設定します.
+	 * @return int int が返却されます.
+	 *             writeSavingMarker で書き込まれたマーカーの場合は
+	 *             -1 が返却されます.
+	 * @throws IOException I/O例外.
+	 */
+	public static final int readSavingIntOrMarker(InputStream in, byte[] tmp)
+		throws IOException {
+		readBinary(tmp, in, 1);
+		int topByte = binSavingTopByte(tmp);
+		int topValue = binSavingTopValue(tmp);
+		if(topByte > 0) {
+			readBinary(tmp, in, topByte);
+			// 0を2byteで表現している場合はマーカー.
+			if(topByte == 1 && topValue == 0 && tmp[0] == 0) {
+				return -1;
+			}
+			return binSavingNextValue(tmp, topByte, topValue);
+		}
+		return topValue;
+	}
+	
+	/**
+	 * 差分のビットパック形式の行番号群を取得.
+	 * @param in InputStreamを設定します.
+	 * @param tmp テンポラリ用のバイナリを設定します.
+	 * @param out 行番号群を格納するバッファを設定します.
+	 * @param len 行番号数を設定します.
+	 * @throws IOException I/O例外.
+	 */
+	public static final void readDeltaPacked(
+		InputStream in, byte[] tmp, int[] out, int len)
+		throws IOException {
+		if(len <= 0) {
+			return;
+		}
+		int i, end, bits, mask, accBits, b;
+		long acc;
+		// 先頭の行番号を取得.
+		int rowId = readSavingInt(in, tmp);
+		out[0] = rowId;
+		for(int start = 1; start < len; start += PACKED_BLOCK_SIZE) {
+			end = Math.min(len, start + PACKED_BLOCK_SIZE);
+			bits = readInt1(in, tmp);
+			// 全て連番の場合.
+			if(bits == 0) {
+				for(i = start; i < end; i ++) {
+					out[i] = ++ rowId;
+				}
+				continue;
+			}
+			mask = bits == 32 ? -1 : (1 << bits) - 1;
+			acc = 0L;
+			accBits = 0;
+			for(i = start; i < end; i ++) {
+				while(accBits < bits) {
+					if((b = in.read()) == -1) {
+						throw new RimException(
+							"Failed to read Rim information(packed row numbers)");
+					}
+					acc |= ((long)b) << accBits;
+					accBits += 8;
+				}
+				rowId += ((int)acc & mask) + 1;
+				acc >>>= (long)bits;
+				accBits -= bits;
+				out[i] = rowId;
+			}
+		}
+	}
 }
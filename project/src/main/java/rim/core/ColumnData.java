@@ -0,0 +1,1111 @@
+package rim.core;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Date;
+
+import rim.exception.RimException;
+import rim.util.TypesUtil;
+import rim.util.UTF8IO;
+
+/**
+ * 1つの列の全行情報を型毎のプリミティブ配列で管理.
+ *
+ * 行毎に Object[] を持つのではなく、列単位で
+ * int[] や double[] のようなプリミティブ配列で保持する事で
+ * メモリ効率とBody検索の速度を向上させます.
+ *
+ * 文字列はUTF8のバイナリを１つの配列に連結して
+ * オフセット管理します.
+ * 種類数の少ない文字列は辞書と辞書番号で管理します.
+ *
+ * 数値系の列は getKey で順序キー(long)を取得する事で
+ * Boxingせずに大小比較が行えます.
+ */
+public abstract class ColumnData {
+	// 行数.
+	protected final int length;
+	// Null行管理(Nullが存在しない場合はnull).
+	protected Flags nulls;
+
+	/**
+	 * コンストラクタ.
+	 * @param length 行数を設定します.
+	 */
+	protected ColumnData(int length) {
+		this.length = length;
+		this.nulls = null;
+	}
+
+	/**
+	 * 列型を取得.
+	 * @return ColumnType 列型が返却されます.
+	 */
+	public abstract ColumnType getColumnType();
+
+	/**
+	 * 指定行の要素を取得.
+	 * @param rowId 行番号を設定します.
+	 * @return Object 要素が返却されます.
+	 *                Nullの場合は null が返却されます.
+	 */
+	public final Object get(int rowId) {
+		if(nulls != null && nulls.get(rowId)) {
+			return null;
+		}
+		return getObject(rowId);
+	}
+
+	/**
+	 * 指定行の要素をオブジェクトで取得.
+	 * @param rowId 行番号を設定します.
+	 * @return Object 要素が返却されます.
+	 */
+	protected abstract Object getObject(int rowId);
+
+	/**
+	 * 指定行の順序キーを取得.
+	 * 順序キーは、この列の型の大小関係を維持した long 値です.
+	 * @param rowId 行番号を設定します.
+	 * @return long 順序キーが返却されます.
+	 */
+	public abstract long getKey(int rowId);
+
+	/**
+	 * 列型に変換済みの条件を順序キーに変換.
+	 * @param value ColumnType.convert で変換された条件を設定します.
+	 * @return long 順序キーが返却されます.
+	 */
+	public abstract long toKey(Object value);
+
+	/**
+	 * 指定行の要素をdoubleで取得.
+	 * @param rowId 行番号を設定します.
+	 * @return double 要素が返却されます.
+	 */
+	public double getDouble(int rowId) {
+		final Double ret = TypesUtil.getDouble(get(rowId));
+		return ret == null ? 0d : ret;
+	}
+
+	/**
+	 * 指定行の要素をlongで取得.
+	 * 数値列と日付(ミリ秒)列はBoxingせずに取得します.
+	 * @param rowId 行番号を設定します.
+	 * @return long 要素が返却されます.
+	 *              Nullの場合は 0 が返却されます.
+	 */
+	public long getLong(int rowId) {
+		final Long ret = TypesUtil.getLong(get(rowId));
+		return ret == null ? 0L : ret;
+	}
+
+	/**
+	 * 指定行の要素をintで取得.
+	 * @param rowId 行番号を設定します.
+	 * @return int 要素が返却されます.
+	 *             Nullの場合は 0 が返却されます.
+	 */
+	public int getInt(int rowId) {
+		return (int)getLong(rowId);
+	}
+
+	/**
+	 * 指定行の要素をfloatで取得.
+	 * @param rowId 行番号を設定します.
+	 * @return float 要素が返却されます.
+	 *               Nullの場合は 0 が返却されます.
+	 */
+	public float getFloat(int rowId) {
+		return (float)getDouble(rowId);
+	}
+
+	/**
+	 * 行数を取得.
+	 * @return int 行数が返却されます.
+	 */
+	public final int getLength() {
+		return length;
+	}
+
+	/**
+	 * 指定行がNullかチェック.
+	 * @param rowId 行番号を設定します.
+	 * @return boolean true の場合 Null です.
+	 */
+	public final boolean isNull(int rowId) {
+		return nulls != null && nulls.get(rowId);
+	}
+
+	/**
+	 * Null行管理情報を取得.
+	 * @return Flags Null行管理情報が返却されます.
+	 *               Nullが存在しない場合は null が返却されます.
+	 */
+	public final Flags getNulls() {
+		return nulls;
+	}
+
+	/**
+	 * Null行を設定.
+	 * @param rowId 行番号を設定します.
+	 */
+	protected final void setNull(int rowId) {
+		if(nulls == null) {
+			nulls = new Flags(length);
+		}
+		nulls.put(rowId, true);
+	}
+
+	/**
+	 * Null行管理情報を設定.
+	 * 保存されたNull行群を読み込んだ場合に設定します.
+	 * @param nulls Null行管理情報を設定します.
+	 */
+	public final void setNulls(Flags nulls) {
+		if(nulls != null && nulls.getLength() != length) {
+			throw new RimException("The number of null rows does not match.");
+		}
+		this.nulls = nulls;
+	}
+
+	/**
+	 * float値を順序キーに変換.
+	 * @param v 対象の値を設定します.
+	 * @return long 順序キーが返却されます.
+	 */
+	public static final long floatKey(float v) {
+		final int bits = Float.floatToIntBits(v);
+		return (long)(bits ^ ((bits >> 31) & 0x7fffffff));
+	}
+
+	/**
+	 * double値を順序キーに変換.
+	 * @param v 対象の値を設定します.
+	 * @return long 順序キーが返却されます.
+	 */
+	public static final long doubleKey(double v) {
+		final long bits = Double.doubleToLongBits(v);
+		return bits ^ ((bits >> 63L) & 0x7fffffffffffffffL);
+	}
+
+	/**
+	 * 列型と1つの列の全行情報を設定してColumnDataを生成.
+	 * @param type 列型を設定します.
+	 * @param values 1つの列の全行情報を設定します.
+	 * @param length 行数を設定します.
+	 * @return ColumnData ColumnDataが返却されます.
+	 */
+	public static final ColumnData create(
+		ColumnType type, Object[] values, int length) {
+		int i;
+		Object v;
+		ColumnData ret;
+		switch(type) {
+		case Boolean: {
+			final Flags data = new Flags(length);
+			ret = new BooleanColumn(data);
+			for(i = 0; i < length; i ++) {
+				if((v = type.convert(values[i])) == null) {
+					ret.setNull(i);
+				} else {
+					data.put(i, (Boolean)v);
+				}
+			}
+			return ret;
+		}
+		case Byte: {
+			final byte[] data = new byte[length];
+			ret = new ByteColumn(data);
+			for(i = 0; i < length; i ++) {
+				if((v = type.convert(values[i])) == null) {
+					ret.setNull(i);
+				} else {
+					data[i] = (Byte)v;
+				}
+			}
+			return ret;
+		}
+		case Short: {
+			final short[] data = new short[length];
+			ret = new ShortColumn(data);
+			for(i = 0; i < length; i ++) {
+				if((v = type.convert(values[i])) == null) {
+					ret.setNull(i);
+				} else {
+					data[i] = (Short)v;
+				}
+			}
+			return ret;
+		}
+		case Integer: {
+			final int[] data = new int[length];
+			ret = new IntegerColumn(data);
+			for(i = 0; i < length; i ++) {
+				if((v = type.convert(values[i])) == null) {
+					ret.setNull(i);
+				} else {
+					data[i] = (Integer)v;
+				}
+			}
+			return ret;
+		}
+		case Long: {
+			final long[] data = new long[length];
+			ret = new LongColumn(data);
+			for(i = 0; i < length; i ++) {
+				if((v = type.convert(values[i])) == null) {
+					ret.setNull(i);
+				} else {
+					data[i] = (Long)v;
+				}
+			}
+			return ret;
+		}
+		case Float: {
+			final float[] data = new float[length];
+			ret = new FloatColumn(data);
+			for(i = 0; i < length; i ++) {
+				if((v = type.convert(values[i])) == null) {
+					ret.setNull(i);
+				} else {
+					data[i] = (Float)v;
+				}
+			}
+			return ret;
+		}
+		case Double: {
+			final double[] data = new double[length];
+			ret = new DoubleColumn(data);
+			for(i = 0; i < length; i ++) {
+				if((v = type.convert(values[i])) == null) {
+					ret.setNull(i);
+				} else {
+					data[i] = (Double)v;
+				}
+			}
+			return ret;
+		}
+		case String: {
+			return StringColumn.create(values, length);
+		}
+		case Date: {
+			final long[] data = new long[length];
+			ret = new DateColumn(data);
+			for(i = 0; i < length; i ++) {
+				if((v = type.convert(values[i])) == null) {
+					ret.setNull(i);
+				} else {
+					data[i] = ((Date)v).getTime();
+				}
+			}
+			return ret;
+		}
+		}
+		throw new RimException("Unknown column type: " + type);
+	}
+
+	/**
+	 * Boolean列.
+	 */
+	public static final class BooleanColumn extends ColumnData {
+		private final Flags values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分のフラグ情報を設定します.
+		 */
+		public BooleanColumn(Flags values) {
+			super(values.getLength());
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Boolean;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values.get(rowId) ? 1L : 0L;
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Boolean)value) ? 1L : 0L;
+		}
+
+		/**
+		 * 指定行の要素を取得.
+		 * @param rowId 行番号を設定します.
+		 * @return boolean 要素が返却されます.
+		 */
+		public boolean getBoolean(int rowId) {
+			return values.get(rowId);
+		}
+	}
+
+	/**
+	 * Byte列.
+	 */
+	public static final class ByteColumn extends ColumnData {
+		private final byte[] values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public ByteColumn(byte[] values) {
+			super(values.length);
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Byte;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Number)value).longValue();
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return values[rowId];
+		}
+
+		/**
+		 * 要素配列を取得.
+		 * @return byte[] 要素配列が返却されます.
+		 */
+		public byte[] getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * Short列.
+	 */
+	public static final class ShortColumn extends ColumnData {
+		private final short[] values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public ShortColumn(short[] values) {
+			super(values.length);
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Short;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Number)value).longValue();
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return values[rowId];
+		}
+
+		/**
+		 * 要素配列を取得.
+		 * @return short[] 要素配列が返却されます.
+		 */
+		public short[] getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * Integer列.
+	 */
+	public static final class IntegerColumn extends ColumnData {
+		private final int[] values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public IntegerColumn(int[] values) {
+			super(values.length);
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Integer;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Number)value).longValue();
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public int getInt(int rowId) {
+			return values[rowId];
+		}
+
+		/**
+		 * 要素配列を取得.
+		 * @return int[] 要素配列が返却されます.
+		 */
+		public int[] getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * Long列.
+	 */
+	public static final class LongColumn extends ColumnData {
+		private final long[] values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public LongColumn(long[] values) {
+			super(values.length);
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Long;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Number)value).longValue();
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return values[rowId];
+		}
+
+		/**
+		 * 要素配列を取得.
+		 * @return long[] 要素配列が返却されます.
+		 */
+		public long[] getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * Float列.
+	 */
+	public static final class FloatColumn extends ColumnData {
+		private final float[] values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public FloatColumn(float[] values) {
+			super(values.length);
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Float;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return floatKey(values[rowId]);
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return floatKey(((Number)value).floatValue());
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return (long)values[rowId];
+		}
+
+		@Override
+		public float getFloat(int rowId) {
+			return values[rowId];
+		}
+
+		/**
+		 * 要素配列を取得.
+		 * @return float[] 要素配列が返却されます.
+		 */
+		public float[] getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * Double列.
+	 */
+	public static final class DoubleColumn extends ColumnData {
+		private final double[] values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public DoubleColumn(double[] values) {
+			super(values.length);
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Double;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return doubleKey(values[rowId]);
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return doubleKey(((Number)value).doubleValue());
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return (long)values[rowId];
+		}
+
+		/**
+		 * 要素配列を取得.
+		 * @return double[] 要素配列が返却されます.
+		 */
+		public double[] getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * Date列.
+	 * 日付はミリ秒のlong値で管理します.
+	 */
+	public static final class DateColumn extends ColumnData {
+		private final long[] values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分のミリ秒値を設定します.
+		 */
+		public DateColumn(long[] values) {
+			super(values.length);
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Date;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return new Date(values[rowId]);
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values[rowId];
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Date)value).getTime();
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return values[rowId];
+		}
+
+		/**
+		 * 要素配列を取得.
+		 * @return long[] ミリ秒値の要素配列が返却されます.
+		 */
+		public long[] getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * String列.
+	 * 全行のUTF8バイナリを１つのバッファに連結し、
+	 * 各行の開始位置をオフセットバッファで管理します.
+	 *
+	 * バッファはヒープ配列、もしくはmmapされたファイル領域の
+	 * どちらでも利用できます.
+	 */
+	public static final class StringColumn extends ColumnData {
+		// 全行のUTF8バイナリ.
+		private final ByteBuffer data;
+		// 各行の開始位置(行数+1).
+		private final IntBuffer offsets;
+
+		/**
+		 * コンストラクタ.
+		 * @param data 全行のUTF8バイナリを設定します.
+		 * @param offsets 各行の開始位置(行数+1)を設定します.
+		 */
+		public StringColumn(byte[] data, int[] offsets) {
+			this(ByteBuffer.wrap(data), IntBuffer.wrap(offsets));
+		}
+
+		/**
+		 * コンストラクタ.
+		 * @param data 全行のUTF8バイナリを設定します.
+		 * @param offsets 各行の開始位置(行数+1)を設定します.
+		 */
+		public StringColumn(ByteBuffer data, IntBuffer offsets) {
+			super(offsets.limit() - 1);
+			this.data = data;
+			this.offsets = offsets;
+		}
+
+		/**
+		 * 1つの列の全行情報を設定してStringColumnを生成.
+		 * @param values 1つの列の全行情報を設定します.
+		 * @param length 行数を設定します.
+		 * @return StringColumn StringColumnが返却されます.
+		 */
+		public static final StringColumn create(Object[] values, int length) {
+			int i;
+			final String[] list = new String[length];
+			final int[] offsets = new int[length + 1];
+			int all = 0;
+			for(i = 0; i < length; i ++) {
+				list[i] = TypesUtil.getString(values[i]);
+				offsets[i] = all;
+				all += UTF8IO.length(list[i]);
+			}
+			offsets[length] = all;
+			final byte[] data = new byte[all];
+			final StringColumn ret = new StringColumn(data, offsets);
+			for(i = 0; i < length; i ++) {
+				if(list[i] == null) {
+					ret.setNull(i);
+				} else if(!list[i].isEmpty()) {
+					UTF8IO.encode(data, offsets[i], list[i], 0, list[i].length());
+				}
+			}
+			return ret;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.String;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return getString(rowId);
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			throw new RimException("String columns do not have an order key.");
+		}
+
+		@Override
+		public long toKey(Object value) {
+			throw new RimException("String columns do not have an order key.");
+		}
+
+		/**
+		 * 指定行の文字列を取得.
+		 * @param rowId 行番号を設定します.
+		 * @return String 文字列が返却されます.
+		 */
+		public String getString(int rowId) {
+			final int off = offsets.get(rowId);
+			final int len = offsets.get(rowId + 1) - off;
+			if(len == 0) {
+				return "";
+			} else if(data.hasArray()) {
+				return UTF8IO.decode(data.array(), data.arrayOffset() + off, len);
+			}
+			// mmapされている場合はコピーしてデコード.
+			final byte[] b = new byte[len];
+			final ByteBuffer d = data.duplicate();
+			d.position(off);
+			d.get(b, 0, len);
+			return UTF8IO.decode(b, 0, len);
+		}
+
+		/**
+		 * 指定行の文字列と比較.
+		 * 文字列を生成せずにUTF8バイナリをデコードしながら
+		 * String.compareTo と同じ順序で比較します.
+		 * @param rowId 行番号を設定します.
+		 * @param value 比較対象の文字列を設定します.
+		 * @return int 指定行の文字列が小さい場合はマイナス、大きい場合はプラス、
+		 *             一致する場合は0が返却されます.
+		 */
+		public int compareString(int rowId, String value) {
+			int c, n, cmp;
+			int p = offsets.get(rowId);
+			final int end = offsets.get(rowId + 1);
+			final int vLen = value.length();
+			int j = 0;
+			while(p < end) {
+				if(((c = data.get(p) & 0x000000ff) & 0x080) == 0) {
+					n = c;
+					p += 1;
+				} else if((c >> 5) == 0x06) {
+					n = ((c & 0x01f) << 6) | (data.get(p + 1) & 0x03f);
+					p += 2;
+				} else if((c >> 4) == 0x0e) {
+					n = ((c & 0x0f) << 12) | ((data.get(p + 1) & 0x03f) << 6) |
+						(data.get(p + 2) & 0x03f);
+					p += 3;
+				} else {
+					n = ((c & 0x07) << 18) | ((data.get(p + 1) & 0x03f) << 12) |
+						((data.get(p + 2) & 0x03f) << 6) | (data.get(p + 3) & 0x03f);
+					p += 4;
+				}
+				// サロゲートペア.
+				if((n & 0xffff0000) != 0) {
+					n -= 0x010000;
+					if(j >= vLen) {
+						return 1;
+					} else if((cmp = (0x0d800 | (n >> 10)) - value.charAt(j ++)) != 0) {
+						return cmp;
+					}
+					n = 0x0dc00 | (n & 0x03ff);
+				}
+				if(j >= vLen) {
+					return 1;
+				} else if((cmp = n - value.charAt(j ++)) != 0) {
+					return cmp;
+				}
+			}
+			return j < vLen ? -1 : 0;
+		}
+
+		/**
+		 * 指定行のUTF8バイナリと比較.
+		 * デコードせずにバイト単位で比較し String.compareTo と同じ順序を返却します.
+		 *
+		 * UTF8のバイト順はコードポイント順なので、U+E000～U+FFFF と
+		 * サロゲートペア(4バイト)の文字の順序だけが String.compareTo と異なります.
+		 * そのため最初に不一致となった先頭バイトが両方とも 0xEE 以上の場合のみ
+		 * 順序を補正します.
+		 * @param rowId 行番号を設定します.
+		 * @param value 比較対象のUTF8バイナリを設定します.
+		 * @return int 指定行の文字列が小さい場合はマイナス、大きい場合はプラス、
+		 *             一致する場合は0が返却されます.
+		 */
+		public int compareBinary(int rowId, byte[] value) {
+			int a, b;
+			final int off = offsets.get(rowId);
+			final int len = offsets.get(rowId + 1) - off;
+			final int vLen = value.length;
+			final int n = len < vLen ? len : vLen;
+			for(int i = 0; i < n; i ++) {
+				if((a = data.get(off + i) & 0x0ff) != (b = value[i] & 0x0ff)) {
+					if(a >= 0x0ee && b >= 0x0ee) {
+						// 0xEE,0xEF(U+E000～U+FFFF)をサロゲートペアより後にする.
+						a = a < 0x0f0 ? a + 0x010 : a - 0x010;
+						b = b < 0x0f0 ? b + 0x010 : b - 0x010;
+					}
+					return a - b;
+				}
+			}
+			return len - vLen;
+		}
+
+		/**
+		 * 指定行のUTF8バイナリと一致するかチェック.
+		 * @param rowId 行番号を設定します.
+		 * @param value 比較対象のUTF8バイナリを設定します.
+		 * @return boolean true の場合一致しています.
+		 */
+		public boolean equalsBinary(int rowId, byte[] value) {
+			final int off = offsets.get(rowId);
+			final int end = offsets.get(rowId + 1);
+			if(end - off != value.length) {
+				return false;
+			}
+			for(int i = off, j = 0; i < end; i ++, j ++) {
+				if(data.get(i) != value[j]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * 指定行の文字列がLike条件に一致するかチェック.
+		 * 文字列を生成せずにUTF8バイナリで判定します.
+		 * @param rowId 行番号を設定します.
+		 * @param parser Like条件を設定します.
+		 * @return boolean true の場合、一致します.
+		 */
+		public boolean matchLike(int rowId, LikeParser parser) {
+			return parser.match(data, offsets.get(rowId), offsets.get(rowId + 1));
+		}
+
+		/**
+		 * 全行のUTF8バイナリを取得.
+		 * @return ByteBuffer UTF8バイナリが返却されます.
+		 */
+		public ByteBuffer getData() {
+			return data;
+		}
+
+		/**
+		 * 各行の開始位置を取得.
+		 * @return IntBuffer 開始位置(行数+1)が返却されます.
+		 */
+		public IntBuffer getOffsets() {
+			return offsets;
+		}
+
+		/**
+		 * 文字列をUTF8バイナリに変換.
+		 * @param value 対象の文字列を設定します.
+		 * @return byte[] UTF8バイナリが返却されます.
+		 */
+		public static final byte[] toBinary(String value) {
+			final byte[] ret = new byte[UTF8IO.length(value)];
+			if(ret.length > 0) {
+				UTF8IO.encode(ret, 0, value, 0, value.length());
+			}
+			return ret;
+		}
+	}
+
+	/**
+	 * 辞書化されたString列.
+	 * 種類数の少ない文字列の列を、ソート済みの辞書と
+	 * 行毎の辞書番号(char)で管理します.
+	 *
+	 * 辞書はソートされているので辞書番号の大小は文字列の大小と一致し、
+	 * getKey / toKey の順序キーで文字列比較をせずに検索できます.
+	 * 行の文字列は辞書の同一インスタンスが返却されます.
+	 */
+	public static final class DictionaryColumn extends ColumnData {
+		/**
+		 * 辞書化できる最大の種類数.
+		 */
+		public static final int MAX_SIZE = 0x0000ffff;
+		
+		// ソート済みの辞書.
+		private final String[] dictionary;
+		// 行毎の辞書番号.
+		private final char[] codes;
+
+		/**
+		 * コンストラクタ.
+		 * @param dictionary ソート済みの辞書を設定します.
+		 * @param codes 行毎の辞書番号を設定します.
+		 */
+		public DictionaryColumn(String[] dictionary, char[] codes) {
+			super(codes.length);
+			if(dictionary.length > MAX_SIZE) {
+				throw new RimException(
+					"The dictionary size exceeds the maximum: " + dictionary.length);
+			}
+			this.dictionary = dictionary;
+			this.codes = codes;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.String;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return dictionary[codes[rowId]];
+		}
+
+		/**
+		 * 指定行の順序キーを取得.
+		 * 順序キーは辞書番号の２倍の値です.
+		 * @param rowId 行番号を設定します.
+		 * @return long 順序キーが返却されます.
+		 */
+		@Override
+		public long getKey(int rowId) {
+			return (long)codes[rowId] << 1;
+		}
+
+		/**
+		 * 列型に変換済みの条件を順序キーに変換.
+		 * 辞書に存在しない文字列の場合は、前後の辞書番号の
+		 * 間となる奇数の順序キーが返却されます.
+		 * @param value ColumnType.convert で変換された条件を設定します.
+		 * @return long 順序キーが返却されます.
+		 */
+		@Override
+		public long toKey(Object value) {
+			final int code = indexOf((String)value);
+			if(code >= 0) {
+				return (long)code << 1;
+			}
+			return ((long)(-(code + 1)) << 1) - 1L;
+		}
+
+		/**
+		 * 指定行の文字列を取得.
+		 * @param rowId 行番号を設定します.
+		 * @return String 文字列が返却されます.
+		 */
+		public String getString(int rowId) {
+			return dictionary[codes[rowId]];
+		}
+
+		/**
+		 * 指定行の辞書番号を取得.
+		 * @param rowId 行番号を設定します.
+		 * @return int 辞書番号が返却されます.
+		 */
+		public int getCode(int rowId) {
+			return codes[rowId];
+		}
+
+		/**
+		 * 文字列の辞書番号を取得.
+		 * @param value 対象の文字列を設定します.
+		 * @return int 辞書番号が返却されます.
+		 *             存在しない場合は -(挿入位置) - 1 が返却されます.
+		 */
+		public int indexOf(String value) {
+			return Arrays.binarySearch(dictionary, value);
+		}
+
+		/**
+		 * 同一の辞書を利用して、別の辞書番号群のDictionaryColumnを生成.
+		 * @param codes 辞書番号群を設定します.
+		 * @return DictionaryColumn DictionaryColumnが返却されます.
+		 */
+		public DictionaryColumn create(char[] codes) {
+			return new DictionaryColumn(dictionary, codes);
+		}
+
+		/**
+		 * 辞書の種類数を取得.
+		 * @return int 辞書の種類数が返却されます.
+		 */
+		public int getDictionarySize() {
+			return dictionary.length;
+		}
+
+		/**
+		 * 辞書番号の文字列を取得.
+		 * @param code 辞書番号を設定します.
+		 * @return String 文字列が返却されます.
+		 */
+		public String getDictionary(int code) {
+			return dictionary[code];
+		}
+	}
+}
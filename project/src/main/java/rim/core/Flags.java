@@ -104,6 +104,37 @@ public class Flags implements BaseFlags<Flags> {
 		return this;
 	}
 	
+	/**
+	 * AND NOT処理.
+	 * 処理結果は呼び出し元のオブジェクトに反映されます.
+	 * @param value このオブジェクトから除外するためのFlagsを設定します.
+	 * @return Flags このオブジェクトが返却されます.
+	 */
+	public Flags andNot(Flags value) {
+		int[] v = value.flags;
+		int len = v.length;
+		if(len != flags.length) {
+			throw new RimException("Must be the same length.");
+		}
+		for(int i = 0; i < len; i ++) {
+			flags[i] &= ~v[i];
+		}
+		return this;
+	}
+	
+	/**
+	 * 有効なフラグ数を取得.
+	 * @return int 有効なフラグ数が返却されます.
+	 */
+	public int cardinality() {
+		int ret = 0;
+		final int len = flags.length;
+		for(int i = 0; i < len; i ++) {
+			ret += Integer.bitCount(flags[i]);
+		}
+		return ret;
+	}
+	
 	/**
 	 * オブジェクトを別のインスタンスでコピー.
 	 * @return Flags コピーされたオブジェクトが返却されます.
@@ -124,6 +155,72 @@ public class Flags implements BaseFlags<Flags> {
 		return new FlagsIterator(ascFlag, this);
 	}
 	
+	/**
+	 * 有効な行番号を取得するIntIteratorを取得.
+	 * @param ascFlag 昇順取得の場合は true.
+	 * @return IntIterator 有効な行番号を返却する
+	 *                     IntIteratorが返却されます.
+	 */
+	public IntIterator intIterator(boolean ascFlag) {
+		return new FlagsIntIterator(ascFlag, flags);
+	}
+	
+	// FlagsIntIterator.
+	private static final class FlagsIntIterator implements IntIterator {
+		private final int[] flags;
+		private final boolean ascFlag;
+		// 現在読込中の配列位置.
+		private int arrayPos;
+		// 現在読込中の未取得フラグ.
+		private int word;
+		
+		FlagsIntIterator(boolean ascFlag, int[] flags) {
+			this.flags = flags;
+			this.ascFlag = ascFlag;
+			this.arrayPos = ascFlag ? -1 : flags.length;
+			this.word = 0;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			if(word != 0) {
+				return true;
+			}
+			if(ascFlag) {
+				final int len = flags.length;
+				while(++ arrayPos < len) {
+					if((word = flags[arrayPos]) != 0) {
+						return true;
+					}
+				}
+				arrayPos = len;
+			} else {
+				while(-- arrayPos >= 0) {
+					if((word = flags[arrayPos]) != 0) {
+						return true;
+					}
+				}
+				arrayPos = -1;
+			}
+			return false;
+		}
+		
+		@Override
+		public int next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final int bit;
+			if(ascFlag) {
+				bit = Integer.numberOfTrailingZeros(word);
+			} else {
+				bit = 31 - Integer.numberOfLeadingZeros(word);
+			}
+			word &= ~(1 << bit);
+			return (arrayPos << 5) + bit;
+		}
+	}
+	
 	// FlagsIterator.
 	protected static final class FlagsIterator
 		implements Iterator<Integer> {
@@ -0,0 +1,19 @@
+package rim.core;
+
+/**
+ * int値を返却するIterator.
+ * Iterator&lt;Integer&gt; と違い、取得毎にオブジェクトを生成しません.
+ */
+public interface IntIterator {
+	/**
+	 * 次の情報が存在するかチェック.
+	 * @return boolean true の場合、次の情報が存在します.
+	 */
+	public boolean hasNext();
+
+	/**
+	 * 次の情報を取得.
+	 * @return int 次の情報が返却されます.
+	 */
+	public int next();
+}
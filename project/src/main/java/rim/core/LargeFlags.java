@@ -55,7 +55,7 @@ public class LargeFlags implements BaseFlags<LargeFlags> {
 		if(flag) {
 			if(flags == null) {
 				if(flagArray.length == (no >> FLAGS_BIT) + 1) {
-					flags = new Flags(length & FLAGS_MASK);
+					flags = new Flags(((length - 1) & FLAGS_MASK) + 1);
 				} else {
 					flags = new Flags(FLAGS_MASK);
 				}
@@ -143,6 +143,41 @@ public class LargeFlags implements BaseFlags<LargeFlags> {
 		return this;
 	}
 	
+	/**
+	 * AND NOT処理.
+	 * 処理結果は呼び出し元のオブジェクトに反映されます.
+	 * @param value このオブジェクトから除外するためのRowsFlagを設定します.
+	 * @return LargeFlags このオブジェクトが返却されます.
+	 */
+	public LargeFlags andNot(LargeFlags value) {
+		Flags[] v = value.flagArray;
+		final int len = v.length;
+		if(len != flagArray.length) {
+			throw new RimException("Must be the same length.");
+		}
+		for(int i = 0; i < len; i ++) {
+			if(flagArray[i] != null && v[i] != null) {
+				flagArray[i].andNot(v[i]);
+			}
+		}
+		return this;
+	}
+	
+	/**
+	 * 有効なフラグ数を取得.
+	 * @return int 有効なフラグ数が返却されます.
+	 */
+	public int cardinality() {
+		int ret = 0;
+		final int len = flagArray.length;
+		for(int i = 0; i < len; i ++) {
+			if(flagArray[i] != null) {
+				ret += flagArray[i].cardinality();
+			}
+		}
+		return ret;
+	}
+	
 	/**
 	 * オブジェクトを別のインスタンスでコピー.
 	 * @return LargeFlags コピーされたオブジェクトが返却されます.
@@ -169,6 +204,26 @@ public class LargeFlags implements BaseFlags<LargeFlags> {
 		return new RowsIterator(ascFlag, flagArray);
 	}
 	
+	/**
+	 * 有効な行番号を取得するIntIteratorを取得.
+	 * @param ascFlag 昇順取得の場合は true.
+	 * @return IntIterator 有効な行番号を返却する
+	 *                     IntIteratorが返却されます.
+	 */
+	public IntIterator intIterator(boolean ascFlag) {
+		final Iterator<Integer> itr = iterator(ascFlag);
+		return new IntIterator() {
+			@Override
+			public boolean hasNext() {
+				return itr.hasNext();
+			}
+			@Override
+			public int next() {
+				return itr.next();
+			}
+		};
+	}
+	
 	// RowsIterator.
 	private static final class RowsIterator
 		implements Iterator<Integer> {
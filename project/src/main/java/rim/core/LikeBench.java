@@ -0,0 +1,273 @@
+package rim.core;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import rim.exception.RimException;
+
+/**
+ * Like検索の判定処理のベンチマーク.
+ *
+ * LikeAnalysisで解析した情報(Object[])を１件毎に解釈する旧来の判定と、
+ * 解析結果から生成した判定処理(LikeMatcher)の文字列・UTF8バイナリでの
+ * 判定の処理時間と一致件数を比較します.
+ * 列検索では従来、行毎に文字列をデコードしてから判定していたので、
+ * その処理時間(decode)も計測します.
+ *
+ * <pre>
+ * java rim.core.LikeBench [行数(1000000)] [計測回数(5)]
+ * </pre>
+ */
+public class LikeBench {
+	// 不明条件.
+	private static final int UNKNOWN = -99;
+
+	// 文字列に利用するワード群.
+	private static final String[] WORDS = new String[] {
+		"apple", "banana", "cherry", "orange", "grape", "melon", "lemon",
+		"peach", "tokyo", "osaka", "kyoto", "nagoya", "sapporo", "fukuoka",
+		"りんご", "みかん", "ぶどう", "もも", "東京", "大阪", "京都", "名古屋"
+	};
+
+	// 計測するLike文群.
+	private static final String[] LIKES = new String[] {
+		"apple%", "%kyoto", "%ang%", "%名古屋%", "tokyoosaka",
+		"_____", "ap_le%", "%o_a%1", "to%yo%a", "%an%ka%"
+	};
+
+	// main.
+	public static final void main(String[] args) {
+		final int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		final int loop = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		
+		// 擬似データを生成.
+		final Random r = new Random(1);
+		final Object[] values = new Object[rows];
+		final StringBuilder buf = new StringBuilder();
+		for(int i = 0; i < rows; i ++) {
+			buf.setLength(0);
+			buf.append(WORDS[r.nextInt(WORDS.length)])
+				.append(WORDS[r.nextInt(WORDS.length)])
+				.append(r.nextInt(100));
+			values[i] = buf.toString();
+		}
+		final ColumnData.StringColumn column =
+			ColumnData.StringColumn.create(values, rows);
+		
+		long t, a, b, c, d;
+		int ca, cb, cc, cd;
+		LikeParser parser;
+		Object[] list;
+		String src;
+		final ByteBuffer data = column.getData();
+		for(int n = 0; n < LIKES.length; n ++) {
+			src = LIKES[n];
+			parser = LikeAnalysis.analysis(src);
+			list = parser.getParser();
+			a = b = c = d = Long.MAX_VALUE;
+			ca = cb = cc = cd = 0;
+			for(int x = 0; x < loop; x ++) {
+				// 旧来の解釈による判定.
+				t = System.nanoTime();
+				ca = 0;
+				for(int i = 0; i < rows; i ++) {
+					if(interpret(list, src, (String)values[i])) {
+						ca ++;
+					}
+				}
+				a = Math.min(a, System.nanoTime() - t);
+				
+				// 文字列での判定.
+				t = System.nanoTime();
+				cb = 0;
+				for(int i = 0; i < rows; i ++) {
+					if(parser.match((String)values[i])) {
+						cb ++;
+					}
+				}
+				b = Math.min(b, System.nanoTime() - t);
+				
+				// 文字列をデコードしてからの判定.
+				t = System.nanoTime();
+				cd = 0;
+				for(int i = 0; i < rows; i ++) {
+					if(parser.match(column.getString(i))) {
+						cd ++;
+					}
+				}
+				d = Math.min(d, System.nanoTime() - t);
+				
+				// UTF8バイナリでの判定.
+				t = System.nanoTime();
+				cc = 0;
+				for(int i = 0; i < rows; i ++) {
+					if(column.matchLike(i, parser)) {
+						cc ++;
+					}
+				}
+				c = Math.min(c, System.nanoTime() - t);
+			}
+			System.out.println("[" + src + "] interpret: " + msec(a) +
+				" msec (" + ca + "), match: " + msec(b) + " msec (" + cb +
+				"), decode: " + msec(d) + " msec (" + cd +
+				"), utf8: " + msec(c) + " msec (" + cc + ")");
+		}
+		// データ全体のサイズ.
+		System.out.println("rows: " + rows + " utf8: " + data.limit() + " byte");
+	}
+
+	// ナノ秒をミリ秒の文字列に変換.
+	private static final String msec(long nano) {
+		return String.valueOf(Math.round(nano / 1000d) / 1000d);
+	}
+
+	/**
+	 * 旧来の解釈による判定.
+	 * LikeAnalysisで解析された情報を１件毎に解釈して判定します.
+	 * 
+	 * @param parser LikeAnalysisで解析された情報を設定します.
+	 * @param src 元のLike文を設定します.
+	 * @param value  文字列を設定します.
+	 * @return boolean [true]の場合、マッチしています.
+	 */
+	protected static final boolean interpret(final Object[] parser,
+		final String src, final String value) {
+		if (value == null || value.length() <= 0) {
+			return false;
+		}
+		final int len = parser.length;
+		// [特殊条件]内容が１文字の場合は、％指定のみか、_文字数定義.
+		if (len == 1) {
+			final int n = (Integer) parser[0];
+			if (n == LikeParser.BETWEEN) {
+				return true;
+			}
+			// 長さ一致.
+			return value.length() == n;
+		// [特殊条件]パース条件が3文字の場合.
+		} else if (len == 3) {
+			final Object o1 = parser[0],
+				o2 = parser[1],
+				o3 = parser[2];
+			// Like構文ではなく、完全一致条件の場合.
+			if (o1 instanceof Integer &&
+				o2 instanceof Integer &&
+				o3 instanceof String && 
+				(Integer)o1 == LikeParser.FIRST &&
+				(Integer)o2 == LikeParser.LAST) {
+				return value.equals(o3);
+			}
+		}
+		// 通常パース条件.
+		int p = 0;
+		int b = 0;
+		
+		Object o;
+		String str;
+		int cnd;
+		int event = UNKNOWN; // 定義不明.
+		int targetLen;
+		boolean last = false;
+		String bw = null;
+		for (int i = 0; i < len; i++) {
+			o = parser[i];
+			// 条件指定.
+			if (o instanceof Integer) {
+				cnd = (Integer)o;
+				// 最後方一致条件の場合.
+				if (cnd == LikeParser.LAST) {
+					last = true;
+				}
+				// 通常条件の場合.
+				else {
+					event = cnd;
+				}
+			}
+			// 文字指定.
+			else {
+				str = (String)o;
+				// 文字指定の場合.
+				if (event > 0) {
+					targetLen = event;
+					if (bw == null) {
+						if (value.length() < b + targetLen + str.length() ||
+							!str.equals(value.substring(
+								b + targetLen, b + targetLen + str.length()))) {
+							return false;
+						}
+					} else {
+						while (true) {
+							if (value.length() < b + targetLen + str.length() ||
+								!str.equals(value.substring(
+									b + targetLen, b + targetLen + str.length()))) {
+								// 見つからない場合は、以前の部分検索条件が見つかるまで検索.
+								// 見つかった場合は、再度文字指定検索を再開.
+								if ((p = value.indexOf(bw, b)) == -1) {
+									return false;
+								}
+								b = p + bw.length();
+							} else {
+								break;
+							}
+						}
+					}
+					// 最後方一致条件の場合は、現在の検索長と、文字列長が一致チェックで終了.
+					if (last) {
+						return (b + targetLen + str.length() == value.length());
+					} else {
+						b = b + targetLen + str.length();
+					}
+					event = UNKNOWN; // 定義不明.
+					bw = null; // 前回のindexof条件をクリア.
+				// 条件指定の場合.
+				// ただし最後方一致の場合は、そちらを優先させる.
+				} else if (!last) {
+					switch (event) {
+					case LikeParser.FIRST: // 先頭一致.
+						if (!value.startsWith(str)) {
+							return false;
+						}
+						b = str.length();
+						break;
+					case LikeParser.BETWEEN: // 次の文字列が一致.
+						if ((p = value.indexOf(str, b)) == -1) {
+							return false;
+						}
+						bw = str; // 前回のindexof条件を保持.
+						b = p + str.length();
+						break;
+					case UNKNOWN:
+						throw new RimException("Illegal Like syntax: " + src);
+					}
+				}
+				// 最後方一致条件の場合.
+				if (last) {
+					return value.endsWith(str);
+				}
+			}
+		}
+		// 文字指定の場合.
+		if (event > 0) {
+			targetLen = event;
+			if (bw == null) {
+				if (value.length() != b + targetLen) {
+					return false;
+				}
+			} else {
+				while (true) {
+					if (value.length() != b + targetLen) {
+						// 見つからない場合は、以前の部分検索条件が見つかるまで検索.
+						// 見つかった場合は、文字長一致検索を再開.
+						if ((p = value.indexOf(bw, b)) == -1) {
+							return false;
+						}
+						b = p + bw.length();
+					} else {
+						break;
+					}
+				}
+			}
+		}
+		return true;
+	}
+}
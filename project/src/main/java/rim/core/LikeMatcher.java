@@ -0,0 +1,533 @@
+package rim.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import rim.exception.RimException;
+import rim.util.ObjectList;
+import rim.util.UTF8IO;
+
+/**
+ * Like構文の一致判定処理.
+ *
+ * LikeAnalysisで解析された条件を、完全一致・前方一致・後方一致・
+ * 部分一致・文字数指定・複数条件の形に合わせた判定処理に変換します.
+ * 判定は文字列(String)と、文字列をデコードせずにUTF8バイナリで行う
+ * 方法のどちらでも同じ結果となります.
+ * [_]は文字列(UTF16)の１文字として扱うので、UTF8で４バイトとなる
+ * 文字(サロゲートペア)は２文字となります.
+ *
+ * 空文字とnullは呼び出し元(LikeParser)で不一致として扱います.
+ */
+abstract class LikeMatcher {
+	/**
+	 * 文字列が一致するかチェック.
+	 * @param value 空文字以外の文字列を設定します.
+	 * @return boolean [true]の場合、マッチしています.
+	 */
+	public abstract boolean match(String value);
+
+	/**
+	 * UTF8バイナリが一致するかチェック.
+	 * @param value UTF8バイナリを設定します.
+	 * @param off 開始位置を設定します.
+	 * @param end 終了位置(この位置は含まない)を設定します.
+	 *            開始位置より大きい値が設定されます.
+	 * @return boolean [true]の場合、マッチしています.
+	 */
+	public abstract boolean match(ByteBuffer value, int off, int end);
+
+	/**
+	 * LikeAnalysisで解析された情報から判定処理を生成.
+	 * @param parser LikeAnalysisで解析された情報を設定します.
+	 * @param src 元のLike文を設定します.
+	 * @return LikeMatcher 判定処理が返却されます.
+	 */
+	public static final LikeMatcher compile(final Object[] parser,
+		final String src) {
+		final int len = parser.length;
+		// 先頭と終端が[%]でない場合は、先頭・終端が固定位置となる.
+		final boolean first = !isBetween(parser[0]);
+		final boolean last = !isBetween(parser[len - 1]);
+		// [%]で区切られた条件群を生成.
+		final ObjectList<Segment> list = new ObjectList<Segment>();
+		final ObjectList<Object> one = new ObjectList<Object>();
+		Object o;
+		int n;
+		for (int i = 0; i <= len; i++) {
+			o = i < len ? parser[i] : LikeParser.BETWEEN;
+			if (o instanceof String) {
+				if (one.size() > 0 && one.get(one.size() - 1) instanceof String) {
+					throw new RimException("Illegal Like syntax: " + src);
+				}
+				one.add(o);
+				continue;
+			}
+			n = (Integer) o;
+			if (n > 0) {
+				one.add(n);
+			} else if (n == LikeParser.BETWEEN) {
+				if (one.size() > 0) {
+					list.add(new Segment(one));
+					one.clear();
+				}
+			}
+			// FIRST, LAST は先頭・終端の判定で処理済み.
+		}
+		final int size = list.size();
+		// [%]のみの場合.
+		if (size == 0) {
+			return new AnyMatcher();
+		}
+		final Segment s = list.get(0);
+		if (size == 1) {
+			if (first && last) {
+				// 完全一致.
+				if (s.isWord()) {
+					return new ExactMatcher(s.words[0]);
+				}
+				// 文字数指定を含む条件.
+				return new FixedMatcher(s);
+			} else if (s.isWord()) {
+				// 前方一致.
+				if (first) {
+					return new PrefixMatcher(s.words[0]);
+				// 後方一致.
+				} else if (last) {
+					return new SuffixMatcher(s.words[0]);
+				}
+				// 部分一致.
+				return new ContainsMatcher(s.words[0]);
+			}
+		}
+		return new MultiMatcher(list.toArray(Segment.class), first, last);
+	}
+
+	// [%]の条件かチェック.
+	private static final boolean isBetween(Object o) {
+		return o instanceof Integer && (Integer) o == LikeParser.BETWEEN;
+	}
+
+	// [%]のみ: 空文字以外の全てが一致.
+	private static final class AnyMatcher extends LikeMatcher {
+		@Override
+		public boolean match(String value) {
+			return true;
+		}
+
+		@Override
+		public boolean match(ByteBuffer value, int off, int end) {
+			return true;
+		}
+	}
+
+	// 完全一致.
+	private static final class ExactMatcher extends LikeMatcher {
+		private final Word word;
+
+		ExactMatcher(Word word) {
+			this.word = word;
+		}
+
+		@Override
+		public boolean match(String value) {
+			return value.equals(word.value);
+		}
+
+		@Override
+		public boolean match(ByteBuffer value, int off, int end) {
+			return end - off == word.binary.length && word.equals(value, off);
+		}
+	}
+
+	// 前方一致.
+	private static final class PrefixMatcher extends LikeMatcher {
+		private final Word word;
+
+		PrefixMatcher(Word word) {
+			this.word = word;
+		}
+
+		@Override
+		public boolean match(String value) {
+			return value.startsWith(word.value);
+		}
+
+		@Override
+		public boolean match(ByteBuffer value, int off, int end) {
+			return end - off >= word.binary.length && word.equals(value, off);
+		}
+	}
+
+	// 後方一致.
+	private static final class SuffixMatcher extends LikeMatcher {
+		private final Word word;
+
+		SuffixMatcher(Word word) {
+			this.word = word;
+		}
+
+		@Override
+		public boolean match(String value) {
+			return value.endsWith(word.value);
+		}
+
+		@Override
+		public boolean match(ByteBuffer value, int off, int end) {
+			final int p = end - word.binary.length;
+			return p >= off && word.equals(value, p);
+		}
+	}
+
+	// 部分一致.
+	private static final class ContainsMatcher extends LikeMatcher {
+		private final Word word;
+
+		ContainsMatcher(Word word) {
+			this.word = word;
+		}
+
+		@Override
+		public boolean match(String value) {
+			return value.indexOf(word.value) != -1;
+		}
+
+		@Override
+		public boolean match(ByteBuffer value, int off, int end) {
+			return word.indexOf(value, off, end) != -1;
+		}
+	}
+
+	// 文字数指定[_]を含む、先頭から終端までの条件.
+	private static final class FixedMatcher extends LikeMatcher {
+		private final Segment segment;
+
+		FixedMatcher(Segment segment) {
+			this.segment = segment;
+		}
+
+		@Override
+		public boolean match(String value) {
+			return value.length() == segment.length &&
+				segment.match(value, 0) == value.length();
+		}
+
+		@Override
+		public boolean match(ByteBuffer value, int off, int end) {
+			// UTF8の１文字は1～3バイト(サロゲートペアは２文字で4バイト).
+			final int len = end - off;
+			return len >= segment.minBinary && len <= segment.maxBinary &&
+				segment.match(value, off, end) == end;
+		}
+	}
+
+	// [%]で区切られた複数条件.
+	private static final class MultiMatcher extends LikeMatcher {
+		private final Segment[] segments;
+		private final boolean first;
+		private final boolean last;
+
+		MultiMatcher(Segment[] segments, boolean first, boolean last) {
+			this.segments = segments;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		public boolean match(String value) {
+			final int len = value.length();
+			final int sLen = segments.length;
+			int i = 0;
+			int p = 0;
+			int limit = len;
+			// 先頭位置固定の条件.
+			if (first) {
+				if ((p = segments[0].match(value, 0)) == -1) {
+					return false;
+				}
+				i = 1;
+			}
+			// 終端位置固定の条件は、文字長から開始位置が決まるので先に判定.
+			int mid = sLen;
+			if (last) {
+				final Segment s = segments[--mid];
+				limit = len - s.length;
+				if (limit < p || s.match(value, limit) != len) {
+					return false;
+				}
+			}
+			for (; i < mid; i++) {
+				if ((p = segments[i].search(value, p)) == -1 || p > limit) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public boolean match(ByteBuffer value, int off, int end) {
+			final int sLen = segments.length;
+			int i = 0;
+			int p = off;
+			int limit = end;
+			// 先頭位置固定の条件.
+			if (first) {
+				if ((p = segments[0].match(value, off, end)) == -1) {
+					return false;
+				}
+				i = 1;
+			}
+			// 終端から文字数分戻った位置を終端位置固定の条件の開始位置とし、
+			// 先に判定する.
+			int mid = sLen;
+			if (last) {
+				final Segment s = segments[--mid];
+				if ((limit = back(value, off, end, s.length)) == -1 ||
+					limit < p || s.match(value, limit, end) != end) {
+					return false;
+				}
+			}
+			// 間の条件は終端位置固定の条件の開始位置までに一致する必要がある.
+			for (; i < mid; i++) {
+				if ((p = segments[i].search(value, p, limit)) == -1) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * [%]で区切られた１つの条件.
+	 * 文字列と文字数指定[_]で構成されるので、一致する文字長は固定となります.
+	 */
+	private static final class Segment {
+		// 各文字列の前の文字数指定(文字列数+1).
+		private final int[] skips;
+		// 文字列群.
+		private final Word[] words;
+		// 一致する文字長.
+		private final int length;
+		// 一致するUTF8バイナリの最小長.
+		private final int minBinary;
+		// 一致するUTF8バイナリの最大長.
+		private final int maxBinary;
+
+		Segment(ObjectList<Object> list) {
+			final int len = list.size();
+			int wordLen = 0;
+			for (int i = 0; i < len; i++) {
+				if (list.get(i) instanceof String) {
+					wordLen++;
+				}
+			}
+			final int[] skips = new int[wordLen + 1];
+			final Word[] words = new Word[wordLen];
+			int length = 0;
+			int binary = 0;
+			int skip = 0;
+			Object o;
+			for (int i = 0, w = 0; i < len; i++) {
+				o = list.get(i);
+				if (o instanceof String) {
+					words[w] = new Word((String) o);
+					length += ((String) o).length();
+					binary += words[w++].binary.length;
+				} else {
+					skips[w] += (Integer) o;
+					length += (Integer) o;
+					skip += (Integer) o;
+				}
+			}
+			this.skips = skips;
+			this.words = words;
+			this.length = length;
+			this.minBinary = binary + skip;
+			this.maxBinary = binary + skip * 3;
+		}
+
+		// １つの文字列のみの条件かチェック.
+		final boolean isWord() {
+			return words.length == 1 && skips[0] == 0 && skips[1] == 0;
+		}
+
+		// 指定位置から一致する場合は、一致した終端位置を返却.
+		final int match(final String value, int p) {
+			final int len = words.length;
+			final int vLen = value.length();
+			String w;
+			for (int i = 0; i < len; i++) {
+				w = words[i].value;
+				p += skips[i];
+				if (p + w.length() > vLen || !value.startsWith(w, p)) {
+					return -1;
+				}
+				p += w.length();
+			}
+			p += skips[len];
+			return p > vLen ? -1 : p;
+		}
+
+		// 指定位置から一致する最初の条件を検索して、一致した終端位置を返却.
+		// 先頭位置が固定されない条件は文字列から始まります.
+		final int search(final String value, int p) {
+			final String w = words[0].value;
+			int ret;
+			while ((p = value.indexOf(w, p)) != -1) {
+				if ((ret = match(value, p)) != -1) {
+					return ret;
+				}
+				p++;
+			}
+			return -1;
+		}
+
+		// 指定位置から一致する場合は、一致した終端位置を返却.
+		final int match(final ByteBuffer value, int p, final int end) {
+			final int len = words.length;
+			Word w;
+			for (int i = 0; i < len; i++) {
+				w = words[i];
+				if ((p = skip(value, p, end, skips[i])) == -1 ||
+					p + w.binary.length > end || !w.equals(value, p)) {
+					return -1;
+				}
+				p += w.binary.length;
+			}
+			return skip(value, p, end, skips[len]);
+		}
+
+		// 指定位置から一致する最初の条件を検索して、一致した終端位置を返却.
+		final int search(final ByteBuffer value, int p, final int end) {
+			final Word w = words[0];
+			int ret;
+			while ((p = w.indexOf(value, p, end)) != -1) {
+				if ((ret = match(value, p, end)) != -1) {
+					return ret;
+				}
+				p++;
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * 条件の１つの文字列.
+	 * UTF8バイナリでの部分一致検索用に、不一致時の移動量(Horspool)を保持します.
+	 */
+	private static final class Word {
+		// 文字列.
+		private final String value;
+		// UTF8バイナリ.
+		private final byte[] binary;
+		// バイト毎の不一致時の移動量.
+		private final int[] shift;
+
+		Word(String value) {
+			final byte[] b = new byte[value.length() << 2];
+			final int len = UTF8IO.encode(b, value);
+			final byte[] binary = new byte[len];
+			System.arraycopy(b, 0, binary, 0, len);
+			final int[] shift = new int[256];
+			Arrays.fill(shift, len);
+			for (int i = 0; i < len - 1; i++) {
+				shift[binary[i] & 0x00ff] = len - 1 - i;
+			}
+			this.value = value;
+			this.binary = binary;
+			this.shift = shift;
+		}
+
+		// 指定位置のバイナリが一致するかチェック.
+		final boolean equals(final ByteBuffer value, final int p) {
+			final byte[] b = binary;
+			final int len = b.length;
+			for (int i = 0; i < len; i++) {
+				if (value.get(p + i) != b[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		// 指定範囲で一致する位置を検索.
+		final int indexOf(final ByteBuffer value, final int off, final int end) {
+			final byte[] b = binary;
+			final int len = b.length;
+			if (len == 0) {
+				return off;
+			}
+			final int[] s = shift;
+			final byte lastByte = b[len - 1];
+			byte c;
+			int j;
+			for (int i = off + len - 1; i < end; i += s[c & 0x00ff]) {
+				if ((c = value.get(i)) == lastByte) {
+					for (j = len - 2; j >= 0; j--) {
+						if (value.get(i - len + 1 + j) != b[j]) {
+							break;
+						}
+					}
+					if (j < 0) {
+						return i - len + 1;
+					}
+				}
+			}
+			return -1;
+		}
+	}
+
+	// UTF8バイナリの指定位置から文字数(UTF16)分進めた位置を取得.
+	// 範囲外やサロゲートペアの途中となる場合は -1.
+	private static final int skip(final ByteBuffer value, int p, final int end,
+		int n) {
+		int c;
+		while (n > 0) {
+			if (p >= end) {
+				return -1;
+			}
+			c = value.get(p) & 0x00ff;
+			if (c < 0x80) {
+				p++;
+			} else if (c < 0xe0) {
+				p += 2;
+			} else if (c < 0xf0) {
+				p += 3;
+			// サロゲートペアは２文字.
+			} else if (n >= 2) {
+				p += 4;
+				n--;
+			} else {
+				return -1;
+			}
+			n--;
+		}
+		return p > end ? -1 : p;
+	}
+
+	// UTF8バイナリの終了位置から文字数(UTF16)分戻った位置を取得.
+	// 開始位置より前やサロゲートペアの途中となる場合は -1.
+	private static final int back(final ByteBuffer value, final int off,
+		int p, int n) {
+		int q;
+		while (n > 0) {
+			if (p <= off) {
+				return -1;
+			}
+			q = p - 1;
+			while (q > off && (value.get(q) & 0x00c0) == 0x80) {
+				q--;
+			}
+			// サロゲートペアは２文字.
+			if ((value.get(q) & 0x00ff) >= 0xf0) {
+				if (n < 2) {
+					return -1;
+				}
+				n--;
+			}
+			n--;
+			p = q;
+		}
+		return p;
+	}
+}
@@ -1,6 +1,6 @@
 package rim.core;
 
-import rim.exception.RimException;
+import java.nio.ByteBuffer;
 
 public class LikeParser {
 	/**
@@ -18,17 +18,14 @@ public class LikeParser {
 	 */
 	protected static final int BETWEEN = -1;
 	
-	/**
-	 * 不明条件.
-	 */
-	private static final int UNKNOWN = -99;
-
-
 	// パーサー情報.
 	private Object[] parser;
 	
 	// 元のLike文.
 	private String src;
+	
+	// パーサー情報から生成した判定処理.
+	private LikeMatcher matcher;
 
 	/**
 	 * コンストラクタ.
@@ -39,6 +36,7 @@ public class LikeParser {
 	protected LikeParser(final Object[] parser, final String src) {
 		this.parser = parser;
 		this.src = src;
+		this.matcher = LikeMatcher.compile(parser, src);
 	}
 
 	/**
@@ -46,148 +44,86 @@ public class LikeParser {
 	 * 
 	 * @param value  文字列を設定します.
 	 * @return boolean [true]の場合、マッチしています.
-	 * @exception Exception 例外.
 	 */
 	public final boolean match(final String value) {
 		if (value == null || value.length() <= 0) {
 			return false;
 		}
-		final int len = parser.length;
-		// [特殊条件]内容が１文字の場合は、％指定のみか、_文字数定義.
-		if (len == 1) {
-			final int n = (Integer) parser[0];
-			if (n == LikeParser.BETWEEN) {
-				return true;
-			}
-			// 長さ一致.
-			return value.length() == n;
-		// [特殊条件]パース条件が3文字の場合.
-		} else if (len == 3) {
-			final Object o1 = parser[0],
-				o2 = parser[1],
-				o3 = parser[2];
-			// Like構文ではなく、完全一致条件の場合.
-			if (o1 instanceof Integer &&
-				o2 instanceof Integer &&
-				o3 instanceof String && 
-				(Integer)o1 == LikeParser.FIRST &&
-				(Integer)o2 == LikeParser.LAST) {
-				return value.equals(o3);
-			}
+		return matcher.match(value);
+	}
+
+	/**
+	 * UTF8バイナリがマッチしているかチェック.
+	 * 文字列にデコードせずに判定します.
+	 * 
+	 * @param value UTF8バイナリを設定します.
+	 * @param off 開始位置を設定します.
+	 * @param end 終了位置(この位置は含まない)を設定します.
+	 * @return boolean [true]の場合、マッチしています.
+	 */
+	public final boolean match(final ByteBuffer value, final int off,
+		final int end) {
+		if (value == null || end <= off) {
+			return false;
+		}
+		return matcher.match(value, off, end);
+	}
+	
+	/**
+	 * 前方一致の文字列を取得.
+	 * Like文が文字指定から始まる場合(例: "abc%")、先頭の文字列を返却します.
+	 *
+	 * @return String 前方一致の文字列が返却されます.
+	 *                Like文が[%,_]から始まる場合は null が返却されます.
+	 */
+	public final String getPrefix() {
+		if (parser.length < 2 || !(parser[0] instanceof Integer) ||
+			(Integer) parser[0] != LikeParser.FIRST) {
+			return null;
+		} else if (parser[1] instanceof String) {
+			return (String) parser[1];
+		// 完全一致条件の場合.
+		} else if (parser.length == 3 && parser[1] instanceof Integer &&
+			(Integer) parser[1] == LikeParser.LAST &&
+			parser[2] instanceof String) {
+			return (String) parser[2];
 		}
-		// 通常パース条件.
-		int p = 0;
-		int b = 0;
-		
-		Object o;
-		String str;
-		int cnd;
-		int event = UNKNOWN; // 定義不明.
-		int targetLen;
-		boolean last = false;
-		String bw = null;
+		return null;
+	}
+
+	/**
+	 * 文字指定の文字列群を取得.
+	 * Like文に一致する文字列は、これらの文字列を全て含みます.
+	 *
+	 * @return String[] 文字指定の文字列群が返却されます.
+	 */
+	public final String[] getWords() {
+		int cnt = 0;
+		final int len = parser.length;
 		for (int i = 0; i < len; i++) {
-			o = parser[i];
-			// 条件指定.
-			if (o instanceof Integer) {
-				cnd = (Integer)o;
-				// 最後方一致条件の場合.
-				if (cnd == LikeParser.LAST) {
-					last = true;
-				}
-				// 通常条件の場合.
-				else {
-					event = cnd;
-				}
-			}
-			// 文字指定.
-			else {
-				str = (String)o;
-				// 文字指定の場合.
-				if (event > 0) {
-					targetLen = event;
-					if (bw == null) {
-						if (value.length() < b + targetLen + str.length() ||
-							!str.equals(value.substring(
-								b + targetLen, b + targetLen + str.length()))) {
-							return false;
-						}
-					} else {
-						while (true) {
-							if (value.length() < b + targetLen + str.length() ||
-								!str.equals(value.substring(
-									b + targetLen, b + targetLen + str.length()))) {
-								// 見つからない場合は、以前の部分検索条件が見つかるまで検索.
-								// 見つかった場合は、再度文字指定検索を再開.
-								if ((p = value.indexOf(bw, b)) == -1) {
-									return false;
-								}
-								b = p + bw.length();
-							} else {
-								break;
-							}
-						}
-					}
-					// 最後方一致条件の場合は、現在の検索長と、文字列長が一致チェックで終了.
-					if (last) {
-						return (b + targetLen + str.length() == value.length());
-					} else {
-						b = b + targetLen + str.length();
-					}
-					event = UNKNOWN; // 定義不明.
-					bw = null; // 前回のindexof条件をクリア.
-				// 条件指定の場合.
-				// ただし最後方一致の場合は、そちらを優先させる.
-				} else if (!last) {
-					switch (event) {
-					case LikeParser.FIRST: // 先頭一致.
-						if (!value.startsWith(str)) {
-							return false;
-						}
-						b = str.length();
-						break;
-					case LikeParser.BETWEEN: // 次の文字列が一致.
-						if ((p = value.indexOf(str, b)) == -1) {
-							return false;
-						}
-						bw = str; // 前回のindexof条件を保持.
-						b = p + str.length();
-						break;
-					case UNKNOWN:
-						throw new RimException("Illegal Like syntax: " + src);
-					}
-				}
-				// 最後方一致条件の場合.
-				if (last) {
-					return value.endsWith(str);
-				}
+			if (parser[i] instanceof String) {
+				cnt++;
 			}
 		}
-		// 文字指定の場合.
-		if (event > 0) {
-			targetLen = event;
-			if (bw == null) {
-				if (value.length() != b + targetLen) {
-					return false;
-				}
-			} else {
-				while (true) {
-					if (value.length() != b + targetLen) {
-						// 見つからない場合は、以前の部分検索条件が見つかるまで検索.
-						// 見つかった場合は、文字長一致検索を再開.
-						if ((p = value.indexOf(bw, b)) == -1) {
-							return false;
-						}
-						b = p + bw.length();
-					} else {
-						break;
-					}
-				}
+		final String[] ret = new String[cnt];
+		cnt = 0;
+		for (int i = 0; i < len; i++) {
+			if (parser[i] instanceof String) {
+				ret[cnt++] = (String) parser[i];
 			}
 		}
-		return true;
+		return ret;
 	}
-	
+
+	/**
+	 * LikeAnalysisで解析された情報を取得.
+	 * 
+	 * @return Object[] 解析された情報が返却されます.
+	 */
+	final Object[] getParser() {
+		return parser;
+	}
+
 	/**
 	 * Like文の取得.
 	 * 
@@ -0,0 +1,451 @@
+package rim.core;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.Date;
+
+import rim.exception.RimException;
+
+/**
+ * mmapされたバッファを直接参照する列情報.
+ *
+ * CompressType.Mapped で保存されたRimファイルの列情報を
+ * ヒープにコピーせずにそのまま参照します.
+ * これにより巨大なファイルでもロード時間はほぼ発生せず、
+ * ページキャッシュは複数のJVMで共有されます.
+ */
+public final class MappedColumnData {
+	private MappedColumnData() {}
+
+	/**
+	 * 列型とバッファを設定してColumnDataを生成.
+	 * @param type 列型を設定します(String以外).
+	 * @param values 行数分の要素が格納されたバッファを設定します.
+	 * @param nullRows Nullの行番号群を設定します.
+	 * @return ColumnData ColumnDataが返却されます.
+	 */
+	public static final ColumnData create(
+		ColumnType type, ByteBuffer values, IntBuffer nullRows) {
+		ColumnData ret;
+		switch(type) {
+		case Boolean:
+			ret = new MappedBooleanColumn(values);
+			break;
+		case Byte:
+			ret = new MappedByteColumn(values);
+			break;
+		case Short:
+			ret = new MappedShortColumn(values.asShortBuffer());
+			break;
+		case Integer:
+			ret = new MappedIntegerColumn(values.asIntBuffer());
+			break;
+		case Long:
+			ret = new MappedLongColumn(values.asLongBuffer());
+			break;
+		case Float:
+			ret = new MappedFloatColumn(values.asFloatBuffer());
+			break;
+		case Double:
+			ret = new MappedDoubleColumn(values.asDoubleBuffer());
+			break;
+		case Date:
+			ret = new MappedDateColumn(values.asLongBuffer());
+			break;
+		default:
+			throw new RimException("Unknown column type: " + type);
+		}
+		setNulls(ret, nullRows);
+		return ret;
+	}
+
+	/**
+	 * バッファを設定してString列を生成.
+	 * @param data 全行のUTF8バイナリを設定します.
+	 * @param offsets 各行の開始位置(行数+1)を設定します.
+	 * @param nullRows Nullの行番号群を設定します.
+	 * @return ColumnData ColumnDataが返却されます.
+	 */
+	public static final ColumnData createString(
+		ByteBuffer data, IntBuffer offsets, IntBuffer nullRows) {
+		final ColumnData ret = new ColumnData.StringColumn(data, offsets);
+		setNulls(ret, nullRows);
+		return ret;
+	}
+
+	// Null行群を設定.
+	private static final void setNulls(ColumnData column, IntBuffer nullRows) {
+		final int len = nullRows.limit();
+		for(int i = 0; i < len; i ++) {
+			column.setNull(nullRows.get(i));
+		}
+	}
+
+	/**
+	 * Boolean列(1行1byte).
+	 */
+	public static final class MappedBooleanColumn extends ColumnData {
+		private final ByteBuffer values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public MappedBooleanColumn(ByteBuffer values) {
+			super(values.limit());
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Boolean;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values.get(rowId) != 0;
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values.get(rowId) != 0 ? 1L : 0L;
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Boolean)value) ? 1L : 0L;
+		}
+	}
+
+	/**
+	 * Byte列.
+	 */
+	public static final class MappedByteColumn extends ColumnData {
+		private final ByteBuffer values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public MappedByteColumn(ByteBuffer values) {
+			super(values.limit());
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Byte;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Number)value).longValue();
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return values.get(rowId);
+		}
+	}
+
+	/**
+	 * Short列.
+	 */
+	public static final class MappedShortColumn extends ColumnData {
+		private final ShortBuffer values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public MappedShortColumn(ShortBuffer values) {
+			super(values.limit());
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Short;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Number)value).longValue();
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return values.get(rowId);
+		}
+	}
+
+	/**
+	 * Integer列.
+	 */
+	public static final class MappedIntegerColumn extends ColumnData {
+		private final IntBuffer values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public MappedIntegerColumn(IntBuffer values) {
+			super(values.limit());
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Integer;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Number)value).longValue();
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public int getInt(int rowId) {
+			return values.get(rowId);
+		}
+	}
+
+	/**
+	 * Long列.
+	 */
+	public static final class MappedLongColumn extends ColumnData {
+		private final LongBuffer values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public MappedLongColumn(LongBuffer values) {
+			super(values.limit());
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Long;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Number)value).longValue();
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return values.get(rowId);
+		}
+	}
+
+	/**
+	 * Float列.
+	 */
+	public static final class MappedFloatColumn extends ColumnData {
+		private final FloatBuffer values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public MappedFloatColumn(FloatBuffer values) {
+			super(values.limit());
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Float;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return floatKey(values.get(rowId));
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return floatKey(((Number)value).floatValue());
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return (long)values.get(rowId);
+		}
+
+		@Override
+		public float getFloat(int rowId) {
+			return values.get(rowId);
+		}
+	}
+
+	/**
+	 * Double列.
+	 */
+	public static final class MappedDoubleColumn extends ColumnData {
+		private final DoubleBuffer values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分の要素を設定します.
+		 */
+		public MappedDoubleColumn(DoubleBuffer values) {
+			super(values.limit());
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Double;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return doubleKey(values.get(rowId));
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return doubleKey(((Number)value).doubleValue());
+		}
+
+		@Override
+		public double getDouble(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return (long)values.get(rowId);
+		}
+	}
+
+	/**
+	 * Date列.
+	 * 日付はミリ秒のlong値で管理します.
+	 */
+	public static final class MappedDateColumn extends ColumnData {
+		private final LongBuffer values;
+
+		/**
+		 * コンストラクタ.
+		 * @param values 行数分のミリ秒値を設定します.
+		 */
+		public MappedDateColumn(LongBuffer values) {
+			super(values.limit());
+			this.values = values;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return ColumnType.Date;
+		}
+
+		@Override
+		protected Object getObject(int rowId) {
+			return new Date(values.get(rowId));
+		}
+
+		@Override
+		public long getKey(int rowId) {
+			return values.get(rowId);
+		}
+
+		@Override
+		public long toKey(Object value) {
+			return ((Date)value).getTime();
+		}
+
+		@Override
+		public long getLong(int rowId) {
+			return values.get(rowId);
+		}
+	}
+}
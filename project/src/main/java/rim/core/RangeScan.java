@@ -0,0 +1,323 @@
+package rim.core;
+
+/**
+ * 順序キーの範囲条件による列の全件検索.
+ *
+ * 一致・大なり・小なり・範囲の条件を順序キーの範囲 [start, end] と
+ * 不一致条件に置き換えて、64行単位の一致ビットで検索します.
+ * 列型毎のプリミティブ配列を分岐の少ない比較で処理し、
+ * 行毎の仮想呼び出しやオブジェクト生成は行いません.
+ *
+ * 実行時に jdk.incubator.vector モジュールが利用できる場合
+ * (--add-modules jdk.incubator.vector)は、プリミティブ配列の比較を
+ * Vector API(RangeScanVector)で処理します. 利用できない場合は
+ * スカラーの比較で処理します.
+ *
+ * 一致ビットは直近の64行分をキャッシュするので、
+ * 1つの検索処理(スレッド)専用のオブジェクトとして利用します.
+ */
+public final class RangeScan {
+	// Vector APIが利用可能か.
+	private static final boolean VECTOR = isVectorAvailable();
+
+	// Vector APIが利用可能かチェック.
+	// モジュールが存在しない場合は RangeScanVector のロードに失敗します.
+	private static final boolean isVectorAvailable() {
+		try {
+			return RangeScanVector.isAvailable();
+		} catch(Throwable t) {
+			return false;
+		}
+	}
+
+	/**
+	 * Vector APIで検索するかチェック.
+	 * @return boolean trueの場合、Vector APIで検索します.
+	 */
+	public static final boolean isVector() {
+		return VECTOR;
+	}
+
+	// プリミティブ配列の種類.
+	private static final int TYPE_KEY = 0;
+	private static final int TYPE_BYTE = 1;
+	private static final int TYPE_SHORT = 2;
+	private static final int TYPE_INT = 3;
+	private static final int TYPE_LONG = 4;
+	private static final int TYPE_FLOAT = 5;
+	private static final int TYPE_DOUBLE = 6;
+
+	// 検索対象列.
+	private final ColumnData column;
+	// Null行管理情報.
+	private final Flags nulls;
+	// 行数.
+	private final int length;
+	// 不一致条件フラグ.
+	private final boolean notEq;
+	// 順序キーの開始値(この値を含む).
+	private final long start;
+	// 順序キーの終了値(この値を含む).
+	private final long end;
+	// プリミティブ配列の種類.
+	private final int type;
+	// プリミティブ配列(typeに対応).
+	private final byte[] byteValues;
+	private final short[] shortValues;
+	private final int[] intValues;
+	private final long[] longValues;
+	private final float[] floatValues;
+	private final double[] doubleValues;
+
+	// キャッシュしている一致ビットの先頭行番号.
+	private int cacheBase = -1;
+	// キャッシュしている一致ビット.
+	private long cacheBits;
+
+	/**
+	 * コンストラクタ.
+	 * start > end の場合、一致条件では一致する行は存在せず、
+	 * 不一致条件ではNull以外の全ての行が一致します.
+	 * @param column 検索対象の列を設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param start 順序キーの開始値(この値を含む)を設定します.
+	 * @param end 順序キーの終了値(この値を含む)を設定します.
+	 */
+	public RangeScan(ColumnData column, boolean notEq, long start, long end) {
+		this.column = column;
+		this.nulls = column.getNulls();
+		this.length = column.getLength();
+		this.notEq = notEq;
+		this.start = start;
+		this.end = end;
+		this.byteValues = (column instanceof ColumnData.ByteColumn) ?
+			((ColumnData.ByteColumn)column).getValues() : null;
+		this.shortValues = (column instanceof ColumnData.ShortColumn) ?
+			((ColumnData.ShortColumn)column).getValues() : null;
+		this.intValues = (column instanceof ColumnData.IntegerColumn) ?
+			((ColumnData.IntegerColumn)column).getValues() : null;
+		this.longValues = (column instanceof ColumnData.LongColumn) ?
+			((ColumnData.LongColumn)column).getValues() :
+			(column instanceof ColumnData.DateColumn) ?
+				((ColumnData.DateColumn)column).getValues() : null;
+		this.floatValues = (column instanceof ColumnData.FloatColumn) ?
+			((ColumnData.FloatColumn)column).getValues() : null;
+		this.doubleValues = (column instanceof ColumnData.DoubleColumn) ?
+			((ColumnData.DoubleColumn)column).getValues() : null;
+		if(byteValues != null) {
+			type = TYPE_BYTE;
+		} else if(shortValues != null) {
+			type = TYPE_SHORT;
+		} else if(intValues != null) {
+			type = TYPE_INT;
+		} else if(longValues != null) {
+			type = TYPE_LONG;
+		} else if(floatValues != null) {
+			type = TYPE_FLOAT;
+		} else if(doubleValues != null) {
+			type = TYPE_DOUBLE;
+		} else {
+			type = TYPE_KEY;
+		}
+	}
+
+	/**
+	 * 指定行から64行分の一致ビットを取得.
+	 * Null行のビットは常にOFFです.
+	 * @param base 64の倍数の先頭行番号を設定します.
+	 * @return long 一致ビット(下位ビットが先頭行)が返却されます.
+	 */
+	public long bits(int base) {
+		if(base == cacheBase) {
+			return cacheBits;
+		}
+		final int len = Math.min(64, length - base);
+		long ret;
+		switch(type) {
+		case TYPE_BYTE:
+			ret = VECTOR ?
+				RangeScanVector.bits(byteValues, base, len, start, end) :
+				bits(byteValues, base, len, start, end);
+			break;
+		case TYPE_SHORT:
+			ret = VECTOR ?
+				RangeScanVector.bits(shortValues, base, len, start, end) :
+				bits(shortValues, base, len, start, end);
+			break;
+		case TYPE_INT:
+			ret = VECTOR ?
+				RangeScanVector.bits(intValues, base, len, start, end) :
+				bits(intValues, base, len, start, end);
+			break;
+		case TYPE_LONG:
+			ret = VECTOR ?
+				RangeScanVector.bits(longValues, base, len, start, end) :
+				bits(longValues, base, len, start, end);
+			break;
+		case TYPE_FLOAT:
+			ret = VECTOR ?
+				RangeScanVector.bits(floatValues, base, len, start, end) :
+				bits(floatValues, base, len, start, end);
+			break;
+		case TYPE_DOUBLE:
+			ret = VECTOR ?
+				RangeScanVector.bits(doubleValues, base, len, start, end) :
+				bits(doubleValues, base, len, start, end);
+			break;
+		default:
+			ret = bits(column, base, len, start, end);
+			break;
+		}
+		// 不一致条件の場合は反転.
+		if(notEq) {
+			ret = ~ret & (len == 64 ? -1L : (1L << len) - 1L);
+		}
+		// Null行を除外.
+		if(nulls != null && ret != 0L) {
+			long m = ret;
+			int n;
+			while(m != 0L) {
+				n = Long.numberOfTrailingZeros(m);
+				if(nulls.get(base + n)) {
+					ret &= ~(1L << n);
+				}
+				m &= m - 1L;
+			}
+		}
+		cacheBase = base;
+		cacheBits = ret;
+		return ret;
+	}
+
+	/**
+	 * 指定範囲で条件と一致する次の行番号を取得.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public int next(boolean ascFlag, int startPos, int endPos) {
+		int base, p;
+		long b;
+		if(ascFlag) {
+			p = startPos;
+			while(p < endPos) {
+				base = p & ~63;
+				// 検索開始位置より前の行を除外.
+				b = bits(base) & (-1L << (p - base));
+				// 検索終了位置以降の行を除外.
+				if(endPos - base < 64) {
+					b &= (1L << (endPos - base)) - 1L;
+				}
+				if(b != 0L) {
+					return base + Long.numberOfTrailingZeros(b);
+				}
+				p = base + 64;
+			}
+		} else {
+			p = startPos;
+			while(p > endPos) {
+				base = p & ~63;
+				// 検索開始位置より後の行を除外.
+				b = bits(base);
+				if(p - base < 63) {
+					b &= (1L << (p - base + 1)) - 1L;
+				}
+				// 検索終了位置以前の行を除外.
+				if(endPos >= base) {
+					b &= endPos - base >= 63 ? 0L : -1L << (endPos - base + 1);
+				}
+				if(b != 0L) {
+					return base + 63 - Long.numberOfLeadingZeros(b);
+				}
+				p = base - 1;
+			}
+		}
+		return -1;
+	}
+
+	// byte配列の一致ビットを取得.
+	private static final long bits(
+		final byte[] values, final int base, final int len,
+		final long start, final long end) {
+		long v, ret = 0L;
+		for(int i = 0; i < len; i ++) {
+			v = values[base + i];
+			ret |= ((v >= start) & (v <= end) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+
+	// short配列の一致ビットを取得.
+	private static final long bits(
+		final short[] values, final int base, final int len,
+		final long start, final long end) {
+		long v, ret = 0L;
+		for(int i = 0; i < len; i ++) {
+			v = values[base + i];
+			ret |= ((v >= start) & (v <= end) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+
+	// int配列の一致ビットを取得.
+	private static final long bits(
+		final int[] values, final int base, final int len,
+		final long start, final long end) {
+		long v, ret = 0L;
+		for(int i = 0; i < len; i ++) {
+			v = values[base + i];
+			ret |= ((v >= start) & (v <= end) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+
+	// long配列の一致ビットを取得.
+	private static final long bits(
+		final long[] values, final int base, final int len,
+		final long start, final long end) {
+		long v, ret = 0L;
+		for(int i = 0; i < len; i ++) {
+			v = values[base + i];
+			ret |= ((v >= start) & (v <= end) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+
+	// float配列の一致ビットを取得.
+	private static final long bits(
+		final float[] values, final int base, final int len,
+		final long start, final long end) {
+		long v, ret = 0L;
+		for(int i = 0; i < len; i ++) {
+			v = ColumnData.floatKey(values[base + i]);
+			ret |= ((v >= start) & (v <= end) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+
+	// double配列の一致ビットを取得.
+	private static final long bits(
+		final double[] values, final int base, final int len,
+		final long start, final long end) {
+		long v, ret = 0L;
+		for(int i = 0; i < len; i ++) {
+			v = ColumnData.doubleKey(values[base + i]);
+			ret |= ((v >= start) & (v <= end) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+
+	// 順序キーで一致ビットを取得.
+	private static final long bits(
+		final ColumnData column, final int base, final int len,
+		final long start, final long end) {
+		long v, ret = 0L;
+		for(int i = 0; i < len; i ++) {
+			v = column.getKey(base + i);
+			ret |= ((v >= start) & (v <= end) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,274 @@
+package rim.core;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API(jdk.incubator.vector)による RangeScan の一致ビット取得.
+ *
+ * 実行時に jdk.incubator.vector モジュールが利用できない場合
+ * (--add-modules jdk.incubator.vector を指定していない場合)は
+ * このクラスは利用されず、RangeScan のスカラー処理で検索します.
+ * 利用可能かは RangeScan が isAvailable() で１度だけ確認します.
+ *
+ * 順序キーの範囲 [start, end] は列型の値の範囲に丸めて、
+ * 列型のレーンのまま比較します.
+ */
+final class RangeScanVector {
+	private RangeScanVector() {}
+
+	// 列型毎のレーン数.
+	private static final VectorSpecies<Byte> BYTE = ByteVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Short> SHORT = ShortVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Integer> INT = IntVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Long> LONG = LongVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Float> FLOAT = FloatVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Double> DOUBLE = DoubleVector.SPECIES_PREFERRED;
+
+	// Float.floatToIntBits のNaNのビット.
+	private static final int FLOAT_NAN = Float.floatToIntBits(Float.NaN);
+	// Double.doubleToLongBits のNaNのビット.
+	private static final long DOUBLE_NAN = Double.doubleToLongBits(Double.NaN);
+
+	/**
+	 * Vector APIが利用可能かチェック.
+	 * 64bitのレーンが２つ以上のSIMDが利用できない場合は利用しません.
+	 * @return boolean trueの場合、利用可能です.
+	 */
+	static final boolean isAvailable() {
+		return LONG.length() >= 2;
+	}
+
+	// 範囲の開始値を指定範囲に丸める.
+	private static final long low(long start, long min) {
+		return start < min ? min : start;
+	}
+
+	// 範囲の終了値を指定範囲に丸める.
+	private static final long high(long end, long max) {
+		return end > max ? max : end;
+	}
+
+	/**
+	 * byte配列の一致ビットを取得.
+	 * @param values 対象の配列を設定します.
+	 * @param base 先頭行番号を設定します.
+	 * @param len 行数(64以下)を設定します.
+	 * @param start 順序キーの開始値(この値を含む)を設定します.
+	 * @param end 順序キーの終了値(この値を含む)を設定します.
+	 * @return long 一致ビット(下位ビットが先頭行)が返却されます.
+	 */
+	static final long bits(
+		final byte[] values, final int base, final int len,
+		final long start, final long end) {
+		final long lo = low(start, Byte.MIN_VALUE);
+		final long hi = high(end, Byte.MAX_VALUE);
+		if(lo > hi) {
+			return 0L;
+		}
+		final byte l = (byte)lo, h = (byte)hi;
+		final int step = BYTE.length();
+		long v, ret = 0L;
+		int i = 0;
+		ByteVector vec;
+		for(; i + step <= len; i += step) {
+			vec = ByteVector.fromArray(BYTE, values, base + i);
+			ret |= vec.compare(VectorOperators.GE, l).and(
+				vec.compare(VectorOperators.LE, h)).toLong() << i;
+		}
+		for(; i < len; i ++) {
+			v = values[base + i];
+			ret |= ((v >= lo) & (v <= hi) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+
+	/**
+	 * short配列の一致ビットを取得.
+	 * @param values 対象の配列を設定します.
+	 * @param base 先頭行番号を設定します.
+	 * @param len 行数(64以下)を設定します.
+	 * @param start 順序キーの開始値(この値を含む)を設定します.
+	 * @param end 順序キーの終了値(この値を含む)を設定します.
+	 * @return long 一致ビット(下位ビットが先頭行)が返却されます.
+	 */
+	static final long bits(
+		final short[] values, final int base, final int len,
+		final long start, final long end) {
+		final long lo = low(start, Short.MIN_VALUE);
+		final long hi = high(end, Short.MAX_VALUE);
+		if(lo > hi) {
+			return 0L;
+		}
+		final short l = (short)lo, h = (short)hi;
+		final int step = SHORT.length();
+		long v, ret = 0L;
+		int i = 0;
+		ShortVector vec;
+		for(; i + step <= len; i += step) {
+			vec = ShortVector.fromArray(SHORT, values, base + i);
+			ret |= vec.compare(VectorOperators.GE, l).and(
+				vec.compare(VectorOperators.LE, h)).toLong() << i;
+		}
+		for(; i < len; i ++) {
+			v = values[base + i];
+			ret |= ((v >= lo) & (v <= hi) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+
+	/**
+	 * int配列の一致ビットを取得.
+	 * @param values 対象の配列を設定します.
+	 * @param base 先頭行番号を設定します.
+	 * @param len 行数(64以下)を設定します.
+	 * @param start 順序キーの開始値(この値を含む)を設定します.
+	 * @param end 順序キーの終了値(この値を含む)を設定します.
+	 * @return long 一致ビット(下位ビットが先頭行)が返却されます.
+	 */
+	static final long bits(
+		final int[] values, final int base, final int len,
+		final long start, final long end) {
+		final long lo = low(start, Integer.MIN_VALUE);
+		final long hi = high(end, Integer.MAX_VALUE);
+		if(lo > hi) {
+			return 0L;
+		}
+		final int l = (int)lo, h = (int)hi;
+		final int step = INT.length();
+		long v, ret = 0L;
+		int i = 0;
+		IntVector vec;
+		for(; i + step <= len; i += step) {
+			vec = IntVector.fromArray(INT, values, base + i);
+			ret |= vec.compare(VectorOperators.GE, l).and(
+				vec.compare(VectorOperators.LE, h)).toLong() << i;
+		}
+		for(; i < len; i ++) {
+			v = values[base + i];
+			ret |= ((v >= lo) & (v <= hi) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+
+	/**
+	 * long配列の一致ビットを取得.
+	 * @param values 対象の配列を設定します.
+	 * @param base 先頭行番号を設定します.
+	 * @param len 行数(64以下)を設定します.
+	 * @param start 順序キーの開始値(この値を含む)を設定します.
+	 * @param end 順序キーの終了値(この値を含む)を設定します.
+	 * @return long 一致ビット(下位ビットが先頭行)が返却されます.
+	 */
+	static final long bits(
+		final long[] values, final int base, final int len,
+		final long start, final long end) {
+		if(start > end) {
+			return 0L;
+		}
+		final int step = LONG.length();
+		long v, ret = 0L;
+		int i = 0;
+		LongVector vec;
+		for(; i + step <= len; i += step) {
+			vec = LongVector.fromArray(LONG, values, base + i);
+			ret |= vec.compare(VectorOperators.GE, start).and(
+				vec.compare(VectorOperators.LE, end)).toLong() << i;
+		}
+		for(; i < len; i ++) {
+			v = values[base + i];
+			ret |= ((v >= start) & (v <= end) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+
+	/**
+	 * float配列の一致ビットを取得.
+	 * 値は ColumnData.floatKey と同じ順序キーに変換して比較します.
+	 * @param values 対象の配列を設定します.
+	 * @param base 先頭行番号を設定します.
+	 * @param len 行数(64以下)を設定します.
+	 * @param start 順序キーの開始値(この値を含む)を設定します.
+	 * @param end 順序キーの終了値(この値を含む)を設定します.
+	 * @return long 一致ビット(下位ビットが先頭行)が返却されます.
+	 */
+	static final long bits(
+		final float[] values, final int base, final int len,
+		final long start, final long end) {
+		final long lo = low(start, Integer.MIN_VALUE);
+		final long hi = high(end, Integer.MAX_VALUE);
+		if(lo > hi) {
+			return 0L;
+		}
+		final int l = (int)lo, h = (int)hi;
+		final int step = FLOAT.length();
+		long v, ret = 0L;
+		int i = 0;
+		FloatVector vec;
+		VectorMask<Float> nan;
+		IntVector key;
+		for(; i + step <= len; i += step) {
+			vec = FloatVector.fromArray(FLOAT, values, base + i);
+			// NaNは Float.floatToIntBits と同じビットに揃える.
+			nan = vec.test(VectorOperators.IS_NAN);
+			key = ((IntVector)vec.reinterpretShape(INT, 0)).blend(
+				FLOAT_NAN, nan.cast(INT));
+			key = key.lanewise(VectorOperators.XOR, key.lanewise(
+				VectorOperators.ASHR, 31).and(0x7fffffff));
+			ret |= key.compare(VectorOperators.GE, l).and(
+				key.compare(VectorOperators.LE, h)).toLong() << i;
+		}
+		for(; i < len; i ++) {
+			v = ColumnData.floatKey(values[base + i]);
+			ret |= ((v >= lo) & (v <= hi) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+
+	/**
+	 * double配列の一致ビットを取得.
+	 * 値は ColumnData.doubleKey と同じ順序キーに変換して比較します.
+	 * @param values 対象の配列を設定します.
+	 * @param base 先頭行番号を設定します.
+	 * @param len 行数(64以下)を設定します.
+	 * @param start 順序キーの開始値(この値を含む)を設定します.
+	 * @param end 順序キーの終了値(この値を含む)を設定します.
+	 * @return long 一致ビット(下位ビットが先頭行)が返却されます.
+	 */
+	static final long bits(
+		final double[] values, final int base, final int len,
+		final long start, final long end) {
+		if(start > end) {
+			return 0L;
+		}
+		final int step = DOUBLE.length();
+		long v, ret = 0L;
+		int i = 0;
+		DoubleVector vec;
+		VectorMask<Double> nan;
+		LongVector key;
+		for(; i + step <= len; i += step) {
+			vec = DoubleVector.fromArray(DOUBLE, values, base + i);
+			// NaNは Double.doubleToLongBits と同じビットに揃える.
+			nan = vec.test(VectorOperators.IS_NAN);
+			key = ((LongVector)vec.reinterpretShape(LONG, 0)).blend(
+				DOUBLE_NAN, nan.cast(LONG));
+			key = key.lanewise(VectorOperators.XOR, key.lanewise(
+				VectorOperators.ASHR, 63L).and(0x7fffffffffffffffL));
+			ret |= key.compare(VectorOperators.GE, start).and(
+				key.compare(VectorOperators.LE, end)).toLong() << i;
+		}
+		for(; i < len; i ++) {
+			v = ColumnData.doubleKey(values[base + i]);
+			ret |= ((v >= start) & (v <= end) ? 1L : 0L) << i;
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,892 @@
+package rim.core;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import rim.exception.RimException;
+
+/**
+ * 圧縮されたフラグ管理(Roaring形式).
+ *
+ * 行番号の上位16bit毎にコンテナを持ち、コンテナは密度に合わせて
+ * 配列(4096件以下)、ビットマップ(4096件超)、ラン(連続範囲)の
+ * いずれかで管理します.
+ * 数件から数百万件までの行番号群を少ないメモリで管理して、
+ * and / or / andNot をコンテナ単位で高速に処理します.
+ */
+public class RoaringFlags implements BaseFlags<RoaringFlags> {
+	// 配列コンテナで管理する最大件数.
+	private static final int ARRAY_MAX = 4096;
+	// ビットマップコンテナのlong配列長.
+	private static final int BITMAP_LENGTH = 1024;
+
+	// フラグ全体の配列長.
+	private final int length;
+	// コンテナのキー(行番号の上位16bit)群.
+	private char[] keys;
+	// コンテナ群.
+	private Container[] containers;
+	// コンテナ数.
+	private int size;
+
+	/**
+	 * コンストラクタ.
+	 * @param length 全行数を設定します.
+	 */
+	public RoaringFlags(int length) {
+		this.length = length;
+		this.keys = new char[4];
+		this.containers = new Container[4];
+		this.size = 0;
+	}
+
+	/**
+	 * クリア.
+	 * @return RoaringFlags このオブジェクトが返却されます.
+	 */
+	public RoaringFlags clear() {
+		Arrays.fill(containers, 0, size, null);
+		size = 0;
+		return this;
+	}
+
+	// 範囲チェック.
+	private final void checkRange(int no) {
+		if(no < 0 || no >= length) {
+			throw new RimException("Out of range (" +
+				length + " : " + no + "). ");
+		}
+	}
+
+	// キー位置を取得.
+	private final int searchKey(int key) {
+		int low = 0;
+		int high = size - 1;
+		int mid, k;
+		while(low <= high) {
+			mid = (low + high) >>> 1;
+			if((k = keys[mid]) < key) {
+				low = mid + 1;
+			} else if(k > key) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	// コンテナを挿入.
+	private final void insert(int pos, int key, Container c) {
+		if(size == keys.length) {
+			final int newLen = size << 1;
+			keys = Arrays.copyOf(keys, newLen);
+			containers = Arrays.copyOf(containers, newLen);
+		}
+		System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+		System.arraycopy(containers, pos, containers, pos + 1, size - pos);
+		keys[pos] = (char)key;
+		containers[pos] = c;
+		size ++;
+	}
+
+	// コンテナを削除.
+	private final void removeAt(int pos) {
+		System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+		System.arraycopy(containers, pos + 1, containers, pos, size - pos - 1);
+		containers[-- size] = null;
+	}
+
+	/**
+	 * 指定行番号に対するON / OFFをセット.
+	 * @param no 番号を設定します.
+	 * @param flag 設定するフラグ条件を設定します.
+	 * @return RoaringFlags このオブジェクトが返却されます.
+	 */
+	public RoaringFlags put(int no, boolean flag) {
+		checkRange(no);
+		final int pos = searchKey(no >>> 16);
+		if(flag) {
+			if(pos < 0) {
+				insert(-(pos + 1), no >>> 16,
+					new ArrayContainer().add(no & 0xffff));
+			} else {
+				containers[pos] = containers[pos].add(no & 0xffff);
+			}
+		} else if(pos >= 0) {
+			final Container c = containers[pos].remove(no & 0xffff);
+			if(c == null) {
+				removeAt(pos);
+			} else {
+				containers[pos] = c;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * 指定行番号をONにセット.
+	 * 検索結果の同一行の除外のように、未登録の行番号かの判定と
+	 * 登録を１回のコンテナ検索で行います.
+	 * @param no 番号を設定します.
+	 * @return boolean 新たにONとなった場合は true が返却されます.
+	 *                 既にONの場合は false が返却されます.
+	 */
+	public boolean add(int no) {
+		checkRange(no);
+		final int pos = searchKey(no >>> 16);
+		if(pos < 0) {
+			insert(-(pos + 1), no >>> 16,
+				new ArrayContainer().add(no & 0xffff));
+			return true;
+		}
+		final Container c = containers[pos];
+		final int card = c.cardinality();
+		return (containers[pos] = c.add(no & 0xffff)).cardinality() != card;
+	}
+
+	/**
+	 * 指定行番号のON / OFFの取得.
+	 * @param no 番号を設定します.
+	 * @return boolean 設定されているフラグが返却されます.
+	 */
+	public boolean get(int no) {
+		checkRange(no);
+		final int pos = searchKey(no >>> 16);
+		if(pos < 0) {
+			return false;
+		}
+		return containers[pos].contains(no & 0xffff);
+	}
+
+	/**
+	 * フラグ管理長を取得.
+	 * @return int フラグ管理数が返却されます.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	// 同一長かチェック.
+	private final void checkLength(RoaringFlags value) {
+		if(value.length != length) {
+			throw new RimException("Must be the same length.");
+		}
+	}
+
+	/**
+	 * AND処理.
+	 * 処理結果は呼び出し元のオブジェクトに反映されます.
+	 * @param value このオブジェクトとANDするためのRoaringFlagsを設定します.
+	 * @return RoaringFlags このオブジェクトが返却されます.
+	 */
+	public RoaringFlags and(RoaringFlags value) {
+		checkLength(value);
+		int i = 0, j = 0, n = 0;
+		Container c;
+		final int vSize = value.size;
+		while(i < size && j < vSize) {
+			if(keys[i] < value.keys[j]) {
+				i ++;
+			} else if(keys[i] > value.keys[j]) {
+				j ++;
+			} else {
+				if((c = and(containers[i], value.containers[j])) != null) {
+					keys[n] = keys[i];
+					containers[n ++] = c;
+				}
+				i ++;
+				j ++;
+			}
+		}
+		Arrays.fill(containers, n, size, null);
+		size = n;
+		return this;
+	}
+
+	/**
+	 * OR処理.
+	 * 処理結果は呼び出し元のオブジェクトに反映されます.
+	 * @param value このオブジェクトとORするためのRoaringFlagsを設定します.
+	 * @return RoaringFlags このオブジェクトが返却されます.
+	 */
+	public RoaringFlags or(RoaringFlags value) {
+		checkLength(value);
+		int i = 0, j = 0, n = 0;
+		final int vSize = value.size;
+		final int maxLen = size + vSize;
+		final char[] newKeys = new char[Math.max(4, maxLen)];
+		final Container[] newContainers = new Container[newKeys.length];
+		while(i < size || j < vSize) {
+			if(j >= vSize || (i < size && keys[i] < value.keys[j])) {
+				newKeys[n] = keys[i];
+				newContainers[n ++] = containers[i ++];
+			} else if(i >= size || keys[i] > value.keys[j]) {
+				newKeys[n] = value.keys[j];
+				newContainers[n ++] = value.containers[j ++].copy();
+			} else {
+				newKeys[n] = keys[i];
+				newContainers[n ++] = or(containers[i ++], value.containers[j ++]);
+			}
+		}
+		keys = newKeys;
+		containers = newContainers;
+		size = n;
+		return this;
+	}
+
+	/**
+	 * AND NOT処理.
+	 * 処理結果は呼び出し元のオブジェクトに反映されます.
+	 * @param value このオブジェクトから除外するためのRoaringFlagsを設定します.
+	 * @return RoaringFlags このオブジェクトが返却されます.
+	 */
+	public RoaringFlags andNot(RoaringFlags value) {
+		checkLength(value);
+		int i = 0, j = 0, n = 0;
+		Container c;
+		final int vSize = value.size;
+		while(i < size) {
+			while(j < vSize && value.keys[j] < keys[i]) {
+				j ++;
+			}
+			if(j < vSize && value.keys[j] == keys[i]) {
+				c = andNot(containers[i], value.containers[j]);
+			} else {
+				c = containers[i];
+			}
+			if(c != null) {
+				keys[n] = keys[i];
+				containers[n ++] = c;
+			}
+			i ++;
+		}
+		Arrays.fill(containers, n, size, null);
+		size = n;
+		return this;
+	}
+
+	/**
+	 * 有効なフラグ数を取得.
+	 * @return int 有効なフラグ数が返却されます.
+	 */
+	public int cardinality() {
+		int ret = 0;
+		for(int i = 0; i < size; i ++) {
+			ret += containers[i].cardinality();
+		}
+		return ret;
+	}
+
+	/**
+	 * 連続した範囲が多いコンテナをランコンテナに変換して
+	 * メモリ量を削減します.
+	 * @return RoaringFlags このオブジェクトが返却されます.
+	 */
+	public RoaringFlags optimize() {
+		for(int i = 0; i < size; i ++) {
+			containers[i] = containers[i].optimize();
+		}
+		return this;
+	}
+
+	/**
+	 * オブジェクトを別のインスタンスでコピー.
+	 * @return RoaringFlags コピーされたオブジェクトが返却されます.
+	 */
+	public RoaringFlags copy() {
+		final RoaringFlags ret = new RoaringFlags(length);
+		ret.keys = Arrays.copyOf(keys, Math.max(4, size));
+		ret.containers = new Container[ret.keys.length];
+		for(int i = 0; i < size; i ++) {
+			ret.containers[i] = containers[i].copy();
+		}
+		ret.size = size;
+		return ret;
+	}
+
+	/**
+	 * 有効な行番号を取得するIteratorを取得.
+	 * @param ascFlag 昇順取得の場合は true.
+	 * @return Iterator<Integer> 有効な行番号を返却する
+	 *                           Iteratorが返却されます.
+	 */
+	public Iterator<Integer> iterator(boolean ascFlag) {
+		final IntIterator itr = intIterator(ascFlag);
+		return new Iterator<Integer>() {
+			@Override
+			public boolean hasNext() {
+				return itr.hasNext();
+			}
+			@Override
+			public Integer next() {
+				return itr.next();
+			}
+		};
+	}
+
+	/**
+	 * 有効な行番号を取得するIntIteratorを取得.
+	 * @param ascFlag 昇順取得の場合は true.
+	 * @return IntIterator 有効な行番号を返却する
+	 *                     IntIteratorが返却されます.
+	 */
+	public IntIterator intIterator(boolean ascFlag) {
+		return new RoaringIterator(ascFlag, this);
+	}
+
+	// RoaringIterator.
+	private static final class RoaringIterator implements IntIterator {
+		private final RoaringFlags flags;
+		private final boolean ascFlag;
+		// 現在読込中のコンテナ位置.
+		private int pos;
+		// 現在読込中のコンテナの上位bit.
+		private int high;
+		// 現在読込中のコンテナのIterator.
+		private IntIterator inUse;
+
+		RoaringIterator(boolean ascFlag, RoaringFlags flags) {
+			this.flags = flags;
+			this.ascFlag = ascFlag;
+			this.pos = ascFlag ? -1 : flags.size;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while(inUse == null || !inUse.hasNext()) {
+				pos += ascFlag ? 1 : -1;
+				if(pos < 0 || pos >= flags.size) {
+					inUse = null;
+					pos = ascFlag ? flags.size : -1;
+					return false;
+				}
+				high = flags.keys[pos] << 16;
+				inUse = flags.containers[pos].iterator(ascFlag);
+			}
+			return true;
+		}
+
+		@Override
+		public int next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return high | inUse.next();
+		}
+	}
+
+	// AND処理(結果が空の場合はnull).
+	private static final Container and(Container a, Container b) {
+		if(a instanceof ArrayContainer) {
+			return ((ArrayContainer)a).filter(b, true);
+		} else if(b instanceof ArrayContainer) {
+			return ((ArrayContainer)b).filter(a, true);
+		}
+		final long[] x = a.toBitmap().words;
+		final long[] y = b.toBitmap().words;
+		final long[] w = new long[BITMAP_LENGTH];
+		for(int i = 0; i < BITMAP_LENGTH; i ++) {
+			w[i] = x[i] & y[i];
+		}
+		return BitmapContainer.create(w);
+	}
+
+	// OR処理.
+	private static final Container or(Container a, Container b) {
+		if(a instanceof ArrayContainer && b instanceof ArrayContainer &&
+			a.cardinality() + b.cardinality() <= ARRAY_MAX) {
+			return ((ArrayContainer)a).union((ArrayContainer)b);
+		}
+		final long[] w = a.toBitmap().words.clone();
+		if(b instanceof ArrayContainer) {
+			final ArrayContainer ac = (ArrayContainer)b;
+			for(int i = 0; i < ac.cardinality; i ++) {
+				w[ac.values[i] >>> 6] |= 1L << ac.values[i];
+			}
+		} else {
+			final long[] y = b.toBitmap().words;
+			for(int i = 0; i < BITMAP_LENGTH; i ++) {
+				w[i] |= y[i];
+			}
+		}
+		return BitmapContainer.create(w);
+	}
+
+	// AND NOT処理(結果が空の場合はnull).
+	private static final Container andNot(Container a, Container b) {
+		if(a instanceof ArrayContainer) {
+			return ((ArrayContainer)a).filter(b, false);
+		}
+		final long[] w = a.toBitmap().words.clone();
+		if(b instanceof ArrayContainer) {
+			final ArrayContainer ac = (ArrayContainer)b;
+			for(int i = 0; i < ac.cardinality; i ++) {
+				w[ac.values[i] >>> 6] &= ~(1L << ac.values[i]);
+			}
+		} else {
+			final long[] y = b.toBitmap().words;
+			for(int i = 0; i < BITMAP_LENGTH; i ++) {
+				w[i] &= ~y[i];
+			}
+		}
+		return BitmapContainer.create(w);
+	}
+
+	/**
+	 * 上位16bit単位のコンテナ.
+	 */
+	private static abstract class Container {
+		/**
+		 * 件数を取得.
+		 * @return int 件数が返却されます.
+		 */
+		abstract int cardinality();
+
+		/**
+		 * 指定値が存在するかチェック.
+		 * @param v 下位16bitの値を設定します.
+		 * @return boolean trueの場合存在します.
+		 */
+		abstract boolean contains(int v);
+
+		/**
+		 * 指定値を追加.
+		 * @param v 下位16bitの値を設定します.
+		 * @return Container 追加後のコンテナが返却されます.
+		 */
+		abstract Container add(int v);
+
+		/**
+		 * 指定値を削除.
+		 * @param v 下位16bitの値を設定します.
+		 * @return Container 削除後のコンテナが返却されます.
+		 *                   空になった場合は null が返却されます.
+		 */
+		abstract Container remove(int v);
+
+		/**
+		 * ビットマップを取得.
+		 * ビットマップコンテナの場合は自身が返却されるので
+		 * 内容を変更する場合はコピーして利用します.
+		 * @return BitmapContainer ビットマップが返却されます.
+		 */
+		abstract BitmapContainer toBitmap();
+
+		/**
+		 * コピーを取得.
+		 * @return Container コピーされたコンテナが返却されます.
+		 */
+		abstract Container copy();
+
+		/**
+		 * 下位16bitの値を取得するIteratorを取得.
+		 * @param ascFlag 昇順の場合は true.
+		 * @return IntIterator Iteratorが返却されます.
+		 */
+		abstract IntIterator iterator(boolean ascFlag);
+
+		/**
+		 * ランコンテナの方が小さい場合は変換.
+		 * @return Container 最適化されたコンテナが返却されます.
+		 */
+		Container optimize() {
+			int runs = 0;
+			int bef = -2;
+			int v;
+			IntIterator itr = iterator(true);
+			while(itr.hasNext()) {
+				if((v = itr.next()) != bef + 1) {
+					runs ++;
+				}
+				bef = v;
+			}
+			// ラン(4byte x ラン数)の方が小さくない場合.
+			final int card = cardinality();
+			final int nowBytes = card <= ARRAY_MAX ?
+				card << 1 : BITMAP_LENGTH << 3;
+			if(runs << 2 >= nowBytes) {
+				return this;
+			}
+			final char[] r = new char[runs << 1];
+			int n = -2;
+			bef = -2;
+			itr = iterator(true);
+			while(itr.hasNext()) {
+				if((v = itr.next()) != bef + 1) {
+					n += 2;
+					r[n] = (char)v;
+				}
+				r[n + 1] = (char)(v - r[n]);
+				bef = v;
+			}
+			return new RunContainer(r, runs, card);
+		}
+	}
+
+	/**
+	 * ソート済み配列で管理するコンテナ.
+	 */
+	private static final class ArrayContainer extends Container {
+		char[] values;
+		int cardinality;
+
+		ArrayContainer() {
+			this.values = new char[4];
+		}
+
+		ArrayContainer(char[] values, int cardinality) {
+			this.values = values;
+			this.cardinality = cardinality;
+		}
+
+		// 指定値の位置を取得.
+		private final int search(int v) {
+			int low = 0;
+			int high = cardinality - 1;
+			int mid, n;
+			while(low <= high) {
+				mid = (low + high) >>> 1;
+				if((n = values[mid]) < v) {
+					low = mid + 1;
+				} else if(n > v) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -(low + 1);
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(int v) {
+			return search(v) >= 0;
+		}
+
+		@Override
+		Container add(int v) {
+			int pos = search(v);
+			if(pos >= 0) {
+				return this;
+			} else if(cardinality >= ARRAY_MAX) {
+				return toBitmap().copy().add(v);
+			}
+			pos = -(pos + 1);
+			if(cardinality == values.length) {
+				values = Arrays.copyOf(values,
+					Math.min(ARRAY_MAX, cardinality << 1));
+			}
+			System.arraycopy(values, pos, values, pos + 1, cardinality - pos);
+			values[pos] = (char)v;
+			cardinality ++;
+			return this;
+		}
+
+		@Override
+		Container remove(int v) {
+			final int pos = search(v);
+			if(pos < 0) {
+				return this;
+			}
+			System.arraycopy(values, pos + 1, values, pos, cardinality - pos - 1);
+			return -- cardinality == 0 ? null : this;
+		}
+
+		@Override
+		BitmapContainer toBitmap() {
+			final long[] w = new long[BITMAP_LENGTH];
+			for(int i = 0; i < cardinality; i ++) {
+				w[values[i] >>> 6] |= 1L << values[i];
+			}
+			return new BitmapContainer(w, cardinality);
+		}
+
+		@Override
+		Container copy() {
+			return new ArrayContainer(
+				Arrays.copyOf(values, Math.max(4, cardinality)), cardinality);
+		}
+
+		// 指定コンテナに存在する(存在しない)値のみを抽出.
+		final Container filter(Container c, boolean containsFlag) {
+			int n = 0;
+			final char[] ret = new char[Math.max(4, cardinality)];
+			for(int i = 0; i < cardinality; i ++) {
+				if(c.contains(values[i]) == containsFlag) {
+					ret[n ++] = values[i];
+				}
+			}
+			return n == 0 ? null : new ArrayContainer(ret, n);
+		}
+
+		// 配列コンテナ同士をマージ.
+		final Container union(ArrayContainer c) {
+			int i = 0, j = 0, n = 0;
+			final char[] ret = new char[Math.max(4, cardinality + c.cardinality)];
+			while(i < cardinality || j < c.cardinality) {
+				if(j >= c.cardinality ||
+					(i < cardinality && values[i] < c.values[j])) {
+					ret[n ++] = values[i ++];
+				} else if(i >= cardinality || values[i] > c.values[j]) {
+					ret[n ++] = c.values[j ++];
+				} else {
+					ret[n ++] = values[i ++];
+					j ++;
+				}
+			}
+			return new ArrayContainer(ret, n);
+		}
+
+		@Override
+		IntIterator iterator(final boolean ascFlag) {
+			return new IntIterator() {
+				private int pos = ascFlag ? 0 : cardinality - 1;
+				@Override
+				public boolean hasNext() {
+					return pos >= 0 && pos < cardinality;
+				}
+				@Override
+				public int next() {
+					if(!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return ascFlag ? values[pos ++] : values[pos --];
+				}
+			};
+		}
+	}
+
+	/**
+	 * ビットマップで管理するコンテナ.
+	 */
+	private static final class BitmapContainer extends Container {
+		final long[] words;
+		int cardinality;
+
+		BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		// ビットマップから件数に合わせたコンテナを生成.
+		static final Container create(long[] words) {
+			int card = 0;
+			for(int i = 0; i < BITMAP_LENGTH; i ++) {
+				card += Long.bitCount(words[i]);
+			}
+			if(card == 0) {
+				return null;
+			} else if(card > ARRAY_MAX) {
+				return new BitmapContainer(words, card);
+			}
+			int n = 0;
+			long w;
+			final char[] v = new char[Math.max(4, card)];
+			for(int i = 0; i < BITMAP_LENGTH; i ++) {
+				w = words[i];
+				while(w != 0L) {
+					v[n ++] = (char)((i << 6) + Long.numberOfTrailingZeros(w));
+					w &= w - 1L;
+				}
+			}
+			return new ArrayContainer(v, card);
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(int v) {
+			return (words[v >>> 6] & (1L << v)) != 0L;
+		}
+
+		@Override
+		Container add(int v) {
+			final long b = 1L << v;
+			if((words[v >>> 6] & b) == 0L) {
+				words[v >>> 6] |= b;
+				cardinality ++;
+			}
+			return this;
+		}
+
+		@Override
+		Container remove(int v) {
+			final long b = 1L << v;
+			if((words[v >>> 6] & b) != 0L) {
+				words[v >>> 6] &= ~b;
+				if(-- cardinality <= ARRAY_MAX) {
+					return create(words);
+				}
+			}
+			return this;
+		}
+
+		@Override
+		BitmapContainer toBitmap() {
+			return this;
+		}
+
+		@Override
+		Container copy() {
+			return new BitmapContainer(words.clone(), cardinality);
+		}
+
+		@Override
+		IntIterator iterator(final boolean ascFlag) {
+			return new IntIterator() {
+				private int pos = ascFlag ? -1 : BITMAP_LENGTH;
+				private long word = 0L;
+				@Override
+				public boolean hasNext() {
+					while(word == 0L) {
+						pos += ascFlag ? 1 : -1;
+						if(pos < 0 || pos >= BITMAP_LENGTH) {
+							pos = ascFlag ? BITMAP_LENGTH : -1;
+							return false;
+						}
+						word = words[pos];
+					}
+					return true;
+				}
+				@Override
+				public int next() {
+					if(!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					final int bit;
+					if(ascFlag) {
+						bit = Long.numberOfTrailingZeros(word);
+					} else {
+						bit = 63 - Long.numberOfLeadingZeros(word);
+					}
+					word &= ~(1L << bit);
+					return (pos << 6) + bit;
+				}
+			};
+		}
+	}
+
+	/**
+	 * 連続範囲(開始値, 長さ-1)で管理するコンテナ.
+	 * 変更する場合は配列かビットマップのコンテナに変換します.
+	 */
+	private static final class RunContainer extends Container {
+		final char[] runs;
+		final int runLength;
+		final int cardinality;
+
+		RunContainer(char[] runs, int runLength, int cardinality) {
+			this.runs = runs;
+			this.runLength = runLength;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(int v) {
+			int low = 0;
+			int high = runLength - 1;
+			int mid, s;
+			while(low <= high) {
+				mid = (low + high) >>> 1;
+				s = runs[mid << 1];
+				if(v < s) {
+					high = mid - 1;
+				} else if(v > s + runs[(mid << 1) + 1]) {
+					low = mid + 1;
+				} else {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		// 配列かビットマップのコンテナに変換.
+		private final Container convert() {
+			return BitmapContainer.create(toBitmap().words);
+		}
+
+		@Override
+		Container add(int v) {
+			if(contains(v)) {
+				return this;
+			}
+			return convert().add(v);
+		}
+
+		@Override
+		Container remove(int v) {
+			if(!contains(v)) {
+				return this;
+			}
+			return convert().remove(v);
+		}
+
+		@Override
+		BitmapContainer toBitmap() {
+			int s, e;
+			final long[] w = new long[BITMAP_LENGTH];
+			for(int i = 0; i < runLength; i ++) {
+				s = runs[i << 1];
+				e = s + runs[(i << 1) + 1];
+				for(int v = s; v <= e; v ++) {
+					w[v >>> 6] |= 1L << v;
+				}
+			}
+			return new BitmapContainer(w, cardinality);
+		}
+
+		@Override
+		Container copy() {
+			return this;
+		}
+
+		@Override
+		Container optimize() {
+			return this;
+		}
+
+		@Override
+		IntIterator iterator(final boolean ascFlag) {
+			return new IntIterator() {
+				private int run = ascFlag ? 0 : runLength - 1;
+				private int offset = ascFlag ? 0 : runs[((runLength - 1) << 1) + 1];
+				@Override
+				public boolean hasNext() {
+					return run >= 0 && run < runLength;
+				}
+				@Override
+				public int next() {
+					if(!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					final int ret = runs[run << 1] + offset;
+					if(ascFlag) {
+						if(++ offset > runs[(run << 1) + 1]) {
+							run ++;
+							offset = 0;
+						}
+					} else if(-- offset < 0) {
+						if(-- run >= 0) {
+							offset = runs[(run << 1) + 1];
+						}
+					}
+					return ret;
+				}
+			};
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package rim.core;
 
+import java.util.Arrays;
+
 /**
  * 検索ユーティリティ.
  */
@@ -7,6 +9,320 @@ package rim.core;
 public final class SearchUtil {
 	private SearchUtil() {}
 	
+	/**
+	 * ソート済みのint配列から、指定キー以上となる最初の位置を取得.
+	 * 比較は分岐の少ない形で行います.
+	 * 
+	 * @param values ソート済みの配列を設定します.
+	 * @param len 有効な長さを設定します.
+	 * @param key 検索キーを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は len が返却されます.
+	 */
+	public static final int lowerBound(
+		final int[] values, final int len, final long key) {
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = values[base + half] < key ? base + half : base;
+			n -= half;
+		}
+		return values[base] < key ? base + 1 : base;
+	}
+	
+	/**
+	 * ソート済みのint配列から、指定キーより大きい最初の位置を取得.
+	 * 比較は分岐の少ない形で行います.
+	 * 
+	 * @param values ソート済みの配列を設定します.
+	 * @param len 有効な長さを設定します.
+	 * @param key 検索キーを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は len が返却されます.
+	 */
+	public static final int upperBound(
+		final int[] values, final int len, final long key) {
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = values[base + half] <= key ? base + half : base;
+			n -= half;
+		}
+		return values[base] <= key ? base + 1 : base;
+	}
+	
+	/**
+	 * ソート済みのlong配列から、指定キー以上となる最初の位置を取得.
+	 * 比較は分岐の少ない形で行います.
+	 * 
+	 * @param values ソート済みの配列を設定します.
+	 * @param len 有効な長さを設定します.
+	 * @param key 検索キーを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は len が返却されます.
+	 */
+	public static final int lowerBound(
+		final long[] values, final int len, final long key) {
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = values[base + half] < key ? base + half : base;
+			n -= half;
+		}
+		return values[base] < key ? base + 1 : base;
+	}
+	
+	/**
+	 * ソート済みのlong配列から、指定キーより大きい最初の位置を取得.
+	 * 比較は分岐の少ない形で行います.
+	 * 
+	 * @param values ソート済みの配列を設定します.
+	 * @param len 有効な長さを設定します.
+	 * @param key 検索キーを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は len が返却されます.
+	 */
+	public static final int upperBound(
+		final long[] values, final int len, final long key) {
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = values[base + half] <= key ? base + half : base;
+			n -= half;
+		}
+		return values[base] <= key ? base + 1 : base;
+	}
+	
+	/**
+	 * ソート済みのfloat配列から、指定キー以上となる最初の位置を取得.
+	 * キーは ColumnData.floatKey で変換した順序キーを設定します.
+	 * 
+	 * @param values ソート済みの配列を設定します.
+	 * @param len 有効な長さを設定します.
+	 * @param key 検索キーを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は len が返却されます.
+	 */
+	public static final int lowerBound(
+		final float[] values, final int len, final long key) {
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = ColumnData.floatKey(values[base + half]) < key ?
+				base + half : base;
+			n -= half;
+		}
+		return ColumnData.floatKey(values[base]) < key ? base + 1 : base;
+	}
+	
+	/**
+	 * ソート済みのfloat配列から、指定キーより大きい最初の位置を取得.
+	 * キーは ColumnData.floatKey で変換した順序キーを設定します.
+	 * 
+	 * @param values ソート済みの配列を設定します.
+	 * @param len 有効な長さを設定します.
+	 * @param key 検索キーを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は len が返却されます.
+	 */
+	public static final int upperBound(
+		final float[] values, final int len, final long key) {
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = ColumnData.floatKey(values[base + half]) <= key ?
+				base + half : base;
+			n -= half;
+		}
+		return ColumnData.floatKey(values[base]) <= key ? base + 1 : base;
+	}
+	
+	/**
+	 * ソート済みのdouble配列から、指定キー以上となる最初の位置を取得.
+	 * キーは ColumnData.doubleKey で変換した順序キーを設定します.
+	 * 
+	 * @param values ソート済みの配列を設定します.
+	 * @param len 有効な長さを設定します.
+	 * @param key 検索キーを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は len が返却されます.
+	 */
+	public static final int lowerBound(
+		final double[] values, final int len, final long key) {
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = ColumnData.doubleKey(values[base + half]) < key ?
+				base + half : base;
+			n -= half;
+		}
+		return ColumnData.doubleKey(values[base]) < key ? base + 1 : base;
+	}
+	
+	/**
+	 * ソート済みのdouble配列から、指定キーより大きい最初の位置を取得.
+	 * キーは ColumnData.doubleKey で変換した順序キーを設定します.
+	 * 
+	 * @param values ソート済みの配列を設定します.
+	 * @param len 有効な長さを設定します.
+	 * @param key 検索キーを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は len が返却されます.
+	 */
+	public static final int upperBound(
+		final double[] values, final int len, final long key) {
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = ColumnData.doubleKey(values[base + half]) <= key ?
+				base + half : base;
+			n -= half;
+		}
+		return ColumnData.doubleKey(values[base]) <= key ? base + 1 : base;
+	}
+	
+	/**
+	 * ソート済みの列から、指定順序キー以上となる最初の位置を取得.
+	 * 
+	 * @param column ソート済みの列を設定します.
+	 * @param key ColumnData.toKey で変換した検索キーを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は列の長さが返却されます.
+	 */
+	public static final int lowerBound(
+		final ColumnData column, final long key) {
+		final int len = column.getLength();
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = column.getKey(base + half) < key ? base + half : base;
+			n -= half;
+		}
+		return column.getKey(base) < key ? base + 1 : base;
+	}
+	
+	/**
+	 * ソート済みの列から、指定順序キーより大きい最初の位置を取得.
+	 * 
+	 * @param column ソート済みの列を設定します.
+	 * @param key ColumnData.toKey で変換した検索キーを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は列の長さが返却されます.
+	 */
+	public static final int upperBound(
+		final ColumnData column, final long key) {
+		final int len = column.getLength();
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = column.getKey(base + half) <= key ? base + half : base;
+			n -= half;
+		}
+		return column.getKey(base) <= key ? base + 1 : base;
+	}
+	
+	/**
+	 * ソート済みの文字列の列から、指定文字列以上となる最初の位置を取得.
+	 * 
+	 * @param column ソート済みの文字列の列を設定します.
+	 * @param value 検索文字列のUTF8バイナリを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は列の長さが返却されます.
+	 */
+	public static final int lowerBound(
+		final ColumnData.StringColumn column, final byte[] value) {
+		final int len = column.getLength();
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = column.compareBinary(base + half, value) < 0 ?
+				base + half : base;
+			n -= half;
+		}
+		return column.compareBinary(base, value) < 0 ? base + 1 : base;
+	}
+	
+	/**
+	 * ソート済みの文字列の列から、指定文字列より大きい最初の位置を取得.
+	 * 
+	 * @param column ソート済みの文字列の列を設定します.
+	 * @param value 検索文字列のUTF8バイナリを設定します.
+	 * @return int 位置が返却されます.
+	 *             存在しない場合は列の長さが返却されます.
+	 */
+	public static final int upperBound(
+		final ColumnData.StringColumn column, final byte[] value) {
+		final int len = column.getLength();
+		if(len <= 0) {
+			return 0;
+		}
+		int half;
+		int base = 0;
+		int n = len;
+		while(n > 1) {
+			half = n >>> 1;
+			base = column.compareBinary(base + half, value) <= 0 ?
+				base + half : base;
+			n -= half;
+		}
+		return column.compareBinary(base, value) <= 0 ? base + 1 : base;
+	}
+	
 	/**
 	 * バイナリサーチによるインデックスからの一致検索.
 	 * インデックスでの検索なので高速に検索が可能です.
@@ -181,40 +497,106 @@ public final class SearchUtil {
 	 * 全件検索での一致情報を取得.
 	 * 全件検索を行うので、速度は遅くなります.
 	 * 
-	 * @param rows 列行情報を設定します.
-	 * @param columnNo 対象の列番号を設定します.
+	 * @param column 列情報を設定します.
 	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
 	 * @param notEq 不一致条件で検索する場合は true を設定します.
 	 * @param startPos 検索開始位置を設定します.
-	 * @param value 検索する検索条件を設定します.
+	 * @param key 検索する検索条件の順序キーを設定します.
 	 * @return int -1の場合、情報は見つかりませんでした.
 	 */
 	public static final int normalEq(
-		final Object[] rows, final int columnNo, final boolean ascFlag,
-		final boolean notEq, final int startPos, final Comparable value) {
-		Object[] row;
-		final int len = rows.length;
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos, final long key) {
+		return normalEq(column, ascFlag, notEq, startPos,
+			ascFlag ? column.getLength() : -1, key);
+	}
+	
+	/**
+	 * 全件検索での一致情報を取得.
+	 * 検索開始位置から検索終了位置までを全件検索します.
+	 * 
+	 * @param column 列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param key 検索する検索条件の順序キーを設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalEq(
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos,
+		final int endPos, final long key) {
+		final Flags nulls = column.getNulls();
+		if(ascFlag) {
+			for(int i = startPos; i < endPos; i ++) {
+				if((nulls == null || !nulls.get(i)) &&
+					(column.getKey(i) == key) != notEq) {
+					return i;
+				}
+			}
+		} else {
+			for(int i = startPos; i > endPos; i --) {
+				if((nulls == null || !nulls.get(i)) &&
+					(column.getKey(i) == key) != notEq) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * 全件検索での文字列一致情報を取得.
+	 * 全件検索を行うので、速度は遅くなります.
+	 * 
+	 * @param column 文字列の列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param value 検索する検索条件のUTF8バイナリを設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalEq(
+		final ColumnData.StringColumn column, final boolean ascFlag,
+		final boolean notEq, final int startPos, final byte[] value) {
+		return normalEq(column, ascFlag, notEq, startPos,
+			ascFlag ? column.getLength() : -1, value);
+	}
+	
+	/**
+	 * 全件検索での文字列一致情報を取得.
+	 * 検索開始位置から検索終了位置までを全件検索します.
+	 * 
+	 * @param column 文字列の列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param value 検索する検索条件のUTF8バイナリを設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalEq(
+		final ColumnData.StringColumn column, final boolean ascFlag,
+		final boolean notEq, final int startPos,
+		final int endPos, final byte[] value) {
+		final Flags nulls = column.getNulls();
 		if(value == null) {
 			return -1;
-		} else {
-			Comparable src;
-			if(ascFlag) {
-				for(int i = startPos; i < len; i ++) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(value) == 0) != notEq) {
-						return i;
-					}
+		} else if(ascFlag) {
+			for(int i = startPos; i < endPos; i ++) {
+				if((nulls == null || !nulls.get(i)) &&
+					column.equalsBinary(i, value) != notEq) {
+					return i;
 				}
-			} else {
-				for(int i = startPos; i >= 0; i --) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(value) == 0) != notEq) {
-						return i;
-					}
+			}
+		} else {
+			for(int i = startPos; i > endPos; i --) {
+				if((nulls == null || !nulls.get(i)) &&
+					column.equalsBinary(i, value) != notEq) {
+					return i;
 				}
 			}
 		}
@@ -225,40 +607,50 @@ public final class SearchUtil {
 	 * 全件検索での大なり[>]一致情報を取得.
 	 * 全件検索を行うので、速度は遅くなります.
 	 * 
-	 * @param rows 列行情報を設定します.
-	 * @param columnNo 対象の列番号を設定します.
+	 * @param column 列情報を設定します.
 	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
 	 * @param notEq 不一致条件で検索する場合は true を設定します.
 	 * @param startPos 検索開始位置を設定します.
-	 * @param value 検索する検索条件を設定します.
+	 * @param key 検索する検索条件の順序キーを設定します.
 	 * @return int -1の場合、情報は見つかりませんでした.
 	 */
 	public static final int normalGT(
-		final Object[] rows, final int columnNo, final boolean ascFlag,
-		final boolean notEq, final int startPos, final Comparable value) {
-		Object[] row;
-		final int len = rows.length;
-		if(value == null) {
-			return -1;
-		} else {
-			Comparable src;
-			if(ascFlag) {
-				for(int i = startPos; i < len; i ++) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(value) > 0) != notEq) {
-						return i;
-					}
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos, final long key) {
+		return normalGT(column, ascFlag, notEq, startPos,
+			ascFlag ? column.getLength() : -1, key);
+	}
+	
+	/**
+	 * 全件検索での大なり[>]一致情報を取得.
+	 * 検索開始位置から検索終了位置までを全件検索します.
+	 * 
+	 * @param column 列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param key 検索する検索条件の順序キーを設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalGT(
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos,
+		final int endPos, final long key) {
+		final Flags nulls = column.getNulls();
+		if(ascFlag) {
+			for(int i = startPos; i < endPos; i ++) {
+				if((nulls == null || !nulls.get(i)) &&
+					(column.getKey(i) > key) != notEq) {
+					return i;
 				}
-			} else {
-				for(int i = startPos; i >= 0; i --) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(value) > 0) != notEq) {
-						return i;
-					}
+			}
+		} else {
+			for(int i = startPos; i > endPos; i --) {
+				if((nulls == null || !nulls.get(i)) &&
+					(column.getKey(i) > key) != notEq) {
+					return i;
 				}
 			}
 		}
@@ -269,84 +661,104 @@ public final class SearchUtil {
 	 * 全件検索での大なり[>=]一致情報を取得.
 	 * 全件検索を行うので、速度は遅くなります.
 	 * 
-	 * @param rows 列行情報を設定します.
-	 * @param columnNo 対象の列番号を設定します.
+	 * @param column 列情報を設定します.
 	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
 	 * @param notEq 不一致条件で検索する場合は true を設定します.
 	 * @param startPos 検索開始位置を設定します.
-	 * @param value 検索する検索条件を設定します.
+	 * @param key 検索する検索条件の順序キーを設定します.
 	 * @return int -1の場合、情報は見つかりませんでした.
 	 */
 	public static final int normalGE(
-		final Object[] rows, final int columnNo, final boolean ascFlag,
-		final boolean notEq, final int startPos, final Comparable value) {
-		Object[] row;
-		final int len = rows.length;
-		if(value == null) {
-			return -1;
-		} else {
-			Comparable src;
-			if(ascFlag) {
-				for(int i = startPos; i < len; i ++) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(value) >= 0) != notEq) {
-						return i;
-					}
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos, final long key) {
+		return normalGE(column, ascFlag, notEq, startPos,
+			ascFlag ? column.getLength() : -1, key);
+	}
+	
+	/**
+	 * 全件検索での大なり[>=]一致情報を取得.
+	 * 検索開始位置から検索終了位置までを全件検索します.
+	 * 
+	 * @param column 列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param key 検索する検索条件の順序キーを設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalGE(
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos,
+		final int endPos, final long key) {
+		final Flags nulls = column.getNulls();
+		if(ascFlag) {
+			for(int i = startPos; i < endPos; i ++) {
+				if((nulls == null || !nulls.get(i)) &&
+					(column.getKey(i) >= key) != notEq) {
+					return i;
 				}
-			} else {
-				for(int i = startPos; i >= 0; i --) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(value) >= 0) != notEq) {
-						return i;
-					}
+			}
+		} else {
+			for(int i = startPos; i > endPos; i --) {
+				if((nulls == null || !nulls.get(i)) &&
+					(column.getKey(i) >= key) != notEq) {
+					return i;
 				}
 			}
 		}
 		return -1;
 	}
-
+	
 	/**
 	 * 全件検索での小なり[<]一致情報を取得.
 	 * 全件検索を行うので、速度は遅くなります.
 	 * 
-	 * @param rows 列行情報を設定します.
-	 * @param columnNo 対象の列番号を設定します.
+	 * @param column 列情報を設定します.
 	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
 	 * @param notEq 不一致条件で検索する場合は true を設定します.
 	 * @param startPos 検索開始位置を設定します.
-	 * @param value 検索する検索条件を設定します.
+	 * @param key 検索する検索条件の順序キーを設定します.
 	 * @return int -1の場合、情報は見つかりませんでした.
 	 */
 	public static final int normalLT(
-		final Object[] rows, final int columnNo, final boolean ascFlag,
-		final boolean notEq, final int startPos, final Comparable value) {
-		Object[] row;
-		final int len = rows.length;
-		if(value == null) {
-			return -1;
-		} else {
-			Comparable src;
-			if(ascFlag) {
-				for(int i = startPos; i < len; i ++) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(value) < 0) != notEq) {
-						return i;
-					}
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos, final long key) {
+		return normalLT(column, ascFlag, notEq, startPos,
+			ascFlag ? column.getLength() : -1, key);
+	}
+	
+	/**
+	 * 全件検索での小なり[<]一致情報を取得.
+	 * 検索開始位置から検索終了位置までを全件検索します.
+	 * 
+	 * @param column 列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param key 検索する検索条件の順序キーを設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalLT(
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos,
+		final int endPos, final long key) {
+		final Flags nulls = column.getNulls();
+		if(ascFlag) {
+			for(int i = startPos; i < endPos; i ++) {
+				if((nulls == null || !nulls.get(i)) &&
+					(column.getKey(i) < key) != notEq) {
+					return i;
 				}
-			} else {
-				for(int i = startPos; i >= 0; i --) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(value) < 0) != notEq) {
-						return i;
-					}
+			}
+		} else {
+			for(int i = startPos; i > endPos; i --) {
+				if((nulls == null || !nulls.get(i)) &&
+					(column.getKey(i) < key) != notEq) {
+					return i;
 				}
 			}
 		}
@@ -357,40 +769,50 @@ public final class SearchUtil {
 	 * 全件検索での小なり[<=]一致情報を取得.
 	 * 全件検索を行うので、速度は遅くなります.
 	 * 
-	 * @param rows 列行情報を設定します.
-	 * @param columnNo 対象の列番号を設定します.
+	 * @param column 列情報を設定します.
 	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
 	 * @param notEq 不一致条件で検索する場合は true を設定します.
 	 * @param startPos 検索開始位置を設定します.
-	 * @param value 検索する検索条件を設定します.
+	 * @param key 検索する検索条件の順序キーを設定します.
 	 * @return int -1の場合、情報は見つかりませんでした.
 	 */
 	public static final int normalLE(
-		final Object[] rows, final int columnNo, final boolean ascFlag,
-		final boolean notEq, final int startPos, final Comparable value) {
-		Object[] row;
-		final int len = rows.length;
-		if(value == null) {
-			return -1;
-		} else {
-			Comparable src;
-			if(ascFlag) {
-				for(int i = startPos; i < len; i ++) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(value) <= 0) != notEq) {
-						return i;
-					}
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos, final long key) {
+		return normalLE(column, ascFlag, notEq, startPos,
+			ascFlag ? column.getLength() : -1, key);
+	}
+	
+	/**
+	 * 全件検索での小なり[<=]一致情報を取得.
+	 * 検索開始位置から検索終了位置までを全件検索します.
+	 * 
+	 * @param column 列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param key 検索する検索条件の順序キーを設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalLE(
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos,
+		final int endPos, final long key) {
+		final Flags nulls = column.getNulls();
+		if(ascFlag) {
+			for(int i = startPos; i < endPos; i ++) {
+				if((nulls == null || !nulls.get(i)) &&
+					(column.getKey(i) <= key) != notEq) {
+					return i;
 				}
-			} else {
-				for(int i = startPos; i >= 0; i --) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(value) <= 0) != notEq) {
-						return i;
-					}
+			}
+		} else {
+			for(int i = startPos; i > endPos; i --) {
+				if((nulls == null || !nulls.get(i)) &&
+					(column.getKey(i) <= key) != notEq) {
+					return i;
 				}
 			}
 		}
@@ -398,46 +820,60 @@ public final class SearchUtil {
 	}
 	
 	/**
-	 * 全件検索での小なり[<=]一致情報を取得.
+	 * 全件検索での範囲一致情報を取得.
 	 * 全件検索を行うので、速度は遅くなります.
 	 * 
-	 * @param rows 列行情報を設定します.
-	 * @param columnNo 対象の列番号を設定します.
+	 * @param column 列情報を設定します.
 	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
 	 * @param notEq 不一致条件で検索する場合は true を設定します.
 	 * @param startPos 検索開始位置を設定します.
-	 * @param start 開始条件を設定します.
-	 * @param end 終了条件を設定します.
+	 * @param start 開始条件(小さい値)の順序キーを設定します.
+	 * @param end 終了条件(大きい値)の順序キーを設定します.
 	 * @return int -1の場合、情報は見つかりませんでした.
 	 */
 	public static final int normalBetween(
-		final Object[] rows, final int columnNo, final boolean ascFlag,
-		final boolean notEq, final int startPos, Comparable start, Comparable end) {
-		Object[] row;
-		final int len = rows.length;
-		if(start == null || end == null) {
-			return -1;
-		} else {
-			Comparable src;
-			// 昇順検索.
-			if(ascFlag) {
-				for(int i = startPos; i < len; i ++) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(start) >= 0 &&
-						src.compareTo(end) <= 0) != notEq) {
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos, final long start, final long end) {
+		return normalBetween(column, ascFlag, notEq, startPos,
+			ascFlag ? column.getLength() : -1, start, end);
+	}
+	
+	/**
+	 * 全件検索での範囲一致情報を取得.
+	 * 検索開始位置から検索終了位置までを全件検索します.
+	 * 
+	 * @param column 列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param start 開始条件(小さい値)の順序キーを設定します.
+	 * @param end 終了条件(大きい値)の順序キーを設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalBetween(
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos,
+		final int endPos, final long start, final long end) {
+		long src;
+		final Flags nulls = column.getNulls();
+		// 昇順検索.
+		if(ascFlag) {
+			for(int i = startPos; i < endPos; i ++) {
+				if(nulls == null || !nulls.get(i)) {
+					src = column.getKey(i);
+					if((src >= start && src <= end) != notEq) {
 						return i;
 					}
 				}
-			// 降順検索.
-			} else {
-				for(int i = startPos; i >= 0; i --) {
-					row = (Object[])rows[i];
-					src = (Comparable)row[columnNo];
-					if(src != null &&
-						(src.compareTo(start) <= 0 &&
-						src.compareTo(end) >= 0) != notEq) {
+			}
+		// 降順検索.
+		} else {
+			for(int i = startPos; i > endPos; i --) {
+				if(nulls == null || !nulls.get(i)) {
+					src = column.getKey(i);
+					if((src >= start && src <= end) != notEq) {
 						return i;
 					}
 				}
@@ -445,88 +881,239 @@ public final class SearchUtil {
 		}
 		return -1;
 	}
-
+	
 	/**
 	 * 全件検索での複数一致情報を取得.
 	 * 全件検索を行うので、速度は遅くなります.
 	 * 
-	 * @param rows 列行情報を設定します.
-	 * @param columnNo 対象の列番号を設定します.
+	 * @param column 列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param keys ソート済みの検索条件の順序キー群を設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalIn(
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos, final long[] keys) {
+		return normalIn(column, ascFlag, notEq, startPos,
+			ascFlag ? column.getLength() : -1, keys);
+	}
+	
+	/**
+	 * 全件検索での複数一致情報を取得.
+	 * 検索開始位置から検索終了位置までを全件検索します.
+	 * 
+	 * @param column 列情報を設定します.
 	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
 	 * @param notEq 不一致条件で検索する場合は true を設定します.
 	 * @param startPos 検索開始位置を設定します.
-	 * @param values 検索する検索条件群を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param keys ソート済みの検索条件の順序キー群を設定します.
 	 * @return int -1の場合、情報は見つかりませんでした.
 	 */
 	public static final int normalIn(
-		final Object[] rows, final int columnNo, final boolean ascFlag,
-		final boolean notEq, final int startPos, final Comparable... values) {
-		int j;
-		Object[] row;
-		Comparable src;
-		boolean eqFlag = false;
-		final int len = rows.length;
-		
+		final ColumnData column, final boolean ascFlag,
+		final boolean notEq, final int startPos,
+		final int endPos, final long[] keys) {
+		final Flags nulls = column.getNulls();
 		// inで設定される一致条件が存在しない場合.
-		final int valueLength = values.length;
-		if(valueLength == 0) {
+		if(keys.length == 0) {
 			// 処理しない.
 			return -1;
 		}
 		// 昇順.
 		if(ascFlag) {
-			for(int i = startPos; i < len; i ++) {
-				row = (Object[])rows[i];
-				if((src = (Comparable)row[columnNo]) != null) {
-					eqFlag = false;
-					for(j = 0; j < valueLength; j ++) {
-						if(src.compareTo(values[j]) == 0) {
-							// 通常検索の場合.
-							if(!notEq) {
-								return i;
-							}
-							// 一致.
-							eqFlag = true;
-						}
-					}
-					// not 検索でin 条件全部が不一致の場合.
-					if(!eqFlag && notEq) {
-						return i;
-					}
+			for(int i = startPos; i < endPos; i ++) {
+				if((nulls == null || !nulls.get(i)) &&
+					(Arrays.binarySearch(keys, column.getKey(i)) >= 0) != notEq) {
+					return i;
 				}
 			}
 		// 降順.
 		} else {
-			for(int i = startPos; i >= 0; i --) {
-				row = (Object[])rows[i];
-				if((src = (Comparable)row[columnNo]) != null) {
-					eqFlag = false;
-					for(j = valueLength - 1; j >= 0; j --) {
-						if(src.compareTo(values[j]) == 0) {
-							// 通常検索の場合.
-							if(!notEq) {
-								return i;
-							}
-							// 一致.
-							eqFlag = true;
-						}
-					}
-					// not 検索でin 条件全部が不一致の場合.
-					if(!eqFlag && notEq) {
-						return i;
-					}
+			for(int i = startPos; i > endPos; i --) {
+				if((nulls == null || !nulls.get(i)) &&
+					(Arrays.binarySearch(keys, column.getKey(i)) >= 0) != notEq) {
+					return i;
 				}
 			}
 		}
 		return -1;
 	}
-
+	
+	/**
+	 * 全件検索での文字列の複数一致情報を取得.
+	 * 全件検索を行うので、速度は遅くなります.
+	 * 
+	 * @param column 文字列の列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param values 検索条件のUTF8バイナリ群を設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalIn(
+		final ColumnData.StringColumn column, final boolean ascFlag,
+		final boolean notEq, final int startPos, final byte[][] values) {
+		return normalIn(column, ascFlag, notEq, startPos,
+			ascFlag ? column.getLength() : -1, values);
+	}
+	
+	/**
+	 * 全件検索での文字列の複数一致情報を取得.
+	 * 検索開始位置から検索終了位置までを全件検索します.
+	 * 
+	 * @param column 文字列の列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param values 検索条件のUTF8バイナリ群を設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalIn(
+		final ColumnData.StringColumn column, final boolean ascFlag,
+		final boolean notEq, final int startPos,
+		final int endPos, final byte[][] values) {
+		final Flags nulls = column.getNulls();
+		// inで設定される一致条件が存在しない場合.
+		if(values.length == 0) {
+			// 処理しない.
+			return -1;
+		}
+		// 昇順.
+		if(ascFlag) {
+			for(int i = startPos; i < endPos; i ++) {
+				if((nulls == null || !nulls.get(i)) &&
+					equalsIn(column, i, values) != notEq) {
+					return i;
+				}
+			}
+		// 降順.
+		} else {
+			for(int i = startPos; i > endPos; i --) {
+				if((nulls == null || !nulls.get(i)) &&
+					equalsIn(column, i, values) != notEq) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+	
+	// 文字列の行が、in条件のどれかに一致するかチェック.
+	private static final boolean equalsIn(
+		final ColumnData.StringColumn column, final int rowId, final byte[][] values) {
+		final int len = values.length;
+		for(int i = 0; i < len; i ++) {
+			if(column.equalsBinary(rowId, values[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * 全件検索での文字列比較による一致情報を取得.
+	 * [>][>=][<][<=][between] の文字列の条件で利用します.
+	 * 全件検索を行うので、速度は遅くなります.
+	 * 
+	 * @param column 文字列の列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param start 開始条件を設定します.
+	 *              null の場合は開始条件なし.
+	 * @param startEq 開始条件と一致も含める場合は true を設定します.
+	 * @param end 終了条件を設定します.
+	 *            null の場合は終了条件なし.
+	 * @param endEq 終了条件と一致も含める場合は true を設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalRange(
+		final ColumnData.StringColumn column, final boolean ascFlag,
+		final boolean notEq, final int startPos,
+		final String start, final boolean startEq,
+		final String end, final boolean endEq) {
+		return normalRange(column, ascFlag, notEq, startPos,
+			ascFlag ? column.getLength() : -1, start, startEq, end, endEq);
+	}
+	
+	/**
+	 * 全件検索での文字列比較による一致情報を取得.
+	 * [>][>=][<][<=][between] の文字列の条件で利用します.
+	 * 検索開始位置から検索終了位置までを全件検索します.
+	 * 
+	 * @param column 文字列の列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param start 開始条件を設定します.
+	 *              null の場合は開始条件なし.
+	 * @param startEq 開始条件と一致も含める場合は true を設定します.
+	 * @param end 終了条件を設定します.
+	 *            null の場合は終了条件なし.
+	 * @param endEq 終了条件と一致も含める場合は true を設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalRange(
+		final ColumnData.StringColumn column, final boolean ascFlag,
+		final boolean notEq, final int startPos, final int endPos,
+		final String start, final boolean startEq,
+		final String end, final boolean endEq) {
+		final Flags nulls = column.getNulls();
+		// 昇順.
+		if(ascFlag) {
+			for(int i = startPos; i < endPos; i ++) {
+				if((nulls == null || !nulls.get(i)) &&
+					inRange(column.getString(i), start, startEq, end, endEq)
+						!= notEq) {
+					return i;
+				}
+			}
+		// 降順.
+		} else {
+			for(int i = startPos; i > endPos; i --) {
+				if((nulls == null || !nulls.get(i)) &&
+					inRange(column.getString(i), start, startEq, end, endEq)
+						!= notEq) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+	
+	// 文字列が範囲内かチェック.
+	private static final boolean inRange(final String src,
+		final String start, final boolean startEq,
+		final String end, final boolean endEq) {
+		int c;
+		if(start != null) {
+			c = src.compareTo(start);
+			if(c < 0 || (c == 0 && !startEq)) {
+				return false;
+			}
+		}
+		if(end != null) {
+			c = src.compareTo(end);
+			if(c > 0 || (c == 0 && !endEq)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
 	/**
 	 * 全件検索でLike一致情報を取得.
 	 * 全件検索を行うので、速度は遅くなります.
 	 * 
-	 * @param rows 列行情報を設定します.
-	 * @param columnNo 対象の列番号を設定します.
+	 * @param column 文字列の列情報を設定します.
 	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
 	 * @param notEq 不一致条件で検索する場合は true を設定します.
 	 * @param startPos 検索開始位置を設定します.
@@ -534,28 +1121,82 @@ public final class SearchUtil {
 	 * @return int -1の場合、情報は見つかりませんでした.
 	 */
 	public static final int normalLike(
-		final Object[] rows, final int columnNo, final boolean ascFlag,
+		final ColumnData.StringColumn column, final boolean ascFlag,
 		final boolean notEq, final int startPos, final LikeParser parser) {
-		Object[] row;
-		final int len = rows.length;
-		String src;
+		return normalLike(column, ascFlag, notEq, startPos,
+			ascFlag ? column.getLength() : -1, parser);
+	}
+	
+	/**
+	 * 全件検索でLike一致情報を取得.
+	 * 検索開始位置から検索終了位置までを全件検索します.
+	 * 
+	 * @param column 文字列の列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param parser Like検索するLikeParserを設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalLike(
+		final ColumnData.StringColumn column, final boolean ascFlag,
+		final boolean notEq, final int startPos,
+		final int endPos, final LikeParser parser) {
+		final Flags nulls = column.getNulls();
+		// 昇順.
+		if(ascFlag) {
+			for(int i = startPos; i < endPos; i ++) {
+				if((nulls == null || !nulls.get(i)) &&
+					column.matchLike(i, parser) != notEq) {
+					return i;
+				}
+			}
+		// 降順.
+		} else {
+			for(int i = startPos; i > endPos; i --) {
+				if((nulls == null || !nulls.get(i)) &&
+					column.matchLike(i, parser) != notEq) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 全件検索で辞書番号の一致情報を取得.
+	 * 辞書毎に事前評価した一致フラグで行を判別するので、
+	 * 行毎の文字列比較は行いません.
+	 * 
+	 * @param column 辞書化された列情報を設定します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件で検索する場合は true を設定します.
+	 * @param startPos 検索開始位置を設定します.
+	 * @param endPos 検索終了位置(この位置は含まない)を設定します.
+	 *               昇順の場合は最大で行数、降順の場合は最小で -1 を設定します.
+	 * @param matches 辞書番号毎の一致フラグを設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public static final int normalCodes(
+		final ColumnData.DictionaryColumn column, final boolean ascFlag,
+		final boolean notEq, final int startPos, final int endPos,
+		final Flags matches) {
+		final Flags nulls = column.getNulls();
 		// 昇順.
 		if(ascFlag) {
-			for(int i = startPos; i < len; i ++) {
-				row = (Object[])rows[i];
-				src = (String)row[columnNo];
-				if(src != null &&
-					parser.match(src) != notEq) {
+			for(int i = startPos; i < endPos; i ++) {
+				if((nulls == null || !nulls.get(i)) &&
+					matches.get(column.getCode(i)) != notEq) {
 					return i;
 				}
 			}
 		// 降順.
 		} else {
-			for(int i = startPos; i >= 0; i --) {
-				row = (Object[])rows[i];
-				src = (String)row[columnNo];
-				if(src != null &&
-					parser.match(src) != notEq) {
+			for(int i = startPos; i > endPos; i --) {
+				if((nulls == null || !nulls.get(i)) &&
+					matches.get(column.getCode(i)) != notEq) {
 					return i;
 				}
 			}
@@ -65,7 +65,7 @@ public class SmartFlags implements BaseFlags<SmartFlags> {
 		if(flag) {
 			if(flags == null) {
 				if(flagsLength == (no >> FLAGS_BIT) + 1) {
-					flags = new Flags(length & FLAGS_MASK);
+					flags = new Flags(((length - 1) & FLAGS_MASK) + 1);
 				} else {
 					flags = new Flags(FLAGS_MASK);
 				}
@@ -116,13 +116,13 @@ public class SmartFlags implements BaseFlags<SmartFlags> {
 		Integer key;
 		Flags vValue;
 		final IndexKeyValueList<Integer, Flags> v = value.flagArray;
-		final int len = v.size();
+		final int len = flagArray.size();
 		for(int i = len - 1; i >= 0; i --) {
 			key = flagArray.keyAt(i);
 			if((vValue = v.get(key)) == null) {
 				flagArray.remove(key);
 			} else {
-				flagArray.get(key).and(vValue);
+				flagArray.valueAt(i).and(vValue);
 			}
 		}
 		return this;
@@ -152,6 +152,40 @@ public class SmartFlags implements BaseFlags<SmartFlags> {
 		return this;
 	}
 	
+	/**
+	 * AND NOT処理.
+	 * 処理結果は呼び出し元のオブジェクトに反映されます.
+	 * @param value このオブジェクトから除外するためのRowsFlagを設定します.
+	 * @return SmartFlags このオブジェクトが返却されます.
+	 */
+	public SmartFlags andNot(SmartFlags value) {
+		if(value.flagsLength != flagsLength) {
+			throw new RimException("Must be the same length.");
+		}
+		Flags vValue;
+		final IndexKeyValueList<Integer, Flags> v = value.flagArray;
+		final int len = flagArray.size();
+		for(int i = 0; i < len; i ++) {
+			if((vValue = v.get(flagArray.keyAt(i))) != null) {
+				flagArray.valueAt(i).andNot(vValue);
+			}
+		}
+		return this;
+	}
+	
+	/**
+	 * 有効なフラグ数を取得.
+	 * @return int 有効なフラグ数が返却されます.
+	 */
+	public int cardinality() {
+		int ret = 0;
+		final int len = flagArray.size();
+		for(int i = 0; i < len; i ++) {
+			ret += flagArray.valueAt(i).cardinality();
+		}
+		return ret;
+	}
+	
 	/**
 	 * オブジェクトを別のインスタンスでコピー.
 	 * @return SmartFlags コピーされたオブジェクトが返却されます.
@@ -176,6 +210,26 @@ public class SmartFlags implements BaseFlags<SmartFlags> {
 		return new RowsIterator(ascFlag, flagArray);
 	}
 
+	/**
+	 * 有効な行番号を取得するIntIteratorを取得.
+	 * @param ascFlag 昇順取得の場合は true.
+	 * @return IntIterator 有効な行番号を返却する
+	 *                     IntIteratorが返却されます.
+	 */
+	public IntIterator intIterator(boolean ascFlag) {
+		final Iterator<Integer> itr = iterator(ascFlag);
+		return new IntIterator() {
+			@Override
+			public boolean hasNext() {
+				return itr.hasNext();
+			}
+			@Override
+			public int next() {
+				return itr.next();
+			}
+		};
+	}
+	
 	// RowsIterator.
 	private static final class RowsIterator
 		implements Iterator<Integer> {
@@ -0,0 +1,256 @@
+package rim.core;
+
+import rim.exception.RimException;
+
+/**
+ * 1つの列のゾーンマップ.
+ *
+ * 列の行群を指定行数のブロックに分割して、ブロック毎の
+ * 順序キー(ColumnData.getKey)の最小値・最大値とNull行数を管理します.
+ * 全件検索で条件に一致しないブロックを読み飛ばすために利用します.
+ *
+ * 順序キーを持たない文字列の列(StringColumn)は対象外です.
+ */
+public final class ZoneMap {
+	/**
+	 * 標準のブロック行数のビットシフト値(4096行).
+	 */
+	public static final int BLOCK_SHIFT = 12;
+
+	// ブロック行数のビットシフト値.
+	private final int blockShift;
+	// 行数.
+	private final int length;
+	// ブロック毎の最小順序キー.
+	private final long[] mins;
+	// ブロック毎の最大順序キー.
+	private final long[] maxs;
+	// ブロック毎のNull行数.
+	private final int[] nullCounts;
+
+	/**
+	 * コンストラクタ.
+	 * @param blockShift ブロック行数のビットシフト値を設定します.
+	 * @param length 行数を設定します.
+	 * @param mins ブロック毎の最小順序キーを設定します.
+	 * @param maxs ブロック毎の最大順序キーを設定します.
+	 * @param nullCounts ブロック毎のNull行数を設定します.
+	 */
+	public ZoneMap(int blockShift, int length, long[] mins, long[] maxs,
+		int[] nullCounts) {
+		if(blockShift <= 0 || blockShift >= 31) {
+			throw new RimException("Illegal zone map block shift: " + blockShift);
+		}
+		final int blockLength = getBlockLength(blockShift, length);
+		if(mins.length != blockLength || maxs.length != blockLength ||
+			nullCounts.length != blockLength) {
+			throw new RimException("The number of zone map blocks (" +
+				mins.length + ") does not match the number of rows: " + length);
+		}
+		this.blockShift = blockShift;
+		this.length = length;
+		this.mins = mins;
+		this.maxs = maxs;
+		this.nullCounts = nullCounts;
+	}
+
+	/**
+	 * 列データからゾーンマップを生成.
+	 * @param column 列データを設定します.
+	 * @return ZoneMap ゾーンマップが返却されます.
+	 *                 文字列の列の場合は null が返却されます.
+	 */
+	public static final ZoneMap create(ColumnData column) {
+		return create(column, true);
+	}
+
+	/**
+	 * 列データからゾーンマップを生成.
+	 * @param column 列データを設定します.
+	 * @param nullFlag false の場合、Null行を列データの値(0)の行として扱います.
+	 *                 Null行を保持せずに0で出力する形式の場合に設定します.
+	 * @return ZoneMap ゾーンマップが返却されます.
+	 *                 文字列の列の場合は null が返却されます.
+	 */
+	public static final ZoneMap create(ColumnData column, boolean nullFlag) {
+		if(column instanceof ColumnData.StringColumn) {
+			return null;
+		}
+		int i, end, nullCount;
+		long key, min, max;
+		final Flags nulls = nullFlag ? column.getNulls() : null;
+		final int len = column.getLength();
+		final int blockLength = getBlockLength(BLOCK_SHIFT, len);
+		final long[] mins = new long[blockLength];
+		final long[] maxs = new long[blockLength];
+		final int[] nullCounts = new int[blockLength];
+		for(int b = 0; b < blockLength; b ++) {
+			min = Long.MAX_VALUE;
+			max = Long.MIN_VALUE;
+			nullCount = 0;
+			end = Math.min((b + 1) << BLOCK_SHIFT, len);
+			for(i = b << BLOCK_SHIFT; i < end; i ++) {
+				if(nulls != null && nulls.get(i)) {
+					nullCount ++;
+					continue;
+				}
+				key = column.getKey(i);
+				min = key < min ? key : min;
+				max = key > max ? key : max;
+			}
+			mins[b] = min;
+			maxs[b] = max;
+			nullCounts[b] = nullCount;
+		}
+		return new ZoneMap(BLOCK_SHIFT, len, mins, maxs, nullCounts);
+	}
+
+	/**
+	 * 行数に対するブロック数を取得.
+	 * @param blockShift ブロック行数のビットシフト値を設定します.
+	 * @param length 行数を設定します.
+	 * @return int ブロック数が返却されます.
+	 */
+	public static final int getBlockLength(int blockShift, int length) {
+		return (int)(((long)length + (1L << blockShift) - 1L) >> blockShift);
+	}
+
+	/**
+	 * ブロック行数のビットシフト値を取得.
+	 * @return int ブロック行数のビットシフト値が返却されます.
+	 */
+	public int getBlockShift() {
+		return blockShift;
+	}
+
+	/**
+	 * 行数を取得.
+	 * @return int 行数が返却されます.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * ブロック数を取得.
+	 * @return int ブロック数が返却されます.
+	 */
+	public int getBlockLength() {
+		return mins.length;
+	}
+
+	/**
+	 * 指定ブロックの最小順序キーを取得.
+	 * @param block ブロック番号を設定します.
+	 * @return long 最小順序キーが返却されます.
+	 */
+	public long getMin(int block) {
+		return mins[block];
+	}
+
+	/**
+	 * 指定ブロックの最大順序キーを取得.
+	 * @param block ブロック番号を設定します.
+	 * @return long 最大順序キーが返却されます.
+	 */
+	public long getMax(int block) {
+		return maxs[block];
+	}
+
+	/**
+	 * 指定ブロックのNull行数を取得.
+	 * @param block ブロック番号を設定します.
+	 * @return int Null行数が返却されます.
+	 */
+	public int getNullCount(int block) {
+		return nullCounts[block];
+	}
+
+	/**
+	 * 指定ブロックに条件と一致する行が存在する可能性があるかチェック.
+	 * Null行は一致条件・不一致条件のどちらにも一致しません.
+	 * @param block ブロック番号を設定します.
+	 * @param notEq 不一致条件の場合は true を設定します.
+	 * @param start 条件となる順序キーの開始値(この値を含む)を設定します.
+	 * @param end 条件となる順序キーの終了値(この値を含む)を設定します.
+	 * @return boolean false の場合、一致する行は存在しません.
+	 */
+	public boolean isMatch(int block, boolean notEq, long start, long end) {
+		final int rows = Math.min((block + 1) << blockShift, length) -
+			(block << blockShift);
+		// 全てNull行の場合.
+		if(nullCounts[block] >= rows) {
+			return false;
+		} else if(notEq) {
+			return mins[block] < start || maxs[block] > end;
+		}
+		return maxs[block] >= start && mins[block] <= end;
+	}
+
+	/**
+	 * 指定位置以降で条件と一致する可能性のある位置を取得.
+	 * 指定位置のブロックが一致しない場合は、検索方向の
+	 * 次に一致する可能性のあるブロックの先頭位置を返却します.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件の場合は true を設定します.
+	 * @param position 検索位置を設定します.
+	 * @param start 条件となる順序キーの開始値(この値を含む)を設定します.
+	 * @param end 条件となる順序キーの終了値(この値を含む)を設定します.
+	 * @return int -1の場合、一致する可能性のある位置は存在しません.
+	 */
+	public int nextPosition(boolean ascFlag, boolean notEq, int position,
+		long start, long end) {
+		if(position < 0 || position >= length) {
+			return -1;
+		}
+		int block = position >> blockShift;
+		if(isMatch(block, notEq, start, end)) {
+			return position;
+		}
+		final int blockLength = mins.length;
+		if(ascFlag) {
+			while(++ block < blockLength) {
+				if(isMatch(block, notEq, start, end)) {
+					return block << blockShift;
+				}
+			}
+		} else {
+			while(-- block >= 0) {
+				if(isMatch(block, notEq, start, end)) {
+					return Math.min((block + 1) << blockShift, length) - 1;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 指定位置から条件と一致する可能性のあるブロックが続く終端位置を取得.
+	 * @param ascFlag 昇順で検索する場合はtrueを設定します.
+	 * @param notEq 不一致条件の場合は true を設定します.
+	 * @param position nextPosition で取得した位置を設定します.
+	 * @param start 条件となる順序キーの開始値(この値を含む)を設定します.
+	 * @param end 条件となる順序キーの終了値(この値を含む)を設定します.
+	 * @return int 終端位置(この位置は含まない)が返却されます.
+	 *             昇順の場合は最大で行数、降順の場合は最小で -1 が返却されます.
+	 */
+	public int endPosition(boolean ascFlag, boolean notEq, int position,
+		long start, long end) {
+		int block = position >> blockShift;
+		final int blockLength = mins.length;
+		if(ascFlag) {
+			while(++ block < blockLength) {
+				if(!isMatch(block, notEq, start, end)) {
+					return block << blockShift;
+				}
+			}
+			return length;
+		}
+		while(-- block >= 0) {
+			if(!isMatch(block, notEq, start, end)) {
+				return ((block + 1) << blockShift) - 1;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,260 @@
+package rim.geo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import rim.util.CsvReader;
+import rim.util.CsvRow;
+import rim.util.ObjectList;
+
+/**
+ * Geoインデックスのキー形式毎の半径検索のベンチマーク.
+ *
+ * 緯度・経度の点群をキー形式毎にソートして、半径検索で読み込む
+ * キーの範囲数・候補数と、実際に半径内となった件数(hits)を比較します.
+ * 候補数 / hits が小さいほど、半径外の候補を読み込む無駄が少ない事を示します.
+ *
+ * quad は従来のQuadKeyの中心と周囲８タイルの範囲、quad+cover は
+ * QuadKeyでGeoCoverの範囲に合わせて細分化したタイルの範囲、
+ * hilbert はヒルベルト曲線で同じタイルの範囲(GeoCodeType.Hilbert)です.
+ * quad+cover と hilbert は同じタイル群なので候補数は同じになり、
+ * 連続する範囲を結合した後の範囲数が異なります.
+ *
+ * <pre>
+ * java rim.geo.GeoCodeBench [点数(1000000)] [検索回数(2000)] [計測回数(3)]
+ *   [CSVファイル 緯度列名 経度列名]
+ * </pre>
+ * CSVファイルを指定した場合は、その緯度・経度の点群で計測します.
+ * 指定しない場合は、都市毎に偏った擬似的な点群を生成します.
+ */
+public class GeoCodeBench {
+	// 擬似データの都市(緯度, 経度, 広がり(度), 比率).
+	private static final double[][] CITIES = new double[][] {
+		{35.681236, 139.767125, 0.08, 30}, {34.702485, 135.495951, 0.06, 15},
+		{35.170915, 136.881537, 0.05, 10}, {43.068661, 141.350755, 0.04, 6},
+		{33.590355, 130.420681, 0.04, 6}, {38.260132, 140.882438, 0.03, 4},
+		{34.397667, 132.475310, 0.03, 4}, {35.011636, 135.768029, 0.02, 5}
+	};
+
+	// 擬似データで一様に分布させる範囲(南端, 西端, 北端, 東端)と比率.
+	private static final double[] COUNTRY = new double[] {
+		31.0d, 130.0d, 43.5d, 145.5d, 20 };
+
+	// 計測する半径(メートル).
+	private static final int[] RADIUS = new int[] {100, 500, 1000, 5000};
+
+	// main.
+	public static final void main(String[] args) throws Exception {
+		final int points = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		final int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		final int loop = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+		// 点群を取得.
+		final double[][] src = args.length > 5 ?
+			readCsv(args[3], args[4], args[5], points) :
+			createPoints(points);
+		final double[] lat = src[0];
+		final double[] lon = src[1];
+
+		// 検索の中心点は点群から選択.
+		final Random r = new Random(2);
+		final double[] qLat = new double[queries];
+		final double[] qLon = new double[queries];
+		for(int i = 0; i < queries; i ++) {
+			final int n = r.nextInt(lat.length);
+			qLat[i] = lat[n] + (r.nextDouble() - 0.5d) * 0.002d;
+			qLon[i] = lon[n] + (r.nextDouble() - 0.5d) * 0.002d;
+		}
+
+		// キー形式毎のソート済み点群.
+		final Points quad = new Points(GeoCodeType.Quad, lat, lon);
+		final Points hilbert = new Points(GeoCodeType.Hilbert, lat, lon);
+		final String[] names = new String[] {"quad", "quad+cover", "hilbert"};
+		final Points[] list = new Points[] {quad, quad, hilbert};
+		final boolean[] cover = new boolean[] {false, true, true};
+
+		System.out.println("points: " + lat.length + " queries: " + queries +
+			" loop: " + loop);
+		long t, time;
+		int d;
+		for(int i = 0; i < RADIUS.length; i ++) {
+			d = RADIUS[i];
+			for(int j = 0; j < names.length; j ++) {
+				time = Long.MAX_VALUE;
+				for(int x = 0; x < loop; x ++) {
+					list[j].clear();
+					t = System.nanoTime();
+					for(int q = 0; q < queries; q ++) {
+						list[j].search(cover[j], qLat[q], qLon[q], d);
+					}
+					time = Math.min(time, System.nanoTime() - t);
+				}
+				System.out.println(list[j].report(
+					"[r=" + d + "m] " + names[j], time, queries));
+			}
+		}
+	}
+
+	// キー形式毎のソート済み点群.
+	private static final class Points {
+		private final GeoCodeType type;
+		// ソート済みのキー.
+		private final long[] keys;
+		// キー順の緯度(メートル).
+		private final int[] latM;
+		// キー順の経度(メートル).
+		private final int[] lonM;
+
+		// 計測結果.
+		private long ranges;
+		private long candidates;
+		private long hits;
+
+		Points(GeoCodeType type, double[] lat, double[] lon) {
+			final int len = lat.length;
+			final long[] src = new long[len];
+			final Integer[] order = new Integer[len];
+			for(int i = 0; i < len; i ++) {
+				src[i] = type.create(lat[i], lon[i]);
+				order[i] = i;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer a, Integer b) {
+					return Long.compare(src[a], src[b]);
+				}
+			});
+			this.type = type;
+			this.keys = new long[len];
+			this.latM = new int[len];
+			this.lonM = new int[len];
+			int n;
+			for(int i = 0; i < len; i ++) {
+				n = order[i];
+				keys[i] = src[n];
+				latM[i] = GeoFastLine.calcLat(lat[n]);
+				lonM[i] = GeoFastLine.calcLon(lon[n]);
+			}
+		}
+
+		// 計測結果をクリア.
+		final void clear() {
+			ranges = candidates = hits = 0L;
+		}
+
+		// 半径検索.
+		final void search(boolean cover, double lat, double lon, int distance) {
+			final long[] list = cover ?
+				GeoCover.radius(type, lat, lon, distance) :
+				type.searchCode(lat, lon, distance);
+			final int srcLatM = GeoFastLine.calcLat(lat);
+			final int srcLonM = GeoFastLine.calcLon(lon);
+			final int len = list.length;
+			int p, end;
+			for(int i = 0; i < len; i += 2) {
+				p = lowerBound(keys, list[i]);
+				end = lowerBound(keys, list[i + 1] + 1L);
+				ranges ++;
+				candidates += end - p;
+				for(; p < end; p ++) {
+					if(GeoFastLine.get(srcLatM, srcLonM, latM[p], lonM[p])
+						<= distance) {
+						hits ++;
+					}
+				}
+			}
+		}
+
+		// 計測結果を文字列化.
+		final String report(String name, long time, int queries) {
+			final double q = queries;
+			return name + ": " + msec(time) + " msec, ranges: " +
+				round(ranges / q) + ", candidates: " + round(candidates / q) +
+				", hits: " + round(hits / q) + ", candidates/hit: " +
+				(hits == 0L ? "-" : round((double)candidates / hits));
+		}
+	}
+
+	// 指定値以上となる最初の位置を取得.
+	private static final int lowerBound(long[] keys, long value) {
+		int low = 0, high = keys.length, mid;
+		while(low < high) {
+			mid = (low + high) >>> 1;
+			if(keys[mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	// 都市毎に偏った擬似的な点群を生成.
+	private static final double[][] createPoints(int points) {
+		final Random r = new Random(1);
+		double all = COUNTRY[4];
+		for(int i = 0; i < CITIES.length; i ++) {
+			all += CITIES[i][3];
+		}
+		final double[] lat = new double[points];
+		final double[] lon = new double[points];
+		double v;
+		int c;
+		for(int i = 0; i < points; i ++) {
+			v = r.nextDouble() * all;
+			for(c = 0; c < CITIES.length && v >= CITIES[c][3]; c ++) {
+				v -= CITIES[c][3];
+			}
+			// 一様分布.
+			if(c == CITIES.length) {
+				lat[i] = COUNTRY[0] + r.nextDouble() * (COUNTRY[2] - COUNTRY[0]);
+				lon[i] = COUNTRY[1] + r.nextDouble() * (COUNTRY[3] - COUNTRY[1]);
+			// 都市の中心からの正規分布.
+			} else {
+				lat[i] = CITIES[c][0] + r.nextGaussian() * CITIES[c][2];
+				lon[i] = CITIES[c][1] + r.nextGaussian() * CITIES[c][2];
+			}
+		}
+		return new double[][] {lat, lon};
+	}
+
+	// CSVファイルから点群を取得.
+	private static final double[][] readCsv(String file, String latColumn,
+		String lonColumn, int points) throws Exception {
+		final ObjectList<double[]> list = new ObjectList<double[]>();
+		final CsvReader csv = new CsvReader(file, "UTF8", ",");
+		try {
+			String lat, lon;
+			while(list.size() < points && csv.hasNext()) {
+				final CsvRow row = csv.next();
+				lat = row.get(latColumn);
+				lon = row.get(lonColumn);
+				if(lat != null && !lat.isEmpty() &&
+					lon != null && !lon.isEmpty()) {
+					list.add(new double[] {
+						Double.parseDouble(lat), Double.parseDouble(lon)});
+				}
+			}
+		} finally {
+			csv.close();
+		}
+		final int len = list.size();
+		final double[] retLat = new double[len];
+		final double[] retLon = new double[len];
+		for(int i = 0; i < len; i ++) {
+			retLat[i] = list.get(i)[0];
+			retLon[i] = list.get(i)[1];
+		}
+		return new double[][] {retLat, retLon};
+	}
+
+	// 小数点以下２桁で丸めた文字列に変換.
+	private static final String round(double v) {
+		return String.valueOf(Math.round(v * 100d) / 100d);
+	}
+
+	// ナノ秒をミリ秒の文字列に変換.
+	private static final String msec(long nano) {
+		return String.valueOf(Math.round(nano / 1000d) / 1000d);
+	}
+}
@@ -0,0 +1,151 @@
+package rim.geo;
+
+import rim.exception.RimException;
+
+/**
+ * Geoインデックスのキー形式.
+ */
+public enum GeoCodeType {
+	/**
+	 * QuadKey(Z順).
+	 * 半径検索は中心と周囲８つのタイルで検索します.
+	 */
+	Quad(0) {
+		@Override
+		public long create(double lat, double lon) {
+			return GeoQuad.create(lat, lon);
+		}
+
+		@Override
+		public void tileCode(long[] out, int no, int detail, int x, int y) {
+			GeoQuad.tileCode(out, no, detail, x, y);
+		}
+
+		@Override
+		public long[] searchCode(double lat, double lon, int distance) {
+			return GeoQuad.searchCode(GeoQuad.getDetail(distance), lat, lon);
+		}
+
+		@Override
+		public long[] boxCode(double minLat, double minLon,
+			double maxLat, double maxLon) {
+			return GeoQuad.boxCode(minLat, minLon, maxLat, maxLon);
+		}
+	}
+	/**
+	 * ヒルベルト曲線.
+	 * 半径・矩形検索は GeoCover で範囲に合わせて細分化したタイルで検索します.
+	 */
+	,Hilbert(1) {
+		@Override
+		public long create(double lat, double lon) {
+			return GeoHilbert.create(lat, lon);
+		}
+
+		@Override
+		public void tileCode(long[] out, int no, int detail, int x, int y) {
+			GeoHilbert.tileCode(out, no, detail, x, y);
+		}
+
+		@Override
+		public long[] searchCode(double lat, double lon, int distance) {
+			return GeoCover.radius(this, lat, lon, distance);
+		}
+
+		@Override
+		public long[] boxCode(double minLat, double minLon,
+			double maxLat, double maxLon) {
+			return GeoCover.box(this, minLat, minLon, maxLat, maxLon);
+		}
+	}
+	;
+
+	// キー形式ID.
+	private int id;
+
+	/**
+	 * コンストラクタ.
+	 * @param id キー形式IDを設定します.
+	 */
+	private GeoCodeType(int id) {
+		this.id = id;
+	}
+
+	/**
+	 * キー形式IDを取得.
+	 * @return int キー形式IDが返却されます.
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * キーを生成.
+	 * @param lat 緯度を設定します.
+	 * @param lon 経度を設定します.
+	 * @return long キーが返却されます.
+	 */
+	public abstract long create(double lat, double lon);
+
+	/**
+	 * タイル位置の範囲検索用データの作成.
+	 * @param out 範囲検索用のキーを格納する条件を設定します.
+	 *            [no]最小値. [no+1]最大値 が格納されます.
+	 * @param no 格納する位置を設定します.
+	 * @param detail 拡大率を設定します. この値は[1]～[23]の範囲で設定します.
+	 * @param x 横方向のタイル位置を設定します.
+	 * @param y 縦方向のタイル位置を設定します.
+	 */
+	public abstract void tileCode(long[] out, int no, int detail, int x, int y);
+
+	/**
+	 * 半径検索用データの作成.
+	 * @param lat 中心点の緯度を設定します.
+	 * @param lon 中心点の経度を設定します.
+	 * @param distance 半径(メートル)を設定します.
+	 * @return long[] 範囲検索のキーが返却されます. [n]最小値. [n+1]最大値 ...
+	 */
+	public abstract long[] searchCode(double lat, double lon, int distance);
+
+	/**
+	 * 矩形検索用データの作成.
+	 * @param minLat 南端の緯度を設定します.
+	 * @param minLon 西端の経度を設定します.
+	 * @param maxLat 北端の緯度を設定します.
+	 * @param maxLon 東端の経度を設定します.
+	 * @return long[] 範囲検索のキーが返却されます. [n]最小値.
+	 *                [n+1]最大値 ... の順で、最小値の昇順で格納されます.
+	 */
+	public abstract long[] boxCode(double minLat, double minLon,
+		double maxLat, double maxLon);
+
+	/**
+	 * キー形式IDを設定してキー形式を取得.
+	 * @param id キー形式IDを設定します.
+	 * @return GeoCodeType キー形式が返却されます.
+	 */
+	public static final GeoCodeType get(int id) {
+		switch(id) {
+		case 0: return Quad;
+		case 1: return Hilbert;
+		}
+		throw new RimException("Unknown geo code ID: " + id);
+	}
+
+	/**
+	 * 文字列を設定してキー形式を取得.
+	 * @param name 文字列を設定します.
+	 * @return GeoCodeType キー形式が返却されます.
+	 */
+	public static final GeoCodeType get(String name) {
+		if(name == null || (name = name.trim()).isEmpty()) {
+			return Quad;
+		} else if("quad".equalsIgnoreCase(name) ||
+			"quadkey".equalsIgnoreCase(name)) {
+			return Quad;
+		} else if("hilbert".equalsIgnoreCase(name)) {
+			return Hilbert;
+		}
+		throw new RimException("Unknown geo code type: " + name);
+	}
+}
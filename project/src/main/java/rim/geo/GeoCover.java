@@ -0,0 +1,287 @@
+package rim.geo;
+
+import java.util.Arrays;
+
+/**
+ * 範囲に合わせて細分化したタイル群で範囲検索用のキーを生成.
+ *
+ * 範囲を覆う４タイル以下のdetailから開始して、範囲の境界に掛かるタイルのみを
+ * [COVER_TILE_LENGTH]以下の数で細かいdetailに分割します.
+ * 範囲内に収まるタイルと範囲外のタイルは分割しないので、範囲の形に
+ * 近いタイル群となり、範囲外の候補を読み込む数が少なくなります.
+ * 生成したタイル群はキー形式(GeoCodeType)の範囲に変換して、
+ * 連続する範囲は結合します.
+ */
+public final class GeoCover {
+	protected GeoCover() {}
+
+	/**
+	 * 範囲の境界に掛かるタイルを分割する最大タイル数.
+	 */
+	public static final int COVER_TILE_LENGTH = 64;
+
+	// 開始detailのタイル数.
+	private static final int START_TILE_LENGTH = 4;
+
+	// キーの丸め誤差とメートル変換の誤差分を含める距離(メートル).
+	private static final int PAD_METERS = 2;
+
+	// キーの丸め誤差分を含める緯度・経度.
+	private static final double PAD_DEGREES = 0.000001d;
+
+	// タイル判定: 範囲外.
+	private static final int OUTSIDE = 0;
+	// タイル判定: 範囲の境界.
+	private static final int PARTIAL = 1;
+	// タイル判定: 範囲内.
+	private static final int INSIDE = 2;
+
+	/**
+	 * 半径検索用データの作成.
+	 *
+	 * @param type キー形式を設定します.
+	 * @param lat 中心点の緯度を設定します.
+	 * @param lon 中心点の経度を設定します.
+	 * @param distance 半径(メートル)を設定します.
+	 * @return long[] 範囲検索のキーが返却されます. [n]最小値.
+	 *                [n+1]最大値 ... の順で、最小値の昇順で格納されます.
+	 */
+	public static final long[] radius(final GeoCodeType type,
+		final double lat, final double lon, final int distance) {
+		final int d = Math.max(0, distance);
+		final double dLat = GeoFastLine.calcLat(d + PAD_METERS);
+		final double dLon = GeoFastLine.calcLon(d + PAD_METERS);
+		return cover(type, new Circle(lat, lon, d),
+			lat - dLat, lon - dLon, lat + dLat, lon + dLon);
+	}
+
+	/**
+	 * 矩形検索用データの作成.
+	 *
+	 * @param type キー形式を設定します.
+	 * @param minLat 南端の緯度を設定します.
+	 * @param minLon 西端の経度を設定します.
+	 * @param maxLat 北端の緯度を設定します.
+	 * @param maxLon 東端の経度を設定します.
+	 * @return long[] 範囲検索のキーが返却されます. [n]最小値.
+	 *                [n+1]最大値 ... の順で、最小値の昇順で格納されます.
+	 */
+	public static final long[] box(final GeoCodeType type,
+		final double minLat, final double minLon,
+		final double maxLat, final double maxLon) {
+		final Box box = new Box(minLat - PAD_DEGREES, minLon - PAD_DEGREES,
+			maxLat + PAD_DEGREES, maxLon + PAD_DEGREES);
+		return cover(type, box, box.minLat, box.minLon, box.maxLat, box.maxLon);
+	}
+
+	// 範囲を覆うタイル群を生成して、範囲検索用データに変換.
+	private static final long[] cover(final GeoCodeType type, final Shape shape,
+		final double minLat, final double minLon,
+		final double maxLat, final double maxLon) {
+		// 北西と南東のタイル位置.
+		final long nw = GeoQuad.create(
+			Math.min(GeoQuad.MAX_LAT, maxLat), Math.max(-180d, minLon));
+		final long se = GeoQuad.create(
+			Math.max(-GeoQuad.MAX_LAT, minLat), Math.min(180d, maxLon));
+		final int ax0 = GeoQuad.tileX(nw), ay0 = GeoQuad.tileY(nw);
+		final int ax1 = GeoQuad.tileX(se), ay1 = GeoQuad.tileY(se);
+		// 開始タイル数以下となるdetailを取得.
+		int detail = GeoQuad.MAX_DETAIL;
+		int shift = 0;
+		while (detail > 1 && (long) ((ax1 >> shift) - (ax0 >> shift) + 1) *
+			(long) ((ay1 >> shift) - (ay0 >> shift) + 1) > START_TILE_LENGTH) {
+			detail--;
+			shift++;
+		}
+		final Ranges out = new Ranges(type);
+		int[] partX = new int[COVER_TILE_LENGTH];
+		int[] partY = new int[COVER_TILE_LENGTH];
+		int[] nextX = new int[COVER_TILE_LENGTH];
+		int[] nextY = new int[COVER_TILE_LENGTH];
+		// 境界に掛かるタイルの北端・南端の緯度.
+		double[] partN = new double[COVER_TILE_LENGTH];
+		double[] partS = new double[COVER_TILE_LENGTH];
+		double[] nextN = new double[COVER_TILE_LENGTH];
+		double[] nextS = new double[COVER_TILE_LENGTH];
+		int partLen = 0;
+		int x, y, i, j, n;
+		double north, south;
+		for (y = ay0 >> shift; y <= (ay1 >> shift); y++) {
+			north = GeoQuad.tileLat(detail, y);
+			south = GeoQuad.tileLat(detail, y + 1);
+			for (x = ax0 >> shift; x <= (ax1 >> shift); x++) {
+				switch (shape.test(north, south,
+					GeoQuad.tileLon(detail, x), GeoQuad.tileLon(detail, x + 1))) {
+				case INSIDE:
+					out.add(detail, x, y);
+					break;
+				case PARTIAL:
+					partX[partLen] = x;
+					partY[partLen] = y;
+					partN[partLen] = north;
+					partS[partLen++] = south;
+					break;
+				}
+			}
+		}
+		// 境界に掛かるタイルを細かいdetailに分割.
+		final double[] lat = new double[3];
+		final double[] lon = new double[3];
+		int[] tmp;
+		double[] tmpLat;
+		while (detail < GeoQuad.MAX_DETAIL && partLen > 0 &&
+			(partLen << 2) <= COVER_TILE_LENGTH) {
+			detail++;
+			n = 0;
+			for (i = 0; i < partLen; i++) {
+				// 分割した４タイルの境界.
+				// 外側の緯度は分割前のタイルと同じなので、中央のみ計算します.
+				x = partX[i] << 1;
+				y = partY[i] << 1;
+				lat[0] = partN[i];
+				lat[1] = GeoQuad.tileLat(detail, y + 1);
+				lat[2] = partS[i];
+				for (j = 0; j < 3; j++) {
+					lon[j] = GeoQuad.tileLon(detail, x + j);
+				}
+				for (j = 0; j < 4; j++) {
+					switch (shape.test(lat[j >> 1], lat[(j >> 1) + 1],
+						lon[j & 1], lon[(j & 1) + 1])) {
+					case INSIDE:
+						out.add(detail, x + (j & 1), y + (j >> 1));
+						break;
+					case PARTIAL:
+						nextX[n] = x + (j & 1);
+						nextY[n] = y + (j >> 1);
+						nextN[n] = lat[j >> 1];
+						nextS[n++] = lat[(j >> 1) + 1];
+						break;
+					}
+				}
+			}
+			tmp = partX; partX = nextX; nextX = tmp;
+			tmp = partY; partY = nextY; nextY = tmp;
+			tmpLat = partN; partN = nextN; nextN = tmpLat;
+			tmpLat = partS; partS = nextS; nextS = tmpLat;
+			partLen = n;
+		}
+		for (i = 0; i < partLen; i++) {
+			out.add(detail, partX[i], partY[i]);
+		}
+		return out.toArray();
+	}
+
+	// タイルと範囲の判定.
+	private static abstract class Shape {
+		/**
+		 * タイルと範囲の判定.
+		 * @param north タイルの北端の緯度を設定します.
+		 * @param south タイルの南端の緯度を設定します.
+		 * @param west タイルの西端の経度を設定します.
+		 * @param east タイルの東端の経度を設定します.
+		 * @return int OUTSIDE, PARTIAL, INSIDE のいずれかが返却されます.
+		 */
+		abstract int test(double north, double south, double west, double east);
+	}
+
+	// 半径の範囲.
+	private static final class Circle extends Shape {
+		private final int latM;
+		private final int lonM;
+		private final int distance;
+
+		Circle(double lat, double lon, int distance) {
+			this.latM = GeoFastLine.calcLat(lat);
+			this.lonM = GeoFastLine.calcLon(lon);
+			this.distance = distance;
+		}
+
+		@Override
+		int test(double north, double south, double west, double east) {
+			final int n = GeoFastLine.calcLat(north);
+			final int s = GeoFastLine.calcLat(south);
+			final int w = GeoFastLine.calcLon(west);
+			final int e = GeoFastLine.calcLon(east);
+			// タイル内で中心点に最も近い位置までの距離.
+			final int near = GeoFastLine.get(latM, lonM,
+				Math.max(s, Math.min(n, latM)), Math.max(w, Math.min(e, lonM)));
+			if (near > distance + PAD_METERS) {
+				return OUTSIDE;
+			}
+			// タイル内で中心点から最も遠い位置までの距離.
+			final int far = GeoFastLine.get(latM, lonM,
+				(latM - s > n - latM) ? s : n, (lonM - w > e - lonM) ? w : e);
+			return (far + PAD_METERS <= distance) ? INSIDE : PARTIAL;
+		}
+	}
+
+	// 矩形の範囲.
+	private static final class Box extends Shape {
+		private final double minLat;
+		private final double minLon;
+		private final double maxLat;
+		private final double maxLon;
+
+		Box(double minLat, double minLon, double maxLat, double maxLon) {
+			this.minLat = minLat;
+			this.minLon = minLon;
+			this.maxLat = maxLat;
+			this.maxLon = maxLon;
+		}
+
+		@Override
+		int test(double north, double south, double west, double east) {
+			if (east < minLon || west > maxLon ||
+				north < minLat || south > maxLat) {
+				return OUTSIDE;
+			} else if (west >= minLon && east <= maxLon &&
+				south >= minLat && north <= maxLat) {
+				return INSIDE;
+			}
+			return PARTIAL;
+		}
+	}
+
+	// 範囲検索用データの生成.
+	private static final class Ranges {
+		private final GeoCodeType type;
+		private final long[] code = new long[2];
+		private long[] mins = new long[COVER_TILE_LENGTH];
+		private long[] ends = new long[COVER_TILE_LENGTH];
+		private int length;
+
+		Ranges(GeoCodeType type) {
+			this.type = type;
+		}
+
+		// タイルの範囲を追加.
+		final void add(int detail, int x, int y) {
+			if (length == mins.length) {
+				mins = Arrays.copyOf(mins, length << 1);
+				ends = Arrays.copyOf(ends, length << 1);
+			}
+			type.tileCode(code, 0, detail, x, y);
+			mins[length] = code[0];
+			ends[length++] = code[1];
+		}
+
+		// 連続する範囲を結合して取得.
+		final long[] toArray() {
+			// タイルは重ならないので、最小値と最大値を別々にソートしても
+			// 同じ順番となる.
+			Arrays.sort(mins, 0, length);
+			Arrays.sort(ends, 0, length);
+			final long[] ret = new long[length << 1];
+			int n = 0;
+			for (int i = 0; i < length; i++) {
+				if (n > 0 && ret[n - 1] + 1L == mins[i]) {
+					ret[n - 1] = ends[i];
+				} else {
+					ret[n++] = mins[i];
+					ret[n++] = ends[i];
+				}
+			}
+			return n == ret.length ? ret : Arrays.copyOf(ret, n);
+		}
+	}
+}
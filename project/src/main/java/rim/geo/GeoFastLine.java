@@ -93,10 +93,11 @@ public final class GeoFastLine {
 	 */
 	public static final int get(final int ax, final int ay, final int bx, final int by) {
 		// 精度はあまり高めでないが、高速で近似値を計算できる.
-		final int dx, dy;
-		return ((dx = (ax > bx) ? ax - bx : bx - ax) < (dy = (ay > by) ? ay - by : by - ay)) ?
+		// 差分が約8,300kmを超えると int のシフト計算が桁あふれするので long で計算する.
+		final long dx, dy;
+		return (int)(((dx = (ax > bx) ? (long)ax - bx : (long)bx - ax) < (dy = (ay > by) ? (long)ay - by : (long)by - ay)) ?
 			(((dy << 8) + (dy << 3) - (dy << 4) - (dy << 1) + (dx << 7) - (dx << 5) + (dx << 3) - (dx << 1)) >> 8) :
-			(((dx << 8) + (dx << 3) - (dx << 4) - (dx << 1) + (dy << 7) - (dy << 5) + (dy << 3) - (dy << 1)) >> 8);
+			(((dx << 8) + (dx << 3) - (dx << 4) - (dx << 1) + (dy << 7) - (dy << 5) + (dy << 3) - (dy << 1)) >> 8));
 	}
 
 }
@@ -0,0 +1,135 @@
+package rim.geo;
+
+/**
+ * ヒルベルト曲線のキー.
+ *
+ * GeoQuadと同じメルカトル図法のタイル位置を、ヒルベルト曲線の順番で
+ * 数値化したキーです.
+ * QuadKey(Z順)はタイルの境界で順番が大きく飛ぶのに対して、
+ * ヒルベルト曲線は隣り合うキーが必ず隣接するタイルとなるので、
+ * 範囲検索で連続するキーの範囲が長くなります.
+ *
+ * また、detailが[23]のキーを (23 - detail) * 2 ビット右シフトすると、
+ * そのdetailのタイルのキーとなるので、１つのタイルは連続した
+ * キーの範囲で検索できます.
+ */
+public final class GeoHilbert {
+	protected GeoHilbert() {}
+
+	/** 最大detail値. **/
+	public static final int MAX_DETAIL = GeoQuad.MAX_DETAIL;
+
+	// 状態(bit0: x,yの入替, bit1: x,yの反転)とタイル位置のビット(x << 1 | y)
+	// 毎の、キーの2ビット(上位)と次の状態(下位2ビット).
+	private static final byte[] ENCODE = new byte[16];
+
+	// 状態とキーの2ビット毎の、タイル位置のビット(x << 1 | y)(上位)と
+	// 次の状態(下位2ビット).
+	private static final byte[] DECODE = new byte[16];
+
+	static {
+		int st, q, bx, by, t, code, next;
+		for (st = 0; st < 4; st++) {
+			for (q = 0; q < 4; q++) {
+				// 状態に合わせてタイル位置のビットを変換.
+				bx = q >> 1;
+				by = q & 1;
+				if ((st & 2) != 0) {
+					bx ^= 1;
+					by ^= 1;
+				}
+				if ((st & 1) != 0) {
+					t = bx;
+					bx = by;
+					by = t;
+				}
+				// キーの2ビットと、象限に合わせた回転を加えた次の状態.
+				code = (3 * bx) ^ by;
+				next = st ^ (by == 1 ? 0 : (bx == 0 ? 1 : 3));
+				ENCODE[(st << 2) | q] = (byte) ((code << 2) | next);
+				DECODE[(st << 2) | code] = (byte) ((q << 2) | next);
+			}
+		}
+	}
+
+	/** タイル位置からヒルベルト曲線のキーを生成. **/
+	private static final long encode(final int detail, final int x,
+		final int y) {
+		long ret = 0L;
+		int st = 0, v;
+		for (int i = detail - 1; i >= 0; i--) {
+			v = ENCODE[(st << 2) | (((x >>> i) & 1) << 1) | ((y >>> i) & 1)];
+			ret = (ret << 2L) | (long) (v >>> 2);
+			st = v & 3;
+		}
+		return ret;
+	}
+
+	/** ヒルベルト曲線のキーからタイル位置を取得. **/
+	private static final void decode(final int[] out, final int detail,
+		final long key) {
+		int x = 0, y = 0;
+		int st = 0, v;
+		for (int i = detail - 1; i >= 0; i--) {
+			v = DECODE[(st << 2) | (int) ((key >>> (long) (i << 1)) & 3L)];
+			x = (x << 1) | (v >>> 3);
+			y = (y << 1) | ((v >>> 2) & 1);
+			st = v & 3;
+		}
+		out[0] = x;
+		out[1] = y;
+	}
+
+	/**
+	 * ヒルベルト曲線のキーを生成.
+	 *
+	 * @param lat 緯度を設定します.
+	 * @param lon 経度を設定します.
+	 * @return long キーが返却されます.
+	 */
+	public static final long create(final double lat, final double lon) {
+		final long key = GeoQuad.create(lat, lon);
+		return encode(MAX_DETAIL, GeoQuad.tileX(key), GeoQuad.tileY(key));
+	}
+
+	/**
+	 * キーから横方向(経度)のタイル位置を取得.
+	 *
+	 * @param key [create(lat, lon)]で生成したキーを設定します.
+	 * @return int detailが[23](最大値)でのタイル位置が返却されます.
+	 */
+	public static final int tileX(final long key) {
+		final int[] xy = new int[2];
+		decode(xy, MAX_DETAIL, key);
+		return xy[0];
+	}
+
+	/**
+	 * キーから縦方向(緯度)のタイル位置を取得.
+	 *
+	 * @param key [create(lat, lon)]で生成したキーを設定します.
+	 * @return int detailが[23](最大値)でのタイル位置が返却されます.
+	 */
+	public static final int tileY(final long key) {
+		final int[] xy = new int[2];
+		decode(xy, MAX_DETAIL, key);
+		return xy[1];
+	}
+
+	/**
+	 * タイル位置の範囲検索用データの作成.
+	 *
+	 * @param out 範囲検索用のキーを格納する条件を設定します.
+	 *            [no]最小値. [no+1]最大値 が格納されます.
+	 * @param no 格納する位置を設定します.
+	 * @param detail 拡大率を設定します. この値は[1]～[23]の範囲で設定します.
+	 * @param x 横方向のタイル位置を設定します.
+	 * @param y 縦方向のタイル位置を設定します.
+	 */
+	public static final void tileCode(final long[] out, final int no,
+		final int detail, final int x, final int y) {
+		final long shift = (long) ((MAX_DETAIL - detail) << 1);
+		out[no] = encode(detail, x, y) << shift;
+		out[no + 1] = out[no] | ((1L << shift) - 1L);
+	}
+}
@@ -103,4 +103,38 @@ public final class GeoLine {
 		return _getLatLonLine(srcLat, srcLon, destLat, destLon, _A[type], _E2[type], _MNUM[type]);
 	}
 
+	/**
+	 * 緯度の差のみから、[get]で求められる直線距離（メートル）の下限を求める.
+	 * 経度に関係なく、緯度が指定の差以上離れた対象までの距離はこの値以上となります.
+	 *
+	 * @param lat
+	 *            緯度の差を設定します.
+	 * @return double 距離の下限が返却されます.
+	 */
+	public static double getLatLowerBound(final double lat) {
+		// 子午線曲率半径は mnum 以上となる.
+		return Math.abs(lat) * PI_180 * GRS80_MNUM;
+	}
+
+	/**
+	 * 経度の差のみから、[get]で求められる直線距離（メートル）の下限を求める.
+	 * 経度が指定の差以上離れていて、距離が[redius]以下となる対象までの距離は
+	 * この値以上となります. そのため、この値が[redius]より大きい場合は、
+	 * 経度が指定の差以上離れた対象は全て[redius]より遠い事を示します.
+	 *
+	 * @param srcLat
+	 *            元の緯度を設定します.
+	 * @param lon
+	 *            経度の差を設定します.
+	 * @param redius
+	 *            対象までの距離の上限（メートル）を設定します.
+	 * @return double 距離の下限が返却されます.
+	 */
+	public static double getLonLowerBound(final double srcLat, final double lon, final double redius) {
+		// 距離が redius 以下の対象の緯度の差は redius / mnum 以下となるので、
+		// 平均緯度の絶対値の上限を求めて、卯酉線曲率半径(a 以上)と合わせて計算.
+		final double my = Math.min(90.0, Math.abs(srcLat) + (redius / GRS80_MNUM) / PI_180 / 2.0);
+		return Math.abs(lon) * PI_180 * GRS80_A * Math.cos(my * PI_180);
+	}
+
 }
@@ -1,5 +1,7 @@
 package rim.geo;
 
+import java.util.Arrays;
+
 /**
  * QuadKey.
  *
@@ -241,6 +243,79 @@ public final class GeoQuad {
 			(long)((MAX_DETAIL - detail) << 1)) - 1L));
 	}
 	
+	// QuadKeyの偶数ビットを詰めて取得.
+	private static final int compact(long v) {
+		v &= 0x5555555555555555L;
+		v = (v | (v >>> 1)) & 0x3333333333333333L;
+		v = (v | (v >>> 2)) & 0x0f0f0f0f0f0f0f0fL;
+		v = (v | (v >>> 4)) & 0x00ff00ff00ff00ffL;
+		v = (v | (v >>> 8)) & 0x0000ffff0000ffffL;
+		v = (v | (v >>> 16)) & 0x00000000ffffffffL;
+		return (int) v;
+	}
+
+	/**
+	 * QuadKeyから横方向(経度)のタイル位置を取得.
+	 *
+	 * @param key [create(lat, lon)]で生成したキーを設定します.
+	 * @return int detailが[23](最大値)でのタイル位置が返却されます.
+	 *             任意のdetailのタイル位置は (23 - detail) ビット右シフトで求めます.
+	 */
+	public static final int tileX(final long key) {
+		return compact(key);
+	}
+
+	/**
+	 * QuadKeyから縦方向(緯度)のタイル位置を取得.
+	 *
+	 * @param key [create(lat, lon)]で生成したキーを設定します.
+	 * @return int detailが[23](最大値)でのタイル位置が返却されます.
+	 *             任意のdetailのタイル位置は (23 - detail) ビット右シフトで求めます.
+	 */
+	public static final int tileY(final long key) {
+		return compact(key >>> 1L);
+	}
+
+	/**
+	 * タイル位置の西端の経度を取得.
+	 *
+	 * @param detail 拡大率を設定します.
+	 *               この値は[1]～[23]の範囲で設定します.
+	 * @param x 横方向のタイル位置を設定します.
+	 * @return double 経度が返却されます.
+	 */
+	public static final double tileLon(final int detail, final int x) {
+		return ((double) x / (double) (1L << (long) detail)) * 360d - 180d;
+	}
+
+	/**
+	 * タイル位置の北端の緯度を取得.
+	 *
+	 * @param detail 拡大率を設定します.
+	 *               この値は[1]～[23]の範囲で設定します.
+	 * @param y 縦方向のタイル位置を設定します.
+	 * @return double 緯度が返却されます.
+	 */
+	public static final double tileLat(final int detail, final int y) {
+		final double yy = 0.5d - ((double) y / (double) (1L << (long) detail));
+		return 90d - 360d * Math.atan(Math.exp(-yy * 2d * PI)) / PI;
+	}
+
+	/**
+	 * タイル位置の範囲検索用データの作成.
+	 *
+	 * @param out 範囲検索用QuadKeyを格納する条件を設定します.
+	 *            [no]最小値. [no+1]最大値 が格納されます.
+	 * @param no 格納する位置を設定します.
+	 * @param detail 拡大率を設定します. この値は[1]～[23]の範囲で設定します.
+	 * @param x 横方向のタイル位置を設定します.
+	 * @param y 縦方向のタイル位置を設定します.
+	 */
+	public static final void tileCode(final long[] out, final int no,
+		final int detail, final int x, final int y) {
+		createSearchData(out, no, detail, x, y);
+	}
+
 	/**
 	 * 範囲検索用QuadKeyの範囲を格納する配列長
 	 * (奇数: 最小値, 偶数: 最大値 の 9条件 合計18個).
@@ -338,4 +413,68 @@ public final class GeoQuad {
 		searchCode(ret, detail, lat, lon);
 		return ret;
 	}
+
+	/**
+	 * 矩形検索用QuadKeyの範囲で利用する最大タイル数.
+	 */
+	public static final int BOX_TILE_LENGTH = 64;
+
+	/** メルカトル図法で扱える最大緯度. **/
+	protected static final double MAX_LAT = 85.05112878d;
+
+	/**
+	 * 矩形検索用データの作成.
+	 * 矩形を覆うタイル数が[BOX_TILE_LENGTH]以下となる最も細かいdetailの
+	 * タイル群で範囲検索用QuadKeyを生成して、連続する範囲は結合します.
+	 *
+	 * @param minLat 南端の緯度を設定します.
+	 * @param minLon 西端の経度を設定します.
+	 * @param maxLat 北端の緯度を設定します.
+	 * @param maxLon 東端の経度を設定します.
+	 * @return long[] 範囲検索のQuadKeyが返却されます. [n]最小値.
+	 *                [n+1]最大値 ... の順で、最小値の昇順で格納されます.
+	 */
+	public static final long[] boxCode(final double minLat, final double minLon,
+		final double maxLat, final double maxLon) {
+		// 北西と南東のタイル位置.
+		final long nw = create(Math.min(MAX_LAT, maxLat), minLon);
+		final long se = create(Math.max(-MAX_LAT, minLat), maxLon);
+		final int ax0 = tileX(nw), ay0 = tileY(nw);
+		final int ax1 = tileX(se), ay1 = tileY(se);
+		// タイル数が範囲内となるdetailを取得.
+		int detail = MAX_DETAIL;
+		int shift = 0;
+		while (detail > 1 && (long) ((ax1 >> shift) - (ax0 >> shift) + 1) *
+			(long) ((ay1 >> shift) - (ay0 >> shift) + 1) > BOX_TILE_LENGTH) {
+			detail--;
+			shift++;
+		}
+		final int x0 = ax0 >> shift, y0 = ay0 >> shift;
+		final int x1 = ax1 >> shift, y1 = ay1 >> shift;
+		// 各タイルの最小値をソート.
+		final long[] tiles = new long[SEARCH_QUAD_KEY_LENGTH];
+		final long[] mins = new long[(x1 - x0 + 1) * (y1 - y0 + 1)];
+		int len = 0;
+		for (int y = y0; y <= y1; y++) {
+			for (int x = x0; x <= x1; x++) {
+				createSearchData(tiles, 0, detail, x, y);
+				mins[len++] = tiles[0];
+			}
+		}
+		Arrays.sort(mins, 0, len);
+		// 連続する範囲を結合.
+		final long[] ret = new long[len << 1];
+		int n = 0;
+		long end;
+		for (int i = 0; i < len; i++) {
+			end = endKey(detail, mins[i]);
+			if (n > 0 && ret[n - 1] + 1L == mins[i]) {
+				ret[n - 1] = end;
+			} else {
+				ret[n++] = mins[i];
+				ret[n++] = end;
+			}
+		}
+		return n == ret.length ? ret : Arrays.copyOf(ret, n);
+	}
 }
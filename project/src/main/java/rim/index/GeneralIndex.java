@@ -1,19 +1,24 @@
 package rim.index;
 
+import java.nio.IntBuffer;
 import java.util.Arrays;
 import java.util.NoSuchElementException;
 
 import rim.RimBody;
 import rim.RimResult;
 import rim.RimRow;
+import rim.core.ColumnData;
 import rim.core.ColumnType;
-import rim.core.LargeFlags;
-import rim.core.SearchUtil;
+import rim.core.RoaringFlags;
 import rim.exception.RimException;
 import rim.util.ObjectList;
 
 /**
  * 一般的なインデックス.
+ *
+ * fix後のインデックス情報は要素毎のオブジェクトを持たずに、
+ * ソート済みのキー群(列型のプリミティブ配列、文字列はUTF8とオフセット)と
+ * キー毎の行番号開始位置(キー数+1)、連続した行番号群で管理します.
  */
 @SuppressWarnings({"unchecked", "rawtypes"})
 public class GeneralIndex {
@@ -23,16 +28,22 @@ public class GeneralIndex {
 	private int columnNo;
 	// インデックスの列型.
 	private ColumnType columnType;
-	// インデックス内の行を管理するバイト数.
-	private int indexByte;
-	// インデックス情報.
-	private ObjectList<RimIndexElement> index = new ObjectList<RimIndexElement>();
+	// 追加中のキー群.
+	private ObjectList<Comparable> keys = new ObjectList<Comparable>();
+	// 追加中のキー毎の行番号開始位置.
+	private int[] rowOffsets = new int[64];
+	// 追加中の行番号群.
+	private int[] rowIds;
 	// fixしたインデックス情報.
-	RimIndexElement[] fixIndex = null;
+	IndexElements fixIndex = null;
 	// インデックス総数.
 	private int indexSize = 0;
 	// 登録予定のインデックス総行数.
 	private int planIndexSize;
+	// 辞書化された列の場合の列情報.
+	private ColumnData.DictionaryColumn dictColumn = null;
+	// 辞書番号毎のインデックス位置.
+	private int[] dictPositions = null;
 	
 	/**
 	 * コンストラクタ.
@@ -44,9 +55,8 @@ public class GeneralIndex {
 		this.body = body;
 		this.columnNo = columnNo;
 		this.columnType = body.getColumnType(columnNo);
-		this.indexByte = RimIndexUtil.getRowByteLength(
-			body.getRowLength());
 		this.planIndexSize = planIndexSize;
+		this.rowIds = new int[Math.max(0, planIndexSize)];
 	}
 
 	/**
@@ -58,9 +68,19 @@ public class GeneralIndex {
 	 */
 	public int add(Comparable value, int[] rowIds, int len) {
 		checkFixToError();
-		final RimIndexElement em = RimIndexUtil.createRimIndexElement(
-			indexByte, columnType, value, rowIds, len);
-		index.add(em);
+		final int no = keys.size();
+		// キー毎の行番号開始位置を設定.
+		if(rowOffsets.length <= no + 1) {
+			rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length << 1);
+		}
+		rowOffsets[no] = indexSize;
+		// 行番号群を追加.
+		if(this.rowIds.length < indexSize + len) {
+			this.rowIds = Arrays.copyOf(this.rowIds, Math.max(
+				indexSize + len, this.rowIds.length + (this.rowIds.length >> 1)));
+		}
+		System.arraycopy(rowIds, 0, this.rowIds, indexSize, len);
+		keys.add(value);
 		indexSize += len;
 		return indexSize;
 	}
@@ -69,15 +89,94 @@ public class GeneralIndex {
 	 * 追加処理が完了した場合に呼び出します.
 	 */
 	public void fix() {
-		if(index == null) {
+		if(keys == null) {
 			return;
 		} else if(planIndexSize != indexSize) {
 			throw new RimException(
 				"It does not match the expected number of index rows(" +
 				planIndexSize + "/" + indexSize + ")");
 		}
-		fixIndex = index.toArray(RimIndexElement.class);
-		index = null;
+		final int keyLen = keys.size();
+		rowOffsets[keyLen] = indexSize;
+		// 対象列が辞書化されている場合は辞書番号をキーとする.
+		final ColumnData keyData;
+		final ColumnData column = body.getColumnData(columnNo);
+		if(column instanceof ColumnData.DictionaryColumn) {
+			keyData = fixDictionary((ColumnData.DictionaryColumn)column, keyLen);
+		} else {
+			keyData = ColumnData.create(columnType, keys.rawArray(), keyLen);
+		}
+		// 行番号群はビットパックした方が小さくなる場合はビットパックする.
+		final IndexElements.RowIds packed = RimIndexUtil.PackedRowIds.create(
+			4, rowIds, 0, indexSize);
+		fixIndex = new IndexElements.FlatElements(columnType, keyData,
+			IntBuffer.wrap(Arrays.copyOf(rowOffsets, keyLen + 1)),
+			packed != null ? packed : new IndexElements.BufferRowIds(
+				IntBuffer.wrap(rowIds, 0, indexSize).slice()));
+		keys = null;
+		rowOffsets = null;
+		rowIds = null;
+	}
+	
+	// 辞書化された列の辞書番号とインデックス位置を紐付けて、
+	// 辞書番号をキーとしたキー群を取得.
+	// キーの文字列は辞書と同一のインスタンスが利用されます.
+	private final ColumnData fixDictionary(
+		ColumnData.DictionaryColumn column, int keyLen) {
+		int code;
+		final int[] positions = new int[column.getDictionarySize()];
+		final char[] codes = new char[keyLen];
+		Arrays.fill(positions, -1);
+		for(int i = 0; i < keyLen; i ++) {
+			code = column.indexOf((String)keys.get(i));
+			if(code < 0) {
+				throw new RimException("The index key \"" + keys.get(i) +
+					"\" does not exist in the dictionary.");
+			}
+			positions[code] = i;
+			codes[i] = (char)code;
+		}
+		this.dictColumn = column;
+		this.dictPositions = positions;
+		return column.create(codes);
+	}
+	
+	// 一致するインデックス位置を取得.
+	// 辞書化された列の場合はバイナリサーチを辞書で行います.
+	private final int indexEq(Comparable value) {
+		if(dictPositions == null) {
+			return fixIndex.indexEq(value);
+		} else if(value == null) {
+			return -1;
+		}
+		final int code = dictColumn.indexOf((String)value);
+		return code >= 0 ? dictPositions[code] : -1;
+	}
+	
+	/**
+	 * フラットなバッファでインデックス情報を設定してfixします.
+	 * mmapでロードする場合に利用します.
+	 * @param keys ソート済みのキー群を設定します.
+	 * @param rowOffsets キー毎の行番号開始位置(キー数+1)を設定します.
+	 * @param rowIds 行番号群を設定します.
+	 */
+	public void fix(ColumnData keys, IntBuffer rowOffsets, IntBuffer rowIds) {
+		checkFixToError();
+		if(keys.getColumnType() != columnType) {
+			throw new RimException("The index key type(" +
+				keys.getColumnType() + ") does not match: " + columnType);
+		}
+		indexSize = rowIds.limit();
+		if(planIndexSize != indexSize) {
+			throw new RimException(
+				"It does not match the expected number of index rows(" +
+				planIndexSize + "/" + indexSize + ")");
+		}
+		fixIndex = new IndexElements.FlatElements(
+			columnType, keys, rowOffsets, rowIds);
+		this.keys = null;
+		this.rowOffsets = null;
+		this.rowIds = null;
 	}
 
 	/**
@@ -85,7 +184,7 @@ public class GeneralIndex {
 	 * @return boolean trueの場合Fixしています.
 	 */
 	public boolean isFix() {
-		return index == null;
+		return keys == null;
 	}
 
 	/**
@@ -146,8 +245,7 @@ public class GeneralIndex {
 	public RimIndexElement getElement(Object value) {
 		checkNoFixToError();
 		return getElementByNo(
-			SearchUtil.indexEq(fixIndex,
-				(Comparable)columnType.convert(value)));
+			indexEq((Comparable)columnType.convert(value)));
 	}
 	
 	/**
@@ -157,8 +255,18 @@ public class GeneralIndex {
 	 */
 	public final RimIndexElement getElementByNo(int indexPos) {
 		checkNoFixToError();
-		if(indexPos >= 0 && indexPos < fixIndex.length) {
-			return fixIndex[indexPos];
+		if(indexPos >= 0 && indexPos < fixIndex.size()) {
+			return fixIndex.get(indexPos);
+		}
+		return null;
+	}
+	
+	// 番号を指定してRimIndexElementを取得.
+	// reuse が設定されている場合は、可能であれば再利用して返却します.
+	private final RimIndexElement getElementByNo(
+		int indexPos, RimIndexElement reuse) {
+		if(indexPos >= 0 && indexPos < fixIndex.size()) {
+			return fixIndex.get(indexPos, reuse);
 		}
 		return null;
 	}
@@ -173,16 +281,16 @@ public class GeneralIndex {
 	public RimResult eq(boolean ascFlag, boolean notEq, Object value) {
 		checkNoFixToError();
 		value = columnType.convert(value);
-		final int pos = SearchUtil.indexEq(fixIndex, (Comparable)value);
+		final int pos = indexEq((Comparable)value);
 		// not条件での検索.
 		if(notEq) {
 			if(ascFlag) {
-				// 0 から posを除く fixIndex.length - 1 まで.
+				// 0 から posを除く fixIndex.size() - 1 まで.
 				return new ResultSearchIndexNot(ascFlag, this, 0, pos ,pos);
 			}
-			// fixIndex.length - 1 からposを除く 0 まで.
+			// fixIndex.size() - 1 からposを除く 0 まで.
 			return new ResultSearchIndexNot(
-				ascFlag, this, fixIndex.length - 1, pos ,pos);
+				ascFlag, this, fixIndex.size() - 1, pos ,pos);
 		}
 		// 通常検索.
 		// posのみ.
@@ -199,25 +307,25 @@ public class GeneralIndex {
 	public RimResult gt(boolean ascFlag, boolean notEq, Object value) {
 		checkNoFixToError();
 		value = columnType.convert(value);
-		final int pos = SearchUtil.indexGT(fixIndex, (Comparable)value);
+		final int pos = fixIndex.indexGT((Comparable)value);
 		// not条件での検索.
 		if(notEq) {
 			if(ascFlag) {
 				// 0 から pos まで.
 				return new ResultSearchIndexNot(
-					ascFlag, this, 0, pos, fixIndex.length - 1);
+					ascFlag, this, 0, pos, fixIndex.size() - 1);
 			}
 			// pos から 0 まで.
 			return new ResultSearchIndexNot(ascFlag, this, pos, pos, pos);
 		}
 		// 通常検索.
 		if(ascFlag) {
-			// pos から fixIndex.length - 1 まで.
+			// pos から fixIndex.size() - 1 まで.
 			return new ResultSearchIndex(true, ascFlag, this, pos, NOT_END);
 		}
-		// fixIndex.length - 1 から pos まで.
+		// fixIndex.size() - 1 から pos まで.
 		return new ResultSearchIndex(
-			true, ascFlag, this, fixIndex.length - 1, new RowIdResultEnd(pos));
+			true, ascFlag, this, fixIndex.size() - 1, new RowIdResultEnd(pos));
 	}
 	
 	/**
@@ -230,25 +338,25 @@ public class GeneralIndex {
 	public RimResult ge(boolean ascFlag, boolean notEq, Object value) {
 		checkNoFixToError();
 		value = columnType.convert(value);
-		final int pos = SearchUtil.indexGE(fixIndex, (Comparable)value);
+		final int pos = fixIndex.indexGE((Comparable)value);
 		// not条件での検索.
 		if(notEq) {
 			if(ascFlag) {
 				// 0 から pos まで.
 				return new ResultSearchIndexNot(
-					ascFlag, this, 0, pos, fixIndex.length - 1);
+					ascFlag, this, 0, pos, fixIndex.size() - 1);
 			}
 			// pos から 0 まで.
 			return new ResultSearchIndexNot(ascFlag, this, pos, pos, pos);
 		}
 		// 通常検索.
 		if(ascFlag) {
-			// pos から fixIndex.length - 1 まで.
+			// pos から fixIndex.size() - 1 まで.
 			return new ResultSearchIndex(true, ascFlag, this, pos, NOT_END);
 		}
-		// fixIndex.length から pos まで.
+		// fixIndex.size() から pos まで.
 		return new ResultSearchIndex(
-			true, ascFlag, this, fixIndex.length - 1, new RowIdResultEnd(pos));
+			true, ascFlag, this, fixIndex.size() - 1, new RowIdResultEnd(pos));
 	}
 	
 	/**
@@ -261,22 +369,22 @@ public class GeneralIndex {
 	public RimResult lt(boolean ascFlag, boolean notEq, Object value) {
 		checkNoFixToError();
 		value = columnType.convert(value);
-		final int pos = SearchUtil.indexLT(fixIndex, (Comparable)value);
+		final int pos = fixIndex.indexLT((Comparable)value);
 		// not条件での検索.
 		if(notEq) {
 			if(ascFlag) {
-				// pos から fixIndex.length - 1 まで.
+				// pos から fixIndex.size() - 1 まで.
 				return new ResultSearchIndexNot(ascFlag, this, pos, pos, pos);
 			}
-			// fixIndex.length - 1 から pos まで.
-			return new ResultSearchIndexNot(ascFlag, this, fixIndex.length - 1, pos, 0);
+			// fixIndex.size() - 1 から pos まで.
+			return new ResultSearchIndexNot(ascFlag, this, fixIndex.size() - 1, pos, 0);
 		}
 		// 通常検索.
 		if(ascFlag) {
 			// 0 から pos まで.
 			return new ResultSearchIndex(true, ascFlag, this, 0, new RowIdResultEnd(pos));
 		} else {
-			// pos から fixIndex.length - 1 まで.
+			// pos から fixIndex.size() - 1 まで.
 			return new ResultSearchIndex(true, ascFlag, this, pos, NOT_END);
 		}
 	}
@@ -291,22 +399,22 @@ public class GeneralIndex {
 	public RimResult le(boolean ascFlag, boolean notEq, Object value) {
 		checkNoFixToError();
 		value = columnType.convert(value);
-		final int pos = SearchUtil.indexLE(fixIndex, (Comparable)value);
+		final int pos = fixIndex.indexLE((Comparable)value);
 		// not条件での検索.
 		if(notEq) {
 			if(ascFlag) {
-				// pos から fixIndex.length - 1 まで.
+				// pos から fixIndex.size() - 1 まで.
 				return new ResultSearchIndexNot(ascFlag, this, pos, pos, pos);
 			}
-			// fixIndex.length - 1 から pos まで.
-			return new ResultSearchIndexNot(ascFlag, this, fixIndex.length - 1, pos, 0);
+			// fixIndex.size() - 1 から pos まで.
+			return new ResultSearchIndexNot(ascFlag, this, fixIndex.size() - 1, pos, 0);
 		}
 		// 通常検索.
 		if(ascFlag) {
 			// 0 から pos まで.
 			return new ResultSearchIndex(true, ascFlag, this, 0, new RowIdResultEnd(pos));
 		} else {
-			// pos から fixIndex.length - 1 まで.
+			// pos から fixIndex.size() - 1 まで.
 			return new ResultSearchIndex(true, ascFlag, this, pos, NOT_END);
 		}
 	}
@@ -337,15 +445,15 @@ public class GeneralIndex {
 				end = t;
 			}
 			// 大なり[>=]検索.
-			pos = SearchUtil.indexGE(fixIndex, start);
+			pos = fixIndex.indexGE(start);
 			// 小なり[<=]検索.
-			endPos= SearchUtil.indexLE(fixIndex, end);
+			endPos= fixIndex.indexLE(end);
 			if(!notEq) {
 				// pos から posEndまで.
 				return new ResultSearchIndex(
 					true, ascFlag, this, pos, new RowIdResultEnd(endPos));
 			} else {
-				// 0 から pos -> endPos を飛ばして fixIndex.length - 1 まで.
+				// 0 から pos -> endPos を飛ばして fixIndex.size() - 1 まで.
 				return new ResultSearchIndexNot(
 					ascFlag, this, 0, pos, endPos);
 			}
@@ -358,17 +466,17 @@ public class GeneralIndex {
 				end = t;
 			}
 			// 小なり[<=]検索.
-			pos = SearchUtil.indexLE(fixIndex, start);
+			pos = fixIndex.indexLE(start);
 			// 大なり[>=]検索.
-			endPos = SearchUtil.indexGE(fixIndex, end);
+			endPos = fixIndex.indexGE(end);
 			if(!notEq) {
 				// pos から posEndまで.
 				return new ResultSearchIndex(
 					true, ascFlag, this, pos, new RowIdResultEnd(endPos));
 			} else {
-				// fixIndex.length - 1 から pos -> endPos 飛ばして 0 まで.
+				// fixIndex.size() - 1 から pos -> endPos 飛ばして 0 まで.
 				return new ResultSearchIndexNot(
-					ascFlag, this, fixIndex.length - 1, pos, endPos);
+					ascFlag, this, fixIndex.size() - 1, pos, endPos);
 			}
 		}
 	}
@@ -394,10 +502,9 @@ public class GeneralIndex {
 		 * この条件が終端かチェック.
 		 * @param ascFlag 昇順の場合は true.
 		 * @param nowRowId 現在の行番号が設定されます.
-		 * @param nowValue 現在の要素が設定されます.
 		 * @return boolean trueの場合は終端です.
 		 */
-		public boolean isEnd(boolean ascFlag, int nowRowId, Comparable nowValue);
+		public boolean isEnd(boolean ascFlag, int nowRowId);
 	}
 	
 	// 終端なしの設定を行う場合に利用.
@@ -408,7 +515,7 @@ public class GeneralIndex {
 	 */
 	private static final class NotResultEnd implements ResultEnd {
 		@Override
-		public boolean isEnd(boolean ascFlag, int nowRowId, Comparable nowValue) {
+		public boolean isEnd(boolean ascFlag, int nowRowId) {
 			return false;
 		}
 	}
@@ -429,16 +536,36 @@ public class GeneralIndex {
 		}
 		
 		@Override
-		public boolean isEnd(boolean ascFlag, int nowRowId, Comparable nowValue) {
+		public boolean isEnd(boolean ascFlag, int nowRowId) {
 			return (ascFlag && nowRowId > endRowId) ||
 				(!ascFlag && nowRowId < endRowId);	
 		}
 	}
 	
 	
+	/**
+	 * 取得中のIndex要素から行番号群をバッファに取得.
+	 * @param element 取得中のIndex要素を設定します.
+	 * @param elementPos 取得中Indexの行取得ポジションを設定します.
+	 * @param ascFlag 昇順で情報取得する場合は true.
+	 * @param buf 行番号を格納するバッファを設定します.
+	 * @param off バッファの格納開始位置を設定します.
+	 * @param len 最大取得件数を設定します.
+	 * @return int 取得件数が返却されます.
+	 */
+	private static final int fillElement(RimIndexElement element,
+		int elementPos, boolean ascFlag, int[] buf, int off, int len) {
+		final int ret = Math.min(len, ascFlag ?
+			element.getLineLength() - elementPos : elementPos + 1);
+		element.getLineNos(elementPos, ascFlag, buf, off, ret);
+		return ret;
+	}
+	
 	// 標準インデックス検索結果情報.
 	private static final class ResultSearchIndex
 		implements RimResult {
+		// 行情報(この検索結果専用).
+		private RimRow row;
 		
 		// 次の情報が取得可能な場合 true.
 		private boolean nextFlag;
@@ -459,7 +586,7 @@ public class GeneralIndex {
 		private ResultEnd resultEnd;
 		
 		// 今回取得情報.
-		private Comparable nowValue;
+		private int nowIndexPos;
 		private int nowLineNo;
 		
 		/**
@@ -474,7 +601,7 @@ public class GeneralIndex {
 			GeneralIndex rimIndex, int indexPos, ResultEnd resultEnd) {
 			// posが範囲外の場合はnullが返却される.
 			int elementPos = -1;
-			final RimIndexElement element = rimIndex.getElementByNo(indexPos);
+			final RimIndexElement element = rimIndex.getElementByNo(indexPos, null);
 			// nullでない場合は、要素の開始位置をセット.
 			if(element != null) {
 				elementPos = ascFlag ? 0 : element.getLineLength() - 1;
@@ -512,7 +639,7 @@ public class GeneralIndex {
 				if(ascFlag) {
 					
 					// 次のIndex要素を取得.
-					if((element = rimIndex.getElementByNo(++ indexPos)) == null) {
+					if((element = rimIndex.getElementByNo(++ indexPos, element)) == null) {
 						// 情報が存在しない場合処理終了.
 						nextFlag = false;
 						element = null;
@@ -520,7 +647,7 @@ public class GeneralIndex {
 					}
 					
 					// 終了条件にマッチする場合.
-					if(resultEnd.isEnd(ascFlag, indexPos, element.getValue())) {
+					if(resultEnd.isEnd(ascFlag, indexPos)) {
 						// 処理終了.
 						nextFlag = false;
 						element = null;
@@ -533,7 +660,7 @@ public class GeneralIndex {
 				} else {
 					
 					// 前のIndex要素を取得.
-					if((element = rimIndex.getElementByNo(-- indexPos)) == null) {
+					if((element = rimIndex.getElementByNo(-- indexPos, element)) == null) {
 						// 情報が存在しない場合処理終了.
 						nextFlag = false;
 						element = null;
@@ -541,7 +668,7 @@ public class GeneralIndex {
 					}
 					
 					// 終了条件にマッチする場合.
-					if(resultEnd.isEnd(ascFlag, indexPos, element.getValue())) {
+					if(resultEnd.isEnd(ascFlag, indexPos)) {
 						// 処理終了.
 						nextFlag = false;
 						element = null;
@@ -560,12 +687,12 @@ public class GeneralIndex {
 		}
 
 		@Override
-		public Integer next() {
+		public int nextRowId() {
 			if(!getNextElement()) {
-				throw new NoSuchElementException();
+				return -1;
 			}
 			// 今回分のデータを取得.
-			nowValue = element.getValue();
+			nowIndexPos = indexPos;
 			nowLineNo = element.getLineNo(elementPos);
 			elementPos = ascFlag ?
 				elementPos + 1 :
@@ -573,10 +700,30 @@ public class GeneralIndex {
 			return nowLineNo;
 		}
 		
+		@Override
+		public int fill(int[] buf, int off, int len) {
+			int n;
+			int ret = 0;
+			while(ret < len && getNextElement()) {
+				n = fillElement(element, elementPos, ascFlag,
+					buf, off + ret, len - ret);
+				elementPos = ascFlag ?
+					elementPos + n :
+					elementPos - n;
+				ret += n;
+				// 今回分のデータを取得.
+				nowIndexPos = indexPos;
+				nowLineNo = buf[off + ret - 1];
+			}
+			return ret;
+		}
+		
 		@Override
 		public RimRow nextRow() {
-			next();
-			return rimIndex.body.getRow(nowLineNo);
+			if(nextRowId() == -1) {
+				throw new NoSuchElementException();
+			}
+			return row = rimIndex.body.getRow(row, nowLineNo);
 		}
 		
 		@Override
@@ -584,7 +731,7 @@ public class GeneralIndex {
 			if(element == null) {
 				throw new NoSuchElementException();
 			}
-			return nowValue;
+			return rimIndex.fixIndex.getValue(nowIndexPos);
 		}
 		
 		@Override
@@ -599,6 +746,8 @@ public class GeneralIndex {
 	// [NOT]インデックス検索結果.
 	private static final class ResultSearchIndexNot
 		implements RimResult {
+		// 行情報(この検索結果専用).
+		private RimRow row;
 		
 		// このインデックス管理情報.
 		private GeneralIndex rimIndex;
@@ -614,7 +763,7 @@ public class GeneralIndex {
 		private boolean ascFlag;
 		
 		// 今回取得情報.
-		private Comparable nowValue;
+		private int nowIndexPos;
 		private int nowLineNo;
 
 		// 除外開始ポジション.
@@ -650,7 +799,7 @@ public class GeneralIndex {
 			
 			// posが範囲外の場合はnullが返却される.
 			int elementPos = -1;
-			final RimIndexElement element = rimIndex.getElementByNo(indexPos);
+			final RimIndexElement element = rimIndex.getElementByNo(indexPos, null);
 			// nullでない場合は、要素の開始位置をセット.
 			if(element != null) {
 				elementPos = ascFlag ? 0 : element.getLineLength() - 1;
@@ -687,7 +836,7 @@ public class GeneralIndex {
 					}
 					
 					// 次のIndex要素を取得.
-					if((element = rimIndex.getElementByNo(++ indexPos)) == null) {
+					if((element = rimIndex.getElementByNo(++ indexPos, element)) == null) {
 						// 情報が存在しない場合処理終了.
 						element = null;
 						return false;
@@ -706,7 +855,7 @@ public class GeneralIndex {
 					}
 					
 					// 前のIndex要素を取得.
-					if((element = rimIndex.getElementByNo(-- indexPos)) == null) {
+					if((element = rimIndex.getElementByNo(-- indexPos, element)) == null) {
 						// 情報が存在しない場合処理終了.
 						element = null;
 						return false;
@@ -725,12 +874,12 @@ public class GeneralIndex {
 		}
 
 		@Override
-		public Integer next() {
+		public int nextRowId() {
 			if(!getNextElement()) {
-				throw new NoSuchElementException();
+				return -1;
 			}
 			// 今回分のデータを取得.
-			nowValue = element.getValue();
+			nowIndexPos = indexPos;
 			nowLineNo = element.getLineNo(elementPos);
 			elementPos = ascFlag ?
 				elementPos + 1 :
@@ -738,10 +887,30 @@ public class GeneralIndex {
 			return nowLineNo;
 		}
 		
+		@Override
+		public int fill(int[] buf, int off, int len) {
+			int n;
+			int ret = 0;
+			while(ret < len && getNextElement()) {
+				n = fillElement(element, elementPos, ascFlag,
+					buf, off + ret, len - ret);
+				elementPos = ascFlag ?
+					elementPos + n :
+					elementPos - n;
+				ret += n;
+				// 今回分のデータを取得.
+				nowIndexPos = indexPos;
+				nowLineNo = buf[off + ret - 1];
+			}
+			return ret;
+		}
+		
 		@Override
 		public RimRow nextRow() {
-			next();
-			return rimIndex.body.getRow(nowLineNo);
+			if(nextRowId() == -1) {
+				throw new NoSuchElementException();
+			}
+			return row = rimIndex.body.getRow(row, nowLineNo);
 		}
 		
 		@Override
@@ -749,7 +918,7 @@ public class GeneralIndex {
 			if(element == null) {
 				throw new NoSuchElementException();
 			}
-			return nowValue;
+			return rimIndex.fixIndex.getValue(nowIndexPos);
 		}
 		
 		@Override
@@ -764,6 +933,8 @@ public class GeneralIndex {
 	// [IN]インデックス検索結果情報.
 	private static final class ResultSearchIndexIn
 		implements RimResult {
+		// 行情報(この検索結果専用).
+		private RimRow row;
 		// in 条件.
 		private RimResult[] inList;
 		// 現在のIn条件取得項番.
@@ -772,7 +943,7 @@ public class GeneralIndex {
 		// このインデックス管理情報.
 		private GeneralIndex rimIndex;
 		// not in 条件.
-		private LargeFlags notInPositions;
+		private RoaringFlags notInPositions;
 		// 現在の読み込み中行番号.
 		private int indexPos;
 		// 現在取得中のIndex要素.
@@ -780,7 +951,7 @@ public class GeneralIndex {
 		// 取得中Indexの行取得ポジション.
 		private int elementPos;
 		// 今回取得情報.
-		private Comparable nowValue;
+		private int nowIndexPos;
 		private int nowLineNo;
 
 		
@@ -816,25 +987,24 @@ public class GeneralIndex {
 			// 検索方法となる.
 			if(notEq) {
 				// indexを取得.
-				final RimIndexElement[] fixIndex = rimIndex.fixIndex;
+				final IndexElements fixIndex = rimIndex.fixIndex;
 				
-				// not検索の場合はin条件は行番号で処理する.
-				final LargeFlags notInPositions = new LargeFlags(fixIndex.length);
+				// not検索の場合はin条件はインデックス位置で処理する.
+				final RoaringFlags notInPositions = new RoaringFlags(fixIndex.size());
 				
 				// valueを列型変換して行番号を取得.
 				for(i = 0; i < len; i ++) {
-					pos = SearchUtil.indexEq(
-						fixIndex, (Comparable)columnType.convert(values[i]));
+					pos = rimIndex.indexEq((Comparable)columnType.convert(values[i]));
 					if(pos != -1) {
 						notInPositions.put(pos, true);
 					}
 				}
 				
 				// 生成できた場合は情報セット.
-				this.rimIndex = rimIndex;
+				// 最初の要素は getNextElement() で読み込む.
 				this.notInPositions = notInPositions;
-				this.indexPos = ascFlag ? 0 : fixIndex.length - 1;
-				this.element = fixIndex[indexPos];
+				this.indexPos = ascFlag ? -1 : fixIndex.size();
+				this.element = null;
 				this.elementPos = 0;
 			
 			// 通常検索.
@@ -856,7 +1026,7 @@ public class GeneralIndex {
 				if(ascFlag) {
 					// 昇順.
 					for(i = 0; i < len; i ++) {
-						pos = SearchUtil.indexEq(rimIndex.fixIndex, (Comparable)values[i]);
+						pos = rimIndex.indexEq((Comparable)values[i]);
 						inList[i] = new ResultSearchIndex(
 							false, ascFlag, rimIndex, pos, NOT_END);
 					}
@@ -864,7 +1034,7 @@ public class GeneralIndex {
 				} else {
 					// 降順.
 					for(i = len - 1; i >= 0; i --) {
-						pos = SearchUtil.indexEq(rimIndex.fixIndex, (Comparable)values[i]);
+						pos = rimIndex.indexEq((Comparable)values[i]);
 						inList[i] = new ResultSearchIndex(
 							false, ascFlag, rimIndex, pos, NOT_END);
 					}
@@ -876,6 +1046,7 @@ public class GeneralIndex {
 			}
 			
 			// データーセット.
+			this.rimIndex = rimIndex;
 			this.ascFlag = ascFlag;
 			this.notFlag = notEq;
 			this.exitFlag = false;
@@ -918,47 +1089,22 @@ public class GeneralIndex {
 			// not検索の場合.
 			// 現在取得中の要素にある行番号の読み込みが完了した場合.
 			// 次の情報を読み込む.
-			if(
+			while(element == null ||
 				(ascFlag && element.getLineLength() <= elementPos) ||
 				(!ascFlag && elementPos < 0)) {
-				
-				// 昇順の場合.
-				if(ascFlag) {
-					
-					// 次のIndex要素を取得.
-					if((element = rimIndex.getElementByNo(++ indexPos)) != null) {
-						// in 条件で指定されたvaluesの条件の場合.
-						if(notInPositions.get(indexPos)) {
-							// この情報を読み飛ばす.
-							if((element = rimIndex.getElementByNo(++ indexPos)) == null) {
-								// 次の情報が存在しない場合は終端をセット.
-								exitFlag = true;
-								return false;
-							}
-						}
-						// ポジション初期化.
-						elementPos = 0;
-						return true;
-					}
-				// 降順の場合.
-				} else {
-					
-					// 前のIndex要素を取得.
-					if((element = rimIndex.getElementByNo(-- indexPos)) != null) {
-						// in 条件で指定されたvaluesの条件の場合.
-						if(notInPositions.get(indexPos)) {
-							// この情報を読み飛ばす.
-							if((element = rimIndex.getElementByNo(-- indexPos)) == null) {
-								// 情報が存在しない場合は終端をセット.
-								exitFlag = true;
-								return false;
-							}
-						}
-						// ポジション初期化.
-						elementPos = element.getLineLength() - 1;
-						return true;
-					}
+				indexPos = ascFlag ? indexPos + 1 : indexPos - 1;
+				// 次の情報が存在しない場合は終端をセット.
+				if(indexPos < 0 || indexPos >= rimIndex.fixIndex.size()) {
+					exitFlag = true;
+					return false;
+				// in 条件で指定されたvaluesの条件の場合.
+				} else if(notInPositions.get(indexPos)) {
+					// この情報を読み飛ばす.
+					continue;
 				}
+				element = rimIndex.getElementByNo(indexPos, element);
+				// ポジション初期化.
+				elementPos = ascFlag ? 0 : element.getLineLength() - 1;
 			}
 			return true;
 		}
@@ -969,16 +1115,16 @@ public class GeneralIndex {
 		}
 
 		@Override
-		public Integer next() {
+		public int nextRowId() {
 			// 終端の場合.
 			if(!getNextElement()) {
-				throw new NoSuchElementException();
+				return -1;
 			// 通常取得の場合.
 			} else if(!notFlag) {
-				return inList[targetIn].next();
+				return nowLineNo = inList[targetIn].nextRowId();
 			}
 			// not 取得の場合.
-			nowValue = element.getValue();
+			nowIndexPos = indexPos;
 			nowLineNo = element.getLineNo(elementPos);
 			elementPos = ascFlag ?
 				elementPos + 1 :
@@ -986,10 +1132,36 @@ public class GeneralIndex {
 			return nowLineNo;
 		}
 		
+		@Override
+		public int fill(int[] buf, int off, int len) {
+			int n;
+			int ret = 0;
+			while(ret < len && getNextElement()) {
+				// 通常取得の場合.
+				if(!notFlag) {
+					ret += inList[targetIn].fill(buf, off + ret, len - ret);
+					nowLineNo = buf[off + ret - 1];
+					continue;
+				}
+				// not 取得の場合.
+				n = fillElement(element, elementPos, ascFlag,
+					buf, off + ret, len - ret);
+				elementPos = ascFlag ?
+					elementPos + n :
+					elementPos - n;
+				ret += n;
+				nowIndexPos = indexPos;
+				nowLineNo = buf[off + ret - 1];
+			}
+			return ret;
+		}
+		
 		@Override
 		public RimRow nextRow() {
-			next();
-			return rimIndex.body.getRow(nowLineNo);
+			if(nextRowId() == -1) {
+				throw new NoSuchElementException();
+			}
+			return row = rimIndex.body.getRow(row, nowLineNo);
 		}
 
 		@Override
@@ -997,7 +1169,8 @@ public class GeneralIndex {
 			if(exitFlag) {
 				throw new NoSuchElementException();
 			}
-			return !notFlag ? inList[targetIn].getValue() : nowValue;
+			return !notFlag ? inList[targetIn].getValue() :
+				rimIndex.fixIndex.getValue(nowIndexPos);
 		}
 
 		@Override
@@ -1,17 +1,19 @@
 package rim.index;
 
+import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 
 import rim.RimBody;
 import rim.RimResultGeo;
 import rim.RimRow;
+import rim.core.ColumnData;
 import rim.core.ColumnType;
-import rim.core.SearchUtil;
 import rim.exception.RimException;
+import rim.geo.GeoCodeType;
 import rim.geo.GeoFastLine;
 import rim.geo.GeoLine;
 import rim.geo.GeoQuad;
-import rim.util.IndexKeyList;
 import rim.util.ObjectList;
 
 /**
@@ -28,6 +30,8 @@ public class GeoIndex {
 	private int latColumnNo;
 	// Bodyに対する経度を示す列番号.
 	private int lonColumnNo;
+	// インデックスのキー形式.
+	private GeoCodeType codeType;
 	
 	// インデックス内の行を管理するバイト数.
 	private int indexByte;
@@ -37,10 +41,15 @@ public class GeoIndex {
 	private int planIndexSize;
 	
 	// fixしたインデックス情報.
-	RimIndexElement[] fixIndex;
+	IndexElements fixIndex;
 	// インデックス総数.
 	private int indexSize;
 	
+	// fixしたインデックス要素毎の緯度(GeoFastLineのメートル変換値).
+	private int[] latMeters;
+	// fixしたインデックス要素毎の経度(GeoFastLineのメートル変換値).
+	private int[] lonMeters;
+	
 	/**
 	 * コンストラクタ.
 	 * @param rimBody RimBodyを設定します.
@@ -50,9 +59,24 @@ public class GeoIndex {
 	 */
 	public GeoIndex(RimBody body, int latColumnNo, int lonColumnNo,
 		int planIndexSize) {
+		this(body, latColumnNo, lonColumnNo, GeoCodeType.Quad,
+			planIndexSize);
+	}
+	
+	/**
+	 * コンストラクタ.
+	 * @param rimBody RimBodyを設定します.
+	 * @param latColumnNo このインデックスの緯度列番号が設定されます.
+	 * @param lonColumnNo このインデックスの経度列番号が設定されます.
+	 * @param codeType このインデックスのキー形式を設定します.
+	 * @param planIndexSize このインデックスの予定登録行数を設定します.
+	 */
+	public GeoIndex(RimBody body, int latColumnNo, int lonColumnNo,
+		GeoCodeType codeType, int planIndexSize) {
 		this.body = body;
 		this.latColumnNo = latColumnNo;
 		this.lonColumnNo = lonColumnNo;
+		this.codeType = codeType == null ? GeoCodeType.Quad : codeType;
 		this.indexByte = RimIndexUtil.getRowByteLength(body.getRowLength());
 		this.planIndexSize = planIndexSize;
 		this.indexSize = 0;
@@ -79,15 +103,66 @@ public class GeoIndex {
 	 */
 	public void fix() {
 		if(index == null) {
+			// mmapでfixした場合は、Bodyのfix後に緯度・経度を保持.
+			if(fixIndex != null && latMeters == null) {
+				fixMeters();
+			}
 			return;
 		} else if(planIndexSize != indexSize) {
 			throw new RimException(
 				"It does not match the expected number of geo index rows(" +
 				planIndexSize + "/" + indexSize + ")");
 		}
-		fixIndex = index.toArray(RimIndexElement.class);
+		fixIndex = new IndexElements.ArrayElements(
+			index.toArray(RimIndexElement.class));
+		index = null;
+		fixMeters();
+	}
+	
+	/**
+	 * フラットなバッファでインデックス情報を設定してfixします.
+	 * mmapでロードする場合に利用します.
+	 * 要素毎の緯度・経度は、Bodyのfix後に fix() を呼び出して保持します.
+	 * @param keys ソート済みのキー(Long)群を設定します.
+	 * @param rowOffsets キー毎の行番号開始位置(キー数+1)を設定します.
+	 * @param rowIds 行番号群を設定します.
+	 */
+	public void fix(ColumnData keys, IntBuffer rowOffsets, IntBuffer rowIds) {
+		checkFixToError();
+		if(keys.getColumnType() != VALUE_TYPE) {
+			throw new RimException("The geo index key type(" +
+				keys.getColumnType() + ") does not match: " + VALUE_TYPE);
+		}
+		indexSize = rowIds.limit();
+		if(planIndexSize != indexSize) {
+			throw new RimException(
+				"It does not match the expected number of geo index rows(" +
+				planIndexSize + "/" + indexSize + ")");
+		}
+		fixIndex = new IndexElements.FlatElements(
+			VALUE_TYPE, keys, rowOffsets, rowIds);
 		index = null;
 	}
+	
+	// インデックス要素毎の緯度・経度をメートル変換して保持.
+	// 要素内の行は同一のキーなので、先頭行の緯度・経度を利用します.
+	private final void fixMeters() {
+		final ColumnData latColumn = body.getColumnData(latColumnNo);
+		final ColumnData lonColumn = body.getColumnData(lonColumnNo);
+		final int len = fixIndex.size();
+		final int[] lat = new int[len];
+		final int[] lon = new int[len];
+		RimIndexElement em = null;
+		int rowId;
+		for(int i = 0; i < len; i ++) {
+			em = fixIndex.get(i, em);
+			rowId = em.getLineNo(0);
+			lat[i] = GeoFastLine.calcLat(latColumn.getDouble(rowId));
+			lon[i] = GeoFastLine.calcLon(lonColumn.getDouble(rowId));
+		}
+		latMeters = lat;
+		lonMeters = lon;
+	}
 
 	/**
 	 * 追加処理がFixしているか取得.
@@ -149,6 +224,14 @@ public class GeoIndex {
 		return body.getColumnName(lonColumnNo);
 	}
 	
+	/**
+	 * インデックスのキー形式を取得.
+	 * @return GeoCodeType キー形式が返却されます.
+	 */
+	public GeoCodeType getCodeType() {
+		return codeType;
+	}
+
 	/**
 	 * インデックス対象の列型を取得.
 	 * @return ColumnType インデックス対象の列型が返却されます.
@@ -168,6 +251,7 @@ public class GeoIndex {
 	/**
 	 * 中心点の緯度・経度と半径（メートル）を設定して、
 	 * その範囲内の検索結果を取得.
+	 * 検索結果の行はソート済みの検索と同じで、並び順のみ異なります.
 	 * @param lat 中心点の緯度を設定します.
 	 * @param lon 中心点の経度を設定します.
 	 * @param distance 半径（メートル）を設定します.
@@ -177,13 +261,16 @@ public class GeoIndex {
 		double lat, double lon, int distance) {
 		checkNoFixToError();
 		return new ResultRadiusSearch(
-			body, latColumnNo, lonColumnNo, fixIndex,
-			lat, lon, distance);
+			body, latColumnNo, lonColumnNo, codeType, fixIndex,
+			latMeters, lonMeters, lat, lon, distance);
 	}
 	
 	/**
 	 * 中心点の緯度・経度と半径（メートル）を設定して、
 	 * その範囲内の検索結果をソート済みで取得.
+	 * 昇順の場合は、中心点のタイルから外側に向けて検索しながら
+	 * 近い順に返却するので、全件を取得せずに先頭の結果が返却されます.
+	 * 降順の場合は、範囲内の全件を近い順に取得して逆順に返却します.
 	 * @param ascFlag 昇順で結果を取得したい場合は true.
 	 * @param lat 中心点の緯度を設定します.
 	 * @param lon 中心点の経度を設定します.
@@ -193,109 +280,189 @@ public class GeoIndex {
 	public RimResultGeo searchRadius(
 		boolean ascFlag, double lat, double lon, int distance) {
 		checkNoFixToError();
-		return new ResultAscRadiusSearch(ascFlag,
-			new ResultRadiusSearch(
-				body, latColumnNo, lonColumnNo, fixIndex,
-				lat, lon, distance)
-			);
+		if(ascFlag) {
+			return new ResultAscRadiusSearch(
+				body, latColumnNo, lonColumnNo, codeType, fixIndex,
+				latMeters, lonMeters, lat, lon, distance);
+		}
+		return new ResultSortedSearch(
+			body, latColumnNo, lonColumnNo, lat, lon,
+			ResultSortedSearch.toList(new ResultAscRadiusSearch(
+				body, latColumnNo, lonColumnNo, codeType, fixIndex,
+				latMeters, lonMeters, lat, lon, distance)),
+			false);
 	}
-	
+
+	/**
+	 * 中心点の緯度・経度から近い順に指定件数の検索結果を取得.
+	 * 半径を指定せずに、中心点のタイルから外側に向けて検索します.
+	 * 近い順は厳密な距離(getStrictRedius)で判定して、
+	 * getValue はその距離(メートル未満切り捨て)が返却されます.
+	 * @param lat 中心点の緯度を設定します.
+	 * @param lon 中心点の経度を設定します.
+	 * @param count 取得件数を設定します.
+	 * @return ResultSearch 近い順の検索結果が返却されます.
+	 */
+	public RimResultGeo nearest(double lat, double lon, int count) {
+		checkNoFixToError();
+		final NearestHeap heap = new NearestHeap(
+			body, latColumnNo, lonColumnNo, codeType, fixIndex,
+			latMeters, lonMeters, lat, lon, count);
+		if(count > 0 && fixIndex.size() > 0) {
+			heap.search();
+		}
+		return new ResultSortedSearch(
+			body, latColumnNo, lonColumnNo, lat, lon, heap.sortList(), true);
+	}
+
+	/**
+	 * 南西・北東の緯度・経度で指定した矩形内の検索結果を取得.
+	 * @param minLat 南端の緯度を設定します.
+	 * @param minLon 西端の経度を設定します.
+	 * @param maxLat 北端の緯度を設定します.
+	 * @param maxLon 東端の経度を設定します.
+	 * @return ResultSearch 検索結果が返却されます.
+	 */
+	public RimResultGeo searchBox(
+		double minLat, double minLon, double maxLat, double maxLon) {
+		checkNoFixToError();
+		return new ResultShapeSearch(
+			body, latColumnNo, lonColumnNo, codeType, fixIndex,
+			new GeoBox(Math.min(minLat, maxLat), Math.min(minLon, maxLon),
+				Math.max(minLat, maxLat), Math.max(minLon, maxLon)));
+	}
+
+	/**
+	 * 多角形内の検索結果を取得.
+	 * @param lat 多角形の頂点の緯度群を設定します.
+	 * @param lon 多角形の頂点の経度群を設定します.
+	 *            緯度群と同じ長さで、３頂点以上を設定します.
+	 * @return ResultSearch 検索結果が返却されます.
+	 */
+	public RimResultGeo searchPolygon(double[] lat, double[] lon) {
+		checkNoFixToError();
+		if(lat == null || lon == null || lat.length != lon.length ||
+			lat.length < 3) {
+			throw new RimException(
+				"The polygon requires three or more latitude and " +
+				"longitude pairs.");
+		}
+		return new ResultShapeSearch(
+			body, latColumnNo, lonColumnNo, codeType, fixIndex,
+			new GeoPolygon(lat, lon));
+	}
+
 	// 中心の緯度経度と半径を指定して範囲内の条件を検索.
+	//
+	// 近い順の検索(ResultAscRadiusSearch)と同じタイル単位の検索で、
+	// タイルの幅・高さが半径以上となるdetailから周囲のタイルを広げて、
+	// 未検索のタイルまでの距離が半径を超えるまで検索します.
+	// 同じタイル範囲を同じ距離で判定するので、並び順以外は
+	// 近い順の検索と同じ結果が返却されます.
 	private static final class ResultRadiusSearch
-		implements RimResultGeo {
+		extends GeoTileScan implements RimResultGeo {
+		// 範囲内のインデックス要素群の初期サイズ.
+		private static final int DEF_ELEMENTS_LENGTH = 64;
+
+		// 行情報(この検索結果専用).
+		private RimRow row;
 		// body情報.
 		private final RimBody body;
 		
-		// 緯度の列番号.
-		private final int latColumnNo;
-		// 経度の列番号.
-		private final int lonColumnNo;
+		// 緯度の列データ.
+		private final ColumnData latColumn;
+		// 経度の列データ.
+		private final ColumnData lonColumn;
 		
 		// 中心点の緯度.
 		private final double srcLat;
-		// 中心点の緯度（メートル）.
-		private final int srcLatM;
 		// 中心点の経度.
 		private final double srcLon;
-		// 中心点の経度（メートル）.
-		private final int srcLonM;
 		// 検索対象半径（メートル）.
 		private final int targetRedius;
 		
-		// インデックス情報.
-		private final RimIndexElement[] index;
-		// 検索結果の範囲情報群.
-		private final long[] betweenList;
-		// 現在読み込み中の検索結果のポジション.
-		private int betweenPos;
-		// 現在取得中のIndex位置.
-		private int indexPos;
-		// 現在取得中のIndex終了位置.
-		private int indexEndPos;
-		
-		// 現在取得中のIndex要素.
-		private RimIndexElement element;
+		// 検索したタイル内で範囲内のインデックス要素群(半径 << 32 | 位置).
+		private long[] elements;
+		// elementsの有効長.
+		private int elementsLength;
+		// elementsの読み込み位置.
+		private int elementsPos;
+		// 取得中Indexの行数.
+		private int lineLength;
 		// 取得中Indexの行取得ポジション.
 		private int elementPos;
 		
+		// 検索範囲内のタイルが全て検索済みの場合は true.
+		private boolean endFlag;
 		// nextGetで取得済み条件.
 		private boolean nextGetFlag;
 		// 今回取得情報.
 		private int nowLineNo;
 		private int nowP2pRadius;
 		
-		// 取得同一行情報管理.
-		private IndexKeyList acquiredRowIdList;
-		
 		/**
 		 * コンストラクタ.
 		 * @param body RimBodyを設定します.
+		 * @param latColumnNo 緯度の列番号を設定します.
+		 * @param lonColumnNo 経度の列番号を設定します.
+		 * @param codeType インデックスのキー形式を設定します.
 		 * @param index インデックス情報を設定します.
+		 * @param latMeters インデックス要素毎の緯度(メートル)を設定します.
+		 * @param lonMeters インデックス要素毎の経度(メートル)を設定します.
 		 * @param lat 中心点の緯度を設定します.
 		 * @param lon 中心点の経度を設定します.
 		 * @param redius 検索する半径（メートル）を設定します.
 		 */
 		public ResultRadiusSearch(
 			RimBody body, int latColumnNo, int lonColumnNo,
-			RimIndexElement[] index, double lat, double lon, int redius) {
-			// rimbody.
+			GeoCodeType codeType, IndexElements index,
+			int[] latMeters, int[] lonMeters,
+			double lat, double lon, int redius) {
+			super(codeType, index, latMeters, lonMeters, lat, lon);
 			this.body = body;
-			// index情報.
-			this.index = index;
-			// 緯度列番号.
-			this.latColumnNo = latColumnNo;
-			// 経度列番号.
-			this.lonColumnNo = lonColumnNo;
-			
-			// 緯度.
+			this.latColumn = body.getColumnData(latColumnNo);
+			this.lonColumn = body.getColumnData(lonColumnNo);
 			this.srcLat = lat;
-			this.srcLatM = GeoFastLine.calcLat(lat);
-			// 経度.
 			this.srcLon = lon;
-			this.srcLonM = GeoFastLine.calcLon(lon);
-			// 検索対象の半径(メートル).
 			this.targetRedius = redius;
-			
-			// elementを初期化.
-			this.element = null;
-			// 検索範囲群の条件を生成.
-			this.betweenList = new long[GeoQuad.SEARCH_QUAD_KEY_LENGTH];
-			// 検索範囲を生成.
-			GeoQuad.searchCode(
-				this.betweenList, GeoQuad.getDetail(redius), lat, lon);
-			
-			// 読み込み位置の初期化.
-			this.betweenPos = 0;
-			this.indexPos = -2;
-			this.indexEndPos = -1;
+			this.elements = new long[DEF_ELEMENTS_LENGTH];
+			this.elementsLength = 0;
+			this.elementsPos = 0;
+			this.lineLength = 0;
 			this.elementPos = -1;
-			
-			// 今回取得情報をクリア.
 			this.nowLineNo = -1;
 			this.nowP2pRadius = -1;
-			
-			// 取得済み行管理情報.
-			this.acquiredRowIdList = new IndexKeyList();
+			if(redius < 0 || index.size() == 0) {
+				this.endFlag = true;
+			} else {
+				start();
+				// タイルの幅・高さが半径以上となるまで粗いdetailに広げる.
+				while(detail > 1 && tileSize() < redius) {
+					coarse();
+				}
+				nextBound();
+			}
+		}
+
+		// 未検索のタイルが全て半径外かチェック.
+		private final void nextBound() {
+			final int bound = bound();
+			if(bound == -1 || bound > targetRedius) {
+				endFlag = true;
+			}
+		}
+
+		@Override
+		protected final void searchElement(int pos, int p2p) {
+			// 半径外の場合.
+			if(p2p > targetRedius) {
+				return;
+			}
+			if(elementsLength == elements.length) {
+				elements = Arrays.copyOf(elements, elementsLength << 1);
+			}
+			elements[elementsLength ++] = ((long)p2p << 32L) |
+				((long)pos & 0x00000000ffffffffL);
 		}
 		
 		// 次の情報を読み込む.
@@ -304,69 +471,33 @@ public class GeoIndex {
 			if(nextGetFlag) {
 				return true;
 			}
-			int p2p;
-			RimRow row;
+			long v;
 			// 次の検索が見つかるまでループ.
 			while(true) {
-				
-				// 要素が存在する場合はその要素の範囲を検索.
-				if(element != null) {
-					// 要素の範囲内の場合.
-					if(elementPos + 1 < element.getLineLength() &&
-						!acquiredRowIdList.add(element.getLineNo(elementPos + 1))) {
-						elementPos ++;
-						nowLineNo = element.getLineNo(elementPos);
-						nextGetFlag = true;
-						return true;
-					}
-					// element初期化.
-					element = null;
-					elementPos = -1;
+				// 取得中の要素の行が存在する場合.
+				if(elementPos + 1 < lineLength) {
+					nowLineNo = element.getLineNo(++ elementPos);
+					nextGetFlag = true;
+					return true;
 				}
-				
-				// indexPosが有効な場合はその要素を取得.
-				if(indexPos != -2) {
-					// 今回のbetweenListの読み込みの範囲内の場合.
-					if(indexPos < indexEndPos) {
-						// 今回のElementを取得.
-						element = index[++ indexPos];
-						// 対象行のBody行情報を取得.
-						row = body.getRow(element.getLineNo(0));
-						// 中心点から、対象の緯度・経度までの距離を取得.
-						p2p = GeoFastLine.get(srcLatM, srcLonM,
-							GeoFastLine.calcLat(row.getDouble(latColumnNo)),
-							GeoFastLine.calcLon(row.getDouble(lonColumnNo)));
-						// 取得条件が指定した半径の範囲外の場合.
-						if(p2p > targetRedius) {
-							// このElementは処理しない.
-							element = null;
-							elementPos = -1;
-						} else {
-							// 今回分の中心点から対象点までの長さをセット.
-							nowP2pRadius = p2p;
-						}
-						continue;
-					}
-					// 次の検索範囲群で処理.
-					indexPos = -2;
-					indexEndPos = -1;
+				// 検索済みのタイル内の次の要素を取得.
+				if(elementsPos < elementsLength) {
+					v = elements[elementsPos ++];
+					element = index.get((int)v, element);
+					nowP2pRadius = (int)(v >>> 32L);
+					lineLength = element.getLineLength();
+					elementPos = -1;
+					continue;
 				}
-				
-				// betweenPos が範囲外の場合.
-				if(betweenPos >= GeoQuad.SEARCH_QUAD_KEY_LENGTH) {
-					acquiredRowIdList = null;
+				// 検索範囲内のタイルが全て検索済みの場合.
+				if(endFlag) {
+					elements = null;
 					return false;
 				}
-				// インデックスの開始から終了位置まで取得.
-				indexPos = SearchUtil.indexGE(index, betweenList[betweenPos]) - 1;
-				// インデックス開始が正しく取得できた場合.
-				if(indexPos != -2) {
-					indexEndPos = SearchUtil.indexLE(index, betweenList[betweenPos + 1]);
-				} else {
-					indexPos = -2;
-				}
-				// 次のポジションに移動.
-				betweenPos += 2;
+				// 周囲１つ分のタイルを広げる.
+				elementsPos = elementsLength = 0;
+				expand();
+				nextBound();
 			}
 		}
 
@@ -376,9 +507,9 @@ public class GeoIndex {
 		}
 
 		@Override
-		public Integer next() {
+		public int nextRowId() {
 			if(!nextGet()) {
-				throw new NoSuchElementException();
+				return -1;
 			}
 			nextGetFlag = false;
 			return nowLineNo;
@@ -386,8 +517,10 @@ public class GeoIndex {
 		
 		@Override
 		public RimRow nextRow() {
-			next();
-			return body.getRow(nowLineNo);
+			if(nextRowId() == -1) {
+				throw new NoSuchElementException();
+			}
+			return row = body.getRow(row, nowLineNo);
 		}
 
 		@Override
@@ -402,14 +535,12 @@ public class GeoIndex {
 
 		@Override
 		public double getLat() {
-			return body.getRow(nowLineNo)
-				.getDouble(latColumnNo);
+			return latColumn.getDouble(nowLineNo);
 		}
 
 		@Override
 		public double getLon() {
-			return body.getRow(nowLineNo)
-				.getDouble(lonColumnNo);
+			return lonColumn.getDouble(nowLineNo);
 		}
 		
 		@Override
@@ -418,151 +549,1002 @@ public class GeoIndex {
 		}
 	}
 	
-	/**
-	 * 半径でソートを行う要素.
-	 */
-	private static final class ResultAscRadiusElement
-		implements Comparable<ResultAscRadiusElement> {
-		
-		// 半径.
-		protected int radius;
-		// 行番号.
-		protected int rowId;
-		
+	// 中心の緯度経度と半径を指定して範囲内の条件を
+	// 近い順に検索.
+	//
+	// 中心点のタイルから外側に向けてタイルを広げながら、
+	// 範囲内の条件を(半径 << 32 | 行番号)の最小ヒープに追加して、
+	// 未検索のタイルまでの距離以下となった条件から順に返却します.
+	// 全件を取得してソートしないので、先頭から数件だけ読み込む場合は
+	// 検索件数に関係なく返却されます.
+	private static final class ResultAscRadiusSearch
+		extends GeoTileScan implements RimResultGeo {
+		// ヒープの初期サイズ.
+		private static final int DEF_HEAP_LENGTH = 64;
+
+		// 行情報(この検索結果専用).
+		private RimRow row;
+		// RimBody.
+		private final RimBody body;
+
+		// 緯度の列データ.
+		private final ColumnData latColumn;
+		// 経度の列データ.
+		private final ColumnData lonColumn;
+
+		// 中心点の緯度.
+		private final double srcLat;
+		// 中心点の経度.
+		private final double srcLon;
+		// 検索半径.
+		private final int targetRedius;
+
+		// 最小ヒープ(半径 << 32 | 行番号).
+		private long[] heap;
+		// ヒープの有効長.
+		private int size;
+
+		// 未検索のタイルまでの最短距離.
+		private int bound;
+		// 検索範囲内のタイルが全て検索済みの場合は true.
+		private boolean endFlag;
+
+		// 現在読込中の情報(半径 << 32 | 行番号).
+		private long now;
+
 		/**
 		 * コンストラクタ.
-		 * @param radius
-		 * @param rowId
+		 * @param body RimBodyを設定します.
+		 * @param latColumnNo 緯度の列番号を設定します.
+		 * @param lonColumnNo 経度の列番号を設定します.
+		 * @param codeType インデックスのキー形式を設定します.
+		 * @param index インデックス情報を設定します.
+		 * @param latMeters インデックス要素毎の緯度(メートル)を設定します.
+		 * @param lonMeters インデックス要素毎の経度(メートル)を設定します.
+		 * @param lat 中心点の緯度を設定します.
+		 * @param lon 中心点の経度を設定します.
+		 * @param redius 半径(メートル)を設定します.
 		 */
-		public ResultAscRadiusElement(int radius, int rowId) {
-			this.radius = radius;
-			this.rowId = rowId;
+		public ResultAscRadiusSearch(
+			RimBody body, int latColumnNo, int lonColumnNo,
+			GeoCodeType codeType, IndexElements index,
+			int[] latMeters, int[] lonMeters,
+			double lat, double lon, int redius) {
+			super(codeType, index, latMeters, lonMeters, lat, lon);
+			this.body = body;
+			this.latColumn = body.getColumnData(latColumnNo);
+			this.lonColumn = body.getColumnData(lonColumnNo);
+			this.srcLat = lat;
+			this.srcLon = lon;
+			this.targetRedius = redius;
+			this.heap = new long[DEF_HEAP_LENGTH];
+			this.size = 0;
+			if(redius < 0 || index.size() == 0) {
+				this.endFlag = true;
+			} else {
+				start();
+				nextBound();
+			}
 		}
-		
+
+		// 未検索のタイルまでの最短距離を更新.
+		private final void nextBound() {
+			bound = bound();
+			// 未検索のタイルが存在しないか、全て半径外の場合.
+			if(bound == -1 || bound > targetRedius) {
+				endFlag = true;
+			}
+		}
+
+		@Override
+		protected final void searchElement(int pos, int p2p) {
+			// 半径外の場合.
+			if(p2p > targetRedius) {
+				return;
+			}
+			element = index.get(pos, element);
+			final int len = element.getLineLength();
+			for(int i = 0; i < len; i ++) {
+				add(((long)p2p << 32L) |
+					((long)element.getLineNo(i) & 0x00000000ffffffffL));
+			}
+		}
+
+		// ヒープに追加.
+		private final void add(long value) {
+			if(size == heap.length) {
+				heap = Arrays.copyOf(heap, size << 1);
+			}
+			final long[] h = heap;
+			int p = size ++, c;
+			while(p > 0 && h[c = (p - 1) >> 1] > value) {
+				h[p] = h[c];
+				p = c;
+			}
+			h[p] = value;
+		}
+
+		// ヒープの先頭を取得して削除.
+		private final long poll() {
+			final long[] h = heap;
+			final long ret = h[0];
+			final long value = h[-- size];
+			int p = 0, c;
+			while((c = (p << 1) + 1) < size) {
+				if(c + 1 < size && h[c + 1] < h[c]) {
+					c ++;
+				}
+				if(h[c] >= value) {
+					break;
+				}
+				h[p] = h[c];
+				p = c;
+			}
+			h[p] = value;
+			return ret;
+		}
+
+		@Override
+		public boolean hasNext() {
+			// ヒープの先頭が未検索のタイルより近くなるまでタイルを広げる.
+			while(!endFlag && (size == 0 ||
+				(int)(heap[0] >>> 32L) > bound)) {
+				// 範囲内の条件が見つかっていない場合は、タイルの幅・高さが
+				// 半径以上となるまで粗いdetailに広げる.
+				if(size == 0 && detail > 1 && tileSize() < targetRedius) {
+					coarse();
+				// 周囲１つ分のタイルを広げる.
+				} else {
+					expand();
+				}
+				nextBound();
+			}
+			if(size == 0) {
+				heap = null;
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public int nextRowId() {
+			if(heap == null || !hasNext()) {
+				return -1;
+			}
+			now = poll();
+			return getLineNo();
+		}
+
+		@Override
+		public RimRow nextRow() {
+			if(nextRowId() == -1) {
+				throw new NoSuchElementException();
+			}
+			return row = body.getRow(row, getLineNo());
+		}
+
+		@Override
+		public Comparable getValue() {
+			return (int)(now >>> 32L);
+		}
+
+		@Override
+		public int getLineNo() {
+			return (int)now;
+		}
+
+		@Override
+		public double getLat() {
+			return latColumn.getDouble(getLineNo());
+		}
+
+		@Override
+		public double getLon() {
+			return lonColumn.getDouble(getLineNo());
+		}
+
 		@Override
-		public int compareTo(ResultAscRadiusElement o) {
-			return radius - o.radius;
+		public double getStrictRedius() {
+			return GeoLine.get(srcLat, srcLon, getLat(), getLon());
 		}
 	}
-	
-	// 中心の緯度経度と半径を指定して範囲内の条件を
-	// 半径ソートして検索.
-	private static final class ResultAscRadiusSearch
+
+	// (半径 << 32 | 行番号)でソート済みの検索結果.
+	private static final class ResultSortedSearch
 		implements RimResultGeo {
+		// 行情報(この検索結果専用).
+		private RimRow row;
 		// RimBody.
 		private final RimBody body;
-		
-		// 緯度の列番号.
-		private final int latColumnNo;
-		
-		// 経度の列番号.
-		private final int lonColumnNo;
-		
+
+		// 緯度の列データ.
+		private final ColumnData latColumn;
+		// 経度の列データ.
+		private final ColumnData lonColumn;
+
 		// 中心点の緯度.
 		private final double srcLat;
 		// 中心点の経度.
 		private final double srcLon;
-		
-		// 昇順の場合はtrue.
-		private final boolean ascFlag;
-		
-		// 半径でソートされた情報.
-		private ObjectList<ResultAscRadiusElement> result;
+
+		// 近い順にソートされた情報(半径 << 32 | 行番号).
+		private final long[] result;
 		// resultの長さ.
 		private final int resultLength;
-		
+
+		// 昇順の場合はtrue.
+		private final boolean ascFlag;
+
 		// 読み込み位置.
 		private int position;
-		
-		// 現在読込中の要素.
-		private ResultAscRadiusElement nowElement;
-		
-		
+
 		/**
 		 * コンストラクタ.
+		 * @param body RimBodyを設定します.
+		 * @param latColumnNo 緯度の列番号を設定します.
+		 * @param lonColumnNo 経度の列番号を設定します.
+		 * @param lat 中心点の緯度を設定します.
+		 * @param lon 中心点の経度を設定します.
+		 * @param result 近い順にソートされた情報を設定します.
 		 * @param ascFlag 昇順で情報を取得する場合は true.
-		 * @param src ResultRadiusSearchを設定します.
 		 */
-		private ResultAscRadiusSearch(boolean ascFlag, ResultRadiusSearch src) {
-			this.result = sortList(src);
-			this.resultLength = result.size();
-			this.body = src.body;
-			this.latColumnNo = src.latColumnNo;
-			this.lonColumnNo = src.lonColumnNo;
-			this.srcLat = src.srcLat;
-			this.srcLon = src.srcLon;
+		public ResultSortedSearch(
+			RimBody body, int latColumnNo, int lonColumnNo,
+			double lat, double lon, long[] result, boolean ascFlag) {
+			this.body = body;
+			this.latColumn = body.getColumnData(latColumnNo);
+			this.lonColumn = body.getColumnData(lonColumnNo);
+			this.srcLat = lat;
+			this.srcLon = lon;
+			this.result = result;
+			this.resultLength = result.length;
 			this.ascFlag = ascFlag;
 			this.position = (ascFlag) ? -1 :
 				this.resultLength;
 		}
-		
-		// ソート済みの検索結果リストを取得.
-		private static final ObjectList<ResultAscRadiusElement> sortList(
-			ResultRadiusSearch src) {
-			ObjectList<ResultAscRadiusElement> ret =
-				new ObjectList<ResultAscRadiusElement>();
-			while(src.hasNext()) {
-				src.next();
-				ret.add(new ResultAscRadiusElement(
-					(Integer)src.getValue(), src.getLineNo()));
-			}
-			if(ret.size() > 0) {
-				ret.smart();
-				ret.sort();
+
+		// 範囲内の検索結果を近い順に全件取得.
+		private static final long[] toList(ResultAscRadiusSearch src) {
+			long[] ret = new long[64];
+			int len = 0;
+			while(src.nextRowId() != -1) {
+				if(len == ret.length) {
+					ret = Arrays.copyOf(ret, len << 1);
+				}
+				ret[len ++] = src.now;
 			}
-			return ret;
+			return Arrays.copyOf(ret, len);
 		}
-		
+
 		@Override
 		public boolean hasNext() {
-			final boolean ret = ascFlag ?
+			return ascFlag ?
 				position + 1 < resultLength :
 				position - 1 >= 0;
-			if(!ret) {
-				result = null;
-			}
-			return ret;
 		}
 
 		@Override
-		public Integer next() {
+		public int nextRowId() {
 			if(!hasNext()) {
+				return -1;
+			}
+			if(ascFlag) {
+				position ++;
+			} else {
+				position --;
+			}
+			return getLineNo();
+		}
+
+		@Override
+		public RimRow nextRow() {
+			if(nextRowId() == -1) {
 				throw new NoSuchElementException();
 			}
-			nowElement = ascFlag ?
-				result.get(++ position) :
-				result.get(-- position);
-			return nowElement.rowId;
+			return row = body.getRow(row, getLineNo());
+		}
+
+		@Override
+		public Comparable getValue() {
+			return (int)(result[position] >>> 32L);
+		}
+
+		@Override
+		public int getLineNo() {
+			return (int)result[position];
+		}
+
+		@Override
+		public double getLat() {
+			return latColumn.getDouble(getLineNo());
+		}
+
+		@Override
+		public double getLon() {
+			return lonColumn.getDouble(getLineNo());
+		}
+
+		@Override
+		public double getStrictRedius() {
+			return GeoLine.get(srcLat, srcLon, getLat(), getLon());
+		}
+	}
+
+	/**
+	 * 中心点のタイルから外側に向けてタイル単位でインデックスを検索.
+	 *
+	 * 検索済みのタイル範囲を１つ粗いdetailのタイル範囲に広げるか、
+	 * 周囲１つ分のタイルを広げて、未検索のタイル内のインデックス要素のみを
+	 * 中心点からの距離と合わせて searchElement に渡します.
+	 */
+	private static abstract class GeoTileScan {
+		// 検索を開始するタイルのdetail(約300m).
+		private static final int START_DETAIL = 17;
+
+		// インデックスのキー形式.
+		private final GeoCodeType codeType;
+		// インデックス情報.
+		protected final IndexElements index;
+		// インデックス要素毎の緯度(メートル).
+		private final int[] latMeters;
+		// インデックス要素毎の経度(メートル).
+		private final int[] lonMeters;
+		// 中心点の緯度(メートル変換).
+		private final int srcLatM;
+		// 中心点の経度(メートル変換).
+		private final int srcLonM;
+		// 中心点の緯度.
+		private final double srcLat;
+		// 中心点の経度.
+		private final double srcLon;
+		// 中心点のQuadKey.
+		private final long srcKey;
+
+		// タイルの検索範囲.
+		private final long[] range = new long[2];
+		// 取得中のIndex要素.
+		protected RimIndexElement element;
+
+		// 検索済みのタイル範囲(この範囲を含む).
+		protected int detail;
+		private int x0, y0, x1, y1;
+
+		/**
+		 * コンストラクタ.
+		 * @param codeType インデックスのキー形式を設定します.
+		 * @param index インデックス情報を設定します.
+		 * @param latMeters インデックス要素毎の緯度(メートル)を設定します.
+		 * @param lonMeters インデックス要素毎の経度(メートル)を設定します.
+		 * @param lat 中心点の緯度を設定します.
+		 * @param lon 中心点の経度を設定します.
+		 */
+		GeoTileScan(GeoCodeType codeType, IndexElements index,
+			int[] latMeters, int[] lonMeters, double lat, double lon) {
+			this.codeType = codeType;
+			this.index = index;
+			this.latMeters = latMeters;
+			this.lonMeters = lonMeters;
+			this.srcLatM = GeoFastLine.calcLat(lat);
+			this.srcLonM = GeoFastLine.calcLon(lon);
+			this.srcLat = lat;
+			this.srcLon = lon;
+			this.srcKey = GeoQuad.create(lat, lon);
+		}
+
+		/**
+		 * インデックス要素の検索.
+		 * @param pos インデックス要素の位置が設定されます.
+		 * @param p2p 中心点からの距離が設定されます.
+		 */
+		protected abstract void searchElement(int pos, int p2p);
+
+		// 中心点のタイルを検索.
+		protected final void start() {
+			final int shift = GeoQuad.MAX_DETAIL - START_DETAIL;
+			detail = START_DETAIL;
+			x0 = x1 = GeoQuad.tileX(srcKey) >> shift;
+			y0 = y1 = GeoQuad.tileY(srcKey) >> shift;
+			searchTile(x0, y0);
+		}
+
+		// 検索済みのタイル範囲を１つ粗いdetailのタイル範囲に広げる.
+		protected final void coarse() {
+			final int nx0 = x0 >> 1, ny0 = y0 >> 1;
+			final int nx1 = x1 >> 1, ny1 = y1 >> 1;
+			// 粗いタイル内で未検索の細かいタイルを検索.
+			int x, y;
+			for(y = ny0 << 1; y <= (ny1 << 1) + 1; y ++) {
+				for(x = nx0 << 1; x <= (nx1 << 1) + 1; x ++) {
+					if(x < x0 || x > x1 || y < y0 || y > y1) {
+						searchTile(x, y);
+					}
+				}
+			}
+			detail --;
+			x0 = nx0; y0 = ny0;
+			x1 = nx1; y1 = ny1;
+		}
+
+		// 検索済みのタイル範囲の周囲１つ分のタイルを検索.
+		protected final void expand() {
+			final int max = (1 << detail) - 1;
+			final int nx0 = Math.max(0, x0 - 1), ny0 = Math.max(0, y0 - 1);
+			final int nx1 = Math.min(max, x1 + 1), ny1 = Math.min(max, y1 + 1);
+			int x, y;
+			for(y = ny0; y <= ny1; y ++) {
+				for(x = nx0; x <= nx1; x ++) {
+					if(x < x0 || x > x1 || y < y0 || y > y1) {
+						searchTile(x, y);
+					}
+				}
+			}
+			x0 = nx0; y0 = ny0;
+			x1 = nx1; y1 = ny1;
+		}
+
+		// 未検索のタイルまでの最短距離を取得.
+		// 全てのタイルが検索済みの場合は -1.
+		protected final int bound() {
+			final int max = (1 << detail) - 1;
+			int ret = Integer.MAX_VALUE;
+			// 西端.
+			if(x0 > 0) {
+				ret = Math.min(ret, srcLonM -
+					GeoFastLine.calcLon(GeoQuad.tileLon(detail, x0)));
+			}
+			// 東端.
+			if(x1 < max) {
+				ret = Math.min(ret, GeoFastLine.calcLon(
+					GeoQuad.tileLon(detail, x1 + 1)) - srcLonM);
+			}
+			// 北端.
+			if(y0 > 0) {
+				ret = Math.min(ret, GeoFastLine.calcLat(
+					GeoQuad.tileLat(detail, y0)) - srcLatM);
+			}
+			// 南端.
+			if(y1 < max) {
+				ret = Math.min(ret, srcLatM -
+					GeoFastLine.calcLat(GeoQuad.tileLat(detail, y1 + 1)));
+			}
+			if(ret == Integer.MAX_VALUE) {
+				return -1;
+			}
+			// QuadKeyの丸め誤差分を差し引いて、半径と同じ近似値に変換.
+			return GeoFastLine.get(0, 0, Math.max(0, ret - 1), 0);
+		}
+
+		// 未検索のタイル内の条件が全て、中心点から厳密な距離(GeoLine)で
+		// redius 以上離れているかチェック.
+		protected final boolean outside(double redius) {
+			final int max = (1 << detail) - 1;
+			// QuadKeyの丸め誤差分として1メートル差し引いて比較.
+			// 西端.
+			if(x0 > 0 && GeoLine.getLonLowerBound(srcLat,
+				srcLon - GeoQuad.tileLon(detail, x0), redius) - 1d < redius) {
+				return false;
+			}
+			// 東端.
+			if(x1 < max && GeoLine.getLonLowerBound(srcLat,
+				GeoQuad.tileLon(detail, x1 + 1) - srcLon, redius) - 1d < redius) {
+				return false;
+			}
+			// 北端.
+			if(y0 > 0 && GeoLine.getLatLowerBound(
+				GeoQuad.tileLat(detail, y0) - srcLat) - 1d < redius) {
+				return false;
+			}
+			// 南端.
+			if(y1 < max && GeoLine.getLatLowerBound(
+				srcLat - GeoQuad.tileLat(detail, y1 + 1)) - 1d < redius) {
+				return false;
+			}
+			return true;
+		}
+
+		// 検索済みのタイル範囲の北西のタイルの幅・高さの短い方を
+		// 半径と同じ近似値で取得.
+		protected final int tileSize() {
+			final int w = GeoFastLine.calcLon(GeoQuad.tileLon(detail, x0 + 1)) -
+				GeoFastLine.calcLon(GeoQuad.tileLon(detail, x0));
+			final int h = GeoFastLine.calcLat(GeoQuad.tileLat(detail, y0)) -
+				GeoFastLine.calcLat(GeoQuad.tileLat(detail, y0 + 1));
+			return GeoFastLine.get(0, 0, Math.min(w, h), 0);
+		}
+
+		// １つのタイル内のインデックス要素を検索.
+		private final void searchTile(int x, int y) {
+			codeType.tileCode(range, 0, detail, x, y);
+			int pos = index.indexGE(range[0]);
+			if(pos == -1) {
+				return;
+			}
+			final int end = index.indexLE(range[1]);
+			final int[] lat = latMeters;
+			final int[] lon = lonMeters;
+			for(; pos <= end; pos ++) {
+				// 中心点から、対象の緯度・経度までの距離を取得.
+				searchElement(pos,
+					GeoFastLine.get(srcLatM, srcLonM, lat[pos], lon[pos]));
+			}
+		}
+	}
+
+	/**
+	 * 近い順の指定件数を保持する最大ヒープ.
+	 *
+	 * 中心点のタイルから外側に向けてタイル単位でインデックスを検索して、
+	 * 行毎の厳密な距離(GeoLine)で指定件数を保持します.
+	 * 件数が揃わない間は１つ粗いdetailのタイルに広げ、件数が揃った後は
+	 * 周囲１つ分のタイルを広げて、未検索のタイル内の条件が全て
+	 * 保持している最も遠い距離以上離れた時点で検索を終了します.
+	 */
+	private static final class NearestHeap extends GeoTileScan {
+		// 緯度の列データ.
+		private final ColumnData latColumn;
+		// 経度の列データ.
+		private final ColumnData lonColumn;
+
+		// 中心点の緯度.
+		private final double srcLat;
+		// 中心点の経度.
+		private final double srcLon;
+
+		// 緯度1度あたりの距離の下限.
+		private final double latBound;
+		// 保持している最も遠い距離以内の条件に対する、経度1度あたりの距離の下限.
+		private double lonBound;
+
+		// ヒープ(厳密な距離).
+		private final double[] distance;
+		// ヒープ(行番号).
+		private final int[] lineNo;
+		// ヒープの有効長.
+		private int size;
+
+		/**
+		 * コンストラクタ.
+		 * @param body RimBodyを設定します.
+		 * @param latColumnNo 緯度の列番号を設定します.
+		 * @param lonColumnNo 経度の列番号を設定します.
+		 * @param codeType インデックスのキー形式を設定します.
+		 * @param index インデックス情報を設定します.
+		 * @param latMeters インデックス要素毎の緯度(メートル)を設定します.
+		 * @param lonMeters インデックス要素毎の経度(メートル)を設定します.
+		 * @param lat 中心点の緯度を設定します.
+		 * @param lon 中心点の経度を設定します.
+		 * @param count 取得件数を設定します.
+		 */
+		NearestHeap(RimBody body, int latColumnNo, int lonColumnNo,
+			GeoCodeType codeType, IndexElements index,
+			int[] latMeters, int[] lonMeters,
+			double lat, double lon, int count) {
+			super(codeType, index, latMeters, lonMeters, lat, lon);
+			this.latColumn = body.getColumnData(latColumnNo);
+			this.lonColumn = body.getColumnData(lonColumnNo);
+			this.srcLat = lat;
+			this.srcLon = lon;
+			this.latBound = GeoLine.getLatLowerBound(1d);
+			this.distance = new double[Math.max(0, count)];
+			this.lineNo = new int[Math.max(0, count)];
+			this.size = 0;
+		}
+
+		// 検索.
+		final void search() {
+			start();
+			while(bound() != -1) {
+				// 指定件数が揃い、未検索のタイルに近い条件が存在しない場合.
+				if(size == distance.length && outside(radius())) {
+					break;
+				}
+				// 指定件数が揃ってない場合は粗いdetailに広げる.
+				if(size < distance.length && detail > 1) {
+					coarse();
+				// 周囲１つ分のタイルを広げる.
+				} else {
+					expand();
+				}
+			}
+		}
+
+		// 保持している最も遠い距離を取得.
+		private final double radius() {
+			return distance[0];
+		}
+
+		@Override
+		protected final void searchElement(int pos, int p2p) {
+			element = index.get(pos, element);
+			final int len = element.getLineLength();
+			double lat, lon, dy, dx;
+			int no;
+			for(int i = 0; i < len; i ++) {
+				no = element.getLineNo(i);
+				lat = latColumn.getDouble(no);
+				lon = lonColumn.getDouble(no);
+				// 指定件数が揃っている場合は、距離の下限が保持している
+				// 最も遠い距離より遠い条件を厳密な距離の計算前に除外.
+				if(size == distance.length) {
+					dy = (lat - srcLat) * latBound;
+					dx = (lon - srcLon) * lonBound;
+					if(dy * dy + dx * dx > distance[0] * distance[0]) {
+						continue;
+					}
+				}
+				// 行毎の厳密な距離で比較する.
+				add(GeoLine.get(srcLat, srcLon, lat, lon), no);
+			}
+		}
+
+		// a の条件が b の条件より遠いかチェック(同じ距離の場合は行番号で比較).
+		private static final boolean far(double ad, int an, double bd, int bn) {
+			return ad > bd || (ad == bd && an > bn);
+		}
+
+		// ヒープに追加.
+		private final void add(double d, int no) {
+			final double[] hd = distance;
+			final int[] hn = lineNo;
+			int p, c;
+			// 指定件数に達していない場合は末尾から上に移動.
+			if(size < hd.length) {
+				p = size ++;
+				while(p > 0 && far(d, no, hd[c = (p - 1) >> 1], hn[c])) {
+					hd[p] = hd[c]; hn[p] = hn[c];
+					p = c;
+				}
+				hd[p] = d; hn[p] = no;
+			// 保持している最も遠い条件より遠い場合.
+			} else if(size == 0 || !far(hd[0], hn[0], d, no)) {
+				return;
+			// 先頭を入れ替えて下に移動.
+			} else {
+				down(d, no, size);
+			}
+			// 指定件数が揃った場合は経度1度あたりの距離の下限を更新.
+			if(size == hd.length) {
+				lonBound = GeoLine.getLonLowerBound(srcLat, 1d, hd[0]);
+			}
+		}
+
+		// ヒープの先頭に条件を設定して下に移動.
+		private final void down(double d, int no, int len) {
+			final double[] hd = distance;
+			final int[] hn = lineNo;
+			int p = 0, c;
+			while((c = (p << 1) + 1) < len) {
+				if(c + 1 < len && far(hd[c + 1], hn[c + 1], hd[c], hn[c])) {
+					c ++;
+				}
+				if(!far(hd[c], hn[c], d, no)) {
+					break;
+				}
+				hd[p] = hd[c]; hn[p] = hn[c];
+				p = c;
+			}
+			hd[p] = d; hn[p] = no;
+		}
+
+		// 厳密な距離で近い順にソートされた情報を取得.
+		// (距離(メートル未満切り捨て) << 32 | 行番号).
+		final long[] sortList() {
+			final double[] hd = distance;
+			final int[] hn = lineNo;
+			final long[] ret = new long[size];
+			// 最も遠い条件から順に末尾に設定.
+			for(int len = size - 1; len >= 0; len --) {
+				ret[len] = ((long)hd[0] << 32L) |
+					((long)hn[0] & 0x00000000ffffffffL);
+				down(hd[len], hn[len], len);
+			}
+			return ret;
+		}
+	}
+
+	/**
+	 * 矩形・多角形検索の範囲.
+	 */
+	private static interface GeoShape {
+		/**
+		 * 範囲を覆う矩形の南端の緯度を取得.
+		 * @return double 緯度が返却されます.
+		 */
+		public double getMinLat();
+
+		/**
+		 * 範囲を覆う矩形の西端の経度を取得.
+		 * @return double 経度が返却されます.
+		 */
+		public double getMinLon();
+
+		/**
+		 * 範囲を覆う矩形の北端の緯度を取得.
+		 * @return double 緯度が返却されます.
+		 */
+		public double getMaxLat();
+
+		/**
+		 * 範囲を覆う矩形の東端の経度を取得.
+		 * @return double 経度が返却されます.
+		 */
+		public double getMaxLon();
+
+		/**
+		 * 指定の緯度・経度が範囲内かチェック.
+		 * @param lat 緯度を設定します.
+		 * @param lon 経度を設定します.
+		 * @return boolean trueの場合、範囲内です.
+		 */
+		public boolean contains(double lat, double lon);
+	}
+
+	// 矩形の範囲.
+	private static final class GeoBox implements GeoShape {
+		private final double minLat;
+		private final double minLon;
+		private final double maxLat;
+		private final double maxLon;
+
+		GeoBox(double minLat, double minLon, double maxLat, double maxLon) {
+			this.minLat = minLat;
+			this.minLon = minLon;
+			this.maxLat = maxLat;
+			this.maxLon = maxLon;
+		}
+
+		@Override
+		public double getMinLat() {
+			return minLat;
+		}
+
+		@Override
+		public double getMinLon() {
+			return minLon;
+		}
+
+		@Override
+		public double getMaxLat() {
+			return maxLat;
+		}
+
+		@Override
+		public double getMaxLon() {
+			return maxLon;
+		}
+
+		@Override
+		public boolean contains(double lat, double lon) {
+			return lat >= minLat && lat <= maxLat &&
+				lon >= minLon && lon <= maxLon;
+		}
+	}
+
+	// 多角形の範囲.
+	private static final class GeoPolygon implements GeoShape {
+		private final double[] lat;
+		private final double[] lon;
+		private final double minLat;
+		private final double minLon;
+		private final double maxLat;
+		private final double maxLon;
+
+		GeoPolygon(double[] lat, double[] lon) {
+			double minLat = lat[0], maxLat = lat[0];
+			double minLon = lon[0], maxLon = lon[0];
+			for(int i = 1; i < lat.length; i ++) {
+				minLat = Math.min(minLat, lat[i]);
+				maxLat = Math.max(maxLat, lat[i]);
+				minLon = Math.min(minLon, lon[i]);
+				maxLon = Math.max(maxLon, lon[i]);
+			}
+			this.lat = lat.clone();
+			this.lon = lon.clone();
+			this.minLat = minLat;
+			this.minLon = minLon;
+			this.maxLat = maxLat;
+			this.maxLon = maxLon;
+		}
+
+		@Override
+		public double getMinLat() {
+			return minLat;
+		}
+
+		@Override
+		public double getMinLon() {
+			return minLon;
+		}
+
+		@Override
+		public double getMaxLat() {
+			return maxLat;
+		}
+
+		@Override
+		public double getMaxLon() {
+			return maxLon;
+		}
+
+		// 指定点から東向きの半直線と交差する辺の数が奇数の場合は範囲内.
+		@Override
+		public boolean contains(double lat, double lon) {
+			if(lat < minLat || lat > maxLat || lon < minLon || lon > maxLon) {
+				return false;
+			}
+			final double[] y = this.lat;
+			final double[] x = this.lon;
+			final int len = y.length;
+			boolean ret = false;
+			for(int i = 0, j = len - 1; i < len; j = i ++) {
+				if((y[i] > lat) != (y[j] > lat) &&
+					lon < (x[j] - x[i]) * (lat - y[i]) / (y[j] - y[i]) + x[i]) {
+					ret = !ret;
+				}
+			}
+			return ret;
+		}
+	}
+
+	// 矩形・多角形の範囲内の条件を検索.
+	private static final class ResultShapeSearch
+		implements RimResultGeo {
+		// 行情報(この検索結果専用).
+		private RimRow row;
+		// body情報.
+		private final RimBody body;
+
+		// 緯度の列データ.
+		private final ColumnData latColumn;
+		// 経度の列データ.
+		private final ColumnData lonColumn;
+
+		// 検索範囲.
+		private final GeoShape shape;
+		// 範囲を覆う矩形の中心の緯度.
+		private final double srcLat;
+		// 範囲を覆う矩形の中心の経度.
+		private final double srcLon;
+
+		// インデックス情報.
+		private final IndexElements index;
+		// 検索範囲を覆うキーの範囲群.
+		private final long[] betweenList;
+		// 現在読み込み中の検索範囲のポジション.
+		private int betweenPos;
+		// 現在取得中のIndex位置.
+		private int indexPos;
+		// 現在取得中のIndex終了位置.
+		private int indexEndPos;
+
+		// 現在取得中のIndex要素.
+		private RimIndexElement element;
+		// 取得中Indexの行取得ポジション.
+		private int elementPos;
+
+		// nextGetで取得済み条件.
+		private boolean nextGetFlag;
+		// 今回取得情報.
+		private int nowLineNo;
+		private long nowKey;
+
+		/**
+		 * コンストラクタ.
+		 * @param body RimBodyを設定します.
+		 * @param latColumnNo 緯度の列番号を設定します.
+		 * @param lonColumnNo 経度の列番号を設定します.
+		 * @param codeType インデックスのキー形式を設定します.
+		 * @param index インデックス情報を設定します.
+		 * @param shape 検索範囲を設定します.
+		 */
+		public ResultShapeSearch(
+			RimBody body, int latColumnNo, int lonColumnNo,
+			GeoCodeType codeType, IndexElements index, GeoShape shape) {
+			this.body = body;
+			this.index = index;
+			this.latColumn = body.getColumnData(latColumnNo);
+			this.lonColumn = body.getColumnData(lonColumnNo);
+			this.shape = shape;
+			this.srcLat = (shape.getMinLat() + shape.getMaxLat()) / 2d;
+			this.srcLon = (shape.getMinLon() + shape.getMaxLon()) / 2d;
+			// 検索範囲を覆うキーの範囲群を生成.
+			this.betweenList = codeType.boxCode(
+				shape.getMinLat(), shape.getMinLon(),
+				shape.getMaxLat(), shape.getMaxLon());
+			this.betweenPos = 0;
+			this.indexPos = -1;
+			this.indexEndPos = -1;
+			this.elementPos = -1;
+			this.nowLineNo = -1;
+		}
+
+		// 次の情報を読み込む.
+		private final boolean nextGet() {
+			if(nextGetFlag) {
+				return true;
+			}
+			int rowId;
+			while(true) {
+				// 要素の範囲内の行を検索.
+				if(element != null) {
+					while(++ elementPos < element.getLineLength()) {
+						rowId = element.getLineNo(elementPos);
+						if(shape.contains(latColumn.getDouble(rowId),
+							lonColumn.getDouble(rowId))) {
+							nowLineNo = rowId;
+							nextGetFlag = true;
+							return true;
+						}
+					}
+					element = null;
+					elementPos = -1;
+				}
+				// 今回のキーの範囲内の要素を取得.
+				if(indexPos < indexEndPos) {
+					element = index.get(++ indexPos);
+					nowKey = (Long)element.getValue();
+					continue;
+				}
+				// 全てのキーの範囲を検索済みの場合.
+				if(betweenPos >= betweenList.length) {
+					return false;
+				}
+				// インデックスの開始から終了位置まで取得.
+				indexPos = index.indexGE(betweenList[betweenPos]) - 1;
+				if(indexPos != -2) {
+					indexEndPos = index.indexLE(betweenList[betweenPos + 1]);
+				} else {
+					indexPos = -1;
+					indexEndPos = -1;
+				}
+				betweenPos += 2;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextGet();
+		}
+
+		@Override
+		public int nextRowId() {
+			if(!nextGet()) {
+				return -1;
+			}
+			nextGetFlag = false;
+			return nowLineNo;
 		}
 
 		@Override
 		public RimRow nextRow() {
-			next();
-			return body.getRow(nowElement.rowId);
+			if(nextRowId() == -1) {
+				throw new NoSuchElementException();
+			}
+			return row = body.getRow(row, nowLineNo);
 		}
 
+		// 対象行のキーを返却.
 		@Override
 		public Comparable getValue() {
-			return nowElement.radius;
+			return nowKey;
 		}
 
 		@Override
 		public int getLineNo() {
-			return nowElement.rowId;
+			return nowLineNo;
 		}
 
 		@Override
 		public double getLat() {
-			RimRow row = body.getRow(nowElement.rowId);
-			return row.getDouble(latColumnNo);
+			return latColumn.getDouble(nowLineNo);
 		}
 
 		@Override
 		public double getLon() {
-			RimRow row = body.getRow(nowElement.rowId);
-			return row.getDouble(lonColumnNo);
+			return lonColumn.getDouble(nowLineNo);
 		}
-		
+
+		// 範囲を覆う矩形の中心からの距離を返却.
 		@Override
 		public double getStrictRedius() {
 			return GeoLine.get(srcLat, srcLon, getLat(), getLon());
@@ -0,0 +1,596 @@
+package rim.index;
+
+import java.nio.IntBuffer;
+
+import rim.core.ColumnData;
+import rim.core.ColumnType;
+import rim.core.SearchUtil;
+
+/**
+ * ソート済みのインデックス要素群.
+ *
+ * RimIndexElement の配列で管理する場合と、
+ * キー・行番号をフラットなバッファ(mmap)で管理する場合の
+ * 両方を同じ方法で検索できるようにします.
+ */
+@SuppressWarnings("rawtypes")
+abstract class IndexElements {
+
+	/**
+	 * 要素数を取得.
+	 * @return int 要素数が返却されます.
+	 */
+	public abstract int size();
+
+	/**
+	 * 指定番号の要素を取得.
+	 * @param no 番号を設定します.
+	 * @return RimIndexElement 要素が返却されます.
+	 */
+	public abstract RimIndexElement get(int no);
+
+	/**
+	 * 指定番号の要素を取得.
+	 * 連続して要素を参照する場合に利用します.
+	 * @param no 番号を設定します.
+	 * @param reuse 前回取得した要素を設定します.
+	 *              再利用できる場合は、この要素の内容を
+	 *              指定番号の要素に置き換えて返却します.
+	 * @return RimIndexElement 要素が返却されます.
+	 */
+	public RimIndexElement get(int no, RimIndexElement reuse) {
+		return get(no);
+	}
+
+	/**
+	 * 指定番号の要素の値を取得.
+	 * @param no 番号を設定します.
+	 * @return Comparable 要素の値が返却されます.
+	 */
+	public abstract Comparable getValue(int no);
+
+	/**
+	 * 指定番号の要素と検索条件を比較.
+	 * @param no 番号を設定します.
+	 * @param value 列型に変換済みの検索条件を設定します.
+	 * @return int 要素が小さい場合はマイナス、大きい場合はプラス、
+	 *             一致する場合は0が返却されます.
+	 */
+	protected abstract int compareAt(int no, Comparable value);
+
+	/**
+	 * バイナリサーチによる一致検索.
+	 * @param value 検索要素を設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public int indexEq(Comparable value) {
+		if(value != null) {
+			int low = 0;
+			int high = size() - 1;
+			int mid, cmp;
+			while(low <= high) {
+				mid = (low + high) >>> 1;
+				if((cmp = compareAt(mid, value)) < 0) {
+					low = mid + 1;
+				} else if(cmp > 0) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+		}
+		return -1;
+	}
+
+	// バイナリサーチによる大なり小なりの大まか検索.
+	// SearchUtil.indexBS(true, ...) と同じ結果を返却します.
+	private final int indexBS(Comparable value) {
+		final int len = size();
+		if(value == null || len == 0) {
+			return -1;
+		}
+		int low = 0;
+		int high = len - 1;
+		int mid = -1;
+		int cmp;
+		while(low <= high) {
+			mid = (low + high) >>> 1;
+			if((cmp = compareAt(mid, value)) < 0) {
+				low = mid + 1;
+			} else if(cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		if(compareAt(mid, value) > 0) {
+			return mid;
+		} else if(len <= mid + 1) {
+			return len - 1;
+		}
+		return mid + 1;
+	}
+
+	/**
+	 * バイナリサーチによる大なり[>]検索.
+	 * @param value 検索要素を設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public int indexGT(Comparable value) {
+		int p = indexBS(value);
+		if(p == -1) {
+			return -1;
+		} else if(compareAt(p, value) <= 0) {
+			if(++ p >= size()) {
+				return -1;
+			}
+		}
+		return p;
+	}
+
+	/**
+	 * バイナリサーチによる大なり[>=]検索.
+	 * @param value 検索要素を設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public int indexGE(Comparable value) {
+		int p = indexBS(value);
+		if(p == -1) {
+			return -1;
+		} else if(compareAt(p, value) < 0) {
+			if(++ p >= size()) {
+				return -1;
+			}
+		}
+		return p;
+	}
+
+	/**
+	 * バイナリサーチによる小なり[<]検索.
+	 * @param value 検索要素を設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public int indexLT(Comparable value) {
+		int p = indexBS(value);
+		if(p == -1) {
+			return -1;
+		} else if(compareAt(p, value) >= 0) {
+			if(-- p < 0) {
+				return -1;
+			}
+		}
+		return p;
+	}
+
+	/**
+	 * バイナリサーチによる小なり[<=]検索.
+	 * @param value 検索要素を設定します.
+	 * @return int -1の場合、情報は見つかりませんでした.
+	 */
+	public int indexLE(Comparable value) {
+		int p = indexBS(value);
+		if(p == -1) {
+			return -1;
+		} else if(compareAt(p, value) > 0) {
+			if(-- p < 0) {
+				return -1;
+			}
+		}
+		return p;
+	}
+
+	/**
+	 * RimIndexElement配列のインデックス要素群.
+	 */
+	static final class ArrayElements extends IndexElements {
+		private final RimIndexElement[] list;
+
+		/**
+		 * コンストラクタ.
+		 * @param list ソート済みのRimIndexElement群を設定します.
+		 */
+		ArrayElements(RimIndexElement[] list) {
+			this.list = list;
+		}
+
+		@Override
+		public int size() {
+			return list.length;
+		}
+
+		@Override
+		public RimIndexElement get(int no) {
+			return list[no];
+		}
+
+		@Override
+		public Comparable getValue(int no) {
+			return list[no].getValue();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected int compareAt(int no, Comparable value) {
+			return list[no].getValue().compareTo(value);
+		}
+
+		// 検索条件を要素の列型に１度だけ変換.
+		// 比較毎に RimIndexElement.compareTo で変換しないようにします.
+		private final Comparable convert(Comparable value) {
+			if(value == null || list.length == 0) {
+				return null;
+			}
+			return (Comparable)list[0].getColumnType().convert(value);
+		}
+
+		@Override
+		public int indexEq(Comparable value) {
+			return super.indexEq(convert(value));
+		}
+
+		@Override
+		public int indexGT(Comparable value) {
+			return super.indexGT(convert(value));
+		}
+
+		@Override
+		public int indexGE(Comparable value) {
+			return super.indexGE(convert(value));
+		}
+
+		@Override
+		public int indexLT(Comparable value) {
+			return super.indexLT(convert(value));
+		}
+
+		@Override
+		public int indexLE(Comparable value) {
+			return super.indexLE(convert(value));
+		}
+	}
+
+	/**
+	 * インデックス全体の行番号群.
+	 */
+	static abstract class RowIds {
+
+		/**
+		 * 行番号数を取得.
+		 * @return int 行番号数が返却されます.
+		 */
+		public abstract int size();
+
+		/**
+		 * 指定位置の行番号を取得.
+		 * @param no 位置を設定します.
+		 * @return int 行番号が返却されます.
+		 */
+		public abstract int get(int no);
+
+		/**
+		 * 指定された位置から行番号群を取得.
+		 * @param no 取得開始位置を設定します.
+		 * @param ascFlag 昇順(noから後ろ)で取得する場合は true.
+		 *                降順(noから前)で取得する場合は false.
+		 * @param buf 行番号を格納するバッファを設定します.
+		 * @param off バッファの格納開始位置を設定します.
+		 * @param len 取得件数を設定します.
+		 */
+		public void get(int no, boolean ascFlag, int[] buf, int off, int len) {
+			final int end = off + len;
+			if(ascFlag) {
+				for(int i = off; i < end; i ++) {
+					buf[i] = get(no ++);
+				}
+			} else {
+				for(int i = off; i < end; i ++) {
+					buf[i] = get(no --);
+				}
+			}
+		}
+	}
+
+	/**
+	 * IntBuffer(mmap)で管理された行番号群.
+	 */
+	static final class BufferRowIds extends RowIds {
+		private final IntBuffer rowIds;
+
+		BufferRowIds(IntBuffer rowIds) {
+			this.rowIds = rowIds;
+		}
+
+		@Override
+		public int size() {
+			return rowIds.limit();
+		}
+
+		@Override
+		public int get(int no) {
+			return rowIds.get(no);
+		}
+
+		@Override
+		public void get(int no, boolean ascFlag, int[] buf, int off, int len) {
+			if(ascFlag) {
+				rowIds.get(no, buf, off, len);
+			} else {
+				super.get(no, ascFlag, buf, off, len);
+			}
+		}
+	}
+
+	/**
+	 * フラットなバッファで管理されたインデックス要素群.
+	 *
+	 * キー群は ColumnData で、各キーに対する行番号群は
+	 * rowOffsets(キー数+1) と rowIds で管理します.
+	 * rowIds は mmap の IntBuffer か、ヒープ上でビットパックした
+	 * 行番号群(RimIndexUtil.PackedRowIds)で管理します.
+	 */
+	static final class FlatElements extends IndexElements {
+		// キー群の検索方法.
+		private static final int SEARCH_KEY = 0;
+		private static final int SEARCH_INT = 1;
+		private static final int SEARCH_LONG = 2;
+		private static final int SEARCH_FLOAT = 3;
+		private static final int SEARCH_DOUBLE = 4;
+		private static final int SEARCH_STRING = 5;
+
+		// インデックスの列型.
+		private final ColumnType columnType;
+		// キー群.
+		private final ColumnData keys;
+		// キーが文字列の場合のキー群.
+		private final ColumnData.StringColumn stringKeys;
+		// キー毎の行番号開始位置(キー数+1).
+		private final IntBuffer rowOffsets;
+		// 行番号群.
+		private final RowIds rowIds;
+		// キー群の検索方法.
+		private final int searchType;
+		// プリミティブ配列のキー群(searchTypeに対応).
+		private final int[] intKeys;
+		private final long[] longKeys;
+		private final float[] floatKeys;
+		private final double[] doubleKeys;
+
+		/**
+		 * コンストラクタ.
+		 * @param columnType インデックスの列型を設定します.
+		 * @param keys ソート済みのキー群を設定します.
+		 * @param rowOffsets キー毎の行番号開始位置(キー数+1)を設定します.
+		 * @param rowIds 行番号群を設定します.
+		 */
+		FlatElements(ColumnType columnType, ColumnData keys,
+			IntBuffer rowOffsets, IntBuffer rowIds) {
+			this(columnType, keys, rowOffsets, new BufferRowIds(rowIds));
+		}
+
+		/**
+		 * コンストラクタ.
+		 * @param columnType インデックスの列型を設定します.
+		 * @param keys ソート済みのキー群を設定します.
+		 * @param rowOffsets キー毎の行番号開始位置(キー数+1)を設定します.
+		 * @param rowIds 行番号群を設定します.
+		 */
+		FlatElements(ColumnType columnType, ColumnData keys,
+			IntBuffer rowOffsets, RowIds rowIds) {
+			this.columnType = columnType;
+			this.keys = keys;
+			this.stringKeys = (keys instanceof ColumnData.StringColumn) ?
+				(ColumnData.StringColumn)keys : null;
+			this.rowOffsets = rowOffsets;
+			this.rowIds = rowIds;
+			this.intKeys = (keys instanceof ColumnData.IntegerColumn) ?
+				((ColumnData.IntegerColumn)keys).getValues() : null;
+			this.longKeys = (keys instanceof ColumnData.LongColumn) ?
+				((ColumnData.LongColumn)keys).getValues() :
+				(keys instanceof ColumnData.DateColumn) ?
+					((ColumnData.DateColumn)keys).getValues() : null;
+			this.floatKeys = (keys instanceof ColumnData.FloatColumn) ?
+				((ColumnData.FloatColumn)keys).getValues() : null;
+			this.doubleKeys = (keys instanceof ColumnData.DoubleColumn) ?
+				((ColumnData.DoubleColumn)keys).getValues() : null;
+			if(intKeys != null) {
+				searchType = SEARCH_INT;
+			} else if(longKeys != null) {
+				searchType = SEARCH_LONG;
+			} else if(floatKeys != null) {
+				searchType = SEARCH_FLOAT;
+			} else if(doubleKeys != null) {
+				searchType = SEARCH_DOUBLE;
+			} else if(stringKeys != null) {
+				searchType = SEARCH_STRING;
+			} else {
+				searchType = SEARCH_KEY;
+			}
+		}
+
+		@Override
+		public int size() {
+			return keys.getLength();
+		}
+
+		@Override
+		public RimIndexElement get(int no) {
+			return new FlatElement(this).set(no);
+		}
+
+		@Override
+		public RimIndexElement get(int no, RimIndexElement reuse) {
+			if(reuse instanceof FlatElement &&
+				((FlatElement)reuse).elements == this) {
+				return ((FlatElement)reuse).set(no);
+			}
+			return get(no);
+		}
+
+		@Override
+		public Comparable getValue(int no) {
+			return (Comparable)keys.get(no);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected int compareAt(int no, Comparable value) {
+			if(stringKeys != null) {
+				return stringKeys.compareString(no, (String)value);
+			}
+			return Long.compare(keys.getKey(no), keys.toKey(value));
+		}
+
+		// 指定条件以上となる最初の位置を取得.
+		// 検索条件は１度だけ変換して、列型毎のプリミティブな比較で検索します.
+		private final int lowerBound(Comparable value) {
+			final int len = keys.getLength();
+			switch(searchType) {
+			case SEARCH_INT:
+				return SearchUtil.lowerBound(intKeys, len, keys.toKey(value));
+			case SEARCH_LONG:
+				return SearchUtil.lowerBound(longKeys, len, keys.toKey(value));
+			case SEARCH_FLOAT:
+				return SearchUtil.lowerBound(floatKeys, len, keys.toKey(value));
+			case SEARCH_DOUBLE:
+				return SearchUtil.lowerBound(doubleKeys, len, keys.toKey(value));
+			case SEARCH_STRING:
+				return SearchUtil.lowerBound(stringKeys,
+					ColumnData.StringColumn.toBinary((String)value));
+			}
+			return SearchUtil.lowerBound(keys, keys.toKey(value));
+		}
+
+		// 指定条件より大きい最初の位置を取得.
+		// 検索条件は１度だけ変換して、列型毎のプリミティブな比較で検索します.
+		private final int upperBound(Comparable value) {
+			final int len = keys.getLength();
+			switch(searchType) {
+			case SEARCH_INT:
+				return SearchUtil.upperBound(intKeys, len, keys.toKey(value));
+			case SEARCH_LONG:
+				return SearchUtil.upperBound(longKeys, len, keys.toKey(value));
+			case SEARCH_FLOAT:
+				return SearchUtil.upperBound(floatKeys, len, keys.toKey(value));
+			case SEARCH_DOUBLE:
+				return SearchUtil.upperBound(doubleKeys, len, keys.toKey(value));
+			case SEARCH_STRING:
+				return SearchUtil.upperBound(stringKeys,
+					ColumnData.StringColumn.toBinary((String)value));
+			}
+			return SearchUtil.upperBound(keys, keys.toKey(value));
+		}
+
+		@Override
+		public int indexEq(Comparable value) {
+			if(value == null) {
+				return -1;
+			}
+			final int len = keys.getLength();
+			if(searchType == SEARCH_STRING) {
+				final byte[] bin = ColumnData.StringColumn.toBinary((String)value);
+				final int p = SearchUtil.lowerBound(stringKeys, bin);
+				return p < len && stringKeys.equalsBinary(p, bin) ? p : -1;
+			}
+			final int p = lowerBound(value);
+			return p < len && keys.getKey(p) == keys.toKey(value) ? p : -1;
+		}
+
+		@Override
+		public int indexGT(Comparable value) {
+			if(value == null) {
+				return -1;
+			}
+			final int p = upperBound(value);
+			return p < keys.getLength() ? p : -1;
+		}
+
+		@Override
+		public int indexGE(Comparable value) {
+			if(value == null) {
+				return -1;
+			}
+			final int p = lowerBound(value);
+			return p < keys.getLength() ? p : -1;
+		}
+
+		@Override
+		public int indexLT(Comparable value) {
+			if(value == null) {
+				return -1;
+			}
+			return lowerBound(value) - 1;
+		}
+
+		@Override
+		public int indexLE(Comparable value) {
+			if(value == null) {
+				return -1;
+			}
+			return upperBound(value) - 1;
+		}
+	}
+
+	/**
+	 * フラットなバッファを参照する１つのインデックス要素.
+	 * 要素の値は参照された時に取得します.
+	 */
+	private static final class FlatElement implements RimIndexElement {
+		private final FlatElements elements;
+		private int no;
+		private int offset;
+		private int length;
+		private Comparable value;
+
+		FlatElement(FlatElements elements) {
+			this.elements = elements;
+		}
+
+		// 参照する要素番号を設定.
+		final FlatElement set(int no) {
+			final IntBuffer rowOffsets = elements.rowOffsets;
+			this.no = no;
+			this.offset = rowOffsets.get(no);
+			this.length = rowOffsets.get(no + 1) - offset;
+			this.value = null;
+			return this;
+		}
+
+		@Override
+		public ColumnType getColumnType() {
+			return elements.columnType;
+		}
+
+		@Override
+		public Comparable getValue() {
+			if(value == null) {
+				value = elements.getValue(no);
+			}
+			return value;
+		}
+
+		@Override
+		public int getLineLength() {
+			return length;
+		}
+
+		@Override
+		public int getLineNo(int no) {
+			return elements.rowIds.get(offset + no);
+		}
+
+		@Override
+		public void getLineNos(int no, boolean ascFlag, int[] buf, int off, int len) {
+			elements.rowIds.get(offset + no, ascFlag, buf, off, len);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public int compareTo(Object o) {
+			if(o instanceof RimIndexElement) {
+				return getValue().compareTo(((RimIndexElement)o).getValue());
+			}
+			return getValue().compareTo(
+				(Comparable)elements.columnType.convert(o));
+		}
+	}
+}
@@ -1,14 +1,16 @@
 package rim.index;
 
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.NoSuchElementException;
 
 import rim.RimBody;
 import rim.RimResultNgram;
 import rim.RimRow;
 import rim.core.ColumnType;
+import rim.core.RoaringFlags;
 import rim.core.SearchUtil;
 import rim.exception.RimException;
-import rim.util.IndexKeyList;
 import rim.util.ObjectList;
 
 /**
@@ -34,6 +36,14 @@ public class NgramIndex {
 	
 	// fixしたインデックス情報.
 	private Ngram[] fixIndex;
+	// mmapでfixした場合のNgram文字情報群.
+	private LongBuffer flatKeys;
+	// mmapでfixした場合のNgram毎の詳細開始位置(Ngram数+1).
+	private IntBuffer flatRowOffsets;
+	// mmapでfixした場合の行番号群.
+	private IntBuffer flatRowIds;
+	// mmapでfixした場合の文字開始位置群.
+	private IntBuffer flatPositions;
 	// インデックス総数.
 	private int indexSize;
 	
@@ -99,6 +109,32 @@ public class NgramIndex {
 		fixIndex = index.toArray(Ngram.class);
 		index = null;
 	}
+	
+	/**
+	 * フラットなバッファでインデックス情報を設定してfixします.
+	 * mmapでロードする場合に利用します.
+	 * @param keys ソート済みのNgram文字情報群を設定します.
+	 * @param rowOffsets Ngram毎の詳細開始位置(Ngram数+1)を設定します.
+	 * @param rowIds 行番号群を設定します.
+	 * @param positions 文字開始位置群を設定します.
+	 */
+	public void fix(LongBuffer keys, IntBuffer rowOffsets, IntBuffer rowIds,
+		IntBuffer positions) {
+		if(isFix()) {
+			throw new RimException("Ngram index addition is complete.");
+		}
+		indexSize = rowIds.limit();
+		if(planIndexSize != indexSize) {
+			throw new RimException(
+				"It does not match the expected number of ngram index rows(" +
+				planIndexSize + "/" + indexSize + ")");
+		}
+		flatKeys = keys;
+		flatRowOffsets = rowOffsets;
+		flatRowIds = rowIds;
+		flatPositions = positions;
+		index = null;
+	}
 
 	/**
 	 * 追加処理がFixしているか取得.
@@ -206,25 +242,59 @@ public class NgramIndex {
 		return new NgramResult(this, ascFlag, lineExclusion, value, off, len);
 	}
 	
+	// ワードを設定して１つのNgramを取得.
+	private final Ngram getNgram(final long value) {
+		// 配列でfixしている場合.
+		if(fixIndex != null) {
+			final int p = SearchUtil.indexEq(fixIndex, value);
+			if(p == -1) {
+				return null;
+			}
+			return fixIndex[p];
+		}
+		// mmapでfixしている場合.
+		int low = 0;
+		int high = flatKeys.limit() - 1;
+		int mid;
+		long v;
+		while(low <= high) {
+			mid = (low + high) >>> 1;
+			if((v = flatKeys.get(mid)) < value) {
+				low = mid + 1;
+			} else if(v > value) {
+				high = mid - 1;
+			} else {
+				final int off = flatRowOffsets.get(mid);
+				return new FlatNgram(ngramLength, v, flatRowIds, flatPositions,
+					off, flatRowOffsets.get(mid + 1) - off);
+			}
+		}
+		return null;
+	}
+	
 	/**
 	 * NgramResult.
 	 */
 	@SuppressWarnings("rawtypes")
 	private static final class NgramResult implements RimResultNgram {
+		// 行情報(この検索結果専用).
+		private RimRow row;
 		// RimBody.
 		private RimBody body;
 		// Bodyに対する列番号.
 		private int columnNo;
 		
 		// インデックス情報.
-		private Ngram[] index;
+		private NgramIndex index;
 		// 昇順フラグ.
 		private boolean ascFlag;
 		
-		// ワードリスト.
-		private long[] wordList;
 		// ワードリスト長.
 		private int wordLength;
+		// ワード毎のNgram.
+		private Ngram[] ngramList;
+		// 検索TopのNgramのワード位置.
+		private int topNo;
 		// 検索TopのNgram.
 		private Ngram topNgram;
 		// TopのNgramに対する詳細位置数.
@@ -242,7 +312,7 @@ public class NgramIndex {
 		private int[] result;
 		
 		// 取得同一行情報管理.
-		private IndexKeyList acquiredRowIdList;
+		private RoaringFlags acquiredRowIds;
 		
 		/**
 		 * コンストラクタ.
@@ -265,50 +335,57 @@ public class NgramIndex {
 			}
 			int detailLength = 0;
 			int detailPos = -2;
+			int topNo = 0;
 			Ngram topNgram = null;
+			final Ngram[] ngramList = new Ngram[Math.max(0, wordLength)];
 			// 検索TopのNgramを取得.
 			if(wordLength > 0) {
-				// TopNgramを取得.
-				topNgram = getNgram(index.fixIndex, wordList[0]);
+				// ワード毎のNgramを取得して、詳細件数が最も少ない
+				// NgramをTopNgramとする.
+				int n;
+				for(int i = 0; i < wordLength; i ++) {
+					// 1つでも存在しない場合は検索不一致.
+					if((ngramList[i] = index.getNgram(wordList[i])) == null) {
+						topNgram = null;
+						break;
+					}
+					n = ngramList[i].getDetailLength();
+					if(topNgram == null || n < detailLength) {
+						topNgram = ngramList[i];
+						topNo = i;
+						detailLength = n;
+					}
+				}
 				if(topNgram != null) {
-					// Detail長を取得.
-					detailLength = topNgram.getDetailLength();
 					// 開始位置を設定.
 					detailPos = (ascFlag) ? -1 : detailLength;
+				} else {
+					detailLength = 0;
 				}
 			}
 			
 			this.ascFlag = ascFlag;
 			this.body = index.body;
 			this.columnNo = index.columnNo;
-			this.index = index.fixIndex;
+			this.index = index;
 			this.ngramLength = index.ngramLength;
 			
 			this.wordLength = wordLength;
-			this.wordList = wordList;
+			this.ngramList = ngramList;
+			this.topNo = topNo;
 			this.topNgram = topNgram;
 			this.detailLength = detailLength;
 			this.detailPos = detailPos;
 			this.detailNgram = new DetailNgram4_4();
 			this.result = new int[] {-1, -1};
 			
-			this.acquiredRowIdList = lineExclusion ?
-				new IndexKeyList() : null;
-		}
-		
-		// ワードを設定して１つのNgramを取得.
-		private static final Ngram getNgram(final Ngram[] index, final long value) {
-			final int p = SearchUtil.indexEq(index, value);
-			if(p == -1) {
-				return null;
-			}
-			return index[p];
+			this.acquiredRowIds = lineExclusion ?
+				new RoaringFlags(index.body.getRowLength()) : null;
 		}
 		
 		// TopNgramの詳細番号を設定して、その条件が指定ワード一致する
 		// 内容かチェックし、一致する場合は行番号を返却.
 		private final boolean oneSearch(final int[] out, final int no) {
-			Ngram ngram;
 			int p, rowId, wordPos;
 			
 			// 指定された詳細番号に対する行番号とワード位置を取得.
@@ -317,22 +394,24 @@ public class NgramIndex {
 				return false;
 			}
 			rowId = topDetail.getRowId();
-			wordPos = topDetail.getPosition();
+			// TopNgramのワード位置から検索ワードの開始位置を求める.
+			wordPos = topDetail.getPosition() - topNo;
 			topDetail = null;
+			if(wordPos < 0) {
+				return false;
+			}
 			
-			// ２番目以降のワードで行番号とワード位置に一致する
+			// Top以外のワードで行番号とワード位置に一致する
 			// 条件をチェックして、全ワードが一致する場合は
 			// 行番号を返却する.
-			for(int i = 1; i < wordLength; i ++) {
-				// 指定ワードのNgramが存在するかチェック.
-				if((ngram = getNgram(index, wordList[i])) == null) {
-					// 見つからない場合は検索不一致.
-					return false;
+			for(int i = 0; i < wordLength; i ++) {
+				if(i == topNo) {
+					continue;
 				}
-				// 存在する場合、詳細条件を設定して検索.
+				// 詳細条件を設定して検索.
 				detailNgram.set(rowId, wordPos + i);
 				// 見つからない場合は検索不一致.
-				p = SearchUtil.indexEq(ngram.getDetails(), detailNgram);
+				p = ngramList[i].searchDetail(detailNgram);
 				if(p == -1) {
 					return false;
 				}
@@ -357,16 +436,16 @@ public class NgramIndex {
 				while(true) {
 					if(oneSearch(result, ++ detailPos)) {
 						// 同一行情報の場合.
-						if(acquiredRowIdList != null &&
-							acquiredRowIdList.add(result[0])) {
+						if(acquiredRowIds != null &&
+							!acquiredRowIds.add(result[0])) {
 							continue;
 						}
 						nextGetFlag = true;
 						return true;
 					// データの終端の場合.
 					} else if(detailPos >= detailLength) {
-						if(acquiredRowIdList != null) {
-							acquiredRowIdList.clear();
+						if(acquiredRowIds != null) {
+							acquiredRowIds.clear();
 						}
 						topNgram = null;
 						return false;
@@ -377,16 +456,16 @@ public class NgramIndex {
 				while(true) {
 					if(oneSearch(result, -- detailPos)) {
 						// 同一行情報の場合.
-						if(acquiredRowIdList != null &&
-							acquiredRowIdList.add(result[0])) {
+						if(acquiredRowIds != null &&
+							!acquiredRowIds.add(result[0])) {
 							continue;
 						}
 						nextGetFlag = true;
 						return true;
 					// データの終端の場合.
 					} else if(detailPos < 0) {
-						if(acquiredRowIdList != null) {
-							acquiredRowIdList.clear();
+						if(acquiredRowIds != null) {
+							acquiredRowIds.clear();
 						}
 						topNgram = null;
 						return false;
@@ -401,9 +480,9 @@ public class NgramIndex {
 		}
 
 		@Override
-		public Integer next() {
+		public int nextRowId() {
 			if(!nextGet()) {
-				throw new NoSuchElementException();
+				return -1;
 			}
 			nextGetFlag = false;
 			return result[0];
@@ -411,8 +490,10 @@ public class NgramIndex {
 
 		@Override
 		public RimRow nextRow() {
-			next();
-			return body.getRow(result[0]);
+			if(nextRowId() == -1) {
+				throw new NoSuchElementException();
+			}
+			return row = body.getRow(row, result[0]);
 		}
 
 		@Override
@@ -422,8 +503,7 @@ public class NgramIndex {
 			} else if(result[0] == -1) {
 				return null;
 			}
-			RimRow row = body.getRow(result[0]);
-			return row.getString(columnNo);
+			return (Comparable)body.getColumnData(columnNo).get(result[0]);
 		}
 
 		@Override
@@ -444,7 +524,7 @@ public class NgramIndex {
 		
 		@Override
 		public boolean isAcquiredLine() {
-			return acquiredRowIdList == null;
+			return acquiredRowIds == null;
 		}
 		
 		@Override
@@ -504,6 +584,15 @@ public class NgramIndex {
 		 */
 		public DetailNgram[] getDetails();
 		
+		/**
+		 * 詳細条件に一致する項番を検索.
+		 * @param detail 検索する詳細条件を設定します.
+		 * @return int -1の場合、情報は見つかりませんでした.
+		 */
+		default int searchDetail(DetailNgram detail) {
+			return SearchUtil.indexEq(getDetails(), detail);
+		}
+		
 		@Override
 		default int compareTo(Object value) {
 			long r;
@@ -620,6 +709,91 @@ public class NgramIndex {
 		}
 	}
 	
+	// フラットなバッファ(mmap)を参照するNgram.
+	private static final class FlatNgram implements Ngram {
+		private final int ngramLength;
+		private final long value;
+		private final IntBuffer rowIds;
+		private final IntBuffer positions;
+		private final int offset;
+		private final int length;
+		
+		/**
+		 * コンストラクタ.
+		 * @param ngramLength Ngram長を設定します.
+		 * @param value 文字情報を設定します.
+		 * @param rowIds 行番号群を設定します.
+		 * @param positions 文字開始位置群を設定します.
+		 * @param offset このNgramの詳細開始位置を設定します.
+		 * @param length このNgramの詳細件数を設定します.
+		 */
+		public FlatNgram(int ngramLength, long value, IntBuffer rowIds,
+			IntBuffer positions, int offset, int length) {
+			this.ngramLength = ngramLength;
+			this.value = value;
+			this.rowIds = rowIds;
+			this.positions = positions;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		@Override
+		public int getNgramLength() {
+			return ngramLength;
+		}
+
+		@Override
+		public long getValue() {
+			return value;
+		}
+		
+		@Override
+		public DetailNgram getDetail(int no) {
+			if(no < 0 || no >= length) {
+				return null;
+			}
+			return new DetailNgram4_4().set(
+				rowIds.get(offset + no), positions.get(offset + no));
+		}
+		
+		@Override
+		public int getDetailLength() {
+			return length;
+		}
+
+		@Override
+		public DetailNgram[] getDetails() {
+			final DetailNgram[] ret = new DetailNgram[length];
+			for(int i = 0; i < length; i ++) {
+				ret[i] = getDetail(i);
+			}
+			return ret;
+		}
+		
+		@Override
+		public int searchDetail(DetailNgram detail) {
+			final int rowId = detail.getRowId();
+			final int position = detail.getPosition();
+			int low = 0;
+			int high = length - 1;
+			int mid, cmp;
+			while(low <= high) {
+				mid = (low + high) >>> 1;
+				if((cmp = rowIds.get(offset + mid) - rowId) == 0) {
+					cmp = positions.get(offset + mid) - position;
+				}
+				if(cmp < 0) {
+					low = mid + 1;
+				} else if(cmp > 0) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -1;
+		}
+	}
+	
 	/**
 	 * DetailNgramを生成.
 	 * @param rowId 行番号を設定します.
@@ -31,4 +31,15 @@ public interface RimIndexElement extends Comparable {
 	 * @return int 行番号が返却されます.
 	 */
 	public int getLineNo(int no);
+
+	/**
+	 * 指定された位置から行番号群を取得.
+	 * @param no 取得開始項番を設定します.
+	 * @param ascFlag 昇順(noから後ろ)で取得する場合は true.
+	 *                降順(noから前)で取得する場合は false.
+	 * @param buf 行番号を格納するバッファを設定します.
+	 * @param off バッファの格納開始位置を設定します.
+	 * @param len 取得件数を設定します.
+	 */
+	public void getLineNos(int no, boolean ascFlag, int[] buf, int off, int len);
 }
@@ -9,6 +9,9 @@ import rim.core.ColumnType;
 class RimIndexUtil {
 	private RimIndexUtil() {}
 	
+	// ビットパックした行番号群で管理する最小の行番号数.
+	private static final int PACKED_MIN_LENGTH = 16;
+	
 	/**
 	 * Bodyの行数に対するバイト数を取得します.
 	 * @param len 行数を設定します.
@@ -35,6 +38,14 @@ class RimIndexUtil {
 	public static final RimIndexElement createRimIndexElement(
 		int indexByte, ColumnType columnType, Comparable value,
 		int[] rowIds, int len) {
+		// 行番号群をビットパックした方が小さくなる場合.
+		if(len >= PACKED_MIN_LENGTH) {
+			final RimIndexElement ret = RimIndexElementPacked.create(
+				indexByte, columnType, value, rowIds, len);
+			if(ret != null) {
+				return ret;
+			}
+		}
 		switch(indexByte) {
 		case 1:
 			return new RimIndexElement1(columnType, value, rowIds, len);
@@ -85,11 +96,28 @@ class RimIndexUtil {
 			return rows[no] & 0x000000ff;
 		}
 		
+		@Override
+		public void getLineNos(int no, boolean ascFlag, int[] buf, int off, int len) {
+			final int end = off + len;
+			if(ascFlag) {
+				for(int i = off; i < end; i ++) {
+					buf[i] = rows[no ++] & 0x000000ff;
+				}
+			} else {
+				for(int i = off; i < end; i ++) {
+					buf[i] = rows[no --] & 0x000000ff;
+				}
+			}
+		}
+		
 		@Override
 		public int compareTo(Object o) {
 			if(o instanceof RimIndexElement1) {
 				return value.compareTo(
 					((RimIndexElement1)o).value);
+			} else if(o instanceof RimIndexElement) {
+				return value.compareTo(
+					((RimIndexElement)o).getValue());
 			} else {
 				return value.compareTo(
 					(Comparable)getColumnType().convert(o));
@@ -136,11 +164,28 @@ class RimIndexUtil {
 			return rows[no] & 0x0000ffff;
 		}
 		
+		@Override
+		public void getLineNos(int no, boolean ascFlag, int[] buf, int off, int len) {
+			final int end = off + len;
+			if(ascFlag) {
+				for(int i = off; i < end; i ++) {
+					buf[i] = rows[no ++] & 0x0000ffff;
+				}
+			} else {
+				for(int i = off; i < end; i ++) {
+					buf[i] = rows[no --] & 0x0000ffff;
+				}
+			}
+		}
+		
 		@Override
 		public int compareTo(Object o) {
 			if(o instanceof RimIndexElement2) {
 				return value.compareTo(
 					((RimIndexElement2)o).value);
+			} else if(o instanceof RimIndexElement) {
+				return value.compareTo(
+					((RimIndexElement)o).getValue());
 			} else {
 				return value.compareTo(
 					(Comparable)getColumnType().convert(o));
@@ -185,11 +230,26 @@ class RimIndexUtil {
 			return rows[no];
 		}
 		
+		@Override
+		public void getLineNos(int no, boolean ascFlag, int[] buf, int off, int len) {
+			if(ascFlag) {
+				System.arraycopy(rows, no, buf, off, len);
+			} else {
+				final int end = off + len;
+				for(int i = off; i < end; i ++) {
+					buf[i] = rows[no --];
+				}
+			}
+		}
+		
 		@Override
 		public int compareTo(Object o) {
 			if(o instanceof RimIndexElement4) {
 				return value.compareTo(
 					((RimIndexElement4)o).value);
+			} else if(o instanceof RimIndexElement) {
+				return value.compareTo(
+					((RimIndexElement)o).getValue());
 			} else {
 				return value.compareTo(
 					(Comparable)getColumnType().convert(o));
@@ -197,4 +257,207 @@ class RimIndexUtil {
 		}
 	}
 
+	/**
+	 * 行番号群をビットパックしたインデックス要素.
+	 */
+	protected static final class RimIndexElementPacked implements RimIndexElement {
+		private ColumnType columnType;
+		private Comparable value;
+		// ビットパックされた行番号群.
+		private final PackedRowIds rows;
+		
+		private RimIndexElementPacked(ColumnType columnType, Comparable value,
+			PackedRowIds rows) {
+			this.columnType = columnType;
+			this.value = value;
+			this.rows = rows;
+		}
+		
+		/**
+		 * インデックス要素を作成.
+		 * @param indexByte 行番号が格納できる最低限のバイト数を設定します.
+		 * @param columnType 行型を設定します.
+		 * @param value 要素を設定します.
+		 * @param list 行Id群を設定します.
+		 * @param len 有効な長さを設定します.
+		 * @return RimIndexElementPacked ビットパックしても小さくならない
+		 *                               場合は null が返却されます.
+		 */
+		public static final RimIndexElementPacked create(int indexByte,
+			ColumnType columnType, Comparable value, int[] list, int len) {
+			final PackedRowIds rows = PackedRowIds.create(
+				indexByte, list, 0, len);
+			return rows == null ? null :
+				new RimIndexElementPacked(columnType, value, rows);
+		}
+		
+		@Override
+		public ColumnType getColumnType() {
+			return columnType;
+		}
+
+		@Override
+		public Comparable getValue() {
+			return value;
+		}
+
+		@Override
+		public int getLineLength() {
+			return rows.size();
+		}
+
+		@Override
+		public int getLineNo(int no) {
+			return rows.get(no);
+		}
+		
+		@Override
+		public void getLineNos(int no, boolean ascFlag, int[] buf, int off, int len) {
+			rows.get(no, ascFlag, buf, off, len);
+		}
+		
+		@Override
+		public int compareTo(Object o) {
+			if(o instanceof RimIndexElementPacked) {
+				return value.compareTo(
+					((RimIndexElementPacked)o).value);
+			} else if(o instanceof RimIndexElement) {
+				return value.compareTo(
+					((RimIndexElement)o).getValue());
+			} else {
+				return value.compareTo(
+					(Comparable)getColumnType().convert(o));
+			}
+		}
+	}
+	
+	/**
+	 * ブロック毎にビットパックした行番号群.
+	 *
+	 * 行番号群を BLOCK_SIZE 件毎のブロックに分けて、ブロック内の最小行番号と
+	 * ブロック内の最大値が収まるビット長で差分を詰めて管理します.
+	 * 差分はブロックの最小行番号からの値なので、任意の位置の行番号を
+	 * 前から順に復元する事なく取得できます.
+	 * キー毎に昇順の行番号群を連結したインデックス全体の行番号群(CSR)も
+	 * そのまま管理できます.
+	 */
+	protected static final class PackedRowIds extends IndexElements.RowIds {
+		// ブロック内の行番号数のビットシフト値.
+		private static final int BLOCK_SHIFT = 7;
+		// ブロック内の行番号数.
+		private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+		// ブロック内の位置を取得するマスク.
+		private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+		
+		// 行番号数.
+		private final int length;
+		// ブロック毎の最小行番号.
+		private final int[] bases;
+		// ブロック毎の差分のビット長.
+		private final byte[] bits;
+		// ブロック毎のビットパック開始位置(long単位).
+		private final int[] offsets;
+		// ビットパックされた差分群.
+		private final long[] data;
+		
+		private PackedRowIds(int length, int[] bases, byte[] bits,
+			int[] offsets, long[] data) {
+			this.length = length;
+			this.bases = bases;
+			this.bits = bits;
+			this.offsets = offsets;
+			this.data = data;
+		}
+		
+		/**
+		 * ビットパックした行番号群を作成.
+		 * @param rowByte ビットパックしない場合の１行番号のバイト数を設定します.
+		 * @param list 行番号群を設定します.
+		 * @param off 行番号群の開始位置を設定します.
+		 * @param len 行番号数を設定します.
+		 * @return PackedRowIds ビットパックしても小さくならない
+		 *                      場合は null が返却されます.
+		 */
+		public static final PackedRowIds create(int rowByte,
+			int[] list, int off, int len) {
+			int i, b, start, end, bitLen, min, max;
+			final int blockLen = (len + BLOCK_MASK) >> BLOCK_SHIFT;
+			final int[] bases = new int[blockLen];
+			final byte[] bits = new byte[blockLen];
+			final int[] offsets = new int[blockLen];
+			// ブロック毎の最小行番号・ビット長とビットパック開始位置を取得.
+			long allBits = 0L;
+			for(b = 0; b < blockLen; b ++) {
+				start = off + (b << BLOCK_SHIFT);
+				end = Math.min(off + len, start + BLOCK_SIZE);
+				min = max = list[start];
+				for(i = start + 1; i < end; i ++) {
+					if(list[i] < min) {
+						min = list[i];
+					} else if(list[i] > max) {
+						max = list[i];
+					}
+				}
+				bases[b] = min;
+				bitLen = 32 - Integer.numberOfLeadingZeros(max - min);
+				bits[b] = (byte)bitLen;
+				offsets[b] = (int)((allBits + 63L) >>> 6L);
+				allBits = ((long)offsets[b] << 6L) + (long)bitLen * (end - start);
+			}
+			final int dataLen = (int)((allBits + 63L) >>> 6L);
+			// ビットパックしても小さくならない場合.
+			if(((long)dataLen << 3L) + (long)blockLen * 9L >=
+				(long)rowByte * len) {
+				return null;
+			}
+			// ブロックの最小行番号からの差分をビットパック.
+			int bitPos, w, sh;
+			long v;
+			final long[] data = new long[dataLen];
+			for(b = 0; b < blockLen; b ++) {
+				if((bitLen = bits[b]) == 0) {
+					continue;
+				}
+				start = off + (b << BLOCK_SHIFT);
+				end = Math.min(off + len, start + BLOCK_SIZE);
+				bitPos = 0;
+				for(i = start; i < end; i ++) {
+					v = (long)(list[i] - bases[b]);
+					w = offsets[b] + (bitPos >>> 6);
+					sh = bitPos & 63;
+					data[w] |= v << sh;
+					if(sh + bitLen > 64) {
+						data[w + 1] |= v >>> (64 - sh);
+					}
+					bitPos += bitLen;
+				}
+			}
+			return new PackedRowIds(len, bases, bits, offsets, data);
+		}
+		
+		@Override
+		public int size() {
+			return length;
+		}
+
+		@Override
+		public int get(int no) {
+			if(no < 0 || no >= length) {
+				throw new ArrayIndexOutOfBoundsException(no);
+			}
+			final int b = no >>> BLOCK_SHIFT;
+			final int bitLen = bits[b];
+			if(bitLen == 0) {
+				return bases[b];
+			}
+			final int bitPos = (no & BLOCK_MASK) * bitLen;
+			final int w = offsets[b] + (bitPos >>> 6);
+			final int sh = bitPos & 63;
+			long v = data[w] >>> sh;
+			if(sh + bitLen > 64) {
+				v |= data[w + 1] << (64 - sh);
+			}
+			return bases[b] + (int)(v & ((1L << bitLen) - 1L));
+		}
+	}
 }